@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures creating a child registry, as is done for each project, and looking up services from it and from its parent.
+ */
+@Fork(2)
+@Warmup(iterations = 10)
+@State(Scope.Benchmark)
+public class DefaultServiceRegistryBenchmark {
+
+    private DefaultServiceRegistry parent;
+    private DefaultServiceRegistry child;
+
+    @Setup(Level.Iteration)
+    public void createRegistries() {
+        parent = new DefaultServiceRegistry();
+        parent.addProvider(new ParentServices());
+        child = new DefaultServiceRegistry(parent);
+        child.addProvider(new ChildServices());
+    }
+
+    @Benchmark
+    public void createChildRegistryAndLookupService(Blackhole bh) {
+        DefaultServiceRegistry registry = new DefaultServiceRegistry(parent);
+        registry.addProvider(new ChildServices());
+        bh.consume(registry.get(ChildService.class));
+    }
+
+    @Benchmark
+    public void lookupOwnService(Blackhole bh) {
+        bh.consume(child.get(ChildService.class));
+    }
+
+    @Benchmark
+    public void lookupServiceBySupertype(Blackhole bh) {
+        bh.consume(child.get(Runnable.class));
+    }
+
+    @Benchmark
+    public void lookupParentService(Blackhole bh) {
+        bh.consume(child.get(ParentService.class));
+    }
+
+    public static class ParentServices {
+        public ParentService createParentService() {
+            return new ParentService();
+        }
+
+        public OtherParentService createOtherParentService(ParentService parentService) {
+            return new OtherParentService(parentService);
+        }
+    }
+
+    public static class ChildServices {
+        public ChildService createChildService(ParentService parentService, OtherParentService otherParentService) {
+            return new ChildService(parentService, otherParentService);
+        }
+
+        public ChildTask createChildTask(ChildService childService) {
+            return new ChildTask(childService);
+        }
+    }
+
+    public static class ParentService {
+    }
+
+    public static class OtherParentService {
+        final ParentService parentService;
+
+        public OtherParentService(ParentService parentService) {
+            this.parentService = parentService;
+        }
+    }
+
+    public static class ChildService {
+        final ParentService parentService;
+        final OtherParentService otherParentService;
+
+        public ChildService(ParentService parentService, OtherParentService otherParentService) {
+            this.parentService = parentService;
+            this.otherParentService = otherParentService;
+        }
+    }
+
+    public static class ChildTask implements Runnable {
+        final ChildService childService;
+
+        public ChildTask(ChildService childService) {
+            this.childService = childService;
+        }
+
+        @Override
+        public void run() {
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.classloader;
+
+import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.hash.HashCode;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Set;
+
+/**
+ * A {@link VisitableURLClassLoader} that knows which packages its classpath contains, so that it can reject requests for classes and resources in other packages
+ * without searching each of its jars. This is useful for a class loader that is a shared parent of other loaders, as every class loaded by the children is first
+ * requested from the parent.
+ */
+public class PackageIndexedClassLoader extends VisitableURLClassLoader implements ImplementationHashAware {
+    static {
+        try {
+            //noinspection Since15
+            ClassLoader.registerAsParallelCapable();
+        } catch (NoSuchMethodError ignore) {
+            // Not supported on Java 6
+        }
+    }
+
+    private final Set<String> packages;
+    private final HashCode implementationHash;
+
+    /**
+     * @param packages The directories that contain entries in the classpath, separated with '/' and with no trailing '/'. The root directory is the empty string.
+     */
+    public PackageIndexedClassLoader(ClassLoader parent, ClassPath classPath, Set<String> packages, HashCode implementationHash) {
+        super(parent, classPath);
+        this.packages = packages;
+        this.implementationHash = implementationHash;
+    }
+
+    @Override
+    public HashCode getImplementationHash() {
+        return implementationHash;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        int pos = name.lastIndexOf('.');
+        String packageDir = pos < 0 ? "" : name.substring(0, pos).replace('.', '/');
+        if (!packages.contains(packageDir)) {
+            throw new ClassNotFoundException(name);
+        }
+        return super.findClass(name);
+    }
+
+    @Override
+    public URL findResource(String name) {
+        if (!packages.contains(directoryOf(name))) {
+            return null;
+        }
+        return super.findResource(name);
+    }
+
+    @Override
+    public Enumeration<URL> findResources(String name) throws IOException {
+        if (!packages.contains(directoryOf(name))) {
+            return Collections.enumeration(Collections.<URL>emptyList());
+        }
+        return super.findResources(name);
+    }
+
+    private static String directoryOf(String resourceName) {
+        String name = resourceName.startsWith("/") ? resourceName.substring(1) : resourceName;
+        int pos = name.lastIndexOf('/');
+        return pos < 0 ? "" : name.substring(0, pos);
+    }
+}
@@ -24,6 +24,7 @@ abstract class AbstractServiceMethod implements ServiceMethod {
     private final String name;
     private final Type[] parameterTypes;
     private final Type serviceType;
+    private volatile Class<?>[] serviceTypeHierarchy;
 
     AbstractServiceMethod(Method target) {
         this.method = target;
@@ -38,6 +39,16 @@ abstract class AbstractServiceMethod implements ServiceMethod {
         return serviceType;
     }
 
+    @Override
+    public Class<?>[] getServiceTypeHierarchy() {
+        Class<?>[] hierarchy = serviceTypeHierarchy;
+        if (hierarchy == null) {
+            hierarchy = DefaultServiceRegistry.typeHierarchy(method.getReturnType());
+            serviceTypeHierarchy = hierarchy;
+        }
+        return hierarchy;
+    }
+
     @Override
     public Type[] getParameterTypes() {
         return parameterTypes;
@@ -33,13 +33,15 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Formatter;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -79,6 +81,8 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     private final ServiceProvider parentServices;
     private final String displayName;
     private final ServiceProvider thisAsServiceProvider;
+    // Services located by type, once this registry is no longer mutable. Lookups from child registries go through here too, so each is resolved once only
+    private final ConcurrentMap<Type, Service> resolvedServices = new ConcurrentHashMap<Type, Service>(16, 0.75f, 1);
 
     private AtomicReference<State> state = new AtomicReference<State>(State.INIT);
 
@@ -294,7 +298,14 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
 
     private Service getService(Type serviceType) {
         serviceRequested();
-        return find(serviceType, allServices);
+        Service service = resolvedServices.get(serviceType);
+        if (service == null) {
+            service = find(serviceType, allServices);
+            if (service != null) {
+                resolvedServices.putIfAbsent(serviceType, service);
+            }
+        }
+        return service;
     }
 
     @Override
@@ -492,7 +503,7 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
                 throw new UnsupportedOperationException("Unsupported service provider type: " + serviceProvider);
             }
             stoppable.add(serviceProvider);
-            analyser.addProviderForClassHierarchy(((SingletonService) serviceProvider).serviceClass, serviceProvider);
+            analyser.addProviderForClassHierarchy(((SingletonService) serviceProvider).getServiceTypeHierarchy(), serviceProvider);
         }
 
         public void noLongerMutable() {
@@ -500,23 +511,9 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         }
 
         private class ProviderAnalyser {
-            private Set<Class<?>> seen = new HashSet<Class<?>>(4, 0.5f);
-
-            public void addProviderForClassHierarchy(Class<?> serviceType, ServiceProvider serviceProvider) {
-                analyseType(serviceType, serviceProvider);
-                seen.clear();
-            }
-
-            private void analyseType(Class<?> type, ServiceProvider serviceProvider) {
-                if (type == null || type == Object.class) {
-                    return;
-                }
-                if (seen.add(type)) {
+            public void addProviderForClassHierarchy(Class<?>[] serviceTypeHierarchy, ServiceProvider serviceProvider) {
+                for (Class<?> type : serviceTypeHierarchy) {
                     putServiceType(type, serviceProvider);
-                    analyseType(type.getSuperclass(), serviceProvider);
-                    for (Class<?> iface : type.getInterfaces()) {
-                        analyseType(iface, serviceProvider);
-                    }
                 }
             }
 
@@ -625,6 +622,13 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             return getInstance();
         }
 
+        /**
+         * Returns the types this service can be located by.
+         */
+        Class<?>[] getServiceTypeHierarchy() {
+            return typeHierarchy(serviceClass);
+        }
+
         private Service prepare() {
             if (state == BindState.BOUND) {
                 return this;
@@ -815,6 +819,12 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             return method.getMethod();
         }
 
+        @Override
+        Class<?>[] getServiceTypeHierarchy() {
+            // Calculated once per provider method, rather than once per registry
+            return method.getServiceTypeHierarchy();
+        }
+
         protected Object invokeMethod(Object[] params) {
             Object result;
             try {
@@ -1182,6 +1192,27 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         return false;
     }
 
+    /**
+     * Returns the given type and all of its supertypes, except {@code Object}.
+     */
+    static Class<?>[] typeHierarchy(Class<?> type) {
+        Set<Class<?>> seen = new LinkedHashSet<Class<?>>();
+        collectTypeHierarchy(type, seen);
+        return seen.toArray(new Class<?>[0]);
+    }
+
+    private static void collectTypeHierarchy(Class<?> type, Set<Class<?>> seen) {
+        if (type == null || type == Object.class) {
+            return;
+        }
+        if (seen.add(type)) {
+            collectTypeHierarchy(type.getSuperclass(), seen);
+            for (Class<?> iface : type.getInterfaces()) {
+                collectTypeHierarchy(iface, seen);
+            }
+        }
+    }
+
     private static void assertValidServiceType(Class<?> serviceClass) {
         if (serviceClass.isArray()) {
             throw new ServiceValidationException("Locating services with array type is not supported.");
@@ -19,7 +19,9 @@ import org.gradle.internal.UncheckedException;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 
 class MethodHandleBasedServiceMethod extends AbstractServiceMethod {
     private final static MethodHandles.Lookup LOOKUP = (MethodHandles.Lookup) MethodHandles.publicLookup();
@@ -27,13 +29,27 @@ class MethodHandleBasedServiceMethod extends AbstractServiceMethod {
 
     MethodHandleBasedServiceMethod(Method target) throws IllegalAccessException {
         super(target);
-        this.method = LOOKUP.unreflect(target);
+        this.method = toInvoker(LOOKUP.unreflect(target), target);
+    }
+
+    /**
+     * Adapts the given handle to take the target and an {@code Object[]} of arguments and return an {@code Object}, so that it can be called using {@code invokeExact()}
+     * rather than binding and spreading the arguments on each call.
+     */
+    private static MethodHandle toInvoker(MethodHandle handle, Method target) {
+        int parameterCount = target.getParameterTypes().length;
+        MethodHandle invoker = handle;
+        if (Modifier.isStatic(target.getModifiers())) {
+            invoker = MethodHandles.dropArguments(invoker, 0, Object.class);
+        }
+        invoker = invoker.asType(MethodType.genericMethodType(parameterCount + 1));
+        return invoker.asSpreader(Object[].class, parameterCount);
     }
 
     @Override
     public Object invoke(Object target, Object... args) {
         try {
-            return method.bindTo(target).invokeWithArguments(args);
+            return (Object) method.invokeExact(target, args);
         } catch (Throwable e) {
             throw UncheckedException.throwAsUncheckedException(e);
         }
@@ -25,6 +25,11 @@ public interface ServiceMethod {
 
     Type getServiceType();
 
+    /**
+     * Returns the types that the service created by this method can be located by, that is, the raw service type and all of its supertypes except {@code Object}.
+     */
+    Class<?>[] getServiceTypeHierarchy();
+
     Type[] getParameterTypes();
 
     Object invoke(Object target, Object... args);
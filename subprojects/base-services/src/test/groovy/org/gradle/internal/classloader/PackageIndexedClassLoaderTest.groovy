@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.classloader
+
+import org.gradle.internal.classpath.DefaultClassPath
+import org.gradle.internal.hash.HashCode
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class PackageIndexedClassLoaderTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def "locates resources in indexed packages only"() {
+        def dir = tmpDir.createDir("classes")
+        dir.createFile("a/b/thing.txt").text = "thing"
+        dir.createFile("other/thing.txt").text = "other"
+        def classPath = DefaultClassPath.of(dir)
+        def loader = new PackageIndexedClassLoader(null, classPath, ["", "a", "a/b"] as Set, HashCode.fromInt(123))
+
+        expect:
+        loader.getResource("a/b/thing.txt") != null
+        loader.getResources("a/b/thing.txt").hasMoreElements()
+        loader.getResource("other/thing.txt") == null
+        !loader.getResources("other/thing.txt").hasMoreElements()
+        loader.implementationHash == HashCode.fromInt(123)
+    }
+
+    def "does not search classpath for class in package that is not indexed"() {
+        def dir = tmpDir.createDir("classes")
+        dir.createFile("a/b/Thing.class").text = "not a class"
+        def loader = new PackageIndexedClassLoader(null, DefaultClassPath.of(dir), ["", "a"] as Set, HashCode.fromInt(123))
+
+        when:
+        loader.loadClass("a.b.Thing")
+
+        then:
+        thrown(ClassNotFoundException)
+    }
+}
@@ -70,6 +70,39 @@ class DefaultServiceRegistryTest extends Specification {
         1 * parent2.get(BigDecimal) >> value
     }
 
+    def "resolves service from parent once for repeated lookups"() {
+        def value = BigDecimal.TEN
+        def parent = Mock(ServiceRegistry)
+        def registry = new TestRegistry(parent)
+
+        when:
+        def first = registry.get(BigDecimal)
+        def second = registry.get(BigDecimal)
+        def third = registry.find(BigDecimal)
+
+        then:
+        first == value
+        second.is(first)
+        third.is(first)
+
+        and:
+        1 * parent.get(BigDecimal) >> value
+        0 * parent._
+    }
+
+    def "child registries locate services created by factory methods on parent"() {
+        def parent = new DefaultServiceRegistry()
+        parent.addProvider(new TestProvider())
+        def child1 = new DefaultServiceRegistry(parent)
+        def child2 = new DefaultServiceRegistry(parent)
+
+        expect:
+        child1.get(Number).is(parent.get(Integer))
+        child2.get(Integer).is(parent.get(Integer))
+        child1.get(String) == "12"
+        child2.get(CharSequence).is(child1.get(String))
+    }
+
     def throwsExceptionForUnknownParentService() {
         def parent = Mock(ServiceRegistry);
         def registry = new TestRegistry(parent)
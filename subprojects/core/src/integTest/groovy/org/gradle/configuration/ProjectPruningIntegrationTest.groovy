@@ -0,0 +1,175 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.integtests.fixtures.executer.ProjectLifecycleFixture
+import org.junit.Rule
+
+class ProjectPruningIntegrationTest extends AbstractIntegrationSpec {
+    private static final String REUSED_MESSAGE = "Configuration inputs are unchanged"
+
+    @Rule ProjectLifecycleFixture fixture = new ProjectLifecycleFixture(executer, temporaryFolder)
+
+    def setup() {
+        settingsFile << "include 'a', 'b', 'c'"
+        file("a/build.gradle") << "task foo"
+        file("b/build.gradle") << "task bar"
+        file("c/build.gradle") << "task baz"
+    }
+
+    def "configures only the projects of the previous task graph when the configuration inputs are unchanged"() {
+        when:
+        runWithProjectPruning(":a:foo")
+
+        then:
+        fixture.assertProjectsConfigured(":", ":a", ":b", ":c")
+        !output.contains(REUSED_MESSAGE)
+
+        when:
+        runWithProjectPruning(":a:foo")
+
+        then:
+        fixture.assertProjectsConfigured(":", ":a")
+        outputContains(REUSED_MESSAGE)
+    }
+
+    def "configures a project whose task is a dependency by path"() {
+        file("a/build.gradle") << """
+            foo.dependsOn ':b:bar'
+        """
+
+        when:
+        runWithProjectPruning(":a:foo")
+        runWithProjectPruning(":a:foo")
+
+        then:
+        outputContains(REUSED_MESSAGE)
+        fixture.assertProjectsConfigured(":", ":a", ":b")
+        result.assertTasksExecuted(":b:bar", ":a:foo")
+    }
+
+    def "configures all projects when a project outside of the task graph configures another project"() {
+        file("a/build.gradle") << """
+            foo.doLast { println "message: \${project.findProperty('message')}" }
+        """
+        file("b/build.gradle") << """
+            project(':a') { ext.message = 'configured by b' }
+        """
+
+        when:
+        runWithProjectPruning(":a:foo")
+        runWithProjectPruning(":a:foo")
+
+        then:
+        !output.contains(REUSED_MESSAGE)
+        fixture.assertProjectsConfigured(":", ":a", ":b", ":c")
+        outputContains("message: configured by b")
+    }
+
+    def "configures all projects when a project outside of the task graph registers a task graph listener"() {
+        file("b/build.gradle") << """
+            gradle.taskGraph.whenReady { println 'task graph ready in b' }
+        """
+
+        when:
+        runWithProjectPruning(":a:foo")
+        runWithProjectPruning(":a:foo")
+
+        then:
+        !output.contains(REUSED_MESSAGE)
+        fixture.assertProjectsConfigured(":", ":a", ":b", ":c")
+        outputContains("task graph ready in b")
+    }
+
+    def "configures all projects when a project outside of the task graph registers an evaluation listener on another project"() {
+        file("c/build.gradle") << """
+            baz.doLast { println "message: \${project.findProperty('message')}" }
+        """
+        file("b/build.gradle") << """
+            project(':c').afterEvaluate { ext.message = 'set by b' }
+        """
+
+        when:
+        runWithProjectPruning(":c:baz")
+        runWithProjectPruning(":c:baz")
+
+        then:
+        !output.contains(REUSED_MESSAGE)
+        fixture.assertProjectsConfigured(":", ":a", ":b", ":c")
+        outputContains("message: set by b")
+    }
+
+    def "configures all projects when a project registers a listener on the build"() {
+        file("a/build.gradle") << """
+            gradle.projectsEvaluated { println "projects: \${rootProject.subprojects*.description}" }
+        """
+        file("c/build.gradle") << """
+            description = 'project c'
+        """
+
+        when:
+        runWithProjectPruning(":a:foo")
+        runWithProjectPruning(":a:foo")
+
+        then:
+        !output.contains(REUSED_MESSAGE)
+        fixture.assertProjectsConfigured(":", ":a", ":b", ":c")
+        outputContains("project c")
+    }
+
+    def "configures all projects when a project in the task graph looks up a project outside of it"() {
+        file("a/build.gradle") << """
+            def other = project(':c')
+            foo.doLast { println "description: \${other.description}" }
+        """
+        file("c/build.gradle") << """
+            description = 'project c'
+        """
+
+        when:
+        runWithProjectPruning(":a:foo")
+        runWithProjectPruning(":a:foo")
+
+        then:
+        !output.contains(REUSED_MESSAGE)
+        fixture.assertProjectsConfigured(":", ":a", ":b", ":c")
+        outputContains("description: project c")
+    }
+
+    def "configures a skipped project when a task looks it up at execution time"() {
+        file("a/build.gradle") << """
+            foo.doLast { println "description: \${project(':c').description}" }
+        """
+        file("c/build.gradle") << """
+            description = 'project c'
+        """
+
+        when:
+        runWithProjectPruning(":a:foo")
+        runWithProjectPruning(":a:foo")
+
+        then:
+        outputContains(REUSED_MESSAGE)
+        outputContains("description: project c")
+    }
+
+    private void runWithProjectPruning(String... tasks) {
+        executer.withArgument("-D${ProjectPruning.ENABLED_PROPERTY}=true")
+        run(tasks)
+    }
+}
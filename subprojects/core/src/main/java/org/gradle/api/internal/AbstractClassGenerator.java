@@ -16,18 +16,21 @@
 
 package org.gradle.api.internal;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import groovy.lang.Closure;
 import groovy.lang.GroovyObject;
-import org.apache.commons.collections.map.AbstractReferenceMap;
-import org.apache.commons.collections.map.ReferenceMap;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.NonExtensible;
 import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.api.provider.HasMultipleValues;
 import org.gradle.api.provider.Property;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.reflect.ClassDetails;
 import org.gradle.internal.reflect.ClassInspector;
 import org.gradle.internal.reflect.DirectInstantiator;
@@ -43,15 +46,14 @@ import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Generates a subclass of the target class to mix-in some DSL behaviour.
@@ -66,8 +68,7 @@ import java.util.concurrent.locks.ReentrantLock;
  * </ul>
  */
 public abstract class AbstractClassGenerator implements ClassGenerator {
-    private static final Map<Class<?>, Map<Class<?>, Class<?>>> GENERATED_CLASSES = new HashMap<Class<?>, Map<Class<?>, Class<?>>>();
-    private static final Lock CACHE_LOCK = new ReentrantLock();
+    private static final ConcurrentMap<Class<?>, LoadingCache<Class<?>, Class<?>>> GENERATED_CLASSES = new ConcurrentHashMap<Class<?>, LoadingCache<Class<?>, Class<?>>>();
     private static final Collection<String> SKIP_PROPERTIES = Arrays.asList("class", "metaClass", "conventionMapping", "convention", "asDynamicObject", "extensions");
 
     public <T> T newInstance(Class<T> type, Object... parameters) {
@@ -75,28 +76,44 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
     }
 
     public <T> Class<? extends T> generate(Class<T> type) {
+        LoadingCache<Class<?>, Class<?>> cache = getCache();
+        Class<?> generatedClass;
         try {
-            CACHE_LOCK.lock();
-            return generateUnderLock(type);
-        } finally {
-            CACHE_LOCK.unlock();
+            // Each type is generated at most once. Lookups of types that have already been generated do not block, and types are generated concurrently
+            generatedClass = cache.getUnchecked(type);
+        } catch (UncheckedExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
         }
+        if (generatedClass != type) {
+            cache.asMap().putIfAbsent(generatedClass, generatedClass);
+        }
+        return generatedClass.asSubclass(type);
     }
 
-    private <T> Class<? extends T> generateUnderLock(Class<T> type) {
-        Map<Class<?>, Class<?>> cache = GENERATED_CLASSES.get(getClass());
+    private LoadingCache<Class<?>, Class<?>> getCache() {
+        LoadingCache<Class<?>, Class<?>> cache = GENERATED_CLASSES.get(getClass());
         if (cache == null) {
             // WeakHashMap won't work here. It keeps a strong reference to the mapping value, which is the generated class in this case
             // However, the generated class has a strong reference to the source class (by extending it), so the keys will always be
             // strongly reachable while this Class is strongly reachable. Use weak references for both key and value of the mapping instead.
-            cache = new ReferenceMap(AbstractReferenceMap.WEAK, AbstractReferenceMap.WEAK);
-            GENERATED_CLASSES.put(getClass(), cache);
-        }
-        Class<?> generatedClass = cache.get(type);
-        if (generatedClass != null) {
-            return generatedClass.asSubclass(type);
+            cache = CacheBuilder.newBuilder()
+                .weakKeys()
+                .weakValues()
+                .build(new CacheLoader<Class<?>, Class<?>>() {
+                    @Override
+                    public Class<?> load(Class<?> type) {
+                        return generateClass(type);
+                    }
+                });
+            LoadingCache<Class<?>, Class<?>> existing = GENERATED_CLASSES.putIfAbsent(getClass(), cache);
+            if (existing != null) {
+                cache = existing;
+            }
         }
+        return cache;
+    }
 
+    private <T> Class<? extends T> generateClass(Class<T> type) {
         int modifiers = type.getModifiers();
         if (Modifier.isPrivate(modifiers)) {
             throw new GradleException(String.format("Cannot create a proxy class for private class '%s'.",
@@ -110,7 +127,10 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
             throw new GradleException(String.format("Cannot create a proxy class for final class '%s'.",
                 type.getSimpleName()));
         }
-        Class<? extends T> subclass;
+        Class<? extends T> subclass = loadPreviouslyGenerated(type);
+        if (subclass != null) {
+            return subclass;
+        }
         try {
             ClassMetaData classMetaData = inspectType(type);
 
@@ -227,12 +247,17 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
         } catch (Throwable e) {
             throw new GradleException(String.format("Could not generate a proxy class for class %s.", type.getName()), e);
         }
-
-        cache.put(type, subclass);
-        cache.put(subclass, subclass);
         return subclass;
     }
 
+    /**
+     * Returns a subclass for the given type that was generated by an earlier process, or {@code null} when the subclass needs to be generated.
+     */
+    @Nullable
+    protected <T> Class<? extends T> loadPreviouslyGenerated(Class<T> type) {
+        return null;
+    }
+
     protected abstract <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData);
 
     private ClassMetaData inspectType(Class<?> type) {
@@ -29,6 +29,7 @@ import org.gradle.api.internal.provider.PropertyInternal;
 import org.gradle.api.plugins.Convention;
 import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
 import org.gradle.internal.metaobject.AbstractDynamicObject;
 import org.gradle.internal.metaobject.BeanDynamicObject;
 import org.gradle.internal.metaobject.DynamicObject;
@@ -73,9 +74,40 @@ import static org.objectweb.asm.Opcodes.V1_5;
 import static org.objectweb.asm.Type.VOID_TYPE;
 
 public class AsmBackedClassGenerator extends AbstractClassGenerator {
+    private static final String CLASS_NAME_SUFFIX = "_Decorated";
+    @Nullable
+    private final GeneratedClassStore classStore;
+
+    public AsmBackedClassGenerator() {
+        this(null);
+    }
+
+    /**
+     * Creates a generator that persists the classes it generates in the given store, or keeps them in memory only when the store is {@code null}.
+     * Generated classes are shared by all instances of this generator, so a class that another instance has already generated is not stored again.
+     */
+    public AsmBackedClassGenerator(@Nullable GeneratedClassStore classStore) {
+        this.classStore = classStore;
+    }
+
     @Override
     protected <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData) {
-        return new ClassBuilderImpl<T>(type, classMetaData);
+        return new ClassBuilderImpl<T>(type, classMetaData, classStore);
+    }
+
+    @Nullable
+    @Override
+    protected <T> Class<? extends T> loadPreviouslyGenerated(Class<T> type) {
+        if (classStore == null) {
+            return null;
+        }
+        String generatedClassName = type.getName() + CLASS_NAME_SUFFIX;
+        byte[] bytecode = classStore.load(type, generatedClassName);
+        if (bytecode == null) {
+            return null;
+        }
+        Class<?> generatedClass = ClassLoaderUtils.define(type.getClassLoader(), generatedClassName, bytecode);
+        return generatedClass.asSubclass(type);
     }
 
     private static class ClassBuilderImpl<T> implements ClassBuilder<T> {
@@ -145,11 +177,13 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
         private final boolean conventionAware;
         private final boolean extensible;
         private final boolean providesOwnDynamicObject;
+        private final GeneratedClassStore classStore;
 
-        private ClassBuilderImpl(Class<T> type, ClassMetaData classMetaData) {
+        private ClassBuilderImpl(Class<T> type, ClassMetaData classMetaData, @Nullable GeneratedClassStore classStore) {
             this.type = type;
+            this.classStore = classStore;
 
-            classGenerator = new AsmClassGenerator(type, "_Decorated");
+            classGenerator = new AsmClassGenerator(type, CLASS_NAME_SUFFIX);
             visitor = classGenerator.getVisitor();
             generatedType = classGenerator.getGeneratedType();
             superclassType = Type.getType(type);
@@ -975,7 +1009,12 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
             writeGenericReturnTypeFields();
             visitor.visitEnd();
 
-            return classGenerator.define().asSubclass(type);
+            byte[] bytecode = visitor.toByteArray();
+            Class<?> generatedClass = ClassLoaderUtils.define(type.getClassLoader(), classGenerator.getGeneratedTypeName(), bytecode);
+            if (classStore != null) {
+                classStore.store(type, classGenerator.getGeneratedTypeName(), bytecode);
+            }
+            return generatedClass.asSubclass(type);
         }
 
         private void writeGenericReturnTypeFields() {
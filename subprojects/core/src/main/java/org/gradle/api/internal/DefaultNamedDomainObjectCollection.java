@@ -538,6 +538,14 @@ public class DefaultNamedDomainObjectCollection<T> extends DefaultDomainObjectCo
 
         @Override
         public void removePending(ProviderInternal<? extends T> provider) {
+            if (provider instanceof Named) {
+                // Named providers are only ever added using their name, so avoid a scan of all pending providers
+                String name = ((Named) provider).getName();
+                if (pendingMap.get(name) == provider) {
+                    pendingMap.remove(name);
+                }
+                return;
+            }
             pendingMap.values().remove(provider);
         }
 
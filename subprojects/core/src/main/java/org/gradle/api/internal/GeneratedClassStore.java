@@ -0,0 +1,35 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal;
+
+import javax.annotation.Nullable;
+
+/**
+ * Stores the bytecode of generated classes, so that a later process can define a generated class without generating it again.
+ */
+public interface GeneratedClassStore {
+    /**
+     * Returns the bytecode previously stored for the given generated class, or {@code null} when there is none.
+     */
+    @Nullable
+    byte[] load(Class<?> type, String generatedClassName);
+
+    /**
+     * Stores the bytecode of the given generated class.
+     */
+    void store(Class<?> type, String generatedClassName, byte[] bytecode);
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal;
+
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.internal.Factory;
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Stores generated classes in a persistent cache, keyed by the name of the generated class and the hash of the class loader hierarchy that defines the source class.
+ * Classes whose class loader hierarchy cannot be hashed are not stored.
+ */
+public class PersistentGeneratedClassStore implements GeneratedClassStore, Closeable {
+    private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
+    private final PersistentCache cache;
+    private final PersistentIndexedCache<HashCode, byte[]> classes;
+    private volatile boolean closed;
+
+    public PersistentGeneratedClassStore(CacheRepository cacheRepository, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        this.classLoaderHierarchyHasher = classLoaderHierarchyHasher;
+        cache = cacheRepository
+            .cache("generated-classes")
+            .withDisplayName("generated classes cache")
+            .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+            .open();
+        classes = cache.createCache(new PersistentIndexedCacheParameters<HashCode, byte[]>("classes", HashCode.class, BaseSerializerFactory.BYTE_ARRAY_SERIALIZER));
+    }
+
+    @Nullable
+    @Override
+    public byte[] load(Class<?> type, String generatedClassName) {
+        final HashCode key = keyFor(type, generatedClassName);
+        if (key == null || closed) {
+            return null;
+        }
+        return cache.useCache(new Factory<byte[]>() {
+            @Override
+            public byte[] create() {
+                return classes.get(key);
+            }
+        });
+    }
+
+    @Override
+    public void store(Class<?> type, String generatedClassName, final byte[] bytecode) {
+        final HashCode key = keyFor(type, generatedClassName);
+        if (key == null || closed) {
+            return;
+        }
+        cache.useCache(new Runnable() {
+            @Override
+            public void run() {
+                classes.put(key, bytecode);
+            }
+        });
+    }
+
+    @Nullable
+    private HashCode keyFor(Class<?> type, String generatedClassName) {
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null) {
+            return null;
+        }
+        HashCode classLoaderHash = classLoaderHierarchyHasher.getClassLoaderHash(classLoader);
+        if (classLoaderHash == null) {
+            return null;
+        }
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putString(generatedClassName);
+        hasher.putHash(classLoaderHash);
+        return hasher.hash();
+    }
+
+    @Override
+    public void close() {
+        // The generator may still refer to this store when the user home services are released
+        closed = true;
+        cache.close();
+    }
+}
@@ -21,6 +21,7 @@ import org.gradle.api.Action;
 import org.gradle.api.artifacts.DependencyArtifact;
 import org.gradle.api.artifacts.ExcludeRule;
 import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.attributes.Attribute;
 import org.gradle.api.attributes.AttributeContainer;
 import org.gradle.api.internal.artifacts.DefaultExcludeRuleContainer;
 import org.gradle.api.internal.attributes.AttributeContainerInternal;
@@ -28,6 +29,7 @@ import org.gradle.api.internal.attributes.ImmutableAttributes;
 import org.gradle.api.internal.attributes.ImmutableAttributesFactory;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.Cast;
 import org.gradle.internal.ImmutableActionSet;
 
 import javax.annotation.Nullable;
@@ -120,7 +122,9 @@ public abstract class AbstractModuleDependency extends AbstractDependency implem
         target.setArtifacts(new HashSet<DependencyArtifact>(getArtifacts()));
         target.setExcludeRuleContainer(new DefaultExcludeRuleContainer(getExcludeRules()));
         target.setTransitive(isTransitive());
-        target.setAttributes(attributes);
+        // The copy shares the interned attributes of this dependency, and takes its own mutable copy when its attributes are changed
+        target.setAttributesFactory(attributesFactory);
+        target.setAttributes(attributes == null ? null : attributes.asImmutable());
     }
 
     protected boolean isKeyEquals(ModuleDependency dependencyRhs) {
@@ -174,11 +178,21 @@ public abstract class AbstractModuleDependency extends AbstractDependency implem
         }
         if (attributes == null) {
             attributes = attributesFactory.mutable();
+        } else if (attributes instanceof ImmutableAttributes) {
+            attributes = mutableCopyOf((ImmutableAttributes) attributes);
         }
         configureAction.execute(attributes);
         return this;
     }
 
+    private AttributeContainerInternal mutableCopyOf(ImmutableAttributes source) {
+        AttributeContainerInternal copy = attributesFactory.mutable();
+        for (Attribute<?> attribute : source.keySet()) {
+            copy.attribute(Cast.<Attribute<Object>>uncheckedCast(attribute), source.getAttribute(attribute));
+        }
+        return copy;
+    }
+
     private void warnAboutInternalApiUse() {
         LOG.warn("Cannot set attributes for dependency \"" + this.getGroup() + ":" + this.getName() + ":" + this.getVersion() + "\": it was probably created by a plugin using internal APIs");
     }
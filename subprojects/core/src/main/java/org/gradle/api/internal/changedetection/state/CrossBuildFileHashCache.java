@@ -33,6 +33,7 @@ import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class CrossBuildFileHashCache implements Closeable, TaskHistoryStore {
     public static final String FILE_HASHES_CACHE_KEY = "fileHashes";
+    public static final int STRIPES = 8;
 
     private final PersistentCache cache;
     private final InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory;
@@ -43,13 +44,15 @@ public class CrossBuildFileHashCache implements Closeable, TaskHistoryStore {
         cache = cacheBuilder
             .withDisplayName("file hash cache")
             .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+            .withStripedLocking(STRIPES)
             .open();
     }
 
     @Override
     public <K, V> PersistentIndexedCache<K, V> createCache(String cacheName, Class<K> keyType, Serializer<V> valueSerializer, int maxEntriesToKeepInMemory, boolean cacheInMemoryForShortLivedProcesses) {
+        // Each stripe keeps its own entries in memory
         PersistentIndexedCacheParameters<K, V> parameters = new PersistentIndexedCacheParameters<K, V>(cacheName, keyType, valueSerializer)
-                .cacheDecorator(inMemoryCacheDecoratorFactory.decorator(maxEntriesToKeepInMemory, cacheInMemoryForShortLivedProcesses));
+                .cacheDecorator(inMemoryCacheDecoratorFactory.decorator(Math.max(1, maxEntriesToKeepInMemory / STRIPES), cacheInMemoryForShortLivedProcesses));
         return cache.createCache(parameters);
     }
 
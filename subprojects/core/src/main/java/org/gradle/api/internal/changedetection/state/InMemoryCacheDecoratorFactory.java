@@ -33,6 +33,11 @@ import org.gradle.cache.internal.CrossProcessSynchronizingCache;
 import org.gradle.cache.internal.HeapProportionalCacheSizer;
 import org.gradle.cache.internal.MultiProcessSafeAsyncPersistentIndexedCache;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -46,6 +51,8 @@ public class InMemoryCacheDecoratorFactory {
     private final boolean longLivingProcess;
     private final HeapProportionalCacheSizer cacheSizer = new HeapProportionalCacheSizer();
     private final CrossBuildInMemoryCache<String, CacheDetails> caches;
+    // Does not retain the caches, so that the cross build cache can decide when to discard them
+    private final Set<CacheDetails> allCaches = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<CacheDetails, Boolean>()));
 
     public InMemoryCacheDecoratorFactory(boolean longLivingProcess, CrossBuildInMemoryCacheFactory cacheFactory) {
         this.longLivingProcess = longLivingProcess;
@@ -74,6 +81,7 @@ public class InMemoryCacheDecoratorFactory {
                 Cache<Object, Object> entries = createInMemoryCache(cacheId, maxSize);
                 CacheDetails cacheDetails = new CacheDetails(cacheId, maxSize, entries, new AtomicReference<FileLock.State>(null));
                 LOG.debug("Creating in-memory store for cache {} (max size: {})", cacheId, maxSize);
+                allCaches.add(cacheDetails);
                 return cacheDetails;
             }
         });
@@ -83,6 +91,49 @@ public class InMemoryCacheDecoratorFactory {
         return cacheDetails;
     }
 
+    /**
+     * Returns statistics for each of the in-memory stores currently held.
+     */
+    public List<InMemoryCacheStatistics> getStatistics() {
+        List<InMemoryCacheStatistics> statistics = new ArrayList<InMemoryCacheStatistics>();
+        for (CacheDetails cacheDetails : getAllCaches()) {
+            statistics.add(new InMemoryCacheStatistics(cacheDetails.cacheId, cacheDetails.entries.size(), cacheDetails.maxEntries, cacheDetails.entries.stats()));
+        }
+        return statistics;
+    }
+
+    /**
+     * Remembers how often each in-memory store has been used so far, for {@link #discardEntriesUnusedSinceLastRecord()}.
+     */
+    public void recordUsage() {
+        for (CacheDetails cacheDetails : getAllCaches()) {
+            cacheDetails.requestCountAtLastRecord = cacheDetails.entries.stats().requestCount();
+        }
+    }
+
+    /**
+     * Discards the entries of each in-memory store that has not been used since the last call to {@link #recordUsage()}. The entries can still be read from the backing caches.
+     *
+     * @return the number of entries discarded.
+     */
+    public long discardEntriesUnusedSinceLastRecord() {
+        long discarded = 0;
+        for (CacheDetails cacheDetails : getAllCaches()) {
+            if (cacheDetails.entries.stats().requestCount() == cacheDetails.requestCountAtLastRecord) {
+                discarded += cacheDetails.entries.size();
+                cacheDetails.entries.invalidateAll();
+                LOG.debug("Discarded unused in-memory store for cache {}", cacheDetails.cacheId);
+            }
+        }
+        return discarded;
+    }
+
+    private List<CacheDetails> getAllCaches() {
+        synchronized (allCaches) {
+            return new ArrayList<CacheDetails>(allCaches);
+        }
+    }
+
     private Cache<Object, Object> createInMemoryCache(String cacheId, int maxSize) {
         LoggingEvictionListener evictionListener = new LoggingEvictionListener(cacheId, maxSize);
         final CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().removalListener(evictionListener);
@@ -130,6 +181,7 @@ public class InMemoryCacheDecoratorFactory {
         private final int maxEntries;
         private final Cache<Object, Object> entries;
         private final AtomicReference<FileLock.State> lockState;
+        private volatile long requestCountAtLastRecord;
 
         CacheDetails(String cacheId, int maxEntries, Cache<Object, Object> entries, AtomicReference<FileLock.State> lockState) {
             this.cacheId = cacheId;
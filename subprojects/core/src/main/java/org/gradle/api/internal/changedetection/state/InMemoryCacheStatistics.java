@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import com.google.common.cache.CacheStats;
+
+/**
+ * A snapshot of the size and effectiveness of an in-memory store created by {@link InMemoryCacheDecoratorFactory}.
+ */
+public class InMemoryCacheStatistics {
+    private final String cacheId;
+    private final long size;
+    private final int maxSize;
+    private final CacheStats stats;
+
+    InMemoryCacheStatistics(String cacheId, long size, int maxSize, CacheStats stats) {
+        this.cacheId = cacheId;
+        this.size = size;
+        this.maxSize = maxSize;
+        this.stats = stats;
+    }
+
+    public String getCacheId() {
+        return cacheId;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getRequestCount() {
+        return stats.requestCount();
+    }
+
+    public long getHitCount() {
+        return stats.hitCount();
+    }
+
+    public long getEvictionCount() {
+        return stats.evictionCount();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %s/%s entries, %.1f%% hit rate, %s evictions", cacheId, size, maxSize, stats.hitRate() * 100, stats.evictionCount());
+    }
+}
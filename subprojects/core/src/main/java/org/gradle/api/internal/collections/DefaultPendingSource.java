@@ -17,32 +17,56 @@
 package org.gradle.api.internal.collections;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.gradle.api.Action;
 import org.gradle.api.internal.provider.ProviderInternal;
 
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class DefaultPendingSource<T> implements PendingSource<T> {
-    private final List<ProviderInternal<? extends T>> pending = Lists.newArrayList();
+    // Pending providers in the order they were added. Most collections never have pending providers, so the maps are created on first use
+    private Map<ProviderInternal<? extends T>, PendingEntry> pending;
+    // Pending providers grouped by their type, so that realizing the elements of a type does not need to visit every pending provider
+    private Map<Class<?>, Set<ProviderInternal<? extends T>>> pendingByType;
+    private long nextSequence;
     private Action<ProviderInternal<? extends T>> flushAction;
 
     @Override
     public void realizePending() {
-        if (!pending.isEmpty()) {
-            List<ProviderInternal<? extends T>> copied = Lists.newArrayList(pending);
+        if (!isEmpty()) {
+            List<ProviderInternal<? extends T>> copied = Lists.newArrayList(pending.keySet());
             realize(copied);
         }
     }
 
     @Override
     public void realizePending(Class<?> type) {
-        if (!pending.isEmpty()) {
+        if (!isEmpty()) {
             List<ProviderInternal<? extends T>> copied = Lists.newArrayList();
-            for (ProviderInternal<? extends T> provider : pending) {
-                if (provider.getType() == null || type.isAssignableFrom(provider.getType())) {
-                    copied.add(provider);
+            int matchingGroups = 0;
+            for (Map.Entry<Class<?>, Set<ProviderInternal<? extends T>>> entry : pendingByType.entrySet()) {
+                Class<?> providerType = entry.getKey();
+                if (providerType == null || type.isAssignableFrom(providerType)) {
+                    copied.addAll(entry.getValue());
+                    matchingGroups++;
                 }
             }
+            if (matchingGroups > 1) {
+                // Realize in the order the providers were added
+                Collections.sort(copied, new Comparator<ProviderInternal<? extends T>>() {
+                    @Override
+                    public int compare(ProviderInternal<? extends T> o1, ProviderInternal<? extends T> o2) {
+                        long s1 = pending.get(o1).sequence;
+                        long s2 = pending.get(o2).sequence;
+                        return s1 < s2 ? -1 : (s1 == s2 ? 0 : 1);
+                    }
+                });
+            }
             realize(copied);
         }
     }
@@ -50,7 +74,7 @@ public class DefaultPendingSource<T> implements PendingSource<T> {
     private void realize(Iterable<ProviderInternal<? extends T>> elements) {
         for (ProviderInternal<? extends T> provider : elements) {
             if (flushAction != null) {
-                pending.remove(provider);
+                removePending(provider);
                 flushAction.execute(provider);
             } else {
                 throw new IllegalStateException("Cannot realize pending elements when realize action is not set");
@@ -60,12 +84,39 @@ public class DefaultPendingSource<T> implements PendingSource<T> {
 
     @Override
     public void addPending(ProviderInternal<? extends T> provider) {
-        pending.add(provider);
+        if (pending == null) {
+            pending = Maps.newLinkedHashMap();
+            pendingByType = Maps.newHashMap();
+        } else if (pending.containsKey(provider)) {
+            return;
+        }
+        Class<?> type = provider.getType();
+        pending.put(provider, new PendingEntry(nextSequence++, type));
+        Set<ProviderInternal<? extends T>> providers = pendingByType.get(type);
+        if (providers == null) {
+            providers = Sets.newLinkedHashSet();
+            pendingByType.put(type, providers);
+        }
+        providers.add(provider);
     }
 
     @Override
     public void removePending(ProviderInternal<? extends T> provider) {
-        pending.remove(provider);
+        if (pending == null) {
+            return;
+        }
+        PendingEntry entry = pending.remove(provider);
+        if (entry == null) {
+            return;
+        }
+        Class<?> type = entry.type;
+        Set<ProviderInternal<? extends T>> providers = pendingByType.get(type);
+        if (providers != null) {
+            providers.remove(provider);
+            if (providers.isEmpty()) {
+                pendingByType.remove(type);
+            }
+        }
     }
 
     @Override
@@ -75,16 +126,27 @@ public class DefaultPendingSource<T> implements PendingSource<T> {
 
     @Override
     public boolean isEmpty() {
-        return pending.isEmpty();
+        return pending == null || pending.isEmpty();
     }
 
     @Override
     public int size() {
-        return pending.size();
+        return pending == null ? 0 : pending.size();
     }
 
     @Override
     public void clear() {
-        pending.clear();
+        pending = null;
+        pendingByType = null;
+    }
+
+    private static class PendingEntry {
+        final long sequence;
+        final Class<?> type;
+
+        PendingEntry(long sequence, Class<?> type) {
+            this.sequence = sequence;
+            this.type = type;
+        }
     }
 }
@@ -27,14 +27,25 @@ import org.gradle.internal.classloader.ClassLoaderUtils;
 import org.gradle.internal.classloader.ClasspathHasher;
 import org.gradle.internal.classloader.FilteringClassLoader;
 import org.gradle.internal.classloader.HashingClassLoaderFactory;
+import org.gradle.internal.classloader.PackageIndexedClassLoader;
 import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.hash.HashCode;
 
 import javax.annotation.Nullable;
+import java.io.File;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class DefaultClassLoaderCache implements ClassLoaderCache, Stoppable {
+    /**
+     * When set, a class loader whose classpath starts with the whole classpath of another cached class loader with the same parent is created as a child of that
+     * class loader, so that the classes of the common jars are loaded once only. Changes class visibility between jars, so is opt-in.
+     */
+    public static final String SHARED_PREFIXES_PROPERTY = "org.gradle.internal.classloader.shared-prefixes";
+
     private static final Logger LOGGER = Logging.getLogger(DefaultClassLoaderCache.class);
 
     private final Object lock = new Object();
@@ -42,10 +53,19 @@ public class DefaultClassLoaderCache implements ClassLoaderCache, Stoppable {
     private final Map<ClassLoaderSpec, CachedClassLoader> bySpec = Maps.newHashMap();
     private final ClasspathHasher classpathHasher;
     private final HashingClassLoaderFactory classLoaderFactory;
+    private final PersistentJarPackageIndex packageIndex;
 
     public DefaultClassLoaderCache(HashingClassLoaderFactory classLoaderFactory, ClasspathHasher classpathHasher) {
+        this(classLoaderFactory, classpathHasher, null);
+    }
+
+    /**
+     * @param packageIndex When not null, class loaders are created as children of cached class loaders whose classpath they start with, and are indexed by package.
+     */
+    public DefaultClassLoaderCache(HashingClassLoaderFactory classLoaderFactory, ClasspathHasher classpathHasher, @Nullable PersistentJarPackageIndex packageIndex) {
         this.classLoaderFactory = classLoaderFactory;
         this.classpathHasher = classpathHasher;
+        this.packageIndex = packageIndex;
     }
 
     @Override
@@ -109,6 +129,17 @@ public class DefaultClassLoaderCache implements ClassLoaderCache, Stoppable {
             if (spec.isFiltered()) {
                 parentCachedLoader = getAndRetainLoader(classPath, spec.unfiltered(), id);
                 classLoader = classLoaderFactory.createFilteringClassLoader(parentCachedLoader.classLoader, spec.filterSpec);
+            } else if (packageIndex != null) {
+                CachedClassLoader prefixLoader = findLongestPrefix(spec);
+                if (prefixLoader != null) {
+                    parentCachedLoader = prefixLoader.retain(id);
+                    ManagedClassLoaderSpec prefixSpec = (ManagedClassLoaderSpec) prefixLoader.spec;
+                    List<File> files = classPath.getAsFiles();
+                    ClassPath remainder = DefaultClassPath.of(files.subList(prefixSpec.classPath.getAsFiles().size(), files.size()));
+                    classLoader = createIndexedClassLoader(prefixLoader.classLoader, remainder, spec.implementationHash);
+                } else {
+                    classLoader = createIndexedClassLoader(spec.parent, classPath, spec.implementationHash);
+                }
             } else {
                 classLoader = classLoaderFactory.createChildClassLoader(spec.parent, classPath, spec.implementationHash);
             }
@@ -119,6 +150,41 @@ public class DefaultClassLoaderCache implements ClassLoaderCache, Stoppable {
         return cachedLoader.retain(id);
     }
 
+    /**
+     * Locates the cached class loader with the same parent and the longest classpath that is a strict prefix of the given classpath. A prefix that is the
+     * whole resolved classpath of another class loader is expected to be complete, that is, its classes do not depend on the remaining jars.
+     */
+    @Nullable
+    private CachedClassLoader findLongestPrefix(ManagedClassLoaderSpec spec) {
+        List<File> files = spec.classPath.getAsFiles();
+        CachedClassLoader longest = null;
+        int longestSize = 0;
+        for (CachedClassLoader candidate : bySpec.values()) {
+            if (!(candidate.spec instanceof ManagedClassLoaderSpec)) {
+                continue;
+            }
+            ManagedClassLoaderSpec candidateSpec = (ManagedClassLoaderSpec) candidate.spec;
+            if (candidateSpec.isFiltered() || !Objects.equal(candidateSpec.parent, spec.parent)) {
+                continue;
+            }
+            List<File> candidateFiles = candidateSpec.classPath.getAsFiles();
+            int size = candidateFiles.size();
+            if (size > longestSize && size < files.size() && files.subList(0, size).equals(candidateFiles)) {
+                longest = candidate;
+                longestSize = size;
+            }
+        }
+        return longest;
+    }
+
+    private ClassLoader createIndexedClassLoader(ClassLoader parent, ClassPath classPath, HashCode implementationHash) {
+        Set<String> packages = packageIndex.getPackages(classPath);
+        if (packages == null) {
+            return classLoaderFactory.createChildClassLoader(parent, classPath, implementationHash);
+        }
+        return new PackageIndexedClassLoader(parent, classPath, packages, implementationHash);
+    }
+
     @Override
     public int size() {
         synchronized (lock) {
@@ -134,6 +200,9 @@ public class DefaultClassLoaderCache implements ClassLoaderCache, Stoppable {
             }
             byId.clear();
             bySpec.clear();
+            if (packageIndex != null) {
+                packageIndex.close();
+            }
         }
     }
 
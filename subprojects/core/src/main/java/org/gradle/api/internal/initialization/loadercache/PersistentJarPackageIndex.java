@@ -0,0 +1,147 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.initialization.loadercache;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.internal.Factory;
+import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.SetSerializer;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Records the packages contained in each jar, keyed by the content hash of the jar, so that a new daemon can tell which jars contain a package without opening them.
+ */
+public class PersistentJarPackageIndex implements Closeable {
+    private static final Logger LOGGER = Logging.getLogger(PersistentJarPackageIndex.class);
+    private static final String VERSIONED_ENTRY_PREFIX = "META-INF/versions/";
+
+    private final FileHasher fileHasher;
+    private final PersistentCache cache;
+    private final PersistentIndexedCache<HashCode, Set<String>> packagesByJar;
+
+    public PersistentJarPackageIndex(CacheRepository cacheRepository, FileHasher fileHasher) {
+        this.fileHasher = fileHasher;
+        cache = cacheRepository
+            .cache("jar-packages")
+            .withDisplayName("jar packages cache")
+            .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+            .open();
+        packagesByJar = cache.createCache(new PersistentIndexedCacheParameters<HashCode, Set<String>>("packages", HashCode.class, new SetSerializer<String>(BaseSerializerFactory.STRING_SERIALIZER, false)));
+    }
+
+    /**
+     * Returns the packages contained in the given classpath, or null when the classpath contains entries other than jars.
+     */
+    @Nullable
+    public Set<String> getPackages(ClassPath classPath) {
+        Set<String> packages = new HashSet<String>();
+        for (File file : classPath.getAsFiles()) {
+            if (!file.isFile() || !file.getName().endsWith(".jar")) {
+                return null;
+            }
+            Set<String> jarPackages = getPackages(file);
+            if (jarPackages == null) {
+                return null;
+            }
+            packages.addAll(jarPackages);
+        }
+        return packages;
+    }
+
+    @Nullable
+    private Set<String> getPackages(final File jar) {
+        final HashCode hash = fileHasher.hash(jar);
+        return cache.useCache(new Factory<Set<String>>() {
+            @Override
+            public Set<String> create() {
+                Set<String> packages = packagesByJar.get(hash);
+                if (packages == null) {
+                    packages = indexJar(jar);
+                    if (packages != null) {
+                        packagesByJar.put(hash, packages);
+                    }
+                }
+                return packages;
+            }
+        });
+    }
+
+    @Nullable
+    private static Set<String> indexJar(File jar) {
+        Set<String> packages = new HashSet<String>();
+        packages.add("");
+        try {
+            ZipFile zipFile = new ZipFile(jar);
+            try {
+                Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    addDirectory(packages, name);
+                    if (name.startsWith(VERSIONED_ENTRY_PREFIX)) {
+                        // Classes of a multi-release jar may be found under META-INF/versions/<n>/ only
+                        int pos = name.indexOf('/', VERSIONED_ENTRY_PREFIX.length());
+                        if (pos > 0) {
+                            addDirectory(packages, name.substring(pos + 1));
+                        }
+                    }
+                }
+            } finally {
+                zipFile.close();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not index packages of {}.", jar, e);
+            return null;
+        }
+        return packages;
+    }
+
+    private static void addDirectory(Set<String> packages, String entryName) {
+        int pos = entryName.lastIndexOf('/');
+        while (pos > 0) {
+            String dir = entryName.substring(0, pos);
+            if (!packages.add(dir)) {
+                return;
+            }
+            pos = dir.lastIndexOf('/');
+        }
+    }
+
+    @Override
+    public void close() {
+        cache.close();
+    }
+}
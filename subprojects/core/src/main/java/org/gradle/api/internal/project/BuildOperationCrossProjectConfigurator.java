@@ -31,9 +31,11 @@ import java.util.Collections;
 public class BuildOperationCrossProjectConfigurator implements CrossProjectConfigurator {
 
     private final BuildOperationExecutor buildOperationExecutor;
+    private final ProjectConfigurationLocks projectConfigurationLocks;
 
-    public BuildOperationCrossProjectConfigurator(BuildOperationExecutor buildOperationExecutor) {
+    public BuildOperationCrossProjectConfigurator(BuildOperationExecutor buildOperationExecutor, ProjectConfigurationLocks projectConfigurationLocks) {
         this.buildOperationExecutor = buildOperationExecutor;
+        this.projectConfigurationLocks = projectConfigurationLocks;
     }
 
     @Override
@@ -93,7 +95,7 @@ public class BuildOperationCrossProjectConfigurator implements CrossProjectConfi
     }
 
     private void runProjectConfigureClosure(final Project project, final Closure<? super Project> configureClosure) {
-        buildOperationExecutor.run(new CrossConfigureProjectBuildOperation(project) {
+        withProjectLock(project, new CrossConfigureProjectBuildOperation(project) {
 
             @Override
             public void run(BuildOperationContext context) {
@@ -103,7 +105,7 @@ public class BuildOperationCrossProjectConfigurator implements CrossProjectConfi
     }
 
     private void runProjectConfigureAction(final Project project, final Action<? super Project> configureAction) {
-        buildOperationExecutor.run(new CrossConfigureProjectBuildOperation(project) {
+        withProjectLock(project, new CrossConfigureProjectBuildOperation(project) {
             @Override
             public void run(BuildOperationContext context) {
                 Actions.with(project, configureAction);
@@ -111,6 +113,15 @@ public class BuildOperationCrossProjectConfigurator implements CrossProjectConfi
         });
     }
 
+    private void withProjectLock(Project project, final RunnableBuildOperation operation) {
+        projectConfigurationLocks.withProjectLock(project, new Runnable() {
+            @Override
+            public void run() {
+                buildOperationExecutor.run(operation);
+            }
+        });
+    }
+
     private static abstract class BlockConfigureBuildOperation implements RunnableBuildOperation {
 
         private final static String ALLPROJECTS = "allprojects";
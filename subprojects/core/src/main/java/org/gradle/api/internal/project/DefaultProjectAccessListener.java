@@ -19,6 +19,11 @@ package org.gradle.api.internal.project;
 import org.gradle.initialization.ProjectAccessListener;
 
 public class DefaultProjectAccessListener implements ProjectAccessListener {
+    private final ProjectConfigurationLocks projectConfigurationLocks;
+
+    public DefaultProjectAccessListener(ProjectConfigurationLocks projectConfigurationLocks) {
+        this.projectConfigurationLocks = projectConfigurationLocks;
+    }
 
     public void beforeRequestingTaskByPath(ProjectInternal targetProject) {
         evaluateProjectAndDiscoverTasks(targetProject);
@@ -28,8 +33,14 @@ public class DefaultProjectAccessListener implements ProjectAccessListener {
         evaluateProjectAndDiscoverTasks(targetProject);
     }
 
-    private synchronized void evaluateProjectAndDiscoverTasks(final ProjectInternal targetProject) {
-        targetProject.evaluate();
-        targetProject.getTasks().discoverTasks();
+    private void evaluateProjectAndDiscoverTasks(final ProjectInternal targetProject) {
+        if (projectConfigurationLocks.isParallel()) {
+            // Evaluation waits for the lock of the target project, so do not hold the monitor while another thread may be evaluating it
+            targetProject.evaluate();
+        }
+        synchronized (this) {
+            targetProject.evaluate();
+            targetProject.getTasks().discoverTasks();
+        }
     }
 }
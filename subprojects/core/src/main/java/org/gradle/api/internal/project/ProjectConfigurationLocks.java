@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project;
+
+import org.gradle.api.Project;
+import org.gradle.api.Transformer;
+import org.gradle.internal.MutableBoolean;
+import org.gradle.internal.resources.ResourceLock;
+import org.gradle.internal.resources.ResourceLockCoordinationService;
+import org.gradle.internal.resources.ResourceLockState;
+import org.gradle.internal.work.WorkerLeaseService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Coordinates access to projects when they are configured in parallel.
+ *
+ * <p>Parallel configuration is enabled when parallel execution is enabled and the {@value #PARALLEL_CONFIGURATION_PROPERTY} system property is set
+ * to {@code true}. A project is evaluated, and configured by other projects, while holding its project lock. A thread releases the project locks it
+ * took for configuration while it waits for the lock of another project, so projects that reach into each other cannot deadlock. They may however
+ * see each other partially configured, as they would when evaluated one after another. Project locks held for any other reason, such as the lock
+ * of the project whose task is running, are kept.</p>
+ */
+public class ProjectConfigurationLocks {
+    public static final String PARALLEL_CONFIGURATION_PROPERTY = "org.gradle.internal.parallel-configuration";
+
+    private final WorkerLeaseService workerLeaseService;
+    private final ResourceLockCoordinationService coordinationService;
+    private final boolean parallel;
+    private final ThreadLocal<List<ResourceLock>> configurationLocks = new ThreadLocal<List<ResourceLock>>() {
+        @Override
+        protected List<ResourceLock> initialValue() {
+            return new ArrayList<ResourceLock>();
+        }
+    };
+
+    public ProjectConfigurationLocks(WorkerLeaseService workerLeaseService, ResourceLockCoordinationService coordinationService, boolean parallel) {
+        this.workerLeaseService = workerLeaseService;
+        this.coordinationService = coordinationService;
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns true when projects are configured in parallel.
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Runs the given action while holding the lock of the given project, when projects are configured in parallel.
+     */
+    public void withProjectLock(Project project, final Runnable action) {
+        if (!parallel) {
+            action.run();
+            return;
+        }
+        ProjectInternal projectInternal = (ProjectInternal) project;
+        String gradlePath = projectInternal.getGradle().getIdentityPath().toString();
+        final ResourceLock projectLock = workerLeaseService.getProjectLock(gradlePath, projectInternal.getIdentityPath().toString());
+        if (isLockedByCurrentThread(projectLock)) {
+            action.run();
+            return;
+        }
+        final List<ResourceLock> heldLocks = configurationLocks.get();
+        workerLeaseService.withoutLocks(new ArrayList<ResourceLock>(heldLocks), new Runnable() {
+            @Override
+            public void run() {
+                workerLeaseService.withLocks(Collections.singleton(projectLock), new Runnable() {
+                    @Override
+                    public void run() {
+                        heldLocks.add(projectLock);
+                        try {
+                            action.run();
+                        } finally {
+                            heldLocks.remove(heldLocks.size() - 1);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private boolean isLockedByCurrentThread(final ResourceLock lock) {
+        final MutableBoolean locked = new MutableBoolean();
+        coordinationService.withStateLock(new Transformer<ResourceLockState.Disposition, ResourceLockState>() {
+            @Override
+            public ResourceLockState.Disposition transform(ResourceLockState resourceLockState) {
+                locked.set(lock.isLockedByCurrentThread());
+                return ResourceLockState.Disposition.FINISHED;
+            }
+        });
+        return locked.get();
+    }
+}
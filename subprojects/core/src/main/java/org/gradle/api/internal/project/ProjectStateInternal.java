@@ -37,8 +37,9 @@ public class ProjectStateInternal implements ProjectState {
         CONFIGURED
     }
 
-    private State state = State.UNCONFIGURED;
-    private Throwable failure;
+    private volatile State state = State.UNCONFIGURED;
+    private volatile Thread configuringThread;
+    private volatile Throwable failure;
 
     @Override
     public boolean getExecuted() {
@@ -53,12 +54,20 @@ public class ProjectStateInternal implements ProjectState {
         return state == State.IN_BEFORE_EVALUATE || state == State.IN_EVALUATE || state == State.IN_AFTER_EVALUATE;
     }
 
+    /**
+     * Returns true when the project is being configured by the current thread.
+     */
+    public boolean isConfiguringOnCurrentThread() {
+        return isConfiguring() && configuringThread == Thread.currentThread();
+    }
+
     public boolean isUnconfigured() {
         return state == State.UNCONFIGURED;
     }
 
     public void toBeforeEvaluate() {
         assert state == State.UNCONFIGURED;
+        configuringThread = Thread.currentThread();
         state = State.IN_BEFORE_EVALUATE;
     }
 
@@ -75,6 +84,7 @@ public class ProjectStateInternal implements ProjectState {
     public void configured() {
         assert state != State.CONFIGURED;
         state = State.CONFIGURED;
+        configuringThread = null;
     }
 
     public void failed(Throwable failure) {
@@ -167,6 +167,10 @@ public class DefaultTaskDependency extends AbstractTaskDependency {
         }
     }
 
+    public Set<Object> getImmutableValues() {
+        return immutableValues;
+    }
+
     public Set<Object> getMutableValues() {
         if (mutableValues == null) {
             mutableValues = new TaskDependencySet();
@@ -23,8 +23,10 @@ import org.gradle.internal.event.ListenerManager;
 
 import javax.annotation.Nullable;
 import java.lang.ref.SoftReference;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
@@ -40,6 +42,7 @@ import java.util.WeakHashMap;
 @ThreadSafe
 public class CrossBuildInMemoryCacheFactory {
     private final ListenerManager listenerManager;
+    private final List<DefaultCrossBuildInMemoryCache<?, ?>> caches = new ArrayList<DefaultCrossBuildInMemoryCache<?, ?>>();
 
     public CrossBuildInMemoryCacheFactory(ListenerManager listenerManager) {
         this.listenerManager = listenerManager;
@@ -52,7 +55,7 @@ public class CrossBuildInMemoryCacheFactory {
      */
     public <K, V> CrossBuildInMemoryCache<K, V> newCache() {
         DefaultCrossBuildInMemoryCache<K, V> cache = new DefaultCrossBuildInMemoryCache<K, V>(new HashMap<K, SoftReference<V>>());
-        listenerManager.addListener(cache);
+        register(cache);
         return cache;
     }
 
@@ -63,10 +66,34 @@ public class CrossBuildInMemoryCacheFactory {
      */
     public <V> CrossBuildInMemoryCache<Class<?>, V> newClassCache() {
         DefaultCrossBuildInMemoryCache<Class<?>, V> cache = new DefaultCrossBuildInMemoryCache<Class<?>, V>(new WeakHashMap<Class<?>, SoftReference<V>>());
-        listenerManager.addListener(cache);
+        register(cache);
         return cache;
     }
 
+    /**
+     * Stops retaining strong references to the values used during the last build session, for every cache created by this factory.
+     *
+     * <p>Between build sessions, these caches strongly retain only the values used by the last session. Older values are already only softly referenced,
+     * so there is nothing colder to release. Once released, the values of the last session are softly referenced too: the next session still finds them,
+     * unless the garbage collector had to reclaim them to avoid running out of memory. Values used during the current build session, if any, are not affected.</p>
+     */
+    public void releaseLastSessionValues() {
+        List<DefaultCrossBuildInMemoryCache<?, ?>> caches;
+        synchronized (this.caches) {
+            caches = new ArrayList<DefaultCrossBuildInMemoryCache<?, ?>>(this.caches);
+        }
+        for (DefaultCrossBuildInMemoryCache<?, ?> cache : caches) {
+            cache.releaseLastSessionValues();
+        }
+    }
+
+    private void register(DefaultCrossBuildInMemoryCache<?, ?> cache) {
+        listenerManager.addListener(cache);
+        synchronized (caches) {
+            caches.add(cache);
+        }
+    }
+
     private static class DefaultCrossBuildInMemoryCache<K, V> implements CrossBuildInMemoryCache<K, V>, SessionLifecycleListener {
         private final Object lock = new Object();
         private final Map<K, V> valuesForThisSession = new HashMap<K, V>();
@@ -92,6 +119,12 @@ public class CrossBuildInMemoryCacheFactory {
             }
         }
 
+        void releaseLastSessionValues() {
+            synchronized (lock) {
+                valuesForPreviousSession.clear();
+            }
+        }
+
         @Override
         public void clear() {
             synchronized (lock) {
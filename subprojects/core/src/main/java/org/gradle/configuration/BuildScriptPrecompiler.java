@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import org.gradle.api.Project;
+import org.gradle.api.internal.initialization.ClassLoaderScope;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+
+/**
+ * Compiles the build scripts of subprojects on a bounded pool of threads while projects are still being evaluated one after another.
+ *
+ * <p>A build script is compiled against the class loader of the project that has just been evaluated, which is the class loader it is compiled against
+ * during evaluation unless a project between the two changes the classpath. Compiled scripts are cached by content and class loader, so a script
+ * compiled against a different class loader is not used, and failures are left to be reported when the project is evaluated.</p>
+ */
+public class BuildScriptPrecompiler implements Stoppable {
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.precompile-build-scripts";
+
+    private static final Logger LOGGER = Logging.getLogger(BuildScriptPrecompiler.class);
+
+    private final DefaultScriptPluginFactory scriptPluginFactory;
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
+    private ManagedExecutor executor;
+    private volatile boolean stopped;
+
+    public BuildScriptPrecompiler(DefaultScriptPluginFactory scriptPluginFactory, ExecutorFactory executorFactory, int maxThreads) {
+        this.scriptPluginFactory = scriptPluginFactory;
+        this.executorFactory = executorFactory;
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * Starts compiling the build scripts of the subprojects of the given project, which has been evaluated.
+     */
+    public void precompileSubprojects(ProjectInternal project) {
+        ClassLoaderScope classLoaderScope = project.getClassLoaderScope();
+        if (stopped || !classLoaderScope.isLocked()) {
+            return;
+        }
+        ClassLoader classLoader = classLoaderScope.getExportClassLoader();
+        for (Project subproject : project.getSubprojects()) {
+            ProjectInternal target = (ProjectInternal) subproject;
+            ScriptSource scriptSource = target.getBuildScriptSource();
+            if (!target.getState().isUnconfigured() || !scriptSource.getResource().getExists()) {
+                continue;
+            }
+            getExecutor().execute(new PrecompileBuildScript(target, scriptSource, classLoader));
+        }
+    }
+
+    private synchronized ManagedExecutor getExecutor() {
+        if (executor == null) {
+            executor = executorFactory.create("Build script precompiler", maxThreads);
+        }
+        return executor;
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        synchronized (this) {
+            if (executor != null) {
+                executor.stop();
+            }
+        }
+    }
+
+    private class PrecompileBuildScript implements Runnable {
+        private final ProjectInternal project;
+        private final ScriptSource scriptSource;
+        private final ClassLoader classLoader;
+
+        PrecompileBuildScript(ProjectInternal project, ScriptSource scriptSource, ClassLoader classLoader) {
+            this.project = project;
+            this.scriptSource = scriptSource;
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public void run() {
+            // Projects that have started evaluation compile their own build script
+            if (stopped || !project.getState().isUnconfigured()) {
+                return;
+            }
+            try {
+                scriptPluginFactory.precompile(scriptSource, project, classLoader);
+            } catch (Throwable e) {
+                LOGGER.debug("Could not precompile {}.", scriptSource.getDisplayName(), e);
+            }
+        }
+    }
+}
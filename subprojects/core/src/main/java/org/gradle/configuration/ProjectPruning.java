@@ -0,0 +1,562 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import com.google.common.collect.ImmutableSet;
+import org.gradle.StartParameter;
+import org.gradle.TaskExecutionRequest;
+import org.gradle.api.Project;
+import org.gradle.api.ProjectEvaluationListener;
+import org.gradle.api.ProjectState;
+import org.gradle.api.Task;
+import org.gradle.api.execution.TaskExecutionGraph;
+import org.gradle.api.execution.TaskExecutionGraphListener;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.SettingsInternal;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.initialization.DefaultProjectDescriptor;
+import org.gradle.initialization.buildsrc.BuildSourceBuilder;
+import org.gradle.internal.Factory;
+import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.event.ListenerManager;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.resource.ResourceLocation;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Prunes the projects that are configured by a build. Remembers which projects a build needed to configure to calculate its task
+ * graph, keyed by the inputs of the configuration phase. When a later build is run with the same inputs, only those projects (and
+ * their parents) are configured before the task graph is calculated. Other projects are still configured on demand when one of their
+ * tasks is requested by path, for example through {@code dependsOn ':other:task'}, when they are resolved as a project dependency,
+ * when they are looked up by path, for example by a task at execution time, or when they are configured explicitly through the
+ * {@link org.gradle.execution.ProjectConfigurer}. The restriction is lifted once the task graph is ready.
+ *
+ * <p>The inputs are the requested tasks and command-line properties, the environment, the {@code gradle.properties} files, the
+ * settings and build scripts of every project, the scripts applied by them, their build script classpaths and the sources of
+ * {@code buildSrc}.</p>
+ *
+ * <p>A project that is not configured cannot change other projects, and a project that is configured must not depend on the state of
+ * one that is not. So the task graph is not remembered, and such builds always configure every project, when:</p>
+ *
+ * <ul>
+ *     <li>a project outside of the task graph configured a project other than itself or its subprojects with {@code project(':x') { }},
+ *     {@code allprojects { }} or {@code subprojects { }}, or registered an evaluation listener on such a project, for example through
+ *     {@code rootProject.afterEvaluate { }}.</li>
+ *     <li>a project outside of the task graph registered a task graph or task execution listener.</li>
+ *     <li>a project in the task graph looked up a project outside of it by path, for example with {@code project(':x').afterEvaluate { }}.</li>
+ *     <li>a listener that is notified about the configuration of every project was registered on the {@link org.gradle.api.invocation.Gradle},
+ *     or any listener was registered on it while a project was configured.</li>
+ * </ul>
+ *
+ * <p>Reads of projects through other means than a lookup by path, such as {@code subprojects.each { }} in a listener registered by
+ * an init script or in a task action, and files that build logic reads by other means than applying scripts, are not detected.
+ * This is why this is only enabled when the {@value #ENABLED_PROPERTY} system property is set to {@code true}.</p>
+ */
+public class ProjectPruning implements Closeable {
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.project-pruning";
+
+    private static final Logger LOGGER = Logging.getLogger(ProjectPruning.class);
+    // Tasks in this group, such as 'tasks' and 'dependencies', report on projects that are not part of the task graph
+    private static final String HELP_GROUP = "help";
+
+    private final CacheRepository cacheRepository;
+    private final FileHasher fileHasher;
+    @Nullable
+    private final File cacheDir;
+    private final boolean enabled;
+    private final Map<String, HashCode> inputs = new LinkedHashMap<String, HashCode>();
+    private final ThreadLocal<List<ProjectInternal>> evaluatingProjects = new ThreadLocal<List<ProjectInternal>>() {
+        @Override
+        protected List<ProjectInternal> initialValue() {
+            return new ArrayList<ProjectInternal>();
+        }
+    };
+    // Projects that changed other projects or registered listeners while they were configured
+    private final Set<String> projectsWithSideEffects = new TreeSet<String>();
+    // The projects that each project looked up by path while it was configured
+    private final Map<String, Set<String>> lookedUpProjects = new TreeMap<String, Set<String>>();
+    private boolean cacheable = true;
+    private PersistentCache cache;
+    private PersistentIndexedCache<String, Entry> entries;
+    private String key;
+    private volatile Set<String> projectsToConfigure;
+    // The projects configured before the task graph was calculated, when this build reuses an entry
+    private volatile Set<String> prunedProjects;
+    private volatile boolean recording;
+
+    public ProjectPruning(@Nullable File cacheDir, CacheRepository cacheRepository, FileHasher fileHasher) {
+        this(cacheDir, cacheRepository, fileHasher, Boolean.getBoolean(ENABLED_PROPERTY));
+    }
+
+    ProjectPruning(@Nullable File cacheDir, CacheRepository cacheRepository, FileHasher fileHasher, boolean enabled) {
+        this.cacheDir = cacheDir;
+        this.cacheRepository = cacheRepository;
+        this.fileHasher = fileHasher;
+        this.enabled = enabled && cacheDir != null;
+    }
+
+    /**
+     * Records a script that is applied while the build is configured.
+     */
+    public void scriptApplied(ScriptSource scriptSource) {
+        if (!enabled) {
+            return;
+        }
+        ResourceLocation location = scriptSource.getResource().getLocation();
+        File file = location.getFile();
+        if (file != null) {
+            recordFile(file);
+            return;
+        }
+        URI uri = location.getURI();
+        if (uri != null) {
+            // A remote script may change without notice
+            synchronized (inputs) {
+                cacheable = false;
+            }
+        }
+    }
+
+    /**
+     * Records the classpath of a build script.
+     */
+    public void classpathResolved(ClassPath classPath) {
+        if (!enabled) {
+            return;
+        }
+        for (File file : classPath.getAsFiles()) {
+            recordFile(file);
+        }
+    }
+
+    private void recordFile(File file) {
+        String path = file.getAbsolutePath();
+        synchronized (inputs) {
+            if (inputs.containsKey(path)) {
+                return;
+            }
+        }
+        HashCode hash = hashFile(file);
+        synchronized (inputs) {
+            inputs.put(path, hash);
+        }
+    }
+
+    /**
+     * Called once the settings of the build have been loaded, before any project is configured, when the build is going to calculate a task graph.
+     */
+    public void prepare(GradleInternal gradle, SettingsInternal settings) {
+        if (!enabled || gradle.getParent() != null || !gradle.getIncludedBuilds().isEmpty() || gradle.getStartParameter().isConfigureOnDemand()) {
+            return;
+        }
+        synchronized (inputs) {
+            if (!cacheable) {
+                // For example, an init script registered a listener that observes every project
+                return;
+            }
+        }
+        key = computeKey(gradle.getStartParameter(), settings);
+        Entry entry = getEntries().useCache(new Factory<Entry>() {
+            @Override
+            public Entry create() {
+                return entries.get(key);
+            }
+        });
+        if (entry != null && isUpToDate(entry)) {
+            LOGGER.lifecycle("Configuration inputs are unchanged, configuring {} of {} projects.", entry.projectPaths.size(), settings.getProjectRegistry().getAllProjects().size());
+            projectsToConfigure = entry.projectPaths;
+            prunedProjects = entry.projectPaths;
+        } else {
+            recording = true;
+            // Registered directly with the listener manager, so that it is not mistaken for a listener registered by build logic
+            gradle.getServices().get(ListenerManager.class).addListener(new ProjectEvaluationListener() {
+                @Override
+                public void beforeEvaluate(Project project) {
+                    evaluatingProjects.get().add((ProjectInternal) project);
+                }
+
+                @Override
+                public void afterEvaluate(Project project, ProjectState state) {
+                    List<ProjectInternal> projects = evaluatingProjects.get();
+                    projects.remove(projects.size() - 1);
+                }
+            });
+        }
+        gradle.getTaskGraph().addTaskExecutionGraphListener(new TaskExecutionGraphListener() {
+            @Override
+            public void graphPopulated(TaskExecutionGraph graph) {
+                taskGraphReady(graph);
+            }
+        });
+    }
+
+    /**
+     * Returns whether some projects are currently skipped when the build is configured.
+     */
+    public boolean isSkippingProjects() {
+        return projectsToConfigure != null;
+    }
+
+    /**
+     * Returns whether the given project should be configured now.
+     */
+    public boolean shouldConfigure(ProjectInternal project) {
+        Set<String> projectsToConfigure = this.projectsToConfigure;
+        return projectsToConfigure == null || projectsToConfigure.contains(project.getPath());
+    }
+
+    /**
+     * Records that the given project is being configured by a configuration block, such as {@code project(':x') { }} or {@code allprojects { }}.
+     */
+    public void projectConfigured(Project target) {
+        if (!recording) {
+            return;
+        }
+        ProjectInternal current = currentProject();
+        if (current == null) {
+            return;
+        }
+        for (Project project = target; project != null; project = project.getParent()) {
+            if (project == current) {
+                // A project configures itself or one of its subprojects, which are configured when it is
+                return;
+            }
+        }
+        sideEffect(current);
+    }
+
+    /**
+     * Records that the given project has been looked up by path, for example through {@code project(':x')}. When the project has
+     * been skipped by this build, it is configured before it is used.
+     */
+    public void projectLookedUp(ProjectInternal target) {
+        Set<String> prunedProjects = this.prunedProjects;
+        if (prunedProjects != null) {
+            if (!prunedProjects.contains(target.getPath())) {
+                target.evaluate();
+            }
+            return;
+        }
+        if (!recording) {
+            return;
+        }
+        ProjectInternal current = currentProject();
+        if (current == null || current == target) {
+            return;
+        }
+        synchronized (inputs) {
+            Set<String> targets = lookedUpProjects.get(current.getPath());
+            if (targets == null) {
+                targets = new TreeSet<String>();
+                lookedUpProjects.put(current.getPath(), targets);
+            }
+            targets.add(target.getPath());
+        }
+    }
+
+    /**
+     * Records that a task graph or task execution listener has been registered.
+     */
+    public void listenerAdded() {
+        if (!recording) {
+            return;
+        }
+        ProjectInternal current = currentProject();
+        if (current != null) {
+            sideEffect(current);
+        }
+    }
+
+    /**
+     * Records that a listener has been registered on the {@link org.gradle.api.invocation.Gradle}.
+     *
+     * @param projectListener whether the listener is notified about the configuration of every project.
+     */
+    public void gradleListenerAdded(boolean projectListener) {
+        if (!enabled || prunedProjects != null) {
+            return;
+        }
+        if (projectListener || currentProject() != null) {
+            synchronized (inputs) {
+                cacheable = false;
+            }
+        }
+    }
+
+    @Nullable
+    private ProjectInternal currentProject() {
+        List<ProjectInternal> projects = evaluatingProjects.get();
+        return projects.isEmpty() ? null : projects.get(projects.size() - 1);
+    }
+
+    private void sideEffect(ProjectInternal project) {
+        synchronized (inputs) {
+            projectsWithSideEffects.add(project.getPath());
+        }
+    }
+
+    private void taskGraphReady(TaskExecutionGraph graph) {
+        if (projectsToConfigure != null) {
+            // Reused the entry, any project can be configured from now on
+            projectsToConfigure = null;
+            return;
+        }
+        recording = false;
+        final Set<String> projectPaths = new TreeSet<String>();
+        for (Task task : graph.getAllTasks()) {
+            if (HELP_GROUP.equals(task.getGroup())) {
+                return;
+            }
+            for (Project project = task.getProject(); project != null; project = project.getParent()) {
+                if (!projectPaths.add(project.getPath())) {
+                    break;
+                }
+            }
+        }
+        final Map<String, HashCode> inputs;
+        synchronized (this.inputs) {
+            if (!cacheable) {
+                return;
+            }
+            for (String path : projectsWithSideEffects) {
+                if (!projectPaths.contains(path)) {
+                    LOGGER.info("Cannot prune the projects of this build because {} changes other projects or registers listeners, but has no tasks in the task graph.", path);
+                    return;
+                }
+            }
+            for (Map.Entry<String, Set<String>> lookup : lookedUpProjects.entrySet()) {
+                if (!projectPaths.contains(lookup.getKey())) {
+                    continue;
+                }
+                for (String path : lookup.getValue()) {
+                    if (!projectPaths.contains(path)) {
+                        LOGGER.info("Cannot prune the projects of this build because {} uses {}, which has no tasks in the task graph.", lookup.getKey(), path);
+                        return;
+                    }
+                }
+            }
+            inputs = new LinkedHashMap<String, HashCode>(this.inputs);
+        }
+        getEntries().useCache(new Runnable() {
+            @Override
+            public void run() {
+                entries.put(key, new Entry(projectPaths, inputs));
+            }
+        });
+    }
+
+    private boolean isUpToDate(Entry entry) {
+        for (Map.Entry<String, HashCode> input : entry.inputs.entrySet()) {
+            HashCode current = hashFile(new File(input.getKey()));
+            if (current == null ? input.getValue() != null : !current.equals(input.getValue())) {
+                LOGGER.info("Cannot reuse the remembered projects because {} has changed.", input.getKey());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String computeKey(StartParameter startParameter, SettingsInternal settings) {
+        Hasher hasher = Hashing.md5().newHasher();
+        for (TaskExecutionRequest request : startParameter.getTaskRequests()) {
+            putString(hasher, String.valueOf(request.getProjectPath()));
+            putStrings(hasher, request.getArgs());
+        }
+        putStrings(hasher, new TreeSet<String>(startParameter.getExcludedTaskNames()));
+        putString(hasher, startParameter.getCurrentDir().getAbsolutePath());
+        putMap(hasher, startParameter.getProjectProperties());
+        putMap(hasher, startParameter.getSystemPropertiesArgs());
+        putMap(hasher, System.getenv());
+        hasher.putBoolean(startParameter.isOffline());
+        hasher.putBoolean(startParameter.isRefreshDependencies());
+        hasher.putBoolean(startParameter.isBuildProjectDependencies());
+        putFile(hasher, new File(startParameter.getGradleUserHomeDir(), "gradle.properties"));
+        Map<String, DefaultProjectDescriptor> projects = new TreeMap<String, DefaultProjectDescriptor>();
+        for (DefaultProjectDescriptor project : settings.getProjectRegistry().getAllProjects()) {
+            projects.put(project.getPath(), project);
+        }
+        for (DefaultProjectDescriptor project : projects.values()) {
+            putString(hasher, project.getPath());
+            putFile(hasher, new File(project.getProjectDir(), "gradle.properties"));
+            putFile(hasher, project.getBuildFile());
+        }
+        File buildSrcDir = new File(settings.getRootDir(), BuildSourceBuilder.BUILD_SRC);
+        if (buildSrcDir.isDirectory()) {
+            for (File file : sortedChildren(buildSrcDir)) {
+                // Outputs of buildSrc are derived from its sources
+                if (!file.getName().equals("build") && !file.getName().equals(".gradle")) {
+                    putFile(hasher, file);
+                }
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    private void putFile(Hasher hasher, File file) {
+        putString(hasher, file.getAbsolutePath());
+        HashCode hash = hashFile(file);
+        hasher.putBoolean(hash != null);
+        if (hash != null) {
+            hasher.putHash(hash);
+        }
+    }
+
+    /**
+     * Returns the hash of the given file or directory tree, or null when it does not exist.
+     */
+    @Nullable
+    private HashCode hashFile(File file) {
+        if (file.isFile()) {
+            return fileHasher.hash(file);
+        }
+        if (file.isDirectory()) {
+            Hasher hasher = Hashing.md5().newHasher();
+            for (File child : sortedChildren(file)) {
+                putString(hasher, child.getName());
+                HashCode hash = hashFile(child);
+                hasher.putBoolean(hash != null);
+                if (hash != null) {
+                    hasher.putHash(hash);
+                }
+            }
+            return hasher.hash();
+        }
+        return null;
+    }
+
+    private static File[] sortedChildren(File dir) {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return new File[0];
+        }
+        Arrays.sort(children);
+        return children;
+    }
+
+    private static void putMap(Hasher hasher, Map<String, String> map) {
+        Map<String, String> sorted = new TreeMap<String, String>(map);
+        hasher.putInt(sorted.size());
+        for (Map.Entry<String, String> entry : sorted.entrySet()) {
+            putString(hasher, entry.getKey());
+            putString(hasher, String.valueOf(entry.getValue()));
+        }
+    }
+
+    private static void putStrings(Hasher hasher, Iterable<String> strings) {
+        for (String string : strings) {
+            putString(hasher, string);
+        }
+        hasher.putInt(-1);
+    }
+
+    private static void putString(Hasher hasher, String string) {
+        hasher.putInt(string.length());
+        hasher.putString(string);
+    }
+
+    private PersistentCache getEntries() {
+        if (cache == null) {
+            cache = cacheRepository
+                .cache(cacheDir)
+                .withDisplayName("project pruning cache")
+                .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+                .open();
+            entries = cache.createCache(new PersistentIndexedCacheParameters<String, Entry>("entries", String.class, new EntrySerializer()));
+        }
+        return cache;
+    }
+
+    @Override
+    public void close() {
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    private static class Entry {
+        private final Set<String> projectPaths;
+        private final Map<String, HashCode> inputs;
+
+        Entry(Set<String> projectPaths, Map<String, HashCode> inputs) {
+            this.projectPaths = projectPaths;
+            this.inputs = inputs;
+        }
+    }
+
+    private static class EntrySerializer extends AbstractSerializer<Entry> {
+        @Override
+        public Entry read(Decoder decoder) throws Exception {
+            int projectCount = decoder.readSmallInt();
+            ImmutableSet.Builder<String> projectPaths = ImmutableSet.builder();
+            for (int i = 0; i < projectCount; i++) {
+                projectPaths.add(decoder.readString());
+            }
+            int inputCount = decoder.readSmallInt();
+            Map<String, HashCode> inputs = new LinkedHashMap<String, HashCode>(inputCount);
+            for (int i = 0; i < inputCount; i++) {
+                String path = decoder.readString();
+                inputs.put(path, decoder.readBoolean() ? HashCode.fromBytes(decoder.readBinary()) : null);
+            }
+            return new Entry(projectPaths.build(), inputs);
+        }
+
+        @Override
+        public void write(Encoder encoder, Entry value) throws Exception {
+            encoder.writeSmallInt(value.projectPaths.size());
+            for (String path : value.projectPaths) {
+                encoder.writeString(path);
+            }
+            encoder.writeSmallInt(value.inputs.size());
+            for (Map.Entry<String, HashCode> input : value.inputs.entrySet()) {
+                encoder.writeString(input.getKey());
+                HashCode hash = input.getValue();
+                encoder.writeBoolean(hash != null);
+                if (hash != null) {
+                    encoder.writeBinary(hash.toByteArray());
+                }
+            }
+        }
+    }
+}
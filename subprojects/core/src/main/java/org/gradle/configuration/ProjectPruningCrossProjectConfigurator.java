@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import groovy.lang.Closure;
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.CrossProjectConfigurator;
+
+/**
+ * Tells the {@link ProjectPruning} about the projects configured by configuration blocks.
+ */
+public class ProjectPruningCrossProjectConfigurator implements CrossProjectConfigurator {
+    private final CrossProjectConfigurator delegate;
+    private final ProjectPruning projectPruning;
+
+    public ProjectPruningCrossProjectConfigurator(CrossProjectConfigurator delegate, ProjectPruning projectPruning) {
+        this.delegate = delegate;
+        this.projectPruning = projectPruning;
+    }
+
+    @Override
+    public Project project(Project project, Closure<? super Project> configureClosure) {
+        projectPruning.projectConfigured(project);
+        return delegate.project(project, configureClosure);
+    }
+
+    @Override
+    public Project project(Project project, Action<? super Project> configureAction) {
+        projectPruning.projectConfigured(project);
+        return delegate.project(project, configureAction);
+    }
+
+    @Override
+    public void subprojects(Iterable<Project> projects, Closure<? super Project> configureClosure) {
+        projectsConfigured(projects);
+        delegate.subprojects(projects, configureClosure);
+    }
+
+    @Override
+    public void subprojects(Iterable<Project> projects, Action<? super Project> configureAction) {
+        projectsConfigured(projects);
+        delegate.subprojects(projects, configureAction);
+    }
+
+    @Override
+    public void allprojects(Iterable<Project> projects, Closure<? super Project> configureClosure) {
+        projectsConfigured(projects);
+        delegate.allprojects(projects, configureClosure);
+    }
+
+    @Override
+    public void allprojects(Iterable<Project> projects, Action<? super Project> configureAction) {
+        projectsConfigured(projects);
+        delegate.allprojects(projects, configureAction);
+    }
+
+    @Override
+    public Project rootProject(Project project, Action<Project> buildOperationExecutor) {
+        projectPruning.projectConfigured(project);
+        return delegate.rootProject(project, buildOperationExecutor);
+    }
+
+    private void projectsConfigured(Iterable<Project> projects) {
+        for (Project project : projects) {
+            projectPruning.projectConfigured(project);
+        }
+    }
+}
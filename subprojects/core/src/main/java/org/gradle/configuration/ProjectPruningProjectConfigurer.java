@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.execution.ProjectConfigurer;
+
+/**
+ * Skips the projects that the {@link ProjectPruning} does not need configured when the build configures the project hierarchy.
+ * Projects that are configured explicitly are always configured.
+ */
+public class ProjectPruningProjectConfigurer implements ProjectConfigurer {
+    private final ProjectConfigurer delegate;
+    private final ProjectPruning projectPruning;
+
+    public ProjectPruningProjectConfigurer(ProjectConfigurer delegate, ProjectPruning projectPruning) {
+        this.delegate = delegate;
+        this.projectPruning = projectPruning;
+    }
+
+    @Override
+    public void configure(ProjectInternal project) {
+        delegate.configure(project);
+    }
+
+    @Override
+    public void configureFully(ProjectInternal project) {
+        delegate.configureFully(project);
+    }
+
+    @Override
+    public void configureHierarchy(ProjectInternal project) {
+        if (!projectPruning.isSkippingProjects()) {
+            delegate.configureHierarchy(project);
+            return;
+        }
+        configureIfRequired(project);
+        for (Project sub : project.getSubprojects()) {
+            configureIfRequired((ProjectInternal) sub);
+        }
+    }
+
+    @Override
+    public void configureHierarchyFully(ProjectInternal project) {
+        delegate.configureHierarchyFully(project);
+    }
+
+    private void configureIfRequired(ProjectInternal project) {
+        if (projectPruning.shouldConfigure(project)) {
+            delegate.configure(project);
+        }
+    }
+}
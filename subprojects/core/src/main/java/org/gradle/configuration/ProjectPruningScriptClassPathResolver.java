@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.internal.initialization.ScriptClassPathResolver;
+import org.gradle.internal.classpath.ClassPath;
+
+/**
+ * Records the resolved build script classpaths as inputs of the {@link ProjectPruning}.
+ */
+public class ProjectPruningScriptClassPathResolver implements ScriptClassPathResolver {
+    private final ScriptClassPathResolver delegate;
+    private final ProjectPruning projectPruning;
+
+    public ProjectPruningScriptClassPathResolver(ScriptClassPathResolver delegate, ProjectPruning projectPruning) {
+        this.delegate = delegate;
+        this.projectPruning = projectPruning;
+    }
+
+    @Override
+    public ClassPath resolveClassPath(Configuration classpath) {
+        ClassPath classPath = delegate.resolveClassPath(classpath);
+        projectPruning.classpathResolved(classPath);
+        return classPath;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import org.gradle.api.initialization.dsl.ScriptHandler;
+import org.gradle.api.internal.initialization.ClassLoaderScope;
+import org.gradle.groovy.scripts.ScriptSource;
+
+/**
+ * Records the scripts applied to the build as inputs of the {@link ProjectPruning}.
+ */
+public class ProjectPruningScriptPluginFactory implements ScriptPluginFactory {
+    private final ScriptPluginFactory delegate;
+    private final ProjectPruning projectPruning;
+
+    public ProjectPruningScriptPluginFactory(ScriptPluginFactory delegate, ProjectPruning projectPruning) {
+        this.delegate = delegate;
+        this.projectPruning = projectPruning;
+    }
+
+    @Override
+    public ScriptPlugin create(ScriptSource scriptSource, ScriptHandler scriptHandler, ClassLoaderScope targetScope, ClassLoaderScope baseScope, boolean topLevelScript) {
+        projectPruning.scriptApplied(scriptSource);
+        return delegate.create(scriptSource, scriptHandler, targetScope, baseScope, topLevelScript);
+    }
+}
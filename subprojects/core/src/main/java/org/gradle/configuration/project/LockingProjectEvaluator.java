@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project;
+
+import org.gradle.api.internal.project.ProjectConfigurationLocks;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.project.ProjectStateInternal;
+
+/**
+ * Evaluates a project while holding its project lock, so that a project being evaluated by another thread is waited for.
+ */
+public class LockingProjectEvaluator implements ProjectEvaluator {
+    private final ProjectEvaluator delegate;
+    private final ProjectConfigurationLocks projectConfigurationLocks;
+
+    public LockingProjectEvaluator(ProjectEvaluator delegate, ProjectConfigurationLocks projectConfigurationLocks) {
+        this.delegate = delegate;
+        this.projectConfigurationLocks = projectConfigurationLocks;
+    }
+
+    @Override
+    public void evaluate(final ProjectInternal project, final ProjectStateInternal state) {
+        if (!state.isUnconfigured() && !state.isConfiguring()) {
+            return;
+        }
+        projectConfigurationLocks.withProjectLock(project, new Runnable() {
+            @Override
+            public void run() {
+                delegate.evaluate(project, state);
+            }
+        });
+    }
+}
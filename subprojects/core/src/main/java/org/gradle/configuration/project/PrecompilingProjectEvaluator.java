@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project;
+
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.project.ProjectStateInternal;
+import org.gradle.configuration.BuildScriptPrecompiler;
+
+/**
+ * Starts compiling the build scripts of the subprojects once the root project has been evaluated.
+ */
+public class PrecompilingProjectEvaluator implements ProjectEvaluator {
+    private final ProjectEvaluator delegate;
+    private final BuildScriptPrecompiler buildScriptPrecompiler;
+
+    public PrecompilingProjectEvaluator(ProjectEvaluator delegate, BuildScriptPrecompiler buildScriptPrecompiler) {
+        this.delegate = delegate;
+        this.buildScriptPrecompiler = buildScriptPrecompiler;
+    }
+
+    @Override
+    public void evaluate(ProjectInternal project, ProjectStateInternal state) {
+        boolean rootProject = project.getParent() == null && state.isUnconfigured();
+        delegate.evaluate(project, state);
+        if (rootProject && state.getFailure() == null) {
+            buildScriptPrecompiler.precompileSubprojects(project);
+        }
+    }
+}
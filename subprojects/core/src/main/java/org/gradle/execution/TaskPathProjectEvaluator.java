@@ -16,16 +16,31 @@
 
 package org.gradle.execution;
 
+import org.gradle.api.Action;
 import org.gradle.api.BuildCancelledException;
 import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectConfigurationLocks;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class TaskPathProjectEvaluator implements ProjectConfigurer {
     private final BuildCancellationToken cancellationToken;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final ProjectConfigurationLocks projectConfigurationLocks;
 
-    public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken) {
+    public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken, BuildOperationExecutor buildOperationExecutor, ProjectConfigurationLocks projectConfigurationLocks) {
         this.cancellationToken = cancellationToken;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.projectConfigurationLocks = projectConfigurationLocks;
     }
 
     public void configure(ProjectInternal project) {
@@ -58,6 +73,10 @@ public class TaskPathProjectEvaluator implements ProjectConfigurer {
 
     public void configureHierarchy(ProjectInternal project) {
         configure(project);
+        if (projectConfigurationLocks.isParallel()) {
+            configureInParallel(project, false);
+            return;
+        }
         for (Project sub : project.getSubprojects()) {
             configure((ProjectInternal) sub);
         }
@@ -66,8 +85,63 @@ public class TaskPathProjectEvaluator implements ProjectConfigurer {
     @Override
     public void configureHierarchyFully(ProjectInternal project) {
         configureFully(project);
+        if (projectConfigurationLocks.isParallel()) {
+            configureInParallel(project, true);
+            return;
+        }
         for (Project sub : project.getSubprojects()) {
             configureFully((ProjectInternal) sub);
         }
     }
+
+    /**
+     * Configures the subprojects of the given project, which has already been configured, on worker threads.
+     */
+    private void configureInParallel(ProjectInternal project, final boolean fully) {
+        final List<ProjectInternal> subprojects = new ArrayList<ProjectInternal>();
+        for (Project sub : project.getSubprojects()) {
+            subprojects.add((ProjectInternal) sub);
+        }
+        buildOperationExecutor.runAll(new Action<BuildOperationQueue<ConfigureSubproject>>() {
+            @Override
+            public void execute(BuildOperationQueue<ConfigureSubproject> queue) {
+                for (ProjectInternal subproject : subprojects) {
+                    queue.add(new ConfigureSubproject(subproject, fully));
+                }
+            }
+        });
+    }
+
+    private class ConfigureSubproject implements RunnableBuildOperation {
+        private final ProjectInternal project;
+        private final boolean fully;
+
+        ConfigureSubproject(ProjectInternal project, boolean fully) {
+            this.project = project;
+            this.fully = fully;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            // Parents are configured before their children, as they would be when configured one after another
+            List<ProjectInternal> ancestors = new ArrayList<ProjectInternal>();
+            for (ProjectInternal parent = project.getParent(); parent != null; parent = parent.getParent()) {
+                ancestors.add(parent);
+            }
+            Collections.reverse(ancestors);
+            for (ProjectInternal ancestor : ancestors) {
+                configure(ancestor);
+            }
+            if (fully) {
+                configureFully(project);
+            } else {
+                configure(project);
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Configure " + project.getDisplayName() + " in parallel");
+        }
+    }
 }
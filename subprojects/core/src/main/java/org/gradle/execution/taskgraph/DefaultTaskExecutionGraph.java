@@ -31,6 +31,7 @@ import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.specs.Specs;
 import org.gradle.api.tasks.TaskState;
+import org.gradle.configuration.ProjectPruning;
 import org.gradle.execution.TaskExecutionGraphInternal;
 import org.gradle.internal.Cast;
 import org.gradle.internal.event.ListenerBroadcast;
@@ -71,6 +72,9 @@ public class DefaultTaskExecutionGraph implements TaskExecutionGraphInternal {
     private final ListenerBroadcast<TaskExecutionListener> taskListeners;
     private final DefaultTaskExecutionPlan taskExecutionPlan;
     private final BuildOperationExecutor buildOperationExecutor;
+    private final TaskDependencyPreResolver dependencyPreResolver;
+    private final ProjectPruning projectPruning;
+    private Spec<? super Task> filter = Specs.SATISFIES_ALL;
     private TaskGraphState taskGraphState = TaskGraphState.EMPTY;
     private List<Task> allTasks;
 
@@ -85,13 +89,17 @@ public class DefaultTaskExecutionGraph implements TaskExecutionGraphInternal {
         ResourceLockCoordinationService coordinationService,
         GradleInternal gradleInternal,
         TaskInfoFactory taskInfoFactory,
-        TaskDependencyResolver dependencyResolver
+        TaskDependencyResolver dependencyResolver,
+        TaskDependencyPreResolver dependencyPreResolver,
+        ProjectPruning projectPruning
     ) {
         this.taskPlanExecutor = taskPlanExecutor;
         this.workInfoExecutors = workInfoExecutors;
         this.buildOperationExecutor = buildOperationExecutor;
         this.coordinationService = coordinationService;
         this.gradleInternal = gradleInternal;
+        this.dependencyPreResolver = dependencyPreResolver;
+        this.projectPruning = projectPruning;
         graphListeners = listenerManager.createAnonymousBroadcaster(TaskExecutionGraphListener.class);
         taskListeners = listenerManager.createAnonymousBroadcaster(TaskExecutionListener.class);
         this.taskExecutionPlan = new DefaultTaskExecutionPlan(workerLeaseService, gradleInternal, taskInfoFactory, dependencyResolver);
@@ -104,6 +112,7 @@ public class DefaultTaskExecutionGraph implements TaskExecutionGraphInternal {
 
     public void useFilter(Spec<? super Task> filter) {
         Spec<? super Task> castFilter = Cast.uncheckedCast(filter != null ? filter : Specs.SATISFIES_ALL);
+        this.filter = castFilter;
         taskExecutionPlan.useFilter(castFilter);
         taskGraphState = TaskGraphState.DIRTY;
     }
@@ -113,13 +122,28 @@ public class DefaultTaskExecutionGraph implements TaskExecutionGraphInternal {
 
         final Timer clock = Time.startTimer();
 
-        Set<Task> taskSet = new LinkedHashSet<Task>();
+        final Set<Task> taskSet = new LinkedHashSet<Task>();
         for (Task task : tasks) {
             taskSet.add(task);
             requestedTasks.add(task);
         }
 
-        taskExecutionPlan.addToTaskGraph(taskSet);
+        if (dependencyPreResolver.isEnabled()) {
+            buildOperationExecutor.run(new RunnableBuildOperation() {
+                @Override
+                public void run(BuildOperationContext context) {
+                    dependencyPreResolver.resolve(taskSet, gradleInternal, filter);
+                    taskExecutionPlan.addToTaskGraph(taskSet);
+                }
+
+                @Override
+                public BuildOperationDescriptor.Builder description() {
+                    return BuildOperationDescriptor.displayName("Build task graph");
+                }
+            });
+        } else {
+            taskExecutionPlan.addToTaskGraph(taskSet);
+        }
         taskGraphState = TaskGraphState.DIRTY;
 
         LOGGER.debug("Timing: Creating the DAG took " + clock.getElapsed());
@@ -150,6 +174,7 @@ public class DefaultTaskExecutionGraph implements TaskExecutionGraphInternal {
     }
 
     public void addTaskExecutionGraphListener(TaskExecutionGraphListener listener) {
+        projectPruning.listenerAdded();
         graphListeners.add(listener);
     }
 
@@ -158,10 +183,12 @@ public class DefaultTaskExecutionGraph implements TaskExecutionGraphInternal {
     }
 
     public void whenReady(final Closure closure) {
+        projectPruning.listenerAdded();
         graphListeners.add(new ClosureBackedMethodInvocationDispatch("graphPopulated", closure));
     }
 
     public void whenReady(final Action<TaskExecutionGraph> action) {
+        projectPruning.listenerAdded();
         graphListeners.add(new TaskExecutionGraphListener() {
             @Override
             public void graphPopulated(TaskExecutionGraph graph) {
@@ -171,6 +198,7 @@ public class DefaultTaskExecutionGraph implements TaskExecutionGraphInternal {
     }
 
     public void addTaskExecutionListener(TaskExecutionListener listener) {
+        projectPruning.listenerAdded();
         taskListeners.add(listener);
     }
 
@@ -179,10 +207,12 @@ public class DefaultTaskExecutionGraph implements TaskExecutionGraphInternal {
     }
 
     public void beforeTask(final Closure closure) {
+        projectPruning.listenerAdded();
         taskListeners.add(new ClosureBackedMethodInvocationDispatch("beforeExecute", closure));
     }
 
     public void beforeTask(final Action<Task> action) {
+        projectPruning.listenerAdded();
         taskListeners.add(new TaskExecutionAdapter() {
             @Override
             public void beforeExecute(Task task) {
@@ -192,10 +222,12 @@ public class DefaultTaskExecutionGraph implements TaskExecutionGraphInternal {
     }
 
     public void afterTask(final Closure closure) {
+        projectPruning.listenerAdded();
         taskListeners.add(new ClosureBackedMethodInvocationDispatch("afterExecute", closure));
     }
 
     public void afterTask(final Action<Task> action) {
+        projectPruning.listenerAdded();
         taskListeners.add(new TaskExecutionAdapter() {
             @Override
             public void afterExecute(Task task, TaskState state) {
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.taskgraph;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import org.gradle.api.Action;
+import org.gradle.api.Buildable;
+import org.gradle.api.Task;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.project.ProjectConfigurationLocks;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.tasks.DefaultTaskDependency;
+import org.gradle.api.internal.tasks.TaskDependencyContainer;
+import org.gradle.api.internal.tasks.TaskResolver;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.TaskDependency;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Resolves the dependencies of the tasks to be added to the task graph on worker threads, ahead of the task graph being built.
+ *
+ * <p>Only dependencies that are known to stay within the project of their task are resolved here: the values that were declared for the
+ * dependencies and finalizers of a task through {@link DefaultTaskDependency}, and the tasks that these values refer to directly. Resolving any
+ * other value, such as a task path, a provider, a closure or a file collection, may run build logic that reaches into another project, whose lock
+ * is not held. These values are left to be resolved when the task graph is built, one task after another. The flattened dependencies are
+ * recorded with the {@link TaskDependencyResolver}, which the task graph then builds from. The task graph, and so the order in which tasks are
+ * executed, are not affected.</p>
+ *
+ * <p>Enabled when parallel execution is enabled and the {@value #ENABLED_PROPERTY} system property is set to {@code true}.</p>
+ */
+public class TaskDependencyPreResolver {
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.parallel-task-graph";
+
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final ProjectConfigurationLocks projectLocks;
+    private final TaskDependencyResolver dependencyResolver;
+    private final boolean enabled;
+
+    public TaskDependencyPreResolver(BuildOperationExecutor buildOperationExecutor, ProjectConfigurationLocks projectLocks, TaskDependencyResolver dependencyResolver, boolean enabled) {
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.projectLocks = projectLocks;
+        this.dependencyResolver = dependencyResolver;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Resolves the dependencies of the given tasks, and of the tasks they depend on or are finalized by, and blocks until done. Tasks that belong
+     * to another build or that are not accepted by the filter are skipped.
+     */
+    public void resolve(final Collection<? extends Task> tasks, GradleInternal gradle, Spec<? super Task> filter) {
+        if (!enabled || tasks.isEmpty()) {
+            return;
+        }
+        final Resolution resolution = new Resolution(gradle, filter);
+        buildOperationExecutor.runAll(new Action<BuildOperationQueue<ResolveTaskDependencies>>() {
+            @Override
+            public void execute(BuildOperationQueue<ResolveTaskDependencies> queue) {
+                resolution.queue = queue;
+                for (Task task : tasks) {
+                    resolution.add(task);
+                }
+            }
+        });
+    }
+
+    private class Resolution {
+        private final GradleInternal gradle;
+        private final Spec<? super Task> filter;
+        private final Set<Task> seen = Sets.newConcurrentHashSet();
+        private BuildOperationQueue<ResolveTaskDependencies> queue;
+
+        Resolution(GradleInternal gradle, Spec<? super Task> filter) {
+            this.gradle = gradle;
+            this.filter = filter;
+        }
+
+        void add(Task task) {
+            if (task.getProject().getGradle() != gradle || !seen.add(task)) {
+                return;
+            }
+            queue.add(new ResolveTaskDependencies(this, (TaskInternal) task));
+        }
+    }
+
+    private class ResolveTaskDependencies implements RunnableBuildOperation {
+        private final Resolution resolution;
+        private final TaskInternal task;
+
+        ResolveTaskDependencies(Resolution resolution, TaskInternal task) {
+            this.resolution = resolution;
+            this.task = task;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            final List<Task> dependencyTasks = new ArrayList<Task>();
+            projectLocks.withProjectLock(task.getProject(), new Runnable() {
+                @Override
+                public void run() {
+                    if (!resolution.filter.isSatisfiedBy(task)) {
+                        return;
+                    }
+                    preResolve(task.getTaskDependencies(), dependencyTasks);
+                    preResolve(task.getFinalizedBy(), dependencyTasks);
+                }
+            });
+            for (Task dependency : dependencyTasks) {
+                resolution.add(dependency);
+            }
+        }
+
+        /**
+         * Flattens the declared values of the given dependencies of the task and records the result, collecting the tasks they refer to.
+         */
+        private void preResolve(Object dependencies, List<Task> dependencyTasks) {
+            if (!(dependencies instanceof DefaultTaskDependency)) {
+                return;
+            }
+            DefaultTaskDependency taskDependency = (DefaultTaskDependency) dependencies;
+            TaskResolver resolver = ((ProjectInternal) task.getProject()).getTasks();
+            List<Object> resolved = new ArrayList<Object>();
+            addValues(taskDependency.getImmutableValues(), resolver, resolved, dependencyTasks);
+            addValues(taskDependency.getMutableValues(), resolver, resolved, dependencyTasks);
+            dependencyResolver.addPreResolved(task, dependencies, resolved);
+        }
+
+        private void addValues(Collection<Object> values, TaskResolver resolver, List<Object> resolved, List<Task> dependencyTasks) {
+            for (Object value : values) {
+                if (value instanceof Task) {
+                    resolved.add(value);
+                    dependencyTasks.add((Task) value);
+                } else if (value instanceof TaskDependencyContainer || value instanceof Buildable || value instanceof TaskDependency) {
+                    // Resolved by the task graph itself
+                    resolved.add(value);
+                } else {
+                    // Needs the resolver of the task to be converted to tasks, for example a task path
+                    resolved.add(new DefaultTaskDependency(resolver, ImmutableSet.of(value)));
+                }
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Resolve dependencies of " + task);
+        }
+    }
+}
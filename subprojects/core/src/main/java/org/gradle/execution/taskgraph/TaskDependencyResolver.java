@@ -19,14 +19,21 @@ package org.gradle.execution.taskgraph;
 import org.gradle.api.NonNullApi;
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.tasks.CachingTaskDependencyResolveContext;
+import org.gradle.api.internal.tasks.TaskDependencyContainer;
+import org.gradle.api.internal.tasks.TaskDependencyResolveContext;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @NonNullApi
 public class TaskDependencyResolver {
     private final List<WorkInfoDependencyResolver> workResolvers;
+    private final Map<Object, PreResolvedDependencies> preResolved = Collections.synchronizedMap(new IdentityHashMap<Object, PreResolvedDependencies>());
     private CachingTaskDependencyResolveContext<WorkInfo> context;
 
     public TaskDependencyResolver(List<WorkInfoDependencyResolver> workResolvers) {
@@ -36,13 +43,43 @@ public class TaskDependencyResolver {
 
     public void clear() {
         context = createTaskDependencyResolverContext(workResolvers);
+        preResolved.clear();
     }
 
     private static CachingTaskDependencyResolveContext<WorkInfo> createTaskDependencyResolverContext(List<WorkInfoDependencyResolver> workResolvers) {
         return new CachingTaskDependencyResolveContext<WorkInfo>(workResolvers);
     }
 
+    /**
+     * Records the objects that the given dependencies of the given task were flattened to ahead of the task graph being built. The next time
+     * these dependencies are resolved, the recorded objects are resolved instead. May be called from any thread.
+     */
+    public void addPreResolved(TaskInternal task, Object dependencies, Collection<?> resolved) {
+        preResolved.put(dependencies, new PreResolvedDependencies(task, resolved));
+    }
+
     public Set<WorkInfo> resolveDependenciesFor(@Nullable TaskInternal task, Object dependencies) {
+        PreResolvedDependencies preResolvedDependencies = preResolved.remove(dependencies);
+        if (preResolvedDependencies != null && preResolvedDependencies.task == task) {
+            return context.getDependencies(task, preResolvedDependencies);
+        }
         return context.getDependencies(task, dependencies);
     }
+
+    private static class PreResolvedDependencies implements TaskDependencyContainer {
+        private final TaskInternal task;
+        private final Collection<?> resolved;
+
+        PreResolvedDependencies(TaskInternal task, Collection<?> resolved) {
+            this.task = task;
+            this.resolved = resolved;
+        }
+
+        @Override
+        public void visitDependencies(TaskDependencyResolveContext context) {
+            for (Object dependency : resolved) {
+                context.add(dependency);
+            }
+        }
+    }
 }
@@ -28,6 +28,7 @@ import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.SettingsInternal;
 import org.gradle.composite.internal.IncludedBuildControllers;
 import org.gradle.configuration.BuildConfigurer;
+import org.gradle.configuration.ProjectPruning;
 import org.gradle.execution.BuildConfigurationActionExecuter;
 import org.gradle.execution.BuildExecuter;
 import org.gradle.execution.MultipleBuildFailures;
@@ -73,6 +74,7 @@ public class DefaultGradleLauncher implements GradleLauncher {
     private final BuildScopeServices buildServices;
     private final List<?> servicesToStop;
     private final IncludedBuildControllers includedBuildControllers;
+    private final ProjectPruning projectPruning;
     private final GradleInternal gradle;
     private SettingsInternal settings;
     private Stage stage;
@@ -82,7 +84,8 @@ public class DefaultGradleLauncher implements GradleLauncher {
                                  BuildListener buildListener, ModelConfigurationListener modelConfigurationListener,
                                  BuildCompletionListener buildCompletionListener, BuildOperationExecutor operationExecutor,
                                  BuildConfigurationActionExecuter buildConfigurationActionExecuter, BuildExecuter buildExecuter,
-                                 BuildScopeServices buildServices, List<?> servicesToStop, IncludedBuildControllers includedBuildControllers) {
+                                 BuildScopeServices buildServices, List<?> servicesToStop, IncludedBuildControllers includedBuildControllers,
+                                 ProjectPruning projectPruning) {
         this.gradle = gradle;
         this.initScriptHandler = initScriptHandler;
         this.settingsLoader = settingsLoader;
@@ -98,6 +101,7 @@ public class DefaultGradleLauncher implements GradleLauncher {
         this.buildServices = buildServices;
         this.servicesToStop = servicesToStop;
         this.includedBuildControllers = includedBuildControllers;
+        this.projectPruning = projectPruning;
     }
 
     @Override
@@ -135,6 +139,10 @@ public class DefaultGradleLauncher implements GradleLauncher {
             if (upTo == Stage.Load) {
                 return;
             }
+            if (stage == Stage.Load && upTo.compareTo(Stage.TaskGraph) >= 0) {
+                // Only builds that calculate a task graph can skip configuring projects
+                projectPruning.prepare(gradle, settings);
+            }
             configureBuild();
             if (upTo == Stage.Configure) {
                 return;
@@ -28,6 +28,7 @@ import org.gradle.api.logging.Logging;
 import org.gradle.api.logging.configuration.ShowStacktrace;
 import org.gradle.composite.internal.IncludedBuildControllers;
 import org.gradle.configuration.BuildConfigurer;
+import org.gradle.configuration.ProjectPruning;
 import org.gradle.deployment.internal.DefaultDeploymentRegistry;
 import org.gradle.execution.BuildConfigurationActionExecuter;
 import org.gradle.execution.BuildExecuter;
@@ -196,7 +197,8 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
             gradle.getServices().get(BuildExecuter.class),
             serviceRegistry,
             servicesToStop,
-            includedBuildControllers
+            includedBuildControllers,
+            serviceRegistry.get(ProjectPruning.class)
         );
         nestedBuildFactory.setParent(gradleLauncher);
         nestedBuildFactory.setBuildCancellationToken(cancellationToken);
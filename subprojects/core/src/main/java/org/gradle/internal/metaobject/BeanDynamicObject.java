@@ -15,6 +15,9 @@
  */
 package org.gradle.internal.metaobject;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import groovy.lang.GroovyObject;
 import groovy.lang.GroovySystem;
 import groovy.lang.MetaBeanProperty;
@@ -44,6 +47,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A {@link DynamicObject} which uses groovy reflection to provide access to the properties and methods of a bean.
@@ -192,6 +197,9 @@ public class BeanDynamicObject extends AbstractDynamicObject {
     }
 
     private class MetaClassAdapter {
+        // Keeps the shared lookups for the meta-class of the bean reachable
+        private volatile MetaClassLookups lookups;
+
         protected String getDisplayName() {
             return BeanDynamicObject.this.getDisplayName();
         }
@@ -333,11 +341,23 @@ public class BeanDynamicObject extends AbstractDynamicObject {
         @Nullable
         protected MetaProperty lookupProperty(MetaClass metaClass, String name) {
             if (metaClass instanceof MetaClassImpl) {
+                MetaClassLookups lookups = lookupsFor(metaClass);
+                if (lookups != null) {
+                    Object cached = lookups.properties.get(name);
+                    if (cached != null) {
+                        return cached == MetaClassLookups.MISSING ? null : (MetaProperty) cached;
+                    }
+                }
+                MetaProperty property;
                 try {
-                    return (MetaProperty) META_PROP_METHOD.invoke(metaClass, name, false);
+                    property = (MetaProperty) META_PROP_METHOD.invoke(metaClass, name, false);
                 } catch (Throwable e) {
                     throw UncheckedException.throwAsUncheckedException(e);
                 }
+                if (lookups != null) {
+                    lookups.properties.putIfAbsent(name, property == null ? MetaClassLookups.MISSING : property);
+                }
+                return property;
             }
 
             // Some other meta-class implementation - fall back to the public API
@@ -506,9 +526,30 @@ public class BeanDynamicObject extends AbstractDynamicObject {
             return invokeOpaqueMethod(metaClass, name, arguments);
         }
 
+        @Nullable
+        private MetaClassLookups lookupsFor(MetaClass metaClass) {
+            MetaClassLookups lookups = this.lookups;
+            if (lookups == null || lookups.metaClass != metaClass) {
+                lookups = MetaClassLookups.of(metaClass);
+                this.lookups = lookups;
+            }
+            return lookups;
+        }
+
         @Nullable
         protected MetaMethod lookupMethod(MetaClass metaClass, String name, Class[] arguments) {
-            return metaClass.pickMethod(name, arguments);
+            MetaClassLookups lookups = lookupsFor(metaClass);
+            if (lookups == null) {
+                return metaClass.pickMethod(name, arguments);
+            }
+            MethodKey key = new MethodKey(name, arguments);
+            Object cached = lookups.methods.get(key);
+            if (cached != null) {
+                return cached == MetaClassLookups.MISSING ? null : (MetaMethod) cached;
+            }
+            MetaMethod method = metaClass.pickMethod(name, arguments);
+            lookups.methods.putIfAbsent(key, method == null ? MetaClassLookups.MISSING : method);
+            return method;
         }
 
         protected DynamicInvokeResult invokeOpaqueMethod(MetaClass metaClass, String name, Object[] arguments) {
@@ -653,4 +694,73 @@ public class BeanDynamicObject extends AbstractDynamicObject {
             return null;
         }
     }
+
+    /**
+     * The results of property and method lookups for a meta-class, including lookups that found nothing. These are shared by all beans of the same class,
+     * so that each build script access resolves a given name against the meta-class once only.
+     *
+     * <p>Only used for {@link MetaClassImpl} itself, which does not change once it has been initialized. Other meta-class implementations, such as
+     * {@code ExpandoMetaClass}, can have methods and properties added at any time, so are always queried directly.</p>
+     *
+     * <p>The lookups refer to the meta-class and to the methods of its class, so they are only weakly referenced by the shared cache. Each bean dynamic
+     * object keeps the lookups it uses reachable, so that they are discarded, and the class loader of the class can be collected, once no bean of the
+     * class is in use.</p>
+     */
+    private static class MetaClassLookups {
+        private static final Object MISSING = new Object();
+        private static final LoadingCache<MetaClass, MetaClassLookups> LOOKUPS = CacheBuilder.newBuilder()
+            .weakKeys()
+            .weakValues()
+            .build(new CacheLoader<MetaClass, MetaClassLookups>() {
+                @Override
+                public MetaClassLookups load(MetaClass metaClass) {
+                    return new MetaClassLookups(metaClass);
+                }
+            });
+
+        private final MetaClass metaClass;
+        private final ConcurrentMap<String, Object> properties = new ConcurrentHashMap<String, Object>();
+        private final ConcurrentMap<MethodKey, Object> methods = new ConcurrentHashMap<MethodKey, Object>();
+
+        private MetaClassLookups(MetaClass metaClass) {
+            this.metaClass = metaClass;
+        }
+
+        @Nullable
+        static MetaClassLookups of(MetaClass metaClass) {
+            if (metaClass.getClass() != MetaClassImpl.class) {
+                return null;
+            }
+            return LOOKUPS.getUnchecked(metaClass);
+        }
+    }
+
+    private static class MethodKey {
+        private final String name;
+        private final Class[] argumentTypes;
+        private final int hashCode;
+
+        MethodKey(String name, Class[] argumentTypes) {
+            this.name = name;
+            this.argumentTypes = argumentTypes;
+            this.hashCode = 31 * name.hashCode() + Arrays.hashCode(argumentTypes);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            MethodKey other = (MethodKey) obj;
+            return name.equals(other.name) && Arrays.equals(argumentTypes, other.argumentTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
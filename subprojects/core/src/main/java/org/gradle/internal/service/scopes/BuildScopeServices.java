@@ -46,11 +46,13 @@ import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
 import org.gradle.api.internal.plugins.DefaultPluginRegistry;
 import org.gradle.api.internal.plugins.PluginInspector;
 import org.gradle.api.internal.plugins.PluginRegistry;
+import org.gradle.api.internal.project.CrossProjectConfigurator;
 import org.gradle.api.internal.project.DefaultProjectAccessListener;
 import org.gradle.api.internal.project.DefaultProjectRegistry;
 import org.gradle.api.internal.project.DefaultProjectTaskLister;
 import org.gradle.api.internal.project.IProjectFactory;
 import org.gradle.api.internal.project.IsolatedAntBuilder;
+import org.gradle.api.internal.project.ProjectConfigurationLocks;
 import org.gradle.api.internal.project.ProjectFactory;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.ProjectRegistry;
@@ -79,19 +81,29 @@ import org.gradle.api.provider.ProviderFactory;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.CacheValidator;
 import org.gradle.cache.FileLockManager;
+import org.gradle.cache.internal.CacheScopeMapping;
+import org.gradle.cache.internal.VersionStrategy;
 import org.gradle.caching.internal.BuildCacheServices;
 import org.gradle.configuration.BuildConfigurer;
+import org.gradle.configuration.BuildScriptPrecompiler;
 import org.gradle.configuration.DefaultBuildConfigurer;
 import org.gradle.configuration.DefaultInitScriptProcessor;
 import org.gradle.configuration.DefaultScriptPluginFactory;
 import org.gradle.configuration.ImportsReader;
+import org.gradle.configuration.ProjectPruning;
+import org.gradle.configuration.ProjectPruningCrossProjectConfigurator;
+import org.gradle.configuration.ProjectPruningProjectConfigurer;
+import org.gradle.configuration.ProjectPruningScriptClassPathResolver;
+import org.gradle.configuration.ProjectPruningScriptPluginFactory;
 import org.gradle.configuration.ScriptPluginFactory;
 import org.gradle.configuration.ScriptPluginFactorySelector;
 import org.gradle.configuration.project.BuildScriptProcessor;
 import org.gradle.configuration.project.ConfigureActionsProjectEvaluator;
 import org.gradle.configuration.project.DelayedConfigurationActions;
 import org.gradle.configuration.project.LifecycleProjectEvaluator;
+import org.gradle.configuration.project.LockingProjectEvaluator;
 import org.gradle.configuration.project.PluginsProjectConfigureActions;
+import org.gradle.configuration.project.PrecompilingProjectEvaluator;
 import org.gradle.configuration.project.ProjectEvaluator;
 import org.gradle.execution.ProjectConfigurer;
 import org.gradle.execution.TaskPathProjectEvaluator;
@@ -130,6 +142,7 @@ import org.gradle.initialization.buildsrc.BuildSourceBuilder;
 import org.gradle.initialization.buildsrc.BuildSrcBuildListenerFactory;
 import org.gradle.initialization.buildsrc.BuildSrcProjectConfigurationAction;
 import org.gradle.initialization.layout.BuildLayoutFactory;
+import org.gradle.initialization.layout.ProjectCacheDir;
 import org.gradle.internal.actor.ActorFactory;
 import org.gradle.internal.actor.internal.DefaultActorFactory;
 import org.gradle.internal.authentication.AuthenticationSchemeRegistry;
@@ -168,6 +181,7 @@ import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry;
 import org.gradle.tooling.provider.model.internal.BuildScopeToolingModelBuilderRegistryAction;
 import org.gradle.tooling.provider.model.internal.DefaultToolingModelBuilderRegistry;
 
+import java.io.File;
 import java.util.List;
 
 /**
@@ -233,13 +247,20 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         );
     }
 
-    protected ProjectEvaluator createProjectEvaluator(BuildOperationExecutor buildOperationExecutor, CachingServiceLocator cachingServiceLocator, ScriptPluginFactory scriptPluginFactory) {
+    protected ProjectEvaluator createProjectEvaluator(BuildOperationExecutor buildOperationExecutor, CachingServiceLocator cachingServiceLocator, ScriptPluginFactory scriptPluginFactory, ProjectConfigurationLocks projectConfigurationLocks, BuildScriptPrecompiler buildScriptPrecompiler) {
         ConfigureActionsProjectEvaluator withActionsEvaluator = new ConfigureActionsProjectEvaluator(
             PluginsProjectConfigureActions.from(cachingServiceLocator),
             new BuildScriptProcessor(scriptPluginFactory),
             new DelayedConfigurationActions()
         );
-        return new LifecycleProjectEvaluator(buildOperationExecutor, withActionsEvaluator);
+        ProjectEvaluator evaluator = new LifecycleProjectEvaluator(buildOperationExecutor, withActionsEvaluator);
+        if (Boolean.getBoolean(BuildScriptPrecompiler.ENABLED_PROPERTY)) {
+            evaluator = new PrecompilingProjectEvaluator(evaluator, buildScriptPrecompiler);
+        }
+        if (projectConfigurationLocks.isParallel()) {
+            evaluator = new LockingProjectEvaluator(evaluator, projectConfigurationLocks);
+        }
+        return evaluator;
     }
 
     protected PropertyMetadataStore createPropertyMetadataStore(List<PropertyAnnotationHandler> annotationHandlers) {
@@ -294,12 +315,22 @@ public class BuildScopeServices extends DefaultServiceRegistry {
             classLoaderHierarchyHasher);
     }
 
-    protected ScriptPluginFactory createScriptPluginFactory(InstantiatorFactory instantiatorFactory, BuildOperationExecutor buildOperationExecutor) {
+    protected ProjectPruning createProjectPruning(ProjectCacheDir projectCacheDir, CacheScopeMapping cacheScopeMapping, CacheRepository cacheRepository, FileHasher fileHasher) {
+        File cacheDir = cacheScopeMapping.getBaseDirectory(projectCacheDir.getDir(), "projectPruning", VersionStrategy.CachePerVersion);
+        return new ProjectPruning(cacheDir, cacheRepository, fileHasher);
+    }
+
+    protected ScriptPluginFactory createScriptPluginFactory(InstantiatorFactory instantiatorFactory, BuildOperationExecutor buildOperationExecutor, ProjectPruning projectPruning) {
         DefaultScriptPluginFactory defaultScriptPluginFactory = defaultScriptPluginFactory();
         ScriptPluginFactorySelector.ProviderInstantiator instantiator = ScriptPluginFactorySelector.defaultProviderInstantiatorFor(instantiatorFactory.inject(this));
         ScriptPluginFactorySelector scriptPluginFactorySelector = new ScriptPluginFactorySelector(defaultScriptPluginFactory, instantiator, buildOperationExecutor);
-        defaultScriptPluginFactory.setScriptPluginFactory(scriptPluginFactorySelector);
-        return scriptPluginFactorySelector;
+        ScriptPluginFactory scriptPluginFactory = new ProjectPruningScriptPluginFactory(scriptPluginFactorySelector, projectPruning);
+        defaultScriptPluginFactory.setScriptPluginFactory(scriptPluginFactory);
+        return scriptPluginFactory;
+    }
+
+    protected BuildScriptPrecompiler createBuildScriptPrecompiler(ExecutorFactory executorFactory, StartParameter startParameter) {
+        return new BuildScriptPrecompiler(defaultScriptPluginFactory(), executorFactory, startParameter.getMaxWorkerCount());
     }
 
     private DefaultScriptPluginFactory defaultScriptPluginFactory() {
@@ -371,8 +402,8 @@ public class BuildScopeServices extends DefaultServiceRegistry {
             buildOperationExecutor);
     }
 
-    protected ScriptClassPathResolver createScriptClassPathResolver(List<ScriptClassPathInitializer> initializers) {
-        return new DefaultScriptClassPathResolver(initializers);
+    protected ScriptClassPathResolver createScriptClassPathResolver(List<ScriptClassPathInitializer> initializers, ProjectPruning projectPruning) {
+        return new ProjectPruningScriptClassPathResolver(new DefaultScriptClassPathResolver(initializers), projectPruning);
     }
 
     protected ScriptHandlerFactory createScriptHandlerFactory() {
@@ -384,16 +415,20 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         );
     }
 
-    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken) {
-        return new TaskPathProjectEvaluator(cancellationToken);
+    protected CrossProjectConfigurator decorateCrossProjectConfigurator(CrossProjectConfigurator crossProjectConfigurator, ProjectPruning projectPruning) {
+        return new ProjectPruningCrossProjectConfigurator(crossProjectConfigurator, projectPruning);
+    }
+
+    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken, ProjectPruning projectPruning, BuildOperationExecutor buildOperationExecutor, ProjectConfigurationLocks projectConfigurationLocks) {
+        return new ProjectPruningProjectConfigurer(new TaskPathProjectEvaluator(cancellationToken, buildOperationExecutor, projectConfigurationLocks), projectPruning);
     }
 
     protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer, BuildStateRegistry buildStateRegistry) {
         return new DefaultBuildConfigurer(projectConfigurer, buildStateRegistry);
     }
 
-    protected ProjectAccessListener createProjectAccessListener() {
-        return new DefaultProjectAccessListener();
+    protected ProjectAccessListener createProjectAccessListener(ProjectConfigurationLocks projectConfigurationLocks) {
+        return new DefaultProjectAccessListener(projectConfigurationLocks);
     }
 
     protected ProfileEventAdapter createProfileEventAdapter() {
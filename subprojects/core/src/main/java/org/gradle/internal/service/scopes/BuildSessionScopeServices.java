@@ -46,6 +46,7 @@ import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.model.NamedObjectInstantiator;
 import org.gradle.api.internal.project.BuildOperationCrossProjectConfigurator;
 import org.gradle.api.internal.project.CrossProjectConfigurator;
+import org.gradle.api.internal.project.ProjectConfigurationLocks;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.PersistentIndexedCache;
@@ -77,6 +78,7 @@ import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.BuildOperationListenerManager;
 import org.gradle.internal.operations.CurrentBuildOperationRef;
 import org.gradle.internal.resources.ProjectLeaseRegistry;
+import org.gradle.internal.resources.ResourceLockCoordinationService;
 import org.gradle.internal.scopeids.PersistentScopeIdLoader;
 import org.gradle.internal.scopeids.ScopeIdsServices;
 import org.gradle.internal.scopeids.id.UserScopeId;
@@ -88,6 +90,7 @@ import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.time.Clock;
 import org.gradle.internal.work.AsyncWorkTracker;
 import org.gradle.internal.work.DefaultAsyncWorkTracker;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.plugin.use.internal.InjectedPluginClasspath;
 import org.gradle.process.internal.DefaultExecActionFactory;
 import org.gradle.process.internal.ExecFactory;
@@ -132,8 +135,13 @@ public class BuildSessionScopeServices extends DefaultServiceRegistry {
         return parent.createChild();
     }
 
-    CrossProjectConfigurator createCrossProjectConfigurator(BuildOperationExecutor buildOperationExecutor) {
-        return new BuildOperationCrossProjectConfigurator(buildOperationExecutor);
+    ProjectConfigurationLocks createProjectConfigurationLocks(WorkerLeaseService workerLeaseService, ResourceLockCoordinationService coordinationService, StartParameter startParameter) {
+        boolean parallel = startParameter.isParallelProjectExecutionEnabled() && Boolean.getBoolean(ProjectConfigurationLocks.PARALLEL_CONFIGURATION_PROPERTY);
+        return new ProjectConfigurationLocks(workerLeaseService, coordinationService, parallel);
+    }
+
+    CrossProjectConfigurator createCrossProjectConfigurator(BuildOperationExecutor buildOperationExecutor, ProjectConfigurationLocks projectConfigurationLocks) {
+        return new BuildOperationCrossProjectConfigurator(buildOperationExecutor, projectConfigurationLocks);
     }
 
     ProjectCacheDir createCacheLayout(StartParameter startParameter, BuildLayoutFactory buildLayoutFactory, BuildOperationExecutor buildOperationExecutor) {
@@ -16,9 +16,15 @@
 
 package org.gradle.internal.service.scopes;
 
+import org.gradle.api.internal.AsmBackedClassGenerator;
+import org.gradle.api.internal.ClassGenerator;
 import org.gradle.api.internal.ClassPathRegistry;
 import org.gradle.api.internal.DefaultClassPathProvider;
 import org.gradle.api.internal.DefaultClassPathRegistry;
+import org.gradle.api.internal.DefaultInstantiatorFactory;
+import org.gradle.api.internal.GeneratedClassStore;
+import org.gradle.api.internal.InstantiatorFactory;
+import org.gradle.api.internal.PersistentGeneratedClassStore;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.changedetection.state.CachingFileHasher;
 import org.gradle.api.internal.changedetection.state.ClasspathSnapshotter;
@@ -45,6 +51,7 @@ import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
 import org.gradle.api.internal.initialization.loadercache.DefaultClassLoaderCache;
 import org.gradle.api.internal.initialization.loadercache.DefaultClasspathHasher;
+import org.gradle.api.internal.initialization.loadercache.PersistentJarPackageIndex;
 import org.gradle.api.internal.model.NamedObjectInstantiator;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.PersistentIndexedCache;
@@ -83,6 +90,7 @@ import org.gradle.internal.jvm.inspection.JvmVersionDetector;
 import org.gradle.internal.logging.LoggingManagerInternal;
 import org.gradle.internal.logging.events.OutputEventListener;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
+import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.remote.MessagingServer;
 import org.gradle.internal.resource.local.FileAccessTimeJournal;
 import org.gradle.internal.serialize.HashCodeSerializer;
@@ -155,6 +163,25 @@ public class GradleUserHomeScopeServices {
         return new RegistryAwareClassLoaderHierarchyHasher(registry, classLoaderHasher);
     }
 
+    GeneratedClassStore createGeneratedClassStore(CacheRepository cacheRepository, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        return new PersistentGeneratedClassStore(cacheRepository, classLoaderHierarchyHasher);
+    }
+
+    /**
+     * Replaces the class generator of the global scope for builds using this user home, so that the classes generated for these builds are persisted in its caches.
+     */
+    ClassGenerator createClassGenerator(GeneratedClassStore generatedClassStore) {
+        return new AsmBackedClassGenerator(generatedClassStore);
+    }
+
+    InstantiatorFactory createInstantiatorFactory(ClassGenerator classGenerator, CrossBuildInMemoryCacheFactory cacheFactory) {
+        return new DefaultInstantiatorFactory(classGenerator, cacheFactory);
+    }
+
+    Instantiator createInstantiator(InstantiatorFactory instantiatorFactory) {
+        return instantiatorFactory.decorate();
+    }
+
     WellKnownFileLocations createFileCategorizer(List<CachedJarFileStore> fileStores) {
         return new DefaultWellKnownFileLocations(fileStores);
     }
@@ -190,7 +217,10 @@ public class GradleUserHomeScopeServices {
         return new DefaultHashingClassLoaderFactory(classpathHasher);
     }
 
-    ClassLoaderCache createClassLoaderCache(HashingClassLoaderFactory classLoaderFactory, ClasspathHasher classpathHasher) {
+    ClassLoaderCache createClassLoaderCache(HashingClassLoaderFactory classLoaderFactory, ClasspathHasher classpathHasher, CacheRepository cacheRepository, FileHasher fileHasher) {
+        if (Boolean.getBoolean(DefaultClassLoaderCache.SHARED_PREFIXES_PROPERTY)) {
+            return new DefaultClassLoaderCache(classLoaderFactory, classpathHasher, new PersistentJarPackageIndex(cacheRepository, fileHasher));
+        }
         return new DefaultClassLoaderCache(classLoaderFactory, classpathHasher);
     }
 
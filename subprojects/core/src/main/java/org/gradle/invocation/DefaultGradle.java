@@ -39,6 +39,7 @@ import org.gradle.api.internal.project.AbstractPluginAware;
 import org.gradle.api.internal.project.CrossProjectConfigurator;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.invocation.Gradle;
+import org.gradle.configuration.ProjectPruning;
 import org.gradle.configuration.ScriptPluginFactory;
 import org.gradle.execution.TaskExecutionGraphInternal;
 import org.gradle.initialization.ClassLoaderScopeRegistry;
@@ -269,76 +270,91 @@ public class DefaultGradle extends AbstractPluginAware implements GradleInternal
 
     @Override
     public void beforeProject(Closure closure) {
+        getProjectPruning().gradleListenerAdded(true);
         projectEvaluationListenerBroadcast.add(new ClosureBackedMethodInvocationDispatch("beforeEvaluate", closure));
     }
 
     @Override
     public void beforeProject(Action<? super Project> action) {
+        getProjectPruning().gradleListenerAdded(true);
         projectEvaluationListenerBroadcast.add("beforeEvaluate", action);
     }
 
     @Override
     public void afterProject(Closure closure) {
+        getProjectPruning().gradleListenerAdded(true);
         projectEvaluationListenerBroadcast.add(new ClosureBackedMethodInvocationDispatch("afterEvaluate", closure));
     }
 
     @Override
     public void afterProject(Action<? super Project> action) {
+        getProjectPruning().gradleListenerAdded(true);
         projectEvaluationListenerBroadcast.add("afterEvaluate", action);
     }
 
     @Override
     public void buildStarted(Closure closure) {
+        getProjectPruning().gradleListenerAdded(false);
         buildListenerBroadcast.add(new ClosureBackedMethodInvocationDispatch("buildStarted", closure));
     }
 
     @Override
     public void buildStarted(Action<? super Gradle> action) {
+        getProjectPruning().gradleListenerAdded(false);
         buildListenerBroadcast.add("buildStarted", action);
     }
 
     @Override
     public void settingsEvaluated(Closure closure) {
+        getProjectPruning().gradleListenerAdded(false);
         buildListenerBroadcast.add(new ClosureBackedMethodInvocationDispatch("settingsEvaluated", closure));
     }
 
     @Override
     public void settingsEvaluated(Action<? super Settings> action) {
+        getProjectPruning().gradleListenerAdded(false);
         buildListenerBroadcast.add("settingsEvaluated", action);
     }
 
     @Override
     public void projectsLoaded(Closure closure) {
+        getProjectPruning().gradleListenerAdded(false);
         buildListenerBroadcast.add(new ClosureBackedMethodInvocationDispatch("projectsLoaded", closure));
     }
 
     @Override
     public void projectsLoaded(Action<? super Gradle> action) {
+        getProjectPruning().gradleListenerAdded(false);
         buildListenerBroadcast.add("projectsLoaded", action);
     }
 
     @Override
     public void projectsEvaluated(Closure closure) {
+        getProjectPruning().gradleListenerAdded(true);
         buildListenerBroadcast.add(new ClosureBackedMethodInvocationDispatch("projectsEvaluated", closure));
     }
 
     @Override
     public void projectsEvaluated(Action<? super Gradle> action) {
+        getProjectPruning().gradleListenerAdded(true);
         buildListenerBroadcast.add("projectsEvaluated", action);
     }
 
     @Override
     public void buildFinished(Closure closure) {
+        getProjectPruning().gradleListenerAdded(false);
         buildListenerBroadcast.add(new ClosureBackedMethodInvocationDispatch("buildFinished", closure));
     }
 
     @Override
     public void buildFinished(Action<? super BuildResult> action) {
+        getProjectPruning().gradleListenerAdded(false);
         buildListenerBroadcast.add("buildFinished", action);
     }
 
     @Override
     public void addListener(Object listener) {
+        getProjectPruning().gradleListenerAdded(listener instanceof ProjectEvaluationListener);
         getListenerManager().addListener(listener);
     }
 
@@ -445,6 +461,11 @@ public class DefaultGradle extends AbstractPluginAware implements GradleInternal
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected ProjectPruning getProjectPruning() {
+        throw new UnsupportedOperationException();
+    }
+
     @Inject
     public PluginManagerInternal getPluginManager() {
         throw new UnsupportedOperationException();
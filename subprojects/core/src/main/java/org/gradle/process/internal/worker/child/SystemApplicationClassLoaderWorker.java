@@ -92,7 +92,7 @@ public class SystemApplicationClassLoaderWorker implements Callable<Void> {
         // Read server address and start connecting
         MultiChoiceAddress serverAddress = new MultiChoiceAddressSerializer().read(decoder);
         MessagingServices messagingServices = new MessagingServices();
-        final WorkerServices workerServices = new WorkerServices(messagingServices, gradleUserHomeDir);
+        final WorkerServices workerServices = new WorkerServices(messagingServices, gradleUserHomeDir, loggingManager);
 
         ObjectConnection connection = null;
         WorkerLogEventListener workerLogEventListener = null;
@@ -171,9 +171,13 @@ public class SystemApplicationClassLoaderWorker implements Callable<Void> {
     }
 
     private static class WorkerServices extends DefaultServiceRegistry {
-        public WorkerServices(ServiceRegistry parent, final File gradleUserHomeDir) {
+        public WorkerServices(ServiceRegistry parent, final File gradleUserHomeDir, final LoggingManagerInternal loggingManager) {
             super(parent);
             addProvider(new Object() {
+                LoggingManagerInternal createLoggingManager() {
+                    return loggingManager;
+                }
+
                 GradleUserHomeDirProvider createGradleUserHomeDirProvider() {
                     return new GradleUserHomeDirProvider() {
                         @Override
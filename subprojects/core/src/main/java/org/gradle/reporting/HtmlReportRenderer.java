@@ -93,7 +93,8 @@ public class HtmlReportRenderer {
             this.outputDirectory = outputDirectory;
         }
 
-        Resource addResource(URL source) {
+        // Pages may be rendered concurrently
+        synchronized Resource addResource(URL source) {
             String urlString = source.toString();
             Resource resource = resources.get(urlString);
             if (resource == null) {
@@ -114,8 +115,7 @@ public class HtmlReportRenderer {
         }
 
         public <T> void renderHtmlPage(final String name, final T model, final ReportRenderer<T, HtmlPageBuilder<SimpleHtmlWriter>> renderer) {
-            File outputFile = new File(outputDirectory, name);
-            IoActions.writeTextFile(outputFile, "utf-8", new ErroringAction<Writer>() {
+            writePage(name, new ErroringAction<Writer>() {
                 @Override
                 protected void doExecute(Writer writer) throws Exception {
                     SimpleHtmlWriter htmlWriter = new SimpleHtmlWriter(writer, "");
@@ -127,8 +127,7 @@ public class HtmlReportRenderer {
         }
 
         public <T> void renderRawHtmlPage(final String name, final T model, final ReportRenderer<T, HtmlPageBuilder<Writer>> renderer) {
-            File outputFile = new File(outputDirectory, name);
-            IoActions.writeTextFile(outputFile, "utf-8", new ErroringAction<Writer>() {
+            writePage(name, new ErroringAction<Writer>() {
                 @Override
                 protected void doExecute(Writer writer) throws Exception {
                     renderer.render(model, new DefaultHtmlPageBuilder<Writer>(prefix(name), writer));
@@ -136,6 +135,24 @@ public class HtmlReportRenderer {
             });
         }
 
+        /**
+         * Writes the page to a temporary file and then moves it into place, so that a page that fails to render does not replace the existing page.
+         */
+        private void writePage(String name, ErroringAction<Writer> action) {
+            File outputFile = new File(outputDirectory, name);
+            File tempFile = new File(outputFile.getParentFile(), outputFile.getName() + ".tmp");
+            try {
+                IoActions.writeTextFile(tempFile, "utf-8", action);
+            } catch (RuntimeException e) {
+                GFileUtils.deleteQuietly(tempFile);
+                throw e;
+            }
+            if (!tempFile.renameTo(outputFile)) {
+                GFileUtils.deleteQuietly(outputFile);
+                GFileUtils.moveFile(tempFile, outputFile);
+            }
+        }
+
         private String prefix(String name) {
             StringBuilder builder = new StringBuilder();
             int pos = 0;
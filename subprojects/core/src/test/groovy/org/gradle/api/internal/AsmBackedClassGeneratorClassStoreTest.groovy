@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal
+
+import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+
+class AsmBackedClassGeneratorClassStoreTest extends Specification {
+    def store = new InMemoryClassStore()
+    def generator = new AsmBackedClassGenerator(store)
+
+    def "stores generated classes and defines them from stored bytecode in a later class loader"() {
+        def type = parseClass()
+
+        when:
+        def generated = generator.generate(type)
+
+        then:
+        generated.superclass == type
+        store.stored == ["Thing_Decorated"]
+
+        when:
+        def otherType = parseClass()
+        def otherGenerated = generator.generate(otherType)
+
+        then:
+        otherGenerated.superclass == otherType
+        otherGenerated.classLoader == otherType.classLoader
+        store.loaded == ["Thing_Decorated", "Thing_Decorated"]
+        store.stored == ["Thing_Decorated"]
+        otherGenerated.newInstance().prop == null
+    }
+
+    def "generates class once when requested concurrently"() {
+        def type = parseClass()
+        def start = new CountDownLatch(1)
+        def results = new CopyOnWriteArrayList<Class<?>>()
+        def threads = (1..8).collect {
+            Thread.start {
+                start.await()
+                results << generator.generate(type)
+            }
+        }
+
+        when:
+        start.countDown()
+        threads*.join()
+
+        then:
+        results.size() == 8
+        results.unique().size() == 1
+        store.stored == ["Thing_Decorated"]
+    }
+
+    def "returns generated class when asked to generate a generated class"() {
+        def type = parseClass()
+
+        when:
+        def generated = generator.generate(type)
+
+        then:
+        generator.generate(generated) == generated
+        store.stored == ["Thing_Decorated"]
+    }
+
+    def "generator without a store does not use the store of another generator"() {
+        def otherGenerator = new AsmBackedClassGenerator()
+
+        when:
+        def generated = otherGenerator.generate(parseClass())
+
+        then:
+        generated.simpleName == "Thing_Decorated"
+        store.loaded.empty
+        store.stored.empty
+    }
+
+    private static Class<?> parseClass() {
+        return new GroovyClassLoader(AsmBackedClassGeneratorClassStoreTest.classLoader).parseClass("class Thing { String prop }")
+    }
+
+    static class InMemoryClassStore implements GeneratedClassStore {
+        final Map<String, byte[]> classes = [:]
+        final List<String> loaded = new CopyOnWriteArrayList<String>()
+        final List<String> stored = new CopyOnWriteArrayList<String>()
+
+        @Override
+        synchronized byte[] load(Class<?> type, String generatedClassName) {
+            loaded << generatedClassName
+            return classes[generatedClassName]
+        }
+
+        @Override
+        synchronized void store(Class<?> type, String generatedClassName, byte[] bytecode) {
+            stored << generatedClassName
+            classes[generatedClassName] = bytecode
+        }
+    }
+}
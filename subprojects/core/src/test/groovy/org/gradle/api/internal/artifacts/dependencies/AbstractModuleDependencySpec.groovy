@@ -164,6 +164,24 @@ abstract class AbstractModuleDependencySpec extends Specification {
         assertDeepCopy(dependency, copy)
     }
 
+    def "copy shares attributes until they are changed"() {
+        def usage = Attribute.of("usage", String)
+        dependency.attributes { it.attribute(usage, "api") }
+
+        when:
+        def copy = dependency.copy()
+
+        then:
+        copy.attributes.is(dependency.attributes)
+
+        when:
+        copy.attributes { it.attribute(usage, "runtime") }
+
+        then:
+        copy.attributes.getAttribute(usage) == "runtime"
+        dependency.attributes.getAttribute(usage) == "api"
+    }
+
     static void assertDeepCopy(ModuleDependency dependency, ModuleDependency copiedDependency) {
         assert copiedDependency.group == dependency.group
         assert copiedDependency.name == dependency.name
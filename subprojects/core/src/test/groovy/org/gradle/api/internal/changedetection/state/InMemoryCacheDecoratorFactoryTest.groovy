@@ -202,4 +202,37 @@ class InMemoryCacheDecoratorFactoryTest extends Specification {
         0 * target._
     }
 
+    def "discards entries of caches that have not been used since usage was last recorded"() {
+        given:
+        crossProcessCacheAccess.withFileLock(_) >> { Factory task -> task.create() }
+        asyncCacheAccess.read(_) >> { Factory task -> task.create() }
+        def used = cacheFactory.decorator(100, true).decorate("path/used.bin", "used", target, crossProcessCacheAccess, asyncCacheAccess)
+        def unused = cacheFactory.decorator(100, true).decorate("path/unused.bin", "unused", target, crossProcessCacheAccess, asyncCacheAccess)
+
+        when:
+        used.get("key")
+        unused.get("key")
+
+        then:
+        2 * target.get("key") >> "result"
+        cacheFactory.discardEntriesUnusedSinceLastRecord() == 0
+
+        when:
+        cacheFactory.recordUsage()
+        used.get("key")
+        def discarded = cacheFactory.discardEntriesUnusedSinceLastRecord()
+
+        then:
+        0 * target._
+        discarded == 1
+        cacheFactory.statistics.find { it.cacheId == "path/used.bin" }.hitCount == 1
+        cacheFactory.statistics.find { it.cacheId == "path/unused.bin" }.size == 0
+
+        when:
+        used.get("key")
+        unused.get("key")
+
+        then:
+        1 * target.get("key") >> "result"
+    }
 }
@@ -67,6 +67,52 @@ class DefaultPendingSourceTest extends Specification {
         pending.size() == 1
     }
 
+    def "realizes pending elements with a given type in the order they were added"() {
+        def provider4 = Mock(ProviderInternal)
+        _ * provider1.getType() >> SomeType.class
+        _ * provider2.getType() >> SomeOtherType.class
+        _ * provider3.getType() >> SomeType.class
+        _ * provider4.getType() >> String.class
+
+        when:
+        pending.addPending(provider1)
+        pending.addPending(provider2)
+        pending.addPending(provider4)
+        pending.addPending(provider3)
+        pending.realizePending(BaseType.class)
+
+        then:
+        1 * realize.execute(provider1)
+
+        then:
+        1 * realize.execute(provider2)
+
+        then:
+        1 * realize.execute(provider3)
+        0 * realize.execute(provider4)
+
+        and:
+        pending.size() == 1
+    }
+
+    def "does not realize removed elements of a given type"() {
+        _ * provider1.getType() >> SomeType.class
+        _ * provider2.getType() >> SomeType.class
+
+        when:
+        pending.addPending(provider1)
+        pending.addPending(provider2)
+        pending.removePending(provider1)
+        pending.realizePending(SomeType.class)
+
+        then:
+        0 * realize.execute(provider1)
+        1 * realize.execute(provider2)
+
+        and:
+        pending.isEmpty()
+    }
+
     def "cannot realize pending elements when realize action is not set"() {
         given:
         pending.onRealize(null)
@@ -61,6 +61,50 @@ class DefaultClassLoaderCacheTest extends Specification {
         cache.get(id1, classPath("c1"), root, null, classpathHasher.hash(classPath("c1"))) == cache.get(id1, classPath("c1"), root, null, null)
     }
 
+    def "class loader is created as child of class loader whose classpath it starts with when sharing prefixes"() {
+        def packageIndex = Stub(PersistentJarPackageIndex) {
+            getPackages(_) >> null
+        }
+        def sharingCache = new DefaultClassLoaderCache(new DefaultHashingClassLoaderFactory(classpathHasher), classpathHasher, packageIndex)
+        def root = classLoader(classPath("root"))
+
+        when:
+        def prefix = sharingCache.get(id1, classPath("c1", "c2"), root, null)
+        def loader = sharingCache.get(id2, classPath("c1", "c2", "c3"), root, null)
+
+        then:
+        loader.parent.is(prefix)
+        loader.URLs == classPath("c3").asURLArray
+        sharingCache.size() == 2
+
+        when:
+        sharingCache.remove(id1)
+
+        then:
+        sharingCache.size() == 2
+
+        when:
+        sharingCache.remove(id2)
+
+        then:
+        sharingCache.size() == 0
+    }
+
+    def "class loader is not created as child of class loader with different parent or classpath when sharing prefixes"() {
+        def packageIndex = Stub(PersistentJarPackageIndex) {
+            getPackages(_) >> null
+        }
+        def sharingCache = new DefaultClassLoaderCache(new DefaultHashingClassLoaderFactory(classpathHasher), classpathHasher, packageIndex)
+        def root1 = classLoader(classPath("root1"))
+        def root2 = classLoader(classPath("root2"))
+        sharingCache.get(id1, classPath("c1", "c2"), root1, null)
+
+        expect:
+        sharingCache.get(id2, classPath("c1", "c2", "c3"), root2, null).parent.is(root2)
+        sharingCache.get(id2, classPath("c2", "c1", "c3"), root1, null).parent.is(root1)
+        sharingCache.get(id2, classPath("c1"), root1, null).parent.is(root1)
+    }
+
     def "class loaders with different ids are reused"() {
         expect:
         def root = classLoader(classPath("root"))
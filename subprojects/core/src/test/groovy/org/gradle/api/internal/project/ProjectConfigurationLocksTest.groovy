@@ -0,0 +1,215 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project
+
+import org.gradle.api.Transformer
+import org.gradle.api.internal.GradleInternal
+import org.gradle.internal.MutableBoolean
+import org.gradle.internal.concurrent.ParallelismConfigurationManagerFixture
+import org.gradle.internal.resources.DefaultResourceLockCoordinationService
+import org.gradle.internal.resources.ResourceLock
+import org.gradle.internal.resources.ResourceLockCoordinationService
+import org.gradle.internal.resources.ResourceLockState
+import org.gradle.internal.work.DefaultWorkerLeaseService
+import org.gradle.internal.work.WorkerLeaseService
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.util.Path
+
+class ProjectConfigurationLocksTest extends ConcurrentSpec {
+    def coordinationService = new DefaultResourceLockCoordinationService()
+    def workerLeaseService = new DefaultWorkerLeaseService(coordinationService, new ParallelismConfigurationManagerFixture(true, 4))
+    def locks = new ProjectConfigurationLocks(workerLeaseService, coordinationService, true)
+    def projectA = project(":a")
+    def projectB = project(":b")
+
+    def cleanup() {
+        workerLeaseService.stop()
+    }
+
+    def "runs action without taking any lock when projects are not configured in parallel"() {
+        def workerLeaseService = Mock(WorkerLeaseService)
+        def locks = new ProjectConfigurationLocks(workerLeaseService, Stub(ResourceLockCoordinationService), false)
+        def action = Mock(Runnable)
+
+        when:
+        locks.withProjectLock(projectA, action)
+
+        then:
+        1 * action.run()
+        0 * workerLeaseService._
+    }
+
+    def "holds the lock of the project while running the action"() {
+        when:
+        locks.withProjectLock(projectA) {
+            assert lockIsHeld(projectA)
+            locks.withProjectLock(projectA) {
+                assert lockIsHeld(projectA)
+            }
+            assert lockIsHeld(projectA)
+        }
+
+        then:
+        !lockIsHeld(projectA)
+    }
+
+    def "releases the lock of the project when the action fails"() {
+        def failure = new RuntimeException("broken")
+
+        when:
+        locks.withProjectLock(projectA) {
+            throw failure
+        }
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+        !lockIsHeld(projectA)
+    }
+
+    def "configures different projects concurrently"() {
+        when:
+        async {
+            start {
+                withWorkerLease {
+                    locks.withProjectLock(projectA) {
+                        instant.aStarted
+                        thread.blockUntil.bStarted
+                    }
+                }
+            }
+            start {
+                withWorkerLease {
+                    locks.withProjectLock(projectB) {
+                        instant.bStarted
+                        thread.blockUntil.aStarted
+                    }
+                }
+            }
+        }
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "configures the same project from one thread at a time"() {
+        when:
+        async {
+            start {
+                withWorkerLease {
+                    locks.withProjectLock(projectA) {
+                        instant.firstStarted
+                        thread.block()
+                        instant.firstFinished
+                    }
+                }
+            }
+            start {
+                thread.blockUntil.firstStarted
+                withWorkerLease {
+                    locks.withProjectLock(projectA) {
+                        instant.secondStarted
+                    }
+                }
+            }
+        }
+
+        then:
+        instant.secondStarted > instant.firstFinished
+    }
+
+    def "releases the locks of the projects being configured while waiting for another project"() {
+        when:
+        async {
+            start {
+                withWorkerLease {
+                    locks.withProjectLock(projectA) {
+                        instant.aStarted
+                        thread.blockUntil.bStarted
+                        locks.withProjectLock(projectB) {
+                            assert !lockIsHeld(projectA)
+                            assert lockIsHeld(projectB)
+                        }
+                        assert lockIsHeld(projectA)
+                    }
+                }
+            }
+            start {
+                withWorkerLease {
+                    locks.withProjectLock(projectB) {
+                        instant.bStarted
+                        thread.blockUntil.aStarted
+                        locks.withProjectLock(projectA) {
+                            assert !lockIsHeld(projectB)
+                            assert lockIsHeld(projectA)
+                        }
+                        assert lockIsHeld(projectB)
+                    }
+                }
+            }
+        }
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "keeps project locks that were not taken for configuration"() {
+        when:
+        workerLeaseService.withLocks([lockOf(projectA)]) {
+            locks.withProjectLock(projectB) {
+                assert lockIsHeld(projectA)
+                assert lockIsHeld(projectB)
+            }
+            assert lockIsHeld(projectA)
+        }
+
+        then:
+        !lockIsHeld(projectA)
+        !lockIsHeld(projectB)
+    }
+
+    private void withWorkerLease(Runnable action) {
+        workerLeaseService.withLocks([workerLeaseService.workerLease], action)
+    }
+
+    private ResourceLock lockOf(ProjectInternal project) {
+        return workerLeaseService.getProjectLock(project.gradle.identityPath.toString(), project.identityPath.toString())
+    }
+
+    private boolean lockIsHeld(ProjectInternal project) {
+        def lock = lockOf(project)
+        def held = new MutableBoolean()
+        coordinationService.withStateLock(new Transformer<ResourceLockState.Disposition, ResourceLockState>() {
+            @Override
+            ResourceLockState.Disposition transform(ResourceLockState resourceLockState) {
+                held.set(lock.lockedByCurrentThread)
+                return ResourceLockState.Disposition.FINISHED
+            }
+        })
+        return held.get()
+    }
+
+    private ProjectInternal project(String path) {
+        def gradle = Stub(GradleInternal) {
+            getIdentityPath() >> Path.ROOT
+        }
+        return Stub(ProjectInternal) {
+            getIdentityPath() >> Path.path(path)
+            getGradle() >> gradle
+        }
+    }
+}
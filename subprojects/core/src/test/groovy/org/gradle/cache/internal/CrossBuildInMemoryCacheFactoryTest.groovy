@@ -147,6 +147,46 @@ class CrossBuildInMemoryCacheFactoryTest extends ConcurrentSpec {
         0 * transformer._
     }
 
+    def "retains strong references to values from the current session when values from the last session are released"() {
+        def transformer = Mock(Transformer)
+
+        when:
+        def cache = factory.newCache()
+        cache.get("a", transformer)
+        listenerManager.getBroadcaster(SessionLifecycleListener).beforeComplete()
+        cache.get("b", transformer)
+
+        then:
+        1 * transformer.transform("a") >> new Object()
+        1 * transformer.transform("b") >> new Object()
+        0 * transformer._
+
+        when:
+        factory.releaseLastSessionValues()
+        System.gc()
+        cache.get("b", transformer)
+
+        then:
+        0 * transformer._
+    }
+
+    def "values from the last session remain available to the next session after they are released"() {
+        def transformer = Mock(Transformer)
+        def a = new Object()
+
+        when:
+        def cache = factory.newCache()
+        cache.get("a", transformer)
+        listenerManager.getBroadcaster(SessionLifecycleListener).beforeComplete()
+        factory.releaseLastSessionValues()
+        def result = cache.get("a", transformer)
+
+        then:
+        1 * transformer.transform("a") >> a
+        0 * transformer._
+        result.is(a)
+    }
+
     def "creates a cache whose keys are classes"() {
         def a = new Object()
         def b = new Object()
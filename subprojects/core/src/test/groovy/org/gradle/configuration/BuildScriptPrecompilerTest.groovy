@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.api.internal.initialization.ClassLoaderScope
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectStateInternal
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
+import org.gradle.internal.resource.TextResource
+import spock.lang.Specification
+
+class BuildScriptPrecompilerTest extends Specification {
+    def scriptPluginFactory = Mock(DefaultScriptPluginFactory)
+    def executor = Mock(ManagedExecutor)
+    def executorFactory = Stub(ExecutorFactory) {
+        create(_, 4) >> executor
+    }
+    def precompiler = new BuildScriptPrecompiler(scriptPluginFactory, executorFactory, 4)
+    def classLoader = Mock(ClassLoader)
+    def scope = Stub(ClassLoaderScope) {
+        isLocked() >> true
+        getExportClassLoader() >> classLoader
+    }
+    def scheduled = []
+
+    def setup() {
+        executor.execute(_) >> { Runnable runnable -> scheduled << runnable }
+    }
+
+    def "compiles the build scripts of unconfigured subprojects against the class loader of the evaluated project"() {
+        def child1 = subproject()
+        def child2 = subproject()
+        def root = rootProject(scope, child1, child2)
+
+        when:
+        precompiler.precompileSubprojects(root)
+        runScheduled()
+
+        then:
+        1 * scriptPluginFactory.precompile(child1.buildScriptSource, child1, classLoader)
+        1 * scriptPluginFactory.precompile(child2.buildScriptSource, child2, classLoader)
+        0 * scriptPluginFactory._
+    }
+
+    def "does not compile the build scripts of subprojects that are configured or have no build script"() {
+        def configured = subproject()
+        configured.state.toBeforeEvaluate()
+        def noScript = subproject(false)
+        def root = rootProject(scope, configured, noScript)
+
+        when:
+        precompiler.precompileSubprojects(root)
+
+        then:
+        scheduled.empty
+    }
+
+    def "does not compile build scripts when the class loader of the evaluated project can still change"() {
+        def unlocked = Stub(ClassLoaderScope) {
+            isLocked() >> false
+        }
+        def root = rootProject(unlocked, subproject())
+
+        when:
+        precompiler.precompileSubprojects(root)
+
+        then:
+        scheduled.empty
+    }
+
+    def "does not compile the build script of a project that has started evaluation"() {
+        def child = subproject()
+        def root = rootProject(scope, child)
+
+        when:
+        precompiler.precompileSubprojects(root)
+        child.state.toBeforeEvaluate()
+        runScheduled()
+
+        then:
+        0 * scriptPluginFactory._
+    }
+
+    def "ignores a failed compile, so that the build script is compiled again when the project is evaluated"() {
+        def child = subproject()
+        def root = rootProject(scope, child)
+
+        when:
+        precompiler.precompileSubprojects(root)
+        runScheduled()
+
+        then:
+        1 * scriptPluginFactory.precompile(child.buildScriptSource, child, classLoader) >> { throw new RuntimeException("broken") }
+        noExceptionThrown()
+    }
+
+    def "does not compile build scripts once stopped"() {
+        def child = subproject()
+        def root = rootProject(scope, child)
+
+        when:
+        precompiler.precompileSubprojects(root)
+        precompiler.stop()
+        runScheduled()
+        precompiler.precompileSubprojects(root)
+
+        then:
+        1 * executor.stop()
+        0 * scriptPluginFactory._
+        scheduled.size() == 1
+    }
+
+    private void runScheduled() {
+        for (Runnable runnable : scheduled) {
+            runnable.run()
+        }
+    }
+
+    private ProjectInternal rootProject(ClassLoaderScope classLoaderScope, ProjectInternal... subprojects) {
+        return Stub(ProjectInternal) {
+            getClassLoaderScope() >> classLoaderScope
+            getSubprojects() >> (subprojects as Set)
+        }
+    }
+
+    private ProjectInternal subproject(boolean scriptExists = true) {
+        def state = new ProjectStateInternal()
+        def scriptSource = Stub(ScriptSource) {
+            getResource() >> Stub(TextResource) {
+                getExists() >> scriptExists
+            }
+        }
+        return Stub(ProjectInternal) {
+            getState() >> state
+            getBuildScriptSource() >> scriptSource
+        }
+    }
+}
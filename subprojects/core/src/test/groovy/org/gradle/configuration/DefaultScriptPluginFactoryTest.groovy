@@ -16,6 +16,7 @@
 package org.gradle.configuration
 
 import com.google.common.collect.Lists
+import org.gradle.api.Action
 import org.gradle.api.artifacts.Configuration
 import org.gradle.api.artifacts.ConfigurationContainer
 import org.gradle.api.initialization.dsl.ScriptHandler
@@ -35,6 +36,7 @@ import org.gradle.groovy.scripts.ScriptCompilerFactory
 import org.gradle.groovy.scripts.ScriptRunner
 import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.groovy.scripts.internal.BuildScriptData
+import org.gradle.groovy.scripts.internal.CompileOperation
 import org.gradle.groovy.scripts.internal.FactoryBackedCompileOperation
 import org.gradle.internal.Factory
 import org.gradle.internal.classloader.ClasspathHasher
@@ -254,4 +256,69 @@ class DefaultScriptPluginFactoryTest extends Specification {
         1 * scriptRunner.run(target, { scriptServices -> scriptServices.get(ScriptPluginFactory) == otherScriptPluginFactory })
         0 * scriptRunner._
     }
+
+    void "uses the build script precompiled against the class loader of the project when the project is evaluated"() {
+        given:
+        def target = Mock(ProjectInternal)
+        def compiled = []
+
+        when:
+        factory.precompile(scriptSource, target, scopeClassLoader)
+
+        then:
+        1 * scriptCompilerFactory.createCompiler(scriptSource) >> scriptCompiler
+        2 * scriptCompiler.compile(ProjectScript, _, scopeClassLoader, _) >> { Class type, CompileOperation operation, ClassLoader classLoader, Action verifier -> compile(compiled, operation) }
+        compiled.size() == 2
+
+        when:
+        def configurer = factory.create(scriptSource, scriptHandler, targetScope, baseScope, true)
+        configurer.apply(target)
+
+        then:
+        _ * baseScope.getExportClassLoader() >> scopeClassLoader
+        1 * loggingManagerFactory.create() >> loggingManager
+        1 * scriptCompilerFactory.createCompiler(scriptSource) >> scriptCompiler
+        2 * scriptCompiler.compile(ProjectScript, _, scopeClassLoader, _) >> { Class type, CompileOperation operation, ClassLoader classLoader, Action verifier -> compile(compiled, operation) }
+        1 * classPathScriptRunner.run(target, _ as ServiceRegistry)
+        0 * scriptRunner.run(_, _)
+        compiled.size() == 2
+    }
+
+    void "compiles the build script when the project is evaluated after precompiling it failed"() {
+        given:
+        def target = Mock(ProjectInternal)
+
+        when:
+        factory.precompile(scriptSource, target, scopeClassLoader)
+
+        then:
+        1 * scriptCompilerFactory.createCompiler(scriptSource) >> scriptCompiler
+        1 * scriptCompiler.compile(ProjectScript, _ as FactoryBackedCompileOperation, scopeClassLoader, _) >> { throw new RuntimeException("broken") }
+        def e = thrown(RuntimeException)
+        e.message == "broken"
+
+        when:
+        def configurer = factory.create(scriptSource, scriptHandler, targetScope, baseScope, true)
+        configurer.apply(target)
+
+        then:
+        1 * loggingManagerFactory.create() >> loggingManager
+        1 * scriptCompilerFactory.createCompiler(scriptSource) >> scriptCompiler
+        1 * scriptCompiler.compile(ProjectScript, _ as FactoryBackedCompileOperation, baseChildClassLoader, _) >> classPathScriptRunner
+        1 * classPathScriptRunner.run(target, _ as ServiceRegistry)
+        1 * scriptCompiler.compile(ProjectScript, { it.transformer != null }, scopeClassLoader, !null) >> scriptRunner
+        _ * scriptRunner.data >> new BuildScriptData(true)
+        _ * scriptRunner.runDoesSomething >> true
+        1 * scriptRunner.run(target, _ as ServiceRegistry)
+    }
+
+    /**
+     * Compiles the given operation like a script compiler that caches compiled scripts by operation, for a single class loader.
+     */
+    private ScriptRunner compile(List<String> compiled, CompileOperation operation) {
+        if (!compiled.contains(operation.id)) {
+            compiled << operation.id
+        }
+        return operation.id.startsWith("cp_") ? classPathScriptRunner : scriptRunner
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.execution.ProjectConfigurer
+import spock.lang.Specification
+
+class ProjectPruningProjectConfigurerTest extends Specification {
+    def delegate = Mock(ProjectConfigurer)
+    def projectPruning = Mock(ProjectPruning)
+    def configurer = new ProjectPruningProjectConfigurer(delegate, projectPruning)
+    def root = Stub(ProjectInternal)
+    def child1 = Stub(ProjectInternal)
+    def child2 = Stub(ProjectInternal)
+
+    def setup() {
+        root.getSubprojects() >> ([child1, child2] as Set)
+    }
+
+    def "configures only the projects remembered by project pruning when configuring the hierarchy"() {
+        projectPruning.isSkippingProjects() >> true
+        projectPruning.shouldConfigure(root) >> true
+        projectPruning.shouldConfigure(child1) >> false
+        projectPruning.shouldConfigure(child2) >> true
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        1 * delegate.configure(root)
+        1 * delegate.configure(child2)
+        0 * delegate._
+    }
+
+    def "configures the hierarchy as usual when no projects are skipped"() {
+        projectPruning.isSkippingProjects() >> false
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        1 * delegate.configureHierarchy(root)
+        0 * delegate._
+    }
+
+    def "always configures projects that are configured explicitly"() {
+        projectPruning.isSkippingProjects() >> true
+        projectPruning.shouldConfigure(_) >> false
+
+        when:
+        configurer.configure(child1)
+        configurer.configureFully(child2)
+        configurer.configureHierarchyFully(root)
+
+        then:
+        1 * delegate.configure(child1)
+        1 * delegate.configureFully(child2)
+        1 * delegate.configureHierarchyFully(root)
+        0 * delegate._
+    }
+}
@@ -0,0 +1,431 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.StartParameter
+import org.gradle.api.ProjectEvaluationListener
+import org.gradle.api.Task
+import org.gradle.api.execution.TaskExecutionGraphListener
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.SettingsInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectRegistry
+import org.gradle.cache.CacheBuilder
+import org.gradle.cache.CacheRepository
+import org.gradle.cache.PersistentCache
+import org.gradle.cache.PersistentIndexedCacheParameters
+import org.gradle.execution.TaskExecutionGraphInternal
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.initialization.DefaultProjectDescriptor
+import org.gradle.internal.Factory
+import org.gradle.internal.classpath.DefaultClassPath
+import org.gradle.internal.event.ListenerManager
+import org.gradle.internal.hash.TestFileHasher
+import org.gradle.internal.resource.ResourceLocation
+import org.gradle.internal.resource.TextResource
+import org.gradle.internal.service.ServiceRegistry
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.InMemoryIndexedCache
+import org.junit.Rule
+import spock.lang.Specification
+
+class ProjectPruningTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def entries = null
+    def persistentCache = Stub(PersistentCache) {
+        createCache(_) >> { PersistentIndexedCacheParameters parameters ->
+            if (entries == null) {
+                entries = new InMemoryIndexedCache(parameters.valueSerializer)
+            }
+            return entries
+        }
+        useCache(_ as Factory) >> { Factory action -> action.create() }
+        useCache(_ as Runnable) >> { Runnable action -> action.run() }
+    }
+    def cacheBuilder = Stub(CacheBuilder)
+    def cacheRepository = Stub(CacheRepository)
+    def startParameter = new StartParameter()
+    def rootDir = tmpDir.createDir("root")
+    def projects = [descriptor(":", rootDir), descriptor(":a", rootDir.file("a")), descriptor(":a:b", rootDir.file("a/b")), descriptor(":c", rootDir.file("c"))]
+    def settings = Stub(SettingsInternal) {
+        getRootDir() >> rootDir
+        getProjectRegistry() >> Stub(ProjectRegistry) {
+            getAllProjects() >> (projects as Set)
+        }
+    }
+    TaskExecutionGraphListener graphListener
+    ProjectEvaluationListener evaluationListener
+
+    def setup() {
+        cacheBuilder.withDisplayName(_) >> cacheBuilder
+        cacheBuilder.withLockOptions(_) >> cacheBuilder
+        cacheBuilder.open() >> persistentCache
+        cacheRepository.cache(_ as File) >> cacheBuilder
+        startParameter.currentDir = rootDir
+        startParameter.gradleUserHomeDir = tmpDir.createDir("user-home")
+        startParameter.taskNames = ["b"]
+        rootDir.file("a/b/build.gradle") << "task b"
+    }
+
+    def "configures all projects when there is no entry for the inputs"() {
+        def pruning = projectPruning()
+
+        when:
+        pruning.prepare(gradle(), settings)
+
+        then:
+        projects.every { pruning.shouldConfigure(project(it.path)) }
+    }
+
+    def "configures only the projects of the previous task graph, and their parents, when the inputs have not changed"() {
+        buildWithTaskGraph(":a:b")
+        def pruning = projectPruning()
+
+        when:
+        pruning.prepare(gradle(), settings)
+
+        then:
+        pruning.shouldConfigure(project(":"))
+        pruning.shouldConfigure(project(":a"))
+        pruning.shouldConfigure(project(":a:b"))
+        !pruning.shouldConfigure(project(":c"))
+
+        when:
+        graphListener.graphPopulated(null)
+
+        then:
+        pruning.shouldConfigure(project(":c"))
+    }
+
+    def "configures all projects when a build script has changed"() {
+        buildWithTaskGraph(":a:b")
+        rootDir.file("c/build.gradle") << "task c"
+        def pruning = projectPruning()
+
+        when:
+        pruning.prepare(gradle(), settings)
+
+        then:
+        pruning.shouldConfigure(project(":c"))
+    }
+
+    def "configures all projects when the requested tasks have changed"() {
+        buildWithTaskGraph(":a:b")
+        startParameter.taskNames = ["c"]
+        def pruning = projectPruning()
+
+        when:
+        pruning.prepare(gradle(), settings)
+
+        then:
+        pruning.shouldConfigure(project(":c"))
+    }
+
+    def "configures all projects when an applied script has changed"() {
+        def script = rootDir.file("gradle/shared.gradle") << "println 'shared'"
+        buildWithTaskGraph(":a:b", "build") {
+            it.scriptApplied(scriptSource(script))
+        }
+        def pruning = projectPruning()
+
+        when:
+        pruning.prepare(gradle(), settings)
+
+        then:
+        !pruning.shouldConfigure(project(":c"))
+
+        when:
+        script << "println 'changed'"
+        pruning = projectPruning()
+        pruning.prepare(gradle(), settings)
+
+        then:
+        pruning.shouldConfigure(project(":c"))
+    }
+
+    def "configures all projects when a build script classpath has changed"() {
+        def jar = rootDir.file("libs/plugin.jar") << "content"
+        buildWithTaskGraph(":a:b", "build") {
+            it.classpathResolved(DefaultClassPath.of([jar]))
+        }
+
+        when:
+        jar << "changed"
+        def pruning = projectPruning()
+        pruning.prepare(gradle(), settings)
+
+        then:
+        pruning.shouldConfigure(project(":c"))
+    }
+
+    def "does not remember the task graph when it contains help tasks"() {
+        buildWithTaskGraph(":a:b", "help")
+        def pruning = projectPruning()
+
+        when:
+        pruning.prepare(gradle(), settings)
+
+        then:
+        pruning.shouldConfigure(project(":c"))
+    }
+
+    def "does not remember the task graph when a project outside of it configures another project"() {
+        buildWithTaskGraph(":a:b", "build", {}) { ProjectPruning pruning ->
+            def c = projectHierarchy(":c")
+            evaluationListener.beforeEvaluate(c)
+            pruning.projectConfigured(projectHierarchy(":a"))
+            evaluationListener.afterEvaluate(c, null)
+        }
+        def pruning = projectPruning()
+
+        when:
+        pruning.prepare(gradle(), settings)
+
+        then:
+        pruning.shouldConfigure(project(":c"))
+    }
+
+    def "remembers the task graph when a project outside of it configures its subprojects"() {
+        buildWithTaskGraph(":a:b", "build", {}) { ProjectPruning pruning ->
+            def c = projectHierarchy(":c")
+            evaluationListener.beforeEvaluate(c)
+            pruning.projectConfigured(c)
+            pruning.projectConfigured(Stub(ProjectInternal) {
+                getPath() >> ":c:d"
+                getParent() >> c
+            })
+            evaluationListener.afterEvaluate(c, null)
+        }
+        def pruning = projectPruning()
+
+        when:
+        pruning.prepare(gradle(), settings)
+
+        then:
+        !pruning.shouldConfigure(project(":c"))
+    }
+
+    def "remembers the task graph when a project in it configures another project"() {
+        buildWithTaskGraph(":a:b", "build", {}) { ProjectPruning pruning ->
+            def a = projectHierarchy(":a")
+            evaluationListener.beforeEvaluate(a)
+            pruning.projectConfigured(projectHierarchy(":c"))
+            pruning.listenerAdded()
+            evaluationListener.afterEvaluate(a, null)
+        }
+        def pruning = projectPruning()
+
+        when:
+        pruning.prepare(gradle(), settings)
+
+        then:
+        !pruning.shouldConfigure(project(":c"))
+    }
+
+    def "does not remember the task graph when a project outside of it registers a listener"() {
+        buildWithTaskGraph(":a:b", "build", {}) { ProjectPruning pruning ->
+            def c = projectHierarchy(":c")
+            evaluationListener.beforeEvaluate(c)
+            pruning.listenerAdded()
+            evaluationListener.afterEvaluate(c, null)
+        }
+        def pruning = projectPruning()
+
+        when:
+        pruning.prepare(gradle(), settings)
+
+        then:
+        pruning.shouldConfigure(project(":c"))
+    }
+
+    def "does not remember the task graph when a project in it looks up a project outside of it"() {
+        buildWithTaskGraph(":a:b", "build", {}) { ProjectPruning pruning ->
+            def a = projectHierarchy(":a")
+            evaluationListener.beforeEvaluate(a)
+            pruning.projectLookedUp(projectHierarchy(":c"))
+            evaluationListener.afterEvaluate(a, null)
+        }
+        def pruning = projectPruning()
+
+        when:
+        pruning.prepare(gradle(), settings)
+
+        then:
+        pruning.shouldConfigure(project(":c"))
+    }
+
+    def "remembers the task graph when a project outside of it looks up another project"() {
+        buildWithTaskGraph(":a:b", "build", {}) { ProjectPruning pruning ->
+            def c = projectHierarchy(":c")
+            evaluationListener.beforeEvaluate(c)
+            pruning.projectLookedUp(projectHierarchy(":a"))
+            evaluationListener.afterEvaluate(c, null)
+        }
+        def pruning = projectPruning()
+
+        when:
+        pruning.prepare(gradle(), settings)
+
+        then:
+        !pruning.shouldConfigure(project(":c"))
+    }
+
+    def "configures a skipped project when it is looked up"() {
+        buildWithTaskGraph(":a:b")
+        def pruning = projectPruning()
+        def a = project(":a")
+        def c = project(":c")
+
+        when:
+        pruning.prepare(gradle(), settings)
+        pruning.projectLookedUp(a)
+
+        then:
+        0 * a.evaluate()
+
+        when:
+        graphListener.graphPopulated(null)
+        pruning.projectLookedUp(c)
+
+        then:
+        1 * c.evaluate()
+    }
+
+    def "configures all projects when a project evaluation listener has been registered on the build"() {
+        buildWithTaskGraph(":a:b")
+        def pruning = projectPruning()
+
+        when:
+        pruning.gradleListenerAdded(true)
+        pruning.prepare(gradle(), settings)
+
+        then:
+        graphListener == null
+        pruning.shouldConfigure(project(":c"))
+    }
+
+    def "remembers the task graph when a build listener has been registered before any project is configured"() {
+        buildWithTaskGraph(":a:b", "build") {
+            it.gradleListenerAdded(false)
+        }
+        def pruning = projectPruning()
+
+        when:
+        pruning.prepare(gradle(), settings)
+
+        then:
+        !pruning.shouldConfigure(project(":c"))
+    }
+
+    def "does not remember the task graph when a listener is registered on the build while a project is configured"() {
+        buildWithTaskGraph(":a:b", "build", {}) { ProjectPruning pruning ->
+            def a = projectHierarchy(":a")
+            evaluationListener.beforeEvaluate(a)
+            pruning.gradleListenerAdded(false)
+            evaluationListener.afterEvaluate(a, null)
+        }
+        def pruning = projectPruning()
+
+        when:
+        pruning.prepare(gradle(), settings)
+
+        then:
+        pruning.shouldConfigure(project(":c"))
+    }
+
+    def "does nothing when disabled"() {
+        def pruning = new ProjectPruning(tmpDir.file("cache"), cacheRepository, new TestFileHasher(), false)
+
+        when:
+        pruning.prepare(gradle(), settings)
+
+        then:
+        graphListener == null
+        pruning.shouldConfigure(project(":c"))
+    }
+
+    private void buildWithTaskGraph(String taskPath, String group = "build", Closure configuration = {}, Closure whileConfiguring = {}) {
+        def pruning = projectPruning()
+        configuration.call(pruning)
+        pruning.prepare(gradle(), settings)
+        whileConfiguring.call(pruning)
+        def task = Stub(Task) {
+            getProject() >> projectHierarchy(taskPath)
+            getGroup() >> group
+        }
+        graphListener.graphPopulated(Stub(TaskExecutionGraphInternal) {
+            getAllTasks() >> [task]
+        })
+        graphListener = null
+    }
+
+    private ProjectPruning projectPruning() {
+        return new ProjectPruning(tmpDir.file("cache"), cacheRepository, new TestFileHasher(), true)
+    }
+
+    private GradleInternal gradle() {
+        return Stub(GradleInternal) {
+            getParent() >> null
+            getIncludedBuilds() >> []
+            getStartParameter() >> startParameter
+            getServices() >> Stub(ServiceRegistry) {
+                get(ListenerManager) >> Stub(ListenerManager) {
+                    addListener(_) >> { ProjectEvaluationListener listener -> evaluationListener = listener }
+                }
+            }
+            getTaskGraph() >> Stub(TaskExecutionGraphInternal) {
+                addTaskExecutionGraphListener(_) >> { TaskExecutionGraphListener listener -> graphListener = listener }
+            }
+        }
+    }
+
+    private ProjectInternal projectHierarchy(String path) {
+        def parentPath = path.lastIndexOf(':') > 0 ? path.substring(0, path.lastIndexOf(':')) : (path == ":" ? null : ":")
+        def parent = parentPath == null ? null : projectHierarchy(parentPath)
+        return Stub(ProjectInternal) {
+            getPath() >> path
+            getParent() >> parent
+        }
+    }
+
+    private ProjectInternal project(String path) {
+        def project = Mock(ProjectInternal)
+        _ * project.getPath() >> path
+        return project
+    }
+
+    private ScriptSource scriptSource(File file) {
+        return Stub(ScriptSource) {
+            getResource() >> Stub(TextResource) {
+                getLocation() >> Stub(ResourceLocation) {
+                    getFile() >> file
+                }
+            }
+        }
+    }
+
+    private DefaultProjectDescriptor descriptor(String path, TestFile projectDir) {
+        return Stub(DefaultProjectDescriptor) {
+            getPath() >> path
+            getProjectDir() >> projectDir
+            getBuildFile() >> projectDir.file("build.gradle")
+        }
+    }
+}
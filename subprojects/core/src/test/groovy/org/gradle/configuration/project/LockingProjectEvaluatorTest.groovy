@@ -0,0 +1,179 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project
+
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.project.ProjectConfigurationLocks
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectStateInternal
+import org.gradle.internal.concurrent.ParallelismConfigurationManagerFixture
+import org.gradle.internal.resources.DefaultResourceLockCoordinationService
+import org.gradle.internal.work.DefaultWorkerLeaseService
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.util.Path
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+class LockingProjectEvaluatorTest extends ConcurrentSpec {
+    def coordinationService = new DefaultResourceLockCoordinationService()
+    def workerLeaseService = new DefaultWorkerLeaseService(coordinationService, new ParallelismConfigurationManagerFixture(true, 4))
+    def scripts = [:]
+    def evaluated = new CopyOnWriteArrayList()
+    def delegate = { ProjectInternal project, ProjectStateInternal state ->
+        if (!state.unconfigured) {
+            return
+        }
+        evaluated << project
+        state.toBeforeEvaluate()
+        state.toEvaluate()
+        try {
+            scripts[project]?.call()
+        } catch (Exception e) {
+            state.failed(e)
+        }
+        state.toAfterEvaluate()
+        state.configured()
+    } as ProjectEvaluator
+    def evaluator = new LockingProjectEvaluator(delegate, new ProjectConfigurationLocks(workerLeaseService, coordinationService, true))
+    def projectA = project(":a")
+    def projectB = project(":b")
+    def stateA = new ProjectStateInternal()
+    def stateB = new ProjectStateInternal()
+
+    def cleanup() {
+        workerLeaseService.stop()
+    }
+
+    def "evaluates an unconfigured project"() {
+        when:
+        evaluator.evaluate(projectA, stateA)
+
+        then:
+        evaluated == [projectA]
+        stateA.executed
+    }
+
+    def "does not evaluate a project that is already configured"() {
+        given:
+        stateA.configured()
+
+        when:
+        evaluator.evaluate(projectA, stateA)
+
+        then:
+        evaluated.empty
+    }
+
+    def "configures different projects concurrently"() {
+        given:
+        scripts[projectA] = {
+            instant.aStarted
+            thread.blockUntil.bStarted
+        }
+        scripts[projectB] = {
+            instant.bStarted
+            thread.blockUntil.aStarted
+        }
+
+        when:
+        async {
+            start {
+                withWorkerLease { evaluator.evaluate(projectA, stateA) }
+            }
+            start {
+                withWorkerLease { evaluator.evaluate(projectB, stateB) }
+            }
+        }
+
+        then:
+        evaluated.toSet() == [projectA, projectB].toSet()
+        stateA.executed
+        stateB.executed
+    }
+
+    def "projects evaluated by different threads can depend on the evaluation of each other"() {
+        given:
+        scripts[projectA] = {
+            instant.aStarted
+            thread.blockUntil.bStarted
+            evaluator.evaluate(projectB, stateB)
+        }
+        scripts[projectB] = {
+            instant.bStarted
+            thread.blockUntil.aStarted
+            evaluator.evaluate(projectA, stateA)
+        }
+
+        when:
+        async {
+            start {
+                withWorkerLease { evaluator.evaluate(projectA, stateA) }
+            }
+            start {
+                withWorkerLease { evaluator.evaluate(projectB, stateB) }
+            }
+        }
+
+        then:
+        evaluated.size() == 2
+        evaluated.toSet() == [projectA, projectB].toSet()
+        stateA.executed
+        stateB.executed
+    }
+
+    def "waits for a project being evaluated by another thread and sees its failure"() {
+        def failure = new RuntimeException("broken")
+
+        given:
+        scripts[projectA] = {
+            instant.aStarted
+            thread.block()
+            throw failure
+        }
+
+        when:
+        async {
+            start {
+                withWorkerLease { evaluator.evaluate(projectA, stateA) }
+            }
+            start {
+                thread.blockUntil.aStarted
+                withWorkerLease { evaluator.evaluate(projectA, stateA) }
+                assert stateA.executed
+                assert stateA.failure.is(failure)
+            }
+        }
+
+        then:
+        evaluated == [projectA]
+        stateA.failure.is(failure)
+    }
+
+    private void withWorkerLease(Runnable action) {
+        workerLeaseService.withLocks([workerLeaseService.workerLease], action)
+    }
+
+    private ProjectInternal project(String path) {
+        def gradle = Stub(GradleInternal) {
+            getIdentityPath() >> Path.ROOT
+        }
+        return Stub(ProjectInternal) {
+            getIdentityPath() >> Path.path(path)
+            getGradle() >> gradle
+        }
+    }
+}
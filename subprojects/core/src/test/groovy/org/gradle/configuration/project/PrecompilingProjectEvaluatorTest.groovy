@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project
+
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectStateInternal
+import org.gradle.configuration.BuildScriptPrecompiler
+import spock.lang.Specification
+
+class PrecompilingProjectEvaluatorTest extends Specification {
+    def delegate = Mock(ProjectEvaluator)
+    def precompiler = Mock(BuildScriptPrecompiler)
+    def evaluator = new PrecompilingProjectEvaluator(delegate, precompiler)
+    def project = Mock(ProjectInternal)
+    def state = new ProjectStateInternal()
+
+    def "starts precompiling subproject scripts after root project is evaluated"() {
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        1 * delegate.evaluate(project, state)
+
+        then:
+        1 * precompiler.precompileSubprojects(project)
+    }
+
+    def "does not precompile scripts after a subproject is evaluated"() {
+        given:
+        project.parent >> Mock(ProjectInternal)
+
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        1 * delegate.evaluate(project, state)
+        0 * precompiler._
+    }
+
+    def "does not precompile scripts when root project fails"() {
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        1 * delegate.evaluate(project, state) >> { state.failed(new RuntimeException()) }
+        0 * precompiler._
+    }
+
+    def "does not precompile scripts when root project has already been configured"() {
+        given:
+        state.toBeforeEvaluate()
+        state.toEvaluate()
+        state.toAfterEvaluate()
+        state.configured()
+
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        1 * delegate.evaluate(project, state)
+        0 * precompiler._
+    }
+}
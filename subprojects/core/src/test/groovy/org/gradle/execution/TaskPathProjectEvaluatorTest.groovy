@@ -17,14 +17,19 @@
 package org.gradle.execution
 
 import org.gradle.api.BuildCancelledException
+import org.gradle.api.internal.project.ProjectConfigurationLocks
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.initialization.BuildCancellationToken
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resources.ResourceLockCoordinationService
+import org.gradle.internal.work.WorkerLeaseService
 import spock.lang.Specification
 
 class TaskPathProjectEvaluatorTest extends Specification {
     private cancellationToken = Mock(BuildCancellationToken)
     private project = Mock(ProjectInternal)
-    private evaluator = new TaskPathProjectEvaluator(cancellationToken)
+    private buildOperationExecutor = new TestBuildOperationExecutor()
+    private evaluator = new TaskPathProjectEvaluator(cancellationToken, buildOperationExecutor, new ProjectConfigurationLocks(Stub(WorkerLeaseService), Stub(ResourceLockCoordinationService), false))
 
     def "project configuration fails when cancelled"() {
         given:
@@ -60,4 +65,25 @@ class TaskPathProjectEvaluatorTest extends Specification {
         1 * child1.evaluate()
         0 * child2._
     }
+
+    def "configures parents before subprojects when configuring in parallel"() {
+        def parallelEvaluator = new TaskPathProjectEvaluator(cancellationToken, buildOperationExecutor, new ProjectConfigurationLocks(Stub(WorkerLeaseService), Stub(ResourceLockCoordinationService), true))
+        def child = Mock(ProjectInternal)
+        def grandchild = Mock(ProjectInternal)
+        def evaluated = []
+
+        given:
+        project.subprojects >> [grandchild, child]
+        child.parent >> project
+        grandchild.parent >> child
+        project.evaluate() >> { evaluated << "root" }
+        child.evaluate() >> { evaluated << "child" }
+        grandchild.evaluate() >> { evaluated << "grandchild" }
+
+        when:
+        parallelEvaluator.configureHierarchy(project)
+
+        then:
+        evaluated == ["root", "root", "child", "grandchild", "root", "child"]
+    }
 }
@@ -30,6 +30,7 @@ import org.gradle.api.internal.tasks.TaskStateInternal
 import org.gradle.api.specs.Spec
 import org.gradle.api.tasks.TaskDependency
 import org.gradle.composite.internal.IncludedBuildTaskGraph
+import org.gradle.configuration.ProjectPruning
 import org.gradle.initialization.BuildCancellationToken
 import org.gradle.internal.concurrent.DefaultParallelismConfiguration
 import org.gradle.internal.concurrent.ExecutorFactory
@@ -57,7 +58,8 @@ class DefaultTaskExecutionGraphSpec extends Specification {
     def thisBuild = project.gradle
     def taskInfoFactory = new TaskInfoFactory(thisBuild, Stub(IncludedBuildTaskGraph))
     def dependencyResolver = new TaskDependencyResolver([new TaskInfoWorkDependencyResolver(taskInfoFactory)])
-    def taskGraph = new DefaultTaskExecutionGraph(listenerManager, new DefaultTaskPlanExecutor(parallelismConfiguration, executorFactory, workerLeases, cancellationToken, coordinationService), [workExecutor], buildOperationExecutor, workerLeases, coordinationService, thisBuild, taskInfoFactory, dependencyResolver)
+    def dependencyPreResolver = Mock(TaskDependencyPreResolver)
+    def taskGraph = new DefaultTaskExecutionGraph(listenerManager, new DefaultTaskPlanExecutor(parallelismConfiguration, executorFactory, workerLeases, cancellationToken, coordinationService), [workExecutor], buildOperationExecutor, workerLeases, coordinationService, thisBuild, taskInfoFactory, dependencyResolver, dependencyPreResolver, Stub(ProjectPruning))
     WorkerLeaseRegistry.WorkerLeaseCompletion parentWorkerLease
     def executedTasks = []
     def failures = []
@@ -237,6 +239,26 @@ class DefaultTaskExecutionGraphSpec extends Specification {
         taskGraph.allTasks == [a, b, c, d]
     }
 
+    def "resolves dependencies ahead of adding tasks when enabled"() {
+        def filter = Mock(Spec)
+        Task a = task("a")
+        Task b = task("b", a)
+        Task c = task("c", b)
+
+        when:
+        taskGraph.useFilter(filter)
+        taskGraph.addTasks([c])
+
+        then:
+        _ * dependencyPreResolver.isEnabled() >> true
+        1 * dependencyPreResolver.resolve([c] as Set, thisBuild, filter)
+        _ * filter.isSatisfiedBy(_) >> true
+
+        and:
+        taskGraph.allTasks == [a, b, c]
+        buildOperationExecutor.log.descriptors*.displayName.contains("Build task graph")
+    }
+
     def "get all tasks returns tasks in execution order"() {
         Task d = task("d")
         Task c = task("c")
@@ -332,7 +354,7 @@ class DefaultTaskExecutionGraphSpec extends Specification {
 
     def "notifies graph listener before execute"() {
         def taskPlanExecutor = Mock(TaskPlanExecutor)
-        def taskGraph = new DefaultTaskExecutionGraph(listenerManager, taskPlanExecutor, [workExecutor], buildOperationExecutor, workerLeases, coordinationService, thisBuild, taskInfoFactory, dependencyResolver)
+        def taskGraph = new DefaultTaskExecutionGraph(listenerManager, taskPlanExecutor, [workExecutor], buildOperationExecutor, workerLeases, coordinationService, thisBuild, taskInfoFactory, dependencyResolver, dependencyPreResolver, Stub(ProjectPruning))
         TaskExecutionGraphListener listener = Mock(TaskExecutionGraphListener)
         Task a = task("a")
 
@@ -350,7 +372,7 @@ class DefaultTaskExecutionGraphSpec extends Specification {
 
     def "executes whenReady listener before execute"() {
         def taskPlanExecutor = Mock(TaskPlanExecutor)
-        def taskGraph = new DefaultTaskExecutionGraph(listenerManager, taskPlanExecutor, [workExecutor], buildOperationExecutor, workerLeases, coordinationService, thisBuild, taskInfoFactory, dependencyResolver)
+        def taskGraph = new DefaultTaskExecutionGraph(listenerManager, taskPlanExecutor, [workExecutor], buildOperationExecutor, workerLeases, coordinationService, thisBuild, taskInfoFactory, dependencyResolver, dependencyPreResolver, Stub(ProjectPruning))
         def closure = Mock(Closure)
         def action = Mock(Action)
         Task a = task("a")
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.taskgraph
+
+import org.gradle.api.Action
+import org.gradle.api.Buildable
+import org.gradle.api.Task
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.TaskInternal
+import org.gradle.api.internal.project.ProjectConfigurationLocks
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.tasks.DefaultTaskDependency
+import org.gradle.api.internal.tasks.TaskContainerInternal
+import org.gradle.api.specs.Spec
+import org.gradle.api.specs.Specs
+import org.gradle.api.tasks.TaskDependency
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resources.ResourceLockCoordinationService
+import org.gradle.internal.work.WorkerLeaseService
+import spock.lang.Specification
+
+class TaskDependencyPreResolverTest extends Specification {
+    def gradle = Stub(GradleInternal)
+    def tasks = Mock(TaskContainerInternal)
+    def project = createProject()
+    def workInfos = [:]
+    def workResolver = new WorkInfoDependencyResolver() {
+        @Override
+        boolean resolve(Task task, Object node, Action<? super WorkInfo> resolveAction) {
+            if (!(node instanceof Task)) {
+                return false
+            }
+            resolveAction.execute(workInfoFor(node))
+            return true
+        }
+    }
+    def dependencyResolver = new TaskDependencyResolver([workResolver])
+    def projectLocks = new ProjectConfigurationLocks(Stub(WorkerLeaseService), Stub(ResourceLockCoordinationService), false)
+    def preResolver = new TaskDependencyPreResolver(new TestBuildOperationExecutor(), projectLocks, dependencyResolver, true)
+
+    def "dependencies resolved ahead of the task graph are not resolved again when it is built"() {
+        def b = task("b")
+        def dependencies = dependsOn(b)
+        def a = task("a", dependencies)
+
+        when:
+        preResolver.resolve([a], gradle, Specs.satisfyAll())
+        dependencies.mutableValues.clear()
+        def resolved = dependencyResolver.resolveDependenciesFor(a, dependencies)
+
+        then:
+        resolved == [workInfoFor(b)] as Set
+    }
+
+    def "resolves the dependencies of the tasks that a task depends on or is finalized by"() {
+        def d = task("d")
+        def bDependencies = dependsOn(d)
+        def b = task("b", bDependencies)
+        def cDependencies = dependsOn(d)
+        def c = task("c", cDependencies)
+        def a = task("a", dependsOn(b), dependsOn(c))
+
+        when:
+        preResolver.resolve([a], gradle, Specs.satisfyAll())
+        bDependencies.mutableValues.clear()
+        cDependencies.mutableValues.clear()
+
+        then:
+        dependencyResolver.resolveDependenciesFor(b, bDependencies) == [workInfoFor(d)] as Set
+        dependencyResolver.resolveDependenciesFor(c, cDependencies) == [workInfoFor(d)] as Set
+    }
+
+    def "does not resolve the dependencies of tasks that are filtered out or belong to another build"() {
+        def d = task("d")
+        def bDependencies = dependsOn(d)
+        def b = task("b", bDependencies)
+        def otherBuildDependencies = dependsOn(d)
+        def otherBuildTask = task("other", otherBuildDependencies, dependsOn(), createProject(Stub(GradleInternal)))
+        def a = task("a", dependsOn(b, otherBuildTask))
+        def filter = Stub(Spec) {
+            isSatisfiedBy(_) >> { Task task -> task != b }
+        }
+
+        when:
+        preResolver.resolve([a], gradle, filter)
+        bDependencies.mutableValues.clear()
+        otherBuildDependencies.mutableValues.clear()
+
+        then:
+        dependencyResolver.resolveDependenciesFor(b, bDependencies).empty
+        dependencyResolver.resolveDependenciesFor(otherBuildTask, otherBuildDependencies).empty
+    }
+
+    def "leaves values that may run build logic to be resolved when the task graph is built"() {
+        def b = task("b")
+        def c = task("c")
+        def d = task("d")
+        def closureCalls = 0
+        def closure = { closureCalls++; c }
+        def buildable = Mock(Buildable)
+        def dependencies = dependsOn(":other:b", closure, buildable)
+        def a = task("a", dependencies)
+
+        when:
+        preResolver.resolve([a], gradle, Specs.satisfyAll())
+
+        then:
+        0 * tasks._
+        0 * buildable._
+        closureCalls == 0
+
+        when:
+        def resolved = dependencyResolver.resolveDependenciesFor(a, dependencies)
+
+        then:
+        1 * tasks.resolveTask(":other:b") >> b
+        1 * buildable.getBuildDependencies() >> Stub(TaskDependency) {
+            getDependencies(_) >> ([d] as Set)
+        }
+        closureCalls == 1
+        resolved == [workInfoFor(b), workInfoFor(c), workInfoFor(d)] as Set
+    }
+
+    def "does nothing when disabled"() {
+        def b = task("b")
+        def dependencies = dependsOn(b)
+        def a = task("a", dependencies)
+        def preResolver = new TaskDependencyPreResolver(new TestBuildOperationExecutor(), projectLocks, dependencyResolver, false)
+
+        when:
+        preResolver.resolve([a], gradle, Specs.satisfyAll())
+        dependencies.mutableValues.clear()
+
+        then:
+        dependencyResolver.resolveDependenciesFor(a, dependencies).empty
+    }
+
+    private WorkInfo workInfoFor(Object task) {
+        if (!workInfos.containsKey(task)) {
+            workInfos[task] = Stub(WorkInfo)
+        }
+        return workInfos[task]
+    }
+
+    private ProjectInternal createProject(GradleInternal gradle = this.gradle) {
+        return Stub(ProjectInternal) {
+            getGradle() >> gradle
+            getTasks() >> tasks
+        }
+    }
+
+    private DefaultTaskDependency dependsOn(Object... values) {
+        return new DefaultTaskDependency(tasks).add(values)
+    }
+
+    private TaskInternal task(String name, DefaultTaskDependency dependencies = dependsOn(), DefaultTaskDependency finalizedBy = dependsOn(), ProjectInternal project = this.project) {
+        return Stub(TaskInternal) {
+            getName() >> name
+            getProject() >> project
+            getTaskDependencies() >> dependencies
+            getFinalizedBy() >> finalizedBy
+        }
+    }
+}
@@ -31,6 +31,7 @@ import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.internal.project.ProjectRegistry
 import org.gradle.composite.internal.IncludedBuildControllers
 import org.gradle.configuration.BuildConfigurer
+import org.gradle.configuration.ProjectPruning
 import org.gradle.execution.BuildConfigurationActionExecuter
 import org.gradle.execution.BuildExecuter
 import org.gradle.execution.MultipleBuildFailures
@@ -80,6 +81,7 @@ class DefaultGradleLauncherSpec extends Specification {
     private BuildScopeServices buildServices = Mock(BuildScopeServices.class)
     private Stoppable otherService = Mock(Stoppable)
     private IncludedBuildControllers includedBuildControllers = Mock()
+    private ProjectPruning projectPruning = Mock()
     public TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
 
     final RuntimeException failure = new RuntimeException("main")
@@ -133,7 +135,7 @@ class DefaultGradleLauncherSpec extends Specification {
         return new DefaultGradleLauncher(gradleMock, initScriptHandlerMock, settingsLoaderMock, buildLoaderMock,
             buildConfigurerMock, exceptionAnalyserMock, buildBroadcaster,
             modelListenerMock, buildCompletionListener, buildOperationExecutor, buildConfigurationActionExecuter, buildExecuter,
-            buildServices, [otherService], includedBuildControllers)
+            buildServices, [otherService], includedBuildControllers, projectPruning)
     }
 
     void testRun() {
@@ -144,6 +146,7 @@ class DefaultGradleLauncherSpec extends Specification {
         expectDagBuilt()
         expectTasksRun()
         expectBuildListenerCallbacks()
+        1 * projectPruning.prepare(gradleMock, settingsMock)
         DefaultGradleLauncher gradleLauncher = launcher()
         GradleInternal result = gradleLauncher.executeTasks()
 
@@ -186,6 +189,7 @@ class DefaultGradleLauncherSpec extends Specification {
 
         1 * buildLoaderMock.load(settingsMock, gradleMock)
         1 * buildConfigurerMock.configure(gradleMock)
+        0 * projectPruning.prepare(_, _)
 
         DefaultGradleLauncher gradleLauncher = launcher()
         def result = gradleLauncher.getConfiguredBuild()
@@ -16,15 +16,19 @@
 
 package org.gradle.internal.metaobject
 
+import groovy.transform.CompileStatic
 import org.codehaus.groovy.reflection.CachedClass
 import org.gradle.api.internal.BeanWithDynamicProperties
 import org.gradle.api.internal.BeanWithMixInMethods
 import org.gradle.api.internal.BeanWithMixInProperties
 import org.gradle.api.internal.coerce.MethodArgumentsTransformer
 import org.gradle.api.internal.coerce.PropertySetTransformer
+import org.gradle.test.fixtures.ConcurrentTestUtil
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.lang.ref.WeakReference
+
 class BeanDynamicObjectTest extends Specification {
     def "can get value of property of groovy object"() {
         def bean = new Bean(prop: "value")
@@ -718,6 +722,68 @@ class BeanDynamicObjectTest extends Specification {
         e.message == "Could not find method unknown() for arguments [] on <bean> of type ${bean.getClass().name}."
     }
 
+    def "can locate methods and properties added to meta-class after lookup"() {
+        def bean = new ExpandoBean()
+        def dynamicObject = new BeanDynamicObject(bean)
+
+        expect:
+        !dynamicObject.hasMethod("first", [] as Object[])
+        !dynamicObject.hasProperty("prop")
+
+        when:
+        bean.metaClass.first = { -> "first" }
+
+        then:
+        dynamicObject.invokeMethod("first", [] as Object[]) == "first"
+        !dynamicObject.hasMethod("second", [] as Object[])
+        !dynamicObject.hasProperty("prop")
+
+        when:
+        bean.metaClass.second = { -> "second" }
+        bean.metaClass.prop = "value"
+
+        then:
+        dynamicObject.invokeMethod("second", [] as Object[]) == "second"
+        dynamicObject.getProperty("prop") == "value"
+    }
+
+    def "caches lookups per class and not per bean"() {
+        def bean1 = new Bean(prop: "one")
+        def bean2 = new Bean(prop: "two")
+
+        expect:
+        new BeanDynamicObject(bean1).getProperty("prop") == "one"
+        new BeanDynamicObject(bean2).getProperty("prop") == "two"
+        new BeanDynamicObject(bean1).invokeMethod("m", [1] as Object[]) == "[2]"
+        new BeanDynamicObject(bean2).invokeMethod("m", [2] as Object[]) == "[3]"
+        !new BeanDynamicObject(bean2).hasProperty("unknown")
+        !new BeanDynamicObject(bean1).hasProperty("unknown")
+    }
+
+    def "does not prevent the class loader of a bean class from being collected"() {
+        given:
+        def classLoader = new WeakReference<ClassLoader>(useBeanOfDiscardedClassLoader())
+
+        expect:
+        ConcurrentTestUtil.poll(10) {
+            System.gc()
+            assert classLoader.get() == null
+        }
+    }
+
+    @CompileStatic
+    // must be compile static to avoid call sites being created with soft class refs
+    private static ClassLoader useBeanOfDiscardedClassLoader() {
+        def classLoader = new GroovyClassLoader(BeanDynamicObjectTest.classLoader)
+        def type = classLoader.parseClass("class DiscardedBean { String prop = 'value'; String m(String arg) { arg } }")
+        def dynamicObject = new BeanDynamicObject(type.newInstance())
+        assert dynamicObject.getProperty("prop") == "value"
+        assert !dynamicObject.hasProperty("unknown")
+        assert dynamicObject.invokeMethod("m", ["arg"] as Object[]) == "arg"
+        classLoader.clearCache()
+        return classLoader
+    }
+
     enum SomeEnum {
         A, B, C
     }
@@ -800,6 +866,9 @@ class BeanDynamicObjectTest extends Specification {
         }
     }
 
+    static class ExpandoBean {
+    }
+
     static class EnumBean {
         SomeEnum prop
 
@@ -20,10 +20,12 @@ import org.gradle.api.internal.GradleInternal
 import org.gradle.api.internal.artifacts.DependencyManagementServices
 import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory
 import org.gradle.api.internal.plugins.PluginRegistry
+import org.gradle.api.internal.project.ProjectConfigurationLocks
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.internal.tasks.options.OptionReader
 import org.gradle.cache.CacheRepository
 import org.gradle.composite.internal.IncludedBuildTaskGraph
+import org.gradle.configuration.ProjectPruning
 import org.gradle.execution.BuildConfigurationActionExecuter
 import org.gradle.execution.BuildExecuter
 import org.gradle.execution.DefaultBuildExecuter
@@ -85,6 +87,8 @@ public class GradleScopeServicesTest extends Specification {
         parent.get(BuildState) >> Stub(BuildState)
         parent.get(ParallelismConfigurationManager) >> new ParallelismConfigurationManagerFixture(DefaultParallelismConfiguration.DEFAULT)
         parent.get(StyledTextOutputFactory) >> new TestStyledTextOutputFactory()
+        parent.get(ProjectPruning) >> Stub(ProjectPruning)
+        parent.get(ProjectConfigurationLocks) >> new ProjectConfigurationLocks(Stub(WorkerLeaseService), Stub(ResourceLockCoordinationService), false)
         gradle.getStartParameter() >> startParameter
         pluginRegistryParent.createChild(_, _, _) >> pluginRegistryChild
         gradle.services >> registry
@@ -17,7 +17,9 @@
 package org.gradle.internal.service.scopes
 
 import org.gradle.StartParameter
+import org.gradle.api.internal.ClassGenerator
 import org.gradle.api.internal.ClassPathRegistry
+import org.gradle.api.internal.InstantiatorFactory
 import org.gradle.api.internal.cache.StringInterner
 import org.gradle.api.internal.changedetection.state.CrossBuildFileHashCache
 import org.gradle.api.internal.changedetection.state.FileSystemMirror
@@ -144,7 +146,9 @@ class GradleUserHomeScopeServicesTest extends WorkspaceTest {
             WorkerProcessFactory,
             ClassPathRegistry,
             WorkerProcessClassPathProvider,
-            FileAccessTimeJournal
+            FileAccessTimeJournal,
+            ClassGenerator,
+            InstantiatorFactory
         ]
     }
 
@@ -108,6 +108,30 @@ class HtmlReportRendererTest extends Specification {
 ''')
     }
 
+    def "keeps the existing page when rendering the page fails"() {
+        def destDir = tmpDir.file("out")
+        def reportRenderer = Mock(ReportRenderer)
+        def pageRenderer = Mock(ReportRenderer)
+        destDir.file("index.html").text = "<html>existing</html>"
+
+        when:
+        renderer.render("model", reportRenderer, destDir)
+
+        then:
+        1 * reportRenderer.render(_, _) >> { String model, HtmlReportBuilder builder ->
+            builder.renderRawHtmlPage("index.html", model, pageRenderer)
+        }
+        1 * pageRenderer.render(_, _) >> { String model, HtmlPageBuilder<Writer> builder ->
+            builder.output.write("<html>partial")
+            throw new RuntimeException("broken")
+        }
+        thrown(RuntimeException)
+
+        and:
+        destDir.file("index.html").text == "<html>existing</html>"
+        destDir.list() as List == ["index.html"]
+    }
+
     def "copies resources into output directory"() {
         def destDir = tmpDir.file("out")
         def reportRenderer = Mock(ReportRenderer)
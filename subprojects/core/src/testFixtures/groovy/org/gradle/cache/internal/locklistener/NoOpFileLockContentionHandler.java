@@ -29,4 +29,10 @@ public class NoOpFileLockContentionHandler implements FileLockContentionHandler
     public boolean maybePingOwner(int port, long lockId, String displayName, long timeElapsed) {
         return false;
     }
+
+    public void waitForLockRelease(long lockId, long timeoutMs) throws InterruptedException {
+        Thread.sleep(timeoutMs);
+    }
+
+    public void notifyLockReleased(long lockId) {}
 }
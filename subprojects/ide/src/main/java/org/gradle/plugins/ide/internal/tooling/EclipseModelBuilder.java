@@ -64,6 +64,7 @@ import org.gradle.util.GUtil;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -78,6 +79,7 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
     private TasksFactory tasksFactory;
     private DefaultGradleProject<?> rootGradleProject;
     private Project currentProject;
+    private Map<List<Object>, DefaultEclipseExternalDependency> sharedExternalDependencies;
 
     public EclipseModelBuilder(GradleProjectBuilder gradleProjectBuilder, ServiceRegistry services) {
         this.gradleProjectBuilder = gradleProjectBuilder;
@@ -96,6 +98,7 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
         projectDependenciesOnly = modelName.equals("org.gradle.tooling.model.eclipse.HierarchicalEclipseProject");
         currentProject = project;
         eclipseProjects = Lists.newArrayList();
+        sharedExternalDependencies = Maps.newHashMap();
         Project root = project.getRootProject();
         rootGradleProject = gradleProjectBuilder.buildAll(project);
         tasksFactory.collectTasks(root);
@@ -169,12 +172,7 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
             //we don't handle Variables at the moment because users didn't request it yet
             //and it would probably push us to add support in the tooling api to retrieve the variable mappings.
             if (entry instanceof Library) {
-                AbstractLibrary library = (AbstractLibrary) entry;
-                final File file = library.getLibrary().getFile();
-                final File source = library.getSourcePath() == null ? null : library.getSourcePath().getFile();
-                final File javadoc = library.getJavadocPath() == null ? null : library.getJavadocPath().getFile();
-                DefaultEclipseExternalDependency dependency = new DefaultEclipseExternalDependency(file, javadoc, source, library.getModuleVersion(), library.isExported(), createAttributes(library), createAccessRules(library));
-                externalDependencies.add(dependency);
+                externalDependencies.add(externalDependency((AbstractLibrary) entry));
             } else if (entry instanceof ProjectDependency) {
                 final ProjectDependency projectDependency = (ProjectDependency) entry;
                 // By removing the leading "/", this is no longer a "path" as defined by Eclipse
@@ -224,6 +222,22 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
         }
     }
 
+    /**
+     * Returns the same instance for equal libraries of different projects, so that the serialized model contains each of them only once.
+     */
+    private DefaultEclipseExternalDependency externalDependency(AbstractLibrary library) {
+        final File file = library.getLibrary().getFile();
+        final File source = library.getSourcePath() == null ? null : library.getSourcePath().getFile();
+        final File javadoc = library.getJavadocPath() == null ? null : library.getJavadocPath().getFile();
+        List<Object> key = Arrays.<Object>asList(file, javadoc, source, library.getModuleVersion(), library.isExported(), library.getEntryAttributes(), library.getAccessRules());
+        DefaultEclipseExternalDependency dependency = sharedExternalDependencies.get(key);
+        if (dependency == null) {
+            dependency = new DefaultEclipseExternalDependency(file, javadoc, source, library.getModuleVersion(), library.isExported(), createAttributes(library), createAccessRules(library));
+            sharedExternalDependencies.put(key, dependency);
+        }
+        return dependency;
+    }
+
     private static void populateEclipseProjectTasks(DefaultEclipseProject eclipseProject, Iterable<Task> projectTasks) {
         List<DefaultEclipseTask> tasks = new ArrayList<DefaultEclipseTask>();
         for (Task t : projectTasks) {
@@ -47,8 +47,10 @@ import org.gradle.tooling.internal.gradle.DefaultGradleProject;
 import org.gradle.tooling.provider.model.ToolingModelBuilder;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -108,8 +110,9 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         for (IdeaModule module : projectModel.getModules()) {
             appendModule(modules, module, out, rootGradleProject);
         }
+        Map<List<Object>, DefaultIdeaSingleEntryLibraryDependency> libraryDependencies = new HashMap<List<Object>, DefaultIdeaSingleEntryLibraryDependency>();
         for (IdeaModule module : projectModel.getModules()) {
-            buildDependencies(modules, module);
+            buildDependencies(modules, libraryDependencies, module);
         }
         final Collection<DefaultIdeaModule> ideaModules = modules.values();
         out.setChildren(new LinkedList<DefaultIdeaModule>(ideaModules));
@@ -120,24 +123,13 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         return project.getPlugins().getPlugin(IdeaPlugin.class);
     }
 
-    private void buildDependencies(Map<String, DefaultIdeaModule> modules, IdeaModule ideaModule) {
+    private void buildDependencies(Map<String, DefaultIdeaModule> modules, Map<List<Object>, DefaultIdeaSingleEntryLibraryDependency> libraryDependencies, IdeaModule ideaModule) {
         ideaModule.setOffline(offlineDependencyResolution);
         Set<Dependency> resolved = ideaModule.resolveDependencies();
         List<DefaultIdeaDependency> dependencies = new LinkedList<DefaultIdeaDependency>();
         for (Dependency dependency : resolved) {
             if (dependency instanceof SingleEntryModuleLibrary) {
-                SingleEntryModuleLibrary d = (SingleEntryModuleLibrary) dependency;
-                DefaultIdeaSingleEntryLibraryDependency defaultDependency = new DefaultIdeaSingleEntryLibraryDependency()
-                    .setFile(d.getLibraryFile())
-                    .setSource(d.getSourceFile())
-                    .setJavadoc(d.getJavadocFile())
-                    .setScope(new DefaultIdeaDependencyScope(d.getScope()))
-                    .setExported(d.isExported());
-
-                if (d.getModuleVersion() != null) {
-                    defaultDependency.setGradleModuleVersion(new DefaultGradleModuleVersion(d.getModuleVersion()));
-                }
-                dependencies.add(defaultDependency);
+                dependencies.add(libraryDependency(libraryDependencies, (SingleEntryModuleLibrary) dependency));
             } else if (dependency instanceof ModuleDependency) {
                 ModuleDependency moduleDependency = (ModuleDependency) dependency;
 
@@ -155,6 +147,28 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         modules.get(ideaModule.getName()).setDependencies(dependencies);
     }
 
+    /**
+     * Returns the same instance for equal libraries of different modules, so that the serialized model contains each of them only once.
+     */
+    private DefaultIdeaSingleEntryLibraryDependency libraryDependency(Map<List<Object>, DefaultIdeaSingleEntryLibraryDependency> libraryDependencies, SingleEntryModuleLibrary d) {
+        List<Object> key = Arrays.<Object>asList(d.getLibraryFile(), d.getSourceFile(), d.getJavadocFile(), d.getScope(), d.isExported(), d.getModuleVersion());
+        DefaultIdeaSingleEntryLibraryDependency defaultDependency = libraryDependencies.get(key);
+        if (defaultDependency == null) {
+            defaultDependency = new DefaultIdeaSingleEntryLibraryDependency()
+                .setFile(d.getLibraryFile())
+                .setSource(d.getSourceFile())
+                .setJavadoc(d.getJavadocFile())
+                .setScope(new DefaultIdeaDependencyScope(d.getScope()))
+                .setExported(d.isExported());
+
+            if (d.getModuleVersion() != null) {
+                defaultDependency.setGradleModuleVersion(new DefaultGradleModuleVersion(d.getModuleVersion()));
+            }
+            libraryDependencies.put(key, defaultDependency);
+        }
+        return defaultDependency;
+    }
+
     private void appendModule(Map<String, DefaultIdeaModule> modules, IdeaModule ideaModule, DefaultIdeaProject ideaProject, DefaultGradleProject rootGradleProject) {
         DefaultIdeaContentRoot contentRoot = new DefaultIdeaContentRoot()
             .setRootDirectory(ideaModule.getContentRoot())
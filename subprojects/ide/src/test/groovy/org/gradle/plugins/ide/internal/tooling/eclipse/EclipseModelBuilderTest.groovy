@@ -323,6 +323,26 @@ class EclipseModelBuilderTest extends AbstractProjectBuilderSpec {
         eclipseModel.linkedResources.collect { it.name } == ['linkAfter']
     }
 
+    def "projects share the model of a common library"() {
+        given:
+        def lib = temporaryFolder.createFile("libs/shared.jar")
+        [child1, child2].each {
+            it.plugins.apply(JavaPlugin)
+            it.dependencies.add("compile", it.files(lib))
+        }
+        def modelBuilder = createEclipseModelBuilder()
+
+        when:
+        def eclipseModel = modelBuilder.buildAll("org.gradle.tooling.model.eclipse.EclipseProject", project)
+        def child1Classpath = eclipseModel.children.find { it.name == 'child1' }.classpath
+        def child2Classpath = eclipseModel.children.find { it.name == 'child2' }.classpath
+
+        then:
+        child1Classpath.size() == 1
+        child1Classpath[0].file == lib
+        child2Classpath[0].is(child1Classpath[0])
+    }
+
     private def createEclipseModelBuilder() {
         def gradleProjectBuilder = new GradleProjectBuilder()
         def serviceRegistry = new DefaultServiceRegistry()
@@ -287,6 +287,25 @@ class IdeaModelBuilderTest extends AbstractProjectBuilderSpec {
         ideaProject.javaLanguageSettings.languageLevel == defaultIdeaPluginLanguageLevelForJavaProjects
     }
 
+    def "modules share the model of a common library"() {
+        given:
+        def lib = temporaryFolder.createFile("libs/shared.jar")
+        [child1, child2].each {
+            it.plugins.apply(JavaPlugin)
+            it.dependencies.add("compile", it.files(lib))
+        }
+
+        when:
+        def ideaProject = buildIdeaProjectModel()
+        def child1Dependencies = ideaProject.modules.find { it.name == 'child1' }.dependencies
+        def child2Dependencies = ideaProject.modules.find { it.name == 'child2' }.dependencies
+
+        then:
+        child1Dependencies.size() == 1
+        child1Dependencies[0].file == lib
+        child2Dependencies[0].is(child1Dependencies[0])
+    }
+
     private DefaultIdeaProject buildIdeaProjectModel() {
         def builder = createIdeaModelBuilder()
         buildIdeaProject(builder, root)
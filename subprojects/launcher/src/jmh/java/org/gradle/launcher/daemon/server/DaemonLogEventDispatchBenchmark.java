@@ -0,0 +1,132 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server;
+
+import org.gradle.api.Action;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.id.UUIDGenerator;
+import org.gradle.internal.logging.events.LogEvent;
+import org.gradle.internal.logging.events.OutputEvent;
+import org.gradle.internal.remote.ConnectionAcceptor;
+import org.gradle.internal.remote.internal.ConnectCompletion;
+import org.gradle.internal.remote.internal.RemoteConnection;
+import org.gradle.internal.remote.internal.inet.InetAddressFactory;
+import org.gradle.internal.remote.internal.inet.TcpIncomingConnector;
+import org.gradle.internal.remote.internal.inet.TcpOutgoingConnector;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.Serializers;
+import org.gradle.launcher.daemon.protocol.DaemonMessageSerializer;
+import org.gradle.launcher.daemon.protocol.Message;
+import org.gradle.launcher.daemon.protocol.OutputMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures sending the log output of a verbose build from the daemon to the client, over a real socket connection.
+ *
+ * <p>The events are sent in batches of the given size, with the connection flushed once per batch.</p>
+ */
+@Fork(2)
+@Warmup(iterations = 10)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DaemonLogEventDispatchBenchmark {
+    private static final int EVENT_COUNT = 1000;
+
+    @Param({"1", "10", "100"})
+    int eventsPerBatch;
+
+    private final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
+    private final Semaphore received = new Semaphore(0);
+    private final List<List<OutputEvent>> batches = new ArrayList<List<OutputEvent>>();
+    private ConnectionAcceptor acceptor;
+    private RemoteConnection<Message> clientConnection;
+    private DefaultDaemonConnection daemonConnection;
+    private Thread client;
+
+    @Setup
+    public void connect() throws Exception {
+        final Serializer<Message> serializer = DaemonMessageSerializer.create(null);
+        final BlockingQueue<RemoteConnection<Message>> accepted = new ArrayBlockingQueue<RemoteConnection<Message>>(1);
+        acceptor = new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator()).accept(new Action<ConnectCompletion>() {
+            @Override
+            public void execute(ConnectCompletion completion) {
+                accepted.add(completion.create(Serializers.stateful(serializer)));
+            }
+        }, false);
+        clientConnection = new TcpOutgoingConnector().connect(acceptor.getAddress()).create(Serializers.stateful(serializer));
+        daemonConnection = new DefaultDaemonConnection(new SynchronizedDispatchConnection<Message>(accepted.take()), executorFactory);
+
+        client = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Message message;
+                while ((message = clientConnection.receive()) != null) {
+                    if (message instanceof OutputMessage) {
+                        received.release();
+                    }
+                }
+            }
+        });
+        client.start();
+
+        List<OutputEvent> batch = new ArrayList<OutputEvent>(eventsPerBatch);
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            batch.add(new LogEvent(i, "org.gradle.api.Task", LogLevel.INFO, "Skipping task ':project" + (i % 50) + ":compileJava' as it is up-to-date.", null));
+            if (batch.size() == eventsPerBatch) {
+                batches.add(batch);
+                batch = new ArrayList<OutputEvent>(eventsPerBatch);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+    }
+
+    @TearDown
+    public void disconnect() throws Exception {
+        CompositeStoppable.stoppable(daemonConnection, clientConnection, acceptor, executorFactory).stop();
+        client.join();
+    }
+
+    @Benchmark
+    public void sendLogEvents() throws InterruptedException {
+        for (List<OutputEvent> batch : batches) {
+            daemonConnection.logEvents(batch);
+        }
+        received.acquire(EVENT_COUNT);
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.client;
+
+import com.google.common.io.Files;
+import org.gradle.api.JavaVersion;
+import org.gradle.api.internal.file.IdentityFileResolver;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.FileLock;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.LockTimeoutException;
+import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.jvm.JavaInfo;
+import org.gradle.internal.jvm.Jvm;
+import org.gradle.internal.jvm.inspection.JvmVersionDetector;
+import org.gradle.launcher.daemon.configuration.DaemonParameters;
+import org.gradle.process.ExecResult;
+import org.gradle.process.internal.DefaultExecActionFactory;
+import org.gradle.process.internal.ExecHandleBuilder;
+import org.gradle.util.CollectionUtils;
+import org.gradle.util.GFileUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Sets up class data sharing for the classes that a daemon loads as it starts, so that later daemons map them from an archive instead of
+ * loading and verifying them again.
+ *
+ * <p>Enabled when the {@value #ENABLED_PROPERTY} system property is set to {@code true}, either for the client or for the build, and the daemon
+ * runs on Java 11 or later. A daemon started for a given JVM and classpath records the classes it loads. The next start copies the lines of that
+ * recording that have been completely written to a class list and creates an archive from it, which this and every later daemon then use.
+ * The files live in the versioned daemon directory of the Gradle user home, keyed by the JVM installation and classpath, and are updated
+ * while holding a lock on that directory, so that concurrent clients never dump or use a partially written file.</p>
+ */
+public class DaemonClassDataSharing {
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.daemon.class-data-sharing";
+    private static final Logger LOGGER = Logging.getLogger(DaemonClassDataSharing.class);
+    private static final String RECORDING_PREFIX = "classes-";
+    private static final String RECORDING_SUFFIX = ".lst.tmp";
+    private static final long RETRY_AFTER_FAILURE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final JvmVersionDetector versionDetector;
+    private final FileLockManager fileLockManager;
+    private final boolean enabled;
+
+    public DaemonClassDataSharing(JvmVersionDetector versionDetector, FileLockManager fileLockManager, boolean enabled) {
+        this.versionDetector = versionDetector;
+        this.fileLockManager = fileLockManager;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the JVM arguments to start a daemon with the given parameters and classpath.
+     */
+    public List<String> getJvmArgs(DaemonParameters daemonParameters, ClassPath classpath, File versionedDaemonDir) {
+        if (!enabled && !Boolean.parseBoolean(daemonParameters.getSystemProperties().get(ENABLED_PROPERTY))) {
+            return Collections.emptyList();
+        }
+        JavaInfo jvm = daemonParameters.getEffectiveJvm();
+        JavaVersion javaVersion = jvm.equals(Jvm.current()) ? JavaVersion.current() : versionDetector.getJavaVersion(jvm);
+        if (!javaVersion.isJava11Compatible()) {
+            return Collections.emptyList();
+        }
+
+        for (File file : classpath.getAsFiles()) {
+            // The JVM can only archive classes loaded from jars
+            if (!file.isFile()) {
+                return Collections.emptyList();
+            }
+        }
+
+        String classpathString = CollectionUtils.join(File.pathSeparator, classpath.getAsFiles());
+        // Include the modification time of the executable, so that an updated JVM installed in the same location gets a new archive.
+        // The Gradle version is already part of the versioned daemon directory.
+        File javaExecutable = jvm.getJavaExecutable();
+        String key = HashUtil.createCompactMD5(javaExecutable.getAbsolutePath() + "\n" + javaExecutable.lastModified() + "\n" + javaVersion + "\n" + classpathString);
+        File dir = new File(versionedDaemonDir, "cds/" + key);
+        GFileUtils.mkdirs(dir);
+
+        FileLock lock;
+        try {
+            lock = fileLockManager.lock(dir, mode(FileLockManager.LockMode.Exclusive), "class data sharing archive");
+        } catch (LockTimeoutException e) {
+            LOGGER.info("Not using class data sharing, as the lock on {} could not be acquired.", dir, e);
+            return Collections.emptyList();
+        }
+        try {
+            return getJvmArgs(jvm, classpathString, dir);
+        } finally {
+            lock.close();
+        }
+    }
+
+    private List<String> getJvmArgs(JavaInfo jvm, String classpath, File dir) {
+        File archive = new File(dir, "classes.jsa");
+        File classList = new File(dir, "classes.lst");
+        File failedMarker = new File(dir, "failed");
+        if (failedMarker.isFile()) {
+            if (System.currentTimeMillis() - failedMarker.lastModified() < RETRY_AFTER_FAILURE_MILLIS) {
+                return Collections.emptyList();
+            }
+            GFileUtils.deleteQuietly(failedMarker);
+        }
+
+        if (!archive.isFile() && promoteRecording(dir, classList) && !createArchive(jvm, classpath, classList, archive)) {
+            // Don't pay for a failing dump on every daemon start
+            GFileUtils.touch(failedMarker);
+            return Collections.emptyList();
+        }
+        if (archive.isFile()) {
+            return Arrays.asList("-XX:SharedArchiveFile=" + archive.getAbsolutePath(), "-Xshare:auto");
+        }
+        // Each daemon records to its own file, as a daemon that is still running may still be writing to an earlier recording
+        File recording = new File(dir, RECORDING_PREFIX + System.nanoTime() + RECORDING_SUFFIX);
+        return Collections.singletonList("-XX:DumpLoadedClassList=" + recording.getAbsolutePath());
+    }
+
+    /**
+     * Makes sure that the class list exists, by copying the complete lines of the largest recording to it. Returns false when there is nothing to copy.
+     */
+    private boolean promoteRecording(File dir, File classList) {
+        if (classList.isFile()) {
+            return true;
+        }
+        File[] recordings = dir.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.getName().startsWith(RECORDING_PREFIX) && file.getName().endsWith(RECORDING_SUFFIX);
+            }
+        });
+        if (recordings == null || recordings.length == 0) {
+            return false;
+        }
+        File largest = recordings[0];
+        for (File recording : recordings) {
+            if (recording.length() > largest.length()) {
+                largest = recording;
+            }
+        }
+
+        File tempClassList = new File(dir, classList.getName() + "." + System.nanoTime() + ".tmp");
+        try {
+            byte[] content = Files.toByteArray(largest);
+            int length = content.length;
+            while (length > 0 && content[length - 1] != '\n') {
+                length--;
+            }
+            if (length == 0) {
+                return false;
+            }
+            Files.write(Arrays.copyOf(content, length), tempClassList);
+            if (!tempClassList.renameTo(classList) && !classList.isFile()) {
+                return false;
+            }
+        } catch (IOException e) {
+            LOGGER.info("Could not copy the classes recorded in {}.", largest, e);
+            return false;
+        } finally {
+            GFileUtils.deleteQuietly(tempClassList);
+        }
+        for (File recording : recordings) {
+            GFileUtils.deleteQuietly(recording);
+        }
+        return true;
+    }
+
+    private boolean createArchive(JavaInfo jvm, String classpath, File classList, File archive) {
+        // Dump to a temporary file, so that a daemon started concurrently never sees a partially written archive
+        File tempArchive = new File(archive.getParentFile(), archive.getName() + "." + System.nanoTime() + ".tmp");
+        DefaultExecActionFactory execActionFactory = new DefaultExecActionFactory(new IdentityFileResolver());
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            ExecHandleBuilder exec = execActionFactory.newExec();
+            exec.setExecutable(jvm.getJavaExecutable().getAbsolutePath());
+            exec.args("-Xshare:dump", "-XX:SharedClassListFile=" + classList.getAbsolutePath(), "-XX:SharedArchiveFile=" + tempArchive.getAbsolutePath(), "-cp", classpath);
+            exec.setStandardOutput(output);
+            exec.setErrorOutput(output);
+            exec.setIgnoreExitValue(true);
+            ExecResult result = exec.build().start().waitForFinish();
+            if (result.getExitValue() == 0 && tempArchive.isFile() && (tempArchive.renameTo(archive) || archive.isFile())) {
+                LOGGER.info("Created class data sharing archive {}.", archive);
+                return true;
+            }
+            LOGGER.info("Could not create class data sharing archive {}. Output:\n{}", archive, output);
+            return false;
+        } catch (Exception e) {
+            LOGGER.info("Could not create class data sharing archive {}.", archive, e);
+            return false;
+        } finally {
+            GFileUtils.deleteQuietly(tempArchive);
+            execActionFactory.stop();
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.gradle.launcher.daemon.client;
 
 import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.cache.FileLockManager;
 import org.gradle.internal.invocation.BuildAction;
 import org.gradle.internal.jvm.inspection.JvmVersionDetector;
 import org.gradle.internal.serialize.Serializer;
@@ -35,6 +36,10 @@ public class DaemonClientGlobalServices {
         return new JvmVersionValidator(jvmVersionDetector);
     }
 
+    DaemonClassDataSharing createDaemonClassDataSharing(JvmVersionDetector jvmVersionDetector, FileLockManager fileLockManager) {
+        return new DaemonClassDataSharing(jvmVersionDetector, fileLockManager, Boolean.getBoolean(DaemonClassDataSharing.ENABLED_PROPERTY));
+    }
+
     DaemonGreeter createDaemonGreeter(DocumentationRegistry documentationRegistry) {
         return new DaemonGreeter(documentationRegistry);
     }
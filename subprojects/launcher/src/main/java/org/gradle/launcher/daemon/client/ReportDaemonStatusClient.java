@@ -99,7 +99,8 @@ public class ReportDaemonStatusClient {
         if (!statuses.isEmpty()) {
             for(Status status : statuses) {
                 Long pid = status.getPid();
-                LOGGER.quiet(String.format(STATUS_FORMAT, pid == null ? "PID unknown" : pid, status.getStatus(), status.getVersion()));
+                String info = status.getCacheStatus() == null ? status.getVersion() : status.getVersion() + " (" + status.getCacheStatus() + ")";
+                LOGGER.quiet(String.format(STATUS_FORMAT, pid == null ? "PID unknown" : pid, status.getStatus(), info));
             }
         }
     }
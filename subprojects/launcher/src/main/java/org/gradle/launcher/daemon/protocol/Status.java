@@ -24,11 +24,18 @@ public class Status implements Serializable {
     private final Long pid;
     private final String version;
     private final String status;
+    @Nullable
+    private final String cacheStatus;
 
     public Status(Long pid, String version, String status) {
+        this(pid, version, status, null);
+    }
+
+    public Status(Long pid, String version, String status, @Nullable String cacheStatus) {
         this.pid = pid;
         this.version = version;
         this.status = status;
+        this.cacheStatus = cacheStatus;
     }
 
     @Nullable
@@ -43,4 +50,12 @@ public class Status implements Serializable {
     public String getStatus() {
         return status;
     }
+
+    /**
+     * Returns a summary of the in-memory caches of the daemon, if known.
+     */
+    @Nullable
+    public String getCacheStatus() {
+        return cacheStatus;
+    }
 }
@@ -16,8 +16,10 @@
 package org.gradle.launcher.daemon.server;
 
 import com.google.common.collect.ImmutableList;
+import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
@@ -58,6 +60,7 @@ import org.gradle.launcher.daemon.server.health.DaemonHealthCheck;
 import org.gradle.launcher.daemon.server.health.DaemonHealthStats;
 import org.gradle.launcher.daemon.server.health.DaemonMemoryStatus;
 import org.gradle.launcher.daemon.server.health.HealthExpirationStrategy;
+import org.gradle.launcher.daemon.server.health.LowTenuredSpaceCacheReleaser;
 import org.gradle.launcher.daemon.server.scaninfo.DaemonScanInfo;
 import org.gradle.launcher.daemon.server.scaninfo.DefaultDaemonScanInfo;
 import org.gradle.launcher.daemon.server.stats.DaemonRunningStats;
@@ -107,8 +110,12 @@ public class DaemonServices extends DefaultServiceRegistry {
         return new DaemonMemoryStatus(healthStats);
     }
 
-    protected DaemonHealthCheck createDaemonHealthCheck(ListenerManager listenerManager, HealthExpirationStrategy healthExpirationStrategy) {
-        return new DaemonHealthCheck(healthExpirationStrategy, listenerManager);
+    protected DaemonHealthCheck createDaemonHealthCheck(ListenerManager listenerManager, HealthExpirationStrategy healthExpirationStrategy, LowTenuredSpaceCacheReleaser cacheReleaser) {
+        return new DaemonHealthCheck(healthExpirationStrategy, cacheReleaser, listenerManager);
+    }
+
+    protected LowTenuredSpaceCacheReleaser createLowTenuredSpaceCacheReleaser(DaemonMemoryStatus memoryStatus, CrossBuildInMemoryCacheFactory crossBuildCacheFactory, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
+        return new LowTenuredSpaceCacheReleaser(memoryStatus, crossBuildCacheFactory, inMemoryCacheDecoratorFactory);
     }
 
     protected DaemonRunningStats createDaemonRunningStats() {
@@ -131,13 +138,13 @@ public class DaemonServices extends DefaultServiceRegistry {
         return new DaemonHealthStats(runningStats, executorFactory);
     }
 
-    protected ImmutableList<DaemonCommandAction> createDaemonCommandActions(DaemonContext daemonContext, ProcessEnvironment processEnvironment, DaemonHealthStats healthStats, DaemonHealthCheck healthCheck, BuildExecuter buildActionExecuter, DaemonRunningStats runningStats) {
+    protected ImmutableList<DaemonCommandAction> createDaemonCommandActions(DaemonContext daemonContext, ProcessEnvironment processEnvironment, DaemonHealthStats healthStats, DaemonHealthCheck healthCheck, BuildExecuter buildActionExecuter, DaemonRunningStats runningStats, LowTenuredSpaceCacheReleaser cacheReleaser) {
         File daemonLog = getDaemonLogFile();
         DaemonDiagnostics daemonDiagnostics = new DaemonDiagnostics(daemonLog, daemonContext.getPid());
         return ImmutableList.of(
             new HandleStop(get(ListenerManager.class)),
             new HandleCancel(),
-            new HandleReportStatus(),
+            new HandleReportStatus(cacheReleaser),
             new ReturnResult(),
             new StartBuildOrRespondWithBusy(daemonDiagnostics), // from this point down, the daemon is 'busy'
             new EstablishBuildEnvironment(processEnvironment),
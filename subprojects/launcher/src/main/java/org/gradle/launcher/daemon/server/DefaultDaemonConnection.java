@@ -29,6 +29,7 @@ import org.gradle.internal.remote.internal.RemoteConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -121,8 +122,11 @@ public class DefaultDaemonConnection implements DaemonConnection {
         connection.flush();
     }
 
-    public void logEvent(OutputEvent logEvent) {
-        connection.dispatch(new OutputMessage(logEvent));
+    @Override
+    public void logEvents(Collection<? extends OutputEvent> logEvents) {
+        for (OutputEvent logEvent : logEvents) {
+            connection.dispatch(new OutputMessage(logEvent));
+        }
         connection.flush();
     }
 
@@ -23,6 +23,7 @@ import org.gradle.launcher.daemon.protocol.DaemonUnavailable;
 import org.gradle.launcher.daemon.protocol.Result;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 
 public interface DaemonConnection extends Stoppable {
@@ -81,9 +82,9 @@ public interface DaemonConnection extends Stoppable {
     void buildStarted(BuildStarted buildStarted);
 
     /**
-     * Dispatches a log event message to the client.
+     * Dispatches a batch of log event messages to the client, flushing the connection once for the whole batch.
      */
-    void logEvent(OutputEvent logEvent);
+    void logEvents(Collection<? extends OutputEvent> logEvents);
 
     /**
      * Dispatches some build event to the client.
@@ -19,15 +19,22 @@ package org.gradle.launcher.daemon.server.api;
 import org.gradle.launcher.daemon.protocol.ReportStatus;
 import org.gradle.launcher.daemon.protocol.Status;
 import org.gradle.launcher.daemon.protocol.Success;
+import org.gradle.launcher.daemon.server.health.LowTenuredSpaceCacheReleaser;
 import org.gradle.util.GradleVersion;
 
 public class HandleReportStatus implements DaemonCommandAction {
+    private final LowTenuredSpaceCacheReleaser cacheReleaser;
+
+    public HandleReportStatus(LowTenuredSpaceCacheReleaser cacheReleaser) {
+        this.cacheReleaser = cacheReleaser;
+    }
+
     @Override
     public void execute(DaemonCommandExecution execution) {
         if (execution.getCommand() instanceof ReportStatus) {
             String version = GradleVersion.current().getVersion();
             String status = execution.getDaemonStateControl().getState().toString().toUpperCase();
-            Status message = new Status(execution.getDaemonContext().getPid(), version, status);
+            Status message = new Status(execution.getDaemonContext().getPid(), version, status, cacheReleaser.getCacheStatus());
             execution.getConnection().completed(new Success(message));
         } else {
             execution.proceed();
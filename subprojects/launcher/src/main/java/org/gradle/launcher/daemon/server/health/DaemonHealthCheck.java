@@ -26,13 +26,16 @@ import static org.gradle.launcher.daemon.server.expiry.DaemonExpirationStatus.DO
 public class DaemonHealthCheck {
     private final DaemonExpirationStrategy strategy;
     private final DaemonExpirationListener listenerBroadcast;
+    private final LowTenuredSpaceCacheReleaser cacheReleaser;
 
-    public DaemonHealthCheck(DaemonExpirationStrategy strategy, ListenerManager listenerManager) {
+    public DaemonHealthCheck(DaemonExpirationStrategy strategy, LowTenuredSpaceCacheReleaser cacheReleaser, ListenerManager listenerManager) {
         this.strategy = strategy;
+        this.cacheReleaser = cacheReleaser;
         this.listenerBroadcast = listenerManager.getBroadcaster(DaemonExpirationListener.class);
     }
 
     public void executeHealthCheck() {
+        cacheReleaser.releaseCachesIfRequired();
         DaemonExpirationResult result = strategy.checkExpiration();
         if (result.getStatus() != DO_NOT_EXPIRE) {
             listenerBroadcast.onExpirationEvent(result);
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.health;
+
+import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
+import org.gradle.api.internal.changedetection.state.InMemoryCacheStatistics;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+
+import java.util.List;
+
+/**
+ * Releases cached state after a build when tenured space starts to run low, so that the daemon can keep running with less state instead of
+ * expiring, and losing all of its state, once it runs out of memory.
+ *
+ * <p>In-memory stores of persistent caches that the last build did not use are discarded. The values of cross-build caches are only strongly
+ * retained for the last build, so those values are released, which leaves them to the garbage collector when it needs the space.</p>
+ */
+public class LowTenuredSpaceCacheReleaser {
+    private static final Logger LOG = Logging.getLogger(LowTenuredSpaceCacheReleaser.class);
+
+    private final DaemonMemoryStatus status;
+    private final CrossBuildInMemoryCacheFactory crossBuildCacheFactory;
+    private final InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory;
+    private volatile int releaseCount;
+
+    public LowTenuredSpaceCacheReleaser(DaemonMemoryStatus status, CrossBuildInMemoryCacheFactory crossBuildCacheFactory, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
+        this.status = status;
+        this.crossBuildCacheFactory = crossBuildCacheFactory;
+        this.inMemoryCacheDecoratorFactory = inMemoryCacheDecoratorFactory;
+    }
+
+    /**
+     * Called after each build.
+     */
+    public void releaseCachesIfRequired() {
+        if (LOG.isDebugEnabled()) {
+            for (InMemoryCacheStatistics cache : inMemoryCacheDecoratorFactory.getStatistics()) {
+                LOG.debug("In-memory cache {}", cache);
+            }
+        }
+        if (status.isTenuredSpaceUnderPressure()) {
+            long discarded = inMemoryCacheDecoratorFactory.discardEntriesUnusedSinceLastRecord();
+            crossBuildCacheFactory.releaseLastSessionValues();
+            releaseCount++;
+            LOG.info("Tenured space is running low. Discarded {} in-memory cache entries not used by the last build, and released the values of cross-build caches used by the last build.", discarded);
+        }
+        inMemoryCacheDecoratorFactory.recordUsage();
+    }
+
+    /**
+     * Returns a summary of the size and effectiveness of the in-memory caches of this daemon, and of how often they were released.
+     */
+    public String getCacheStatus() {
+        List<InMemoryCacheStatistics> statistics = inMemoryCacheDecoratorFactory.getStatistics();
+        long entries = 0;
+        long requests = 0;
+        long hits = 0;
+        long evictions = 0;
+        for (InMemoryCacheStatistics cache : statistics) {
+            entries += cache.getSize();
+            requests += cache.getRequestCount();
+            hits += cache.getHitCount();
+            evictions += cache.getEvictionCount();
+        }
+        return String.format("%s in-memory caches, %s entries, %s%% hit rate, %s evictions, released %s times", statistics.size(), entries, requests == 0 ? 0 : hits * 100 / requests, evictions, releaseCount);
+    }
+}
@@ -98,13 +98,21 @@ public class ClientSidePayloadClassLoaderRegistry implements PayloadClassLoaderR
     public DeserializeMap newDeserializeSession() {
         final DeserializeMap deserializeMap = delegate.newDeserializeSession();
         return new DeserializeMap() {
+            // Application ClassLoaders already looked up in this session, null for ClassLoaders that are not owned by the application
+            final Map<UUID, Set<ClassLoader>> candidatesForClassLoader = new HashMap<UUID, Set<ClassLoader>>();
+
             public Class<?> resolveClass(ClassLoaderDetails classLoaderDetails, String className) throws ClassNotFoundException {
                 Set<ClassLoader> candidates;
-                lock.lock();
-                try {
-                    candidates = getClassLoaders(classLoaderDetails.uuid);
-                } finally {
-                    lock.unlock();
+                if (candidatesForClassLoader.containsKey(classLoaderDetails.uuid)) {
+                    candidates = candidatesForClassLoader.get(classLoaderDetails.uuid);
+                } else {
+                    lock.lock();
+                    try {
+                        candidates = getClassLoaders(classLoaderDetails.uuid);
+                    } finally {
+                        lock.unlock();
+                    }
+                    candidatesForClassLoader.put(classLoaderDetails.uuid, candidates);
                 }
                 if (candidates != null) {
                     // TODO:ADAM - This isn't quite right
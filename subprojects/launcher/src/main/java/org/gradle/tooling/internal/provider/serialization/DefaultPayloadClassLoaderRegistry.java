@@ -86,8 +86,15 @@ public class DefaultPayloadClassLoaderRegistry implements PayloadClassLoaderRegi
 
     public DeserializeMap newDeserializeSession() {
         return new DeserializeMap() {
+            // ClassLoaders already resolved in this session
+            final Map<ClassLoaderDetails, ClassLoader> classLoaders = new HashMap<ClassLoaderDetails, ClassLoader>();
+
             public Class<?> resolveClass(ClassLoaderDetails classLoaderDetails, String className) throws ClassNotFoundException {
-                ClassLoader classLoader = getClassLoader(classLoaderDetails);
+                ClassLoader classLoader = classLoaders.get(classLoaderDetails);
+                if (classLoader == null) {
+                    classLoader = getClassLoader(classLoaderDetails);
+                    classLoaders.put(classLoaderDetails, classLoader);
+                }
                 return Class.forName(className, false, classLoader);
             }
         };
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.client
+
+import org.gradle.api.JavaVersion
+import org.gradle.cache.FileLock
+import org.gradle.cache.FileLockManager
+import org.gradle.cache.LockTimeoutException
+import org.gradle.initialization.BuildLayoutParameters
+import org.gradle.internal.classpath.DefaultClassPath
+import org.gradle.internal.jvm.JavaInfo
+import org.gradle.internal.jvm.inspection.JvmVersionDetector
+import org.gradle.launcher.daemon.configuration.DaemonParameters
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class DaemonClassDataSharingTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+    def versionDetector = Mock(JvmVersionDetector)
+    def fileLock = Mock(FileLock)
+    def fileLockManager = Mock(FileLockManager)
+    def jvm = Mock(JavaInfo) {
+        getJavaExecutable() >> tmp.file("jdk/bin/java")
+    }
+    def parameters = new DaemonParameters(new BuildLayoutParameters()).setJvm(jvm)
+    def classpath = DefaultClassPath.of(tmp.file("lib/gradle-launcher.jar").createFile())
+    def daemonDir = tmp.file("daemon/4.8")
+    def classDataSharing = new DaemonClassDataSharing(versionDetector, fileLockManager, true)
+
+    def setup() {
+        fileLockManager.lock(_, _, _) >> fileLock
+    }
+
+    def "adds no arguments when disabled"() {
+        def classDataSharing = new DaemonClassDataSharing(versionDetector, fileLockManager, false)
+
+        expect:
+        classDataSharing.getJvmArgs(parameters, classpath, daemonDir).empty
+    }
+
+    def "can be enabled by a system property of the build"() {
+        def classDataSharing = new DaemonClassDataSharing(versionDetector, fileLockManager, false)
+        def parameters = new DaemonParameters(new BuildLayoutParameters(), [(DaemonClassDataSharing.ENABLED_PROPERTY): "true"]).setJvm(jvm)
+        versionDetector.getJavaVersion(jvm) >> JavaVersion.VERSION_11
+
+        expect:
+        recordingOf(classDataSharing.getJvmArgs(parameters, classpath, daemonDir)) != null
+    }
+
+    def "adds no arguments for a JVM that does not support application class data sharing"() {
+        versionDetector.getJavaVersion(jvm) >> JavaVersion.VERSION_1_8
+
+        expect:
+        classDataSharing.getJvmArgs(parameters, classpath, daemonDir).empty
+        !daemonDir.exists()
+    }
+
+    def "adds no arguments when the classpath contains a directory"() {
+        versionDetector.getJavaVersion(jvm) >> JavaVersion.VERSION_11
+
+        expect:
+        classDataSharing.getJvmArgs(parameters, DefaultClassPath.of(tmp.createDir("classes")), daemonDir).empty
+    }
+
+    def "records loaded classes to a separate file for each daemon while holding the lock"() {
+        versionDetector.getJavaVersion(jvm) >> JavaVersion.VERSION_11
+
+        when:
+        def first = recordingOf(classDataSharing.getJvmArgs(parameters, classpath, daemonDir))
+        def second = recordingOf(classDataSharing.getJvmArgs(parameters, classpath, daemonDir))
+
+        then:
+        2 * fileLockManager.lock({ it.parentFile == new File(daemonDir, "cds") }, _, _) >> fileLock
+        2 * fileLock.close()
+
+        and:
+        first.parentFile.directory
+        first != second
+        first.parentFile == second.parentFile
+    }
+
+    def "uses an existing archive"() {
+        versionDetector.getJavaVersion(jvm) >> JavaVersion.VERSION_11
+        def recording = recordingOf(classDataSharing.getJvmArgs(parameters, classpath, daemonDir))
+        def archive = new File(recording.parentFile, "classes.jsa")
+        archive.text = "archive"
+
+        expect:
+        classDataSharing.getJvmArgs(parameters, classpath, daemonDir) == ["-XX:SharedArchiveFile=" + archive.absolutePath, "-Xshare:auto"]
+    }
+
+    def "creates the archive from the completely written lines of a recording"() {
+        versionDetector.getJavaVersion(jvm) >> JavaVersion.VERSION_11
+        def recording = recordingOf(classDataSharing.getJvmArgs(parameters, classpath, daemonDir))
+        recording.text = "java/lang/Object\njava/lang/Str"
+
+        when:
+        // The JVM executable does not exist, so creating the archive fails
+        def args = classDataSharing.getJvmArgs(parameters, classpath, daemonDir)
+
+        then:
+        args.empty
+        new File(recording.parentFile, "classes.lst").text == "java/lang/Object\n"
+        !recording.exists()
+    }
+
+    def "keeps recording when no line has been completely written yet"() {
+        versionDetector.getJavaVersion(jvm) >> JavaVersion.VERSION_11
+        def recording = recordingOf(classDataSharing.getJvmArgs(parameters, classpath, daemonDir))
+        recording.text = "java/lang/Obj"
+
+        when:
+        def next = recordingOf(classDataSharing.getJvmArgs(parameters, classpath, daemonDir))
+
+        then:
+        next != recording
+        !new File(recording.parentFile, "classes.lst").exists()
+    }
+
+    def "does not use class data sharing again for a day when the archive could not be created"() {
+        versionDetector.getJavaVersion(jvm) >> JavaVersion.VERSION_11
+        def recording = recordingOf(classDataSharing.getJvmArgs(parameters, classpath, daemonDir))
+        recording.text = "java/lang/Object\n"
+        def failedMarker = new File(recording.parentFile, "failed")
+
+        expect:
+        classDataSharing.getJvmArgs(parameters, classpath, daemonDir).empty
+        failedMarker.file
+        classDataSharing.getJvmArgs(parameters, classpath, daemonDir).empty
+
+        when:
+        failedMarker.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2))
+        new File(recording.parentFile, "classes.jsa").text = "archive"
+
+        then:
+        classDataSharing.getJvmArgs(parameters, classpath, daemonDir)[0].startsWith("-XX:SharedArchiveFile=")
+        !failedMarker.exists()
+    }
+
+    def "uses a new archive when the JVM is updated in place"() {
+        versionDetector.getJavaVersion(jvm) >> JavaVersion.VERSION_11
+        def javaExecutable = tmp.file("jdk/bin/java").createFile()
+        javaExecutable.setLastModified(1000)
+        def recording = recordingOf(classDataSharing.getJvmArgs(parameters, classpath, daemonDir))
+        new File(recording.parentFile, "failed").createNewFile()
+
+        when:
+        javaExecutable.setLastModified(2000)
+        def next = recordingOf(classDataSharing.getJvmArgs(parameters, classpath, daemonDir))
+
+        then:
+        next.parentFile != recording.parentFile
+    }
+
+    def "adds no arguments when the lock cannot be acquired"() {
+        versionDetector.getJavaVersion(jvm) >> JavaVersion.VERSION_11
+
+        when:
+        def args = classDataSharing.getJvmArgs(parameters, classpath, daemonDir)
+
+        then:
+        1 * fileLockManager.lock(_, _, _) >> { throw new LockTimeoutException("cds", "1", "2", "start daemon", "start daemon", new File("lock")) }
+        args.empty
+    }
+
+    private static File recordingOf(List<String> args) {
+        assert args.size() == 1
+        assert args[0].startsWith("-XX:DumpLoadedClassList=")
+        return new File(args[0].substring("-XX:DumpLoadedClassList=".length()))
+    }
+}
@@ -16,6 +16,8 @@
 
 package org.gradle.launcher.daemon.server
 
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.logging.events.LogEvent
 import org.gradle.launcher.daemon.protocol.CloseInput
 import org.gradle.launcher.daemon.protocol.ForwardInput
 import org.gradle.launcher.daemon.server.api.StdinHandler
@@ -347,18 +349,33 @@ class DefaultDaemonConnectionTest extends ConcurrentSpecification {
         result == ["incoming1", "incoming2"]
     }
 
+    def "dispatches batch of log events with a single flush"() {
+        def event1 = new LogEvent(0, "category", LogLevel.INFO, "message 1", null)
+        def event2 = new LogEvent(0, "category", LogLevel.INFO, "message 2", null)
+
+        when:
+        daemonConnection.logEvents([event1, event2])
+
+        then:
+        connection.dispatched*.event == [event1, event2]
+        connection.flushes == 1
+    }
+
     static class TestConnection implements RemoteConnection<Object> {
         final Object lock = new Object()
         final Object endInput = new Object()
         final LinkedList<Object> receiveQueue = new LinkedList<Object>()
 
+        final List<Object> dispatched = []
+        int flushes
+
         void dispatch(Object message) {
-            throw new UnsupportedOperationException()
+            dispatched << message
         }
 
         @Override
         void flush() throws MessageIOException {
-            throw new UnsupportedOperationException()
+            flushes++
         }
 
         void queueIncoming(Object message) {
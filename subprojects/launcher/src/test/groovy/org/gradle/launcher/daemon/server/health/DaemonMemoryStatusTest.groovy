@@ -27,6 +27,7 @@ import spock.lang.Unroll
 
 import static DaemonMemoryStatus.PERMGEN_USAGE_EXPIRE_AT
 import static DaemonMemoryStatus.TENURED_RATE_EXPIRE_AT
+import static DaemonMemoryStatus.TENURED_USAGE_RELEASE_CACHES_AT
 import static DaemonMemoryStatus.TENURED_USAGE_EXPIRE_AT
 import static DaemonMemoryStatus.THRASHING_EXPIRE_AT
 
@@ -148,6 +149,33 @@ class DaemonMemoryStatusTest extends Specification {
         10             | 90             | 15   | 0    | false
     }
 
+    @Unroll
+    def "knows when tenured space is under pressure (#releaseThreshold <= #used, expire at #usageThreshold)"() {
+        when:
+        System.setProperty(TENURED_USAGE_EXPIRE_AT, usageThreshold.toString())
+        if (releaseThreshold != null) {
+            System.setProperty(TENURED_USAGE_RELEASE_CACHES_AT, releaseThreshold.toString())
+        }
+        gcMonitor.getTenuredStats() >> {
+            Stub(GarbageCollectionStats) {
+                getUsage() >> used
+                getEventCount() >> 10
+            }
+        }
+
+        then:
+        status.isTenuredSpaceUnderPressure() == underPressure
+
+        where:
+        releaseThreshold | usageThreshold | used | underPressure
+        null             | 90             | 80   | true
+        null             | 90             | 79   | false
+        null             | 0              | 100  | false
+        60               | 90             | 60   | true
+        60               | 90             | 59   | false
+        0                | 90             | 100  | false
+    }
+
     def "can disable daemon performance monitoring"() {
         when:
         System.setProperty(DaemonMemoryStatus.ENABLE_PERFORMANCE_MONITORING, "false")
@@ -160,6 +188,9 @@ class DaemonMemoryStatusTest extends Specification {
 
         and:
         !status.isThrashing()
+
+        and:
+        !status.isTenuredSpaceUnderPressure()
     }
 
     DaemonMemoryStatus getStatus() {
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.health
+
+import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory
+import org.gradle.api.internal.changedetection.state.InMemoryCacheStatistics
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory
+import spock.lang.Specification
+
+class LowTenuredSpaceCacheReleaserTest extends Specification {
+    def status = Mock(DaemonMemoryStatus)
+    def crossBuildCacheFactory = Mock(CrossBuildInMemoryCacheFactory)
+    def inMemoryCacheDecoratorFactory = Mock(InMemoryCacheDecoratorFactory)
+    def releaser = new LowTenuredSpaceCacheReleaser(status, crossBuildCacheFactory, inMemoryCacheDecoratorFactory)
+
+    def "releases caches when tenured space is under pressure"() {
+        when:
+        releaser.releaseCachesIfRequired()
+
+        then:
+        1 * status.isTenuredSpaceUnderPressure() >> true
+        1 * inMemoryCacheDecoratorFactory.discardEntriesUnusedSinceLastRecord() >> 12
+
+        then:
+        1 * crossBuildCacheFactory.releaseLastSessionValues()
+
+        then:
+        1 * inMemoryCacheDecoratorFactory.recordUsage()
+    }
+
+    def "keeps caches when tenured space is not under pressure"() {
+        when:
+        releaser.releaseCachesIfRequired()
+
+        then:
+        1 * status.isTenuredSpaceUnderPressure() >> false
+        0 * crossBuildCacheFactory._
+        0 * inMemoryCacheDecoratorFactory.discardEntriesUnusedSinceLastRecord()
+        1 * inMemoryCacheDecoratorFactory.recordUsage()
+    }
+
+    def "summarizes in-memory caches and releases"() {
+        given:
+        inMemoryCacheDecoratorFactory.getStatistics() >> [
+            statistics(10, 30, 27, 1),
+            statistics(5, 10, 3, 2)
+        ]
+        status.isTenuredSpaceUnderPressure() >>> [true, false]
+
+        when:
+        releaser.releaseCachesIfRequired()
+        releaser.releaseCachesIfRequired()
+
+        then:
+        releaser.cacheStatus == "2 in-memory caches, 15 entries, 75% hit rate, 3 evictions, released 1 times"
+    }
+
+    private InMemoryCacheStatistics statistics(long size, long requests, long hits, long evictions) {
+        return Stub(InMemoryCacheStatistics) {
+            getSize() >> size
+            getRequestCount() >> requests
+            getHitCount() >> hits
+            getEvictionCount() >> evictions
+        }
+    }
+}
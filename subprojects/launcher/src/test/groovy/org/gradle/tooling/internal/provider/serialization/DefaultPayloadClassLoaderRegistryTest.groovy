@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.provider.serialization
+
+import org.gradle.internal.classloader.VisitableURLClassLoader
+import spock.lang.Specification
+
+class DefaultPayloadClassLoaderRegistryTest extends Specification {
+    def cache = Mock(ClassLoaderCache)
+    def registry = new DefaultPayloadClassLoaderRegistry(cache, Mock(PayloadClassLoaderFactory))
+
+    def "looks up ClassLoader once per deserialize session"() {
+        def details = new ClassLoaderDetails(UUID.randomUUID(), new VisitableURLClassLoader.Spec([]))
+        def classLoader = getClass().classLoader
+
+        when:
+        def session = registry.newDeserializeSession()
+        def first = session.resolveClass(details, DefaultPayloadClassLoaderRegistryTest.name)
+        def second = session.resolveClass(details, ClassLoaderDetails.name)
+
+        then:
+        first == DefaultPayloadClassLoaderRegistryTest
+        second == ClassLoaderDetails
+        1 * cache.getClassLoader(details, _) >> classLoader
+        0 * cache._
+
+        when:
+        registry.newDeserializeSession().resolveClass(details, DefaultPayloadClassLoaderRegistryTest.name)
+
+        then:
+        1 * cache.getClassLoader(details, _) >> classLoader
+        0 * cache._
+    }
+}
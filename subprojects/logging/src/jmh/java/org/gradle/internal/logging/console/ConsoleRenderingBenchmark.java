@@ -0,0 +1,175 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.logging.console;
+
+import org.gradle.internal.logging.events.EndOutputEvent;
+import org.gradle.internal.logging.events.OutputEvent;
+import org.gradle.internal.logging.events.OutputEventListener;
+import org.gradle.internal.logging.events.ProgressCompleteEvent;
+import org.gradle.internal.logging.events.ProgressStartEvent;
+import org.gradle.internal.logging.events.UpdateNowEvent;
+import org.gradle.internal.logging.format.PrettyPrefixedLogHeaderFormatter;
+import org.gradle.internal.logging.sink.GroupingProgressLogEventGenerator;
+import org.gradle.internal.nativeintegration.console.ConsoleMetaData;
+import org.gradle.internal.operations.BuildOperationCategory;
+import org.gradle.internal.operations.OperationIdentifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Flushable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the progress events of one second of a wide parallel build through the rich console, to measure the time spent rendering per second of build.
+ *
+ * <p>The events are delivered in frames, as done by {@link ThrottlingOutputEventListener}, and the console writes to a target that only counts the characters.</p>
+ */
+@Fork(2)
+@Warmup(iterations = 10)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ConsoleRenderingBenchmark {
+    private static final int FRAMES_PER_SECOND = 10;
+    private static final String[] TASK_NAMES = {"compileJava", "processResources", "classes", "compileTestJava", "jar", "test", "checkstyleMain", "javadoc"};
+
+    @Param({"16", "64"})
+    int workers;
+
+    @Param({"2000"})
+    int tasksPerSecond;
+
+    private final List<OutputEvent> events = new ArrayList<OutputEvent>();
+
+    @Setup
+    public void recordEvents() {
+        long timestamp = 0;
+        long nextId = 1;
+        OperationIdentifier buildId = new OperationIdentifier(nextId++);
+        events.add(new ProgressStartEvent(buildId, null, timestamp, "build", "Build", null, "", 0, true, buildId, BuildOperationCategory.UNCATEGORIZED));
+        OperationIdentifier runTasksId = new OperationIdentifier(nextId++);
+        events.add(new ProgressStartEvent(runTasksId, buildId, timestamp, "build", "Run tasks", null, "", tasksPerSecond, true, runTasksId, BuildOperationCategory.RUN_TASKS_ROOT_BUILD));
+
+        OperationIdentifier[] runningTasks = new OperationIdentifier[workers];
+        int tasksPerFrame = tasksPerSecond / FRAMES_PER_SECOND;
+        int task = 0;
+        for (int frame = 0; frame < FRAMES_PER_SECOND; frame++) {
+            for (int i = 0; i < tasksPerFrame; i++, task++) {
+                int worker = task % workers;
+                timestamp = frame * 1000L / FRAMES_PER_SECOND + i * 1000L / tasksPerSecond;
+                if (runningTasks[worker] != null) {
+                    events.add(new ProgressCompleteEvent(runningTasks[worker], timestamp, "", false));
+                }
+                OperationIdentifier taskId = new OperationIdentifier(nextId++);
+                String taskPath = ":subproject" + (task % 97) + ":" + TASK_NAMES[task % TASK_NAMES.length];
+                events.add(new ProgressStartEvent(taskId, runTasksId, timestamp, "task", "Task " + taskPath, null, taskPath, 0, true, taskId, BuildOperationCategory.TASK));
+                runningTasks[worker] = taskId;
+            }
+            events.add(new UpdateNowEvent((frame + 1) * 1000L / FRAMES_PER_SECOND));
+        }
+        events.add(new EndOutputEvent());
+    }
+
+    @Benchmark
+    public long replayOneSecondOfBuild() {
+        CountingAppendable target = new CountingAppendable();
+        ConsoleMetaData consoleMetaData = new TerminalMetaData(160, 80);
+        AnsiConsole console = new AnsiConsole(target, target, new DefaultColorMap(), consoleMetaData, true);
+        OutputEventListener renderer = new UserInputConsoleRenderer(
+            new BuildStatusRenderer(
+                new WorkInProgressRenderer(
+                    new BuildLogLevelFilterRenderer(
+                        new GroupingProgressLogEventGenerator(new StyledTextOutputBackedRenderer(console.getBuildOutputArea()), new PrettyPrefixedLogHeaderFormatter(), false)
+                    ),
+                    console.getBuildProgressArea(),
+                    new DefaultWorkInProgressFormatter(consoleMetaData),
+                    new ConsoleLayoutCalculator(consoleMetaData)
+                ),
+                console.getStatusBar(), console, consoleMetaData),
+            console);
+        for (OutputEvent event : events) {
+            renderer.onOutput(event);
+        }
+        return target.count;
+    }
+
+    private static class CountingAppendable implements Appendable, Flushable {
+        long count;
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            count += csq.length();
+            return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            count += end - start;
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            count++;
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+
+    private static class TerminalMetaData implements ConsoleMetaData {
+        private final int cols;
+        private final int rows;
+
+        TerminalMetaData(int cols, int rows) {
+            this.cols = cols;
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean isStdOut() {
+            return true;
+        }
+
+        @Override
+        public boolean isStdErr() {
+            return true;
+        }
+
+        @Override
+        public int getCols() {
+            return cols;
+        }
+
+        @Override
+        public int getRows() {
+            return rows;
+        }
+    }
+}
@@ -89,20 +89,26 @@ public class DefaultRedrawableLabel implements RedrawableLabel {
             }
 
             int writtenTextLength = writePos.col;
-            writePos.col = 0;
-            redrawText(ansi.writeAt(writePos), writtenTextLength);
+            // Only rewrite the part of the line that changed, unless the label moved and the whole line needs to be written
+            int unchangedTextLength = previousWriteRow == absolutePositionRow ? unchangedTextLength(writtenSpans, spans) : 0;
+            writePos.col = unchangedTextLength;
+            redrawText(ansi.writeAt(writePos), unchangedTextLength, writtenTextLength);
 
             writtenSpans = spans;
             previousWriteRow = absolutePositionRow;
         }
     }
 
-    private void redrawText(AnsiContext ansi, int writtenTextLength) {
+    private void redrawText(AnsiContext ansi, int unchangedTextLength, int writtenTextLength) {
         int textLength = 0;
         for (StyledTextOutputEvent.Span span : spans) {
-            ansi.withStyle(span.getStyle(), writeText(span.getText()));
+            String text = span.getText();
+            int unchangedSpanLength = Math.max(0, unchangedTextLength - textLength);
+            if (unchangedSpanLength < text.length()) {
+                ansi.withStyle(span.getStyle(), writeText(unchangedSpanLength == 0 ? text : text.substring(unchangedSpanLength)));
+            }
 
-            textLength += span.getText().length();
+            textLength += text.length();
         }
 
         if (previousWriteRow == absolutePositionRow && textLength < writtenTextLength) {
@@ -111,6 +117,33 @@ public class DefaultRedrawableLabel implements RedrawableLabel {
         // Note: We can't conclude anything if the label scrolled so we leave the erasing to the parent widget.
     }
 
+    /**
+     * Returns the number of characters at the start of the line that are displayed identically, with the same style, by both lists of spans.
+     */
+    private static int unchangedTextLength(List<StyledTextOutputEvent.Span> writtenSpans, List<StyledTextOutputEvent.Span> spans) {
+        int length = 0;
+        int count = Math.min(writtenSpans.size(), spans.size());
+        for (int i = 0; i < count; i++) {
+            StyledTextOutputEvent.Span writtenSpan = writtenSpans.get(i);
+            StyledTextOutputEvent.Span span = spans.get(i);
+            if (!writtenSpan.getStyle().equals(span.getStyle())) {
+                break;
+            }
+            String writtenText = writtenSpan.getText();
+            String text = span.getText();
+            int commonLength = 0;
+            int maxLength = Math.min(writtenText.length(), text.length());
+            while (commonLength < maxLength && writtenText.charAt(commonLength) == text.charAt(commonLength)) {
+                commonLength++;
+            }
+            length += commonLength;
+            if (commonLength < writtenText.length() || commonLength < text.length()) {
+                break;
+            }
+        }
+        return length;
+    }
+
     private static Action<AnsiContext> writeText(final String text) {
         return new Action<AnsiContext>() {
             @Override
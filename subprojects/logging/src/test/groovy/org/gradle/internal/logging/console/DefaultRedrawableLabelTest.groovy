@@ -178,6 +178,58 @@ class DefaultRedrawableLabelTest extends Specification{
         0 * ansi._
     }
 
+    def "changing the end of the label text between redraw will only rewrite the changed characters to ansi"() {
+        given:
+        label.text = "> :project:taskA"
+
+        when:
+        redraw()
+        label.text = "> :project:taskB > running"
+        redraw()
+
+        then:
+        1 * ansi.a("> :project:taskA")
+        1 * ansi.cursorLeft(1)
+        1 * ansi.a("B > running")
+        0 * ansi._
+    }
+
+    def "truncating the label text between redraw will only erase the removed characters"() {
+        given:
+        label.text = "text and more"
+
+        when:
+        redraw()
+        label.text = "text"
+        redraw()
+
+        then:
+        1 * ansi.a("text and more")
+        1 * ansi.cursorLeft(9)
+        1 * ansi.eraseLine(Ansi.Erase.FORWARD)
+        0 * ansi._
+    }
+
+    def "changing the style of the label text between redraw will rewrite the restyled text to ansi"() {
+        given:
+        label.text = [new StyledTextOutputEvent.Span("> "), new StyledTextOutputEvent.Span(StyledTextOutput.Style.Header, "text")]
+
+        when:
+        redraw()
+        label.text = [new StyledTextOutputEvent.Span("> "), new StyledTextOutputEvent.Span(StyledTextOutput.Style.Success, "text")]
+        redraw()
+
+        then:
+        1 * ansi.a("> ")
+        1 * ansi.a(Ansi.Attribute.INTENSITY_BOLD)
+        2 * ansi.a("text")
+        1 * ansi.a(Ansi.Attribute.RESET)
+        1 * ansi.cursorLeft(4)
+        1 * ansi.fg(Ansi.Color.GREEN)
+        1 * ansi.fg(Ansi.Color.DEFAULT)
+        0 * ansi._
+    }
+
     @Unroll
     def "scrolling the label by non-zero number of rows between redraw will rewrite the text to ansi to the new location"() {
         given:
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.hub.queue;
+
+import org.gradle.internal.remote.internal.hub.protocol.ChannelIdentifier;
+import org.gradle.internal.remote.internal.hub.protocol.ChannelMessage;
+import org.gradle.internal.remote.internal.hub.protocol.InterHubMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Measures queueing messages for an endpoint that has fallen behind, such as the handler of test events in the build process, and
+ * then handing them all to the endpoint once it asks for more.
+ */
+@Fork(2)
+@Warmup(iterations = 10)
+@State(Scope.Benchmark)
+public class MultiEndPointQueueBenchmark {
+    @Param({"100", "10000", "100000"})
+    int backlog;
+
+    private final ChannelIdentifier channel = new ChannelIdentifier("channel");
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<InterHubMessage> messages;
+
+    @Setup(Level.Trial)
+    public void createMessages() {
+        messages = new ArrayList<InterHubMessage>(backlog);
+        for (int i = 0; i < backlog; i++) {
+            messages.add(new ChannelMessage(channel, "message " + i));
+        }
+    }
+
+    @Benchmark
+    public List<InterHubMessage> queueAndTakeBacklog() {
+        lock.lock();
+        try {
+            MultiEndPointQueue queue = new MultiEndPointQueue(lock);
+            EndPointQueue endpoint = queue.newEndpoint();
+            for (InterHubMessage message : messages) {
+                queue.dispatch(message);
+            }
+            List<InterHubMessage> taken = new ArrayList<InterHubMessage>(backlog);
+            endpoint.take(taken);
+            return taken;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -18,6 +18,8 @@ package org.gradle.internal.remote.internal.hub.queue
 
 import org.gradle.internal.remote.internal.hub.protocol.EndOfStream
 
+import java.util.concurrent.locks.Condition
+
 class MultiEndPointQueueTest extends AbstractQueueTest {
     final MultiEndPointQueue queue = new MultiEndPointQueue(lock)
 
@@ -40,6 +42,43 @@ class MultiEndPointQueueTest extends AbstractQueueTest {
         messages == [message1, message2]
     }
 
+    def "forwards many queued unicast messages in order"() {
+        given:
+        def queued = (1..10000).collect { unicast() }
+        def endpoint = queue.newEndpoint()
+
+        and:
+        queued.each { queue.dispatch(it) }
+
+        when:
+        def messages = []
+        endpoint.take(messages)
+
+        then:
+        messages == queued
+    }
+
+    def "signals endpoint only when a message is added to its empty queue"() {
+        given:
+        def condition = Mock(Condition)
+        def endpoint = new EndPointQueue(queue, condition)
+
+        when:
+        endpoint.dispatch(unicast())
+        endpoint.dispatch(unicast())
+        endpoint.dispatch(unicast())
+
+        then:
+        1 * condition.signalAll()
+
+        when:
+        endpoint.take([])
+        endpoint.dispatch(unicast())
+
+        then:
+        1 * condition.signalAll()
+    }
+
     def "forwards unicast message to first waiting endpoint"() {
         given:
         def message = unicast()
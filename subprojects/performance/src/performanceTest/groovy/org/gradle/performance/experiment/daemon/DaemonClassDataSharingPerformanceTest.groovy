@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance.experiment.daemon
+
+import org.gradle.performance.AbstractCrossBuildPerformanceTest
+import org.gradle.performance.categories.PerformanceExperiment
+import org.junit.experimental.categories.Category
+import spock.lang.Unroll
+
+import static org.gradle.performance.generator.JavaTestProject.LARGE_JAVA_MULTI_PROJECT
+import static org.gradle.performance.generator.JavaTestProject.SMALL_JAVA_MULTI_PROJECT
+
+@Category(PerformanceExperiment)
+class DaemonClassDataSharingPerformanceTest extends AbstractCrossBuildPerformanceTest {
+
+    @Unroll
+    def "time to first task with a new daemon on #testProject"() {
+        // The daemon JVM arguments differ from those of the client, so every invocation starts a new single use daemon
+        def daemonJvmArgs = "-Xms${testProject.daemonMemory} -Xmx${testProject.daemonMemory}"
+
+        when:
+        runner.testGroup = "daemon class data sharing"
+        runner.buildSpec {
+            warmUpCount = warmUpRuns
+            invocationCount = runs
+            projectName(testProject.projectName).displayName("class data sharing").invocation {
+                tasksToRun("help").args("-Dorg.gradle.jvmargs=${daemonJvmArgs} -Dorg.gradle.internal.daemon.class-data-sharing=true")
+            }
+        }
+        runner.baseline {
+            warmUpCount = warmUpRuns
+            invocationCount = runs
+            projectName(testProject.projectName).displayName("no class data sharing").invocation {
+                tasksToRun("help").args("-Dorg.gradle.jvmargs=${daemonJvmArgs}")
+            }
+        }
+
+        then:
+        runner.run()
+
+        where:
+        testProject              | warmUpRuns | runs
+        SMALL_JAVA_MULTI_PROJECT | 2          | 10
+        LARGE_JAVA_MULTI_PROJECT | 2          | 10
+    }
+}
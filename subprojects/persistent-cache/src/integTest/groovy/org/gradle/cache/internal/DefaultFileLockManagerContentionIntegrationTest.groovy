@@ -16,6 +16,7 @@
 
 package org.gradle.cache.internal
 
+import org.gradle.api.internal.changedetection.state.CrossBuildFileHashCache
 import org.gradle.cache.FileLock
 import org.gradle.cache.FileLockManager
 import org.gradle.cache.internal.filelock.LockOptionsBuilder
@@ -38,7 +39,7 @@ class DefaultFileLockManagerContentionIntegrationTest extends AbstractIntegratio
 
     FileLockContentionHandler receivingFileLockContentionHandler
     DatagramSocket receivingSocket
-    FileLock receivingLock
+    List<FileLock> receivingLocks
     Thread socketReceiverThread
 
     def setup() {
@@ -64,7 +65,7 @@ class DefaultFileLockManagerContentionIntegrationTest extends AbstractIntegratio
         poll {
             assert (build.standardOutput =~ 'Pinged owner at port').count == 3
         }
-        receivingLock.close()
+        receivingLocks*.close()
 
         then:
         build.waitForFinish()
@@ -166,8 +167,8 @@ class DefaultFileLockManagerContentionIntegrationTest extends AbstractIntegratio
 
         requestReceived = false
         def prevReceivingSocket = receivingSocket
-        def prevReceivingLock = receivingLock
-        lock1.close()
+        def prevReceivingLocks = receivingLocks
+        lock1*.close()
         def lock2 = setupLockOwner() {
             requestReceived = true
         }
@@ -176,15 +177,15 @@ class DefaultFileLockManagerContentionIntegrationTest extends AbstractIntegratio
             assert countPingsSent(build, prevReceivingSocket) == 1
             assert countPingsSent(build, receivingSocket) == 1
         }
-        lock2.close()
+        lock2*.close()
 
         then:
         build.waitForFinish()
         countPingsSent(build, prevReceivingSocket) == 1
         countPingsSent(build, receivingSocket) == 1
-        assertConfirmationCount(build, prevReceivingSocket, prevReceivingLock)
-        assertConfirmationCount(build, receivingSocket, receivingLock)
-        assertConfirmationCount(build, prevReceivingSocket, prevReceivingLock)
+        assertConfirmationCount(build, prevReceivingSocket, prevReceivingLocks)
+        assertConfirmationCount(build, receivingSocket, receivingLocks)
+        assertConfirmationCount(build, prevReceivingSocket, prevReceivingLocks)
     }
 
     // This test simulates a long running Zic compiler setup by running code similar to ZincScalaCompilerFactory through the worker API.
@@ -261,8 +262,9 @@ class DefaultFileLockManagerContentionIntegrationTest extends AbstractIntegratio
     }
 
 
-    void assertConfirmationCount(GradleHandle build, DatagramSocket socket = receivingSocket, FileLock lock = receivingLock) {
-        assert (build.standardOutput =~ "Gradle process at port ${socket.localPort} confirmed unlock request for lock with id ${lock.lockId}.").count == addressFactory.communicationAddresses.size()
+    void assertConfirmationCount(GradleHandle build, DatagramSocket socket = receivingSocket, List<FileLock> locks = receivingLocks) {
+        def confirmations = locks.sum { lock -> (build.standardOutput =~ "Gradle process at port ${socket.localPort} confirmed unlock request for lock with id ${lock.lockId}.").count }
+        assert confirmations == addressFactory.communicationAddresses.size()
     }
 
     def assertReceivingSocketEmpty() {
@@ -283,7 +285,7 @@ class DefaultFileLockManagerContentionIntegrationTest extends AbstractIntegratio
 
     def waitCloseAndFinish(GradleHandle build) {
         Thread.sleep(10 * 1000) //wait 10 seconds, in which the build should only wait for the lock to become available
-        receivingLock.close()
+        receivingLocks*.close()
         build.waitForFinish()
     }
 
@@ -316,7 +318,12 @@ class DefaultFileLockManagerContentionIntegrationTest extends AbstractIntegratio
             String getProcessDisplayName() { return "process" }
         }, receivingFileLockContentionHandler)
         receivingSocket = receivingFileLockContentionHandler.communicator.socket
-        receivingLock = fileLockManager.lock(new File(executer.gradleUserHomeDir, "caches/${executer.gradleVersion.version}/fileHashes/fileHashes"), LockOptionsBuilder.mode(FileLockManager.LockMode.Exclusive), "fileHashes", "", whenContended)
+        // The file hash cache is striped, so hold the lock of every stripe
+        def fileHashesDir = new File(executer.gradleUserHomeDir, "caches/${executer.gradleVersion.version}/fileHashes")
+        receivingLocks = (0..<CrossBuildFileHashCache.STRIPES).collect { stripe ->
+            def stripeName = "${StripedPersistentCache.STRIPE_DIR_PREFIX}${stripe}"
+            fileLockManager.lock(new File(fileHashesDir, "${stripeName}/${stripeName}"), LockOptionsBuilder.mode(FileLockManager.LockMode.Exclusive), "fileHashes", "", whenContended)
+        }
     }
 
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+import org.gradle.cache.FileLock;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.internal.locklistener.DefaultFileLockContentionHandler;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.remote.internal.inet.InetAddressFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Measures handing a cross-process lock back and forth between two Gradle processes, such as two daemons using the same cache.
+ *
+ * <p>Each process is simulated by a lock manager with its own contention handler, so the lock is requested and released
+ * through the same socket messages as between separate processes.</p>
+ */
+@Fork(2)
+@Warmup(iterations = 10)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FileLockHandoffBenchmark {
+    @Param({"0", "20"})
+    int holdMillis;
+
+    private final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
+    private final Semaphore ownerHoldsLock = new Semaphore(0);
+    private final Semaphore requesterHoldsLock = new Semaphore(0);
+    private DefaultFileLockContentionHandler ownerContentionHandler;
+    private DefaultFileLockContentionHandler requesterContentionHandler;
+    private FileLockManager requester;
+    private File target;
+    private Thread owner;
+
+    @Setup(Level.Trial)
+    public void startOwner() throws IOException {
+        target = File.createTempFile("lock", ".bin");
+        ownerContentionHandler = new DefaultFileLockContentionHandler(executorFactory, new InetAddressFactory());
+        requesterContentionHandler = new DefaultFileLockContentionHandler(executorFactory, new InetAddressFactory());
+        final FileLockManager ownerManager = new DefaultFileLockManager(new TestProcessMetaDataProvider(), ownerContentionHandler);
+        requester = new DefaultFileLockManager(new TestProcessMetaDataProvider(), requesterContentionHandler);
+        owner = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    while (!isInterrupted()) {
+                        final CountDownLatch contended = new CountDownLatch(1);
+                        FileLock lock = ownerManager.lock(target, mode(FileLockManager.LockMode.Exclusive), "owner", "", new Runnable() {
+                            @Override
+                            public void run() {
+                                contended.countDown();
+                            }
+                        });
+                        try {
+                            ownerHoldsLock.release();
+                            contended.await();
+                        } finally {
+                            lock.close();
+                        }
+                        // Let the requester take the lock before asking for it again
+                        requesterHoldsLock.acquire();
+                    }
+                } catch (InterruptedException e) {
+                    // Stopped
+                }
+            }
+        };
+        owner.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopOwner() throws InterruptedException {
+        // Wait for the owner to take the lock back, so that it is interrupted while waiting for contention rather than while locking
+        ownerHoldsLock.acquire();
+        owner.interrupt();
+        owner.join();
+        CompositeStoppable.stoppable(ownerContentionHandler, requesterContentionHandler, executorFactory).stop();
+        target.delete();
+    }
+
+    @Benchmark
+    public void takeLockFromOtherProcess() throws InterruptedException {
+        ownerHoldsLock.acquire();
+        FileLock lock = requester.lock(target, mode(FileLockManager.LockMode.Exclusive), "requester", "", new Runnable() {
+            @Override
+            public void run() {
+                // Released once held for the given time
+            }
+        });
+        requesterHoldsLock.release();
+        Thread.sleep(holdMillis);
+        lock.close();
+    }
+
+    private static class TestProcessMetaDataProvider implements ProcessMetaDataProvider {
+        @Override
+        public String getProcessIdentifier() {
+            return "pid";
+        }
+
+        @Override
+        public String getProcessDisplayName() {
+            return "benchmark";
+        }
+    }
+}
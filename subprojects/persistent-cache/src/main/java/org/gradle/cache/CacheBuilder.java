@@ -88,6 +88,20 @@ public interface CacheBuilder {
      */
     CacheBuilder withCleanup(CleanupAction cleanup);
 
+    /**
+     * Splits each indexed cache created by this cache into the given number of stripes, selected by a hash of the serialized key. Each stripe is stored in its own file and
+     * guarded by its own lock, so that threads and processes using entries in different stripes do not wait for each other. The default is a single stripe.
+     *
+     * <p>Only operations on the indexed caches are striped. {@link PersistentCache#useCache(org.gradle.internal.Factory)} and {@link PersistentCache#withFileLock(org.gradle.internal.Factory)}
+     * still lock the cache as a whole and do not hold the locks of the stripes.</p>
+     *
+     * <p>Striping is only supported for caches that lock on demand, using {@link org.gradle.cache.FileLockManager.LockMode#None}.</p>
+     *
+     * @param stripes the number of stripes, must be at least 1.
+     * @return this
+     */
+    CacheBuilder withStripedLocking(int stripes);
+
     /**
      * Opens the cache. It is the caller's responsibility to close the cache when finished with it.
      *
@@ -15,6 +15,8 @@
  */
 package org.gradle.cache.internal;
 
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import org.gradle.api.Action;
 import org.gradle.cache.CacheBuilder;
 import org.gradle.cache.CacheOpenException;
@@ -47,6 +49,13 @@ public class DefaultCacheFactory implements CacheFactory, Closeable {
     private final FileLockManager lockManager;
     private final ExecutorFactory executorFactory;
     private final Lock lock = new ReentrantLock();
+    // Held while a cache directory is being opened, so that caches in different directories can be opened and initialized concurrently
+    private final LoadingCache<File, Lock> dirLocks = com.google.common.cache.CacheBuilder.newBuilder().weakValues().build(new CacheLoader<File, Lock>() {
+        @Override
+        public Lock load(File dir) {
+            return new ReentrantLock();
+        }
+    });
 
     public DefaultCacheFactory(FileLockManager fileLockManager, ExecutorFactory executorFactory) {
         this.lockManager = fileLockManager;
@@ -61,11 +70,13 @@ public class DefaultCacheFactory implements CacheFactory, Closeable {
 
     @Override
     public PersistentCache open(File cacheDir, String displayName, @Nullable CacheValidator cacheValidator, Map<String, ?> properties, CacheBuilder.LockTarget lockTarget, LockOptions lockOptions, Action<? super PersistentCache> initializer, CleanupAction cleanup) throws CacheOpenException {
-        lock.lock();
+        File canonicalDir = FileUtils.canonicalize(cacheDir);
+        Lock dirLock = dirLocks.getUnchecked(canonicalDir);
+        dirLock.lock();
         try {
-            return doOpen(cacheDir, displayName, cacheValidator, properties, lockTarget, lockOptions, initializer, cleanup);
+            return doOpen(canonicalDir, displayName, cacheValidator, properties, lockTarget, lockOptions, initializer, cleanup);
         } finally {
-            lock.unlock();
+            dirLock.unlock();
         }
     }
 
@@ -79,31 +90,47 @@ public class DefaultCacheFactory implements CacheFactory, Closeable {
         }
     }
 
-    private PersistentCache doOpen(File cacheDir, String displayName, @Nullable CacheValidator validator, Map<String, ?> properties, CacheBuilder.LockTarget lockTarget, LockOptions lockOptions, @Nullable Action<? super PersistentCache> initializer, @Nullable CleanupAction cleanup) {
-        File canonicalDir = FileUtils.canonicalize(cacheDir);
-        DirCacheReference dirCacheReference = dirCaches.get(canonicalDir);
-        if (dirCacheReference == null) {
-            ReferencablePersistentCache cache;
-            if (!properties.isEmpty() || validator != null || initializer != null) {
-                cache = new DefaultPersistentDirectoryCache(canonicalDir, displayName, validator, properties, lockTarget, lockOptions, initializer, cleanup, lockManager, executorFactory);
-            } else {
-                cache = new DefaultPersistentDirectoryStore(canonicalDir, displayName, lockTarget, lockOptions, cleanup, lockManager, executorFactory);
+    private PersistentCache doOpen(File canonicalDir, String displayName, @Nullable CacheValidator validator, Map<String, ?> properties, CacheBuilder.LockTarget lockTarget, LockOptions lockOptions, @Nullable Action<? super PersistentCache> initializer, @Nullable CleanupAction cleanup) {
+        lock.lock();
+        try {
+            DirCacheReference dirCacheReference = dirCaches.get(canonicalDir);
+            if (dirCacheReference != null) {
+                checkCompatible(canonicalDir, dirCacheReference, properties, lockTarget, lockOptions);
+                return new ReferenceTrackingCache(dirCacheReference);
             }
-            cache.open();
-            dirCacheReference = new DirCacheReference(cache, properties, lockTarget, lockOptions);
-            dirCaches.put(canonicalDir, dirCacheReference);
+        } finally {
+            lock.unlock();
+        }
+
+        // Open the cache, which may run its initializer, without holding the factory lock
+        ReferencablePersistentCache cache;
+        if (!properties.isEmpty() || validator != null || initializer != null) {
+            cache = new DefaultPersistentDirectoryCache(canonicalDir, displayName, validator, properties, lockTarget, lockOptions, initializer, cleanup, lockManager, executorFactory);
         } else {
-            if (!lockOptions.equals(dirCacheReference.lockOptions)) {
-                throw new IllegalStateException(String.format("Cache '%s' is already open with different lock options.", cacheDir));
-            }
-            if (lockTarget != dirCacheReference.lockTarget) {
-                throw new IllegalStateException(String.format("Cache '%s' is already open with different lock target.", cacheDir));
-            }
-            if (!properties.equals(dirCacheReference.properties)) {
-                throw new IllegalStateException(String.format("Cache '%s' is already open with different properties.", cacheDir));
-            }
+            cache = new DefaultPersistentDirectoryStore(canonicalDir, displayName, lockTarget, lockOptions, cleanup, lockManager, executorFactory);
+        }
+        cache.open();
+
+        lock.lock();
+        try {
+            DirCacheReference dirCacheReference = new DirCacheReference(cache, properties, lockTarget, lockOptions);
+            dirCaches.put(canonicalDir, dirCacheReference);
+            return new ReferenceTrackingCache(dirCacheReference);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void checkCompatible(File cacheDir, DirCacheReference dirCacheReference, Map<String, ?> properties, CacheBuilder.LockTarget lockTarget, LockOptions lockOptions) {
+        if (!lockOptions.equals(dirCacheReference.lockOptions)) {
+            throw new IllegalStateException(String.format("Cache '%s' is already open with different lock options.", cacheDir));
+        }
+        if (lockTarget != dirCacheReference.lockTarget) {
+            throw new IllegalStateException(String.format("Cache '%s' is already open with different lock target.", cacheDir));
+        }
+        if (!properties.equals(dirCacheReference.properties)) {
+            throw new IllegalStateException(String.format("Cache '%s' is already open with different properties.", cacheDir));
         }
-        return new ReferenceTrackingCache(dirCacheReference);
     }
 
     private class DirCacheReference implements Closeable {
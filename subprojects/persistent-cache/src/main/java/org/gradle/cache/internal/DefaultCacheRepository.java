@@ -23,9 +23,12 @@ import org.gradle.cache.CleanupAction;
 import org.gradle.cache.FileLockManager;
 import org.gradle.cache.LockOptions;
 import org.gradle.cache.PersistentCache;
+import org.gradle.internal.concurrent.CompositeStoppable;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
@@ -63,6 +66,7 @@ public class DefaultCacheRepository implements CacheRepository {
         String displayName;
         VersionStrategy versionStrategy = VersionStrategy.CachePerVersion;
         LockTarget lockTarget = LockTarget.DefaultTarget;
+        int stripes = 1;
 
         PersistentCacheBuilder(Object scope, String key) {
             this.scope = scope;
@@ -114,6 +118,15 @@ public class DefaultCacheRepository implements CacheRepository {
             return this;
         }
 
+        @Override
+        public CacheBuilder withStripedLocking(int stripes) {
+            if (stripes < 1) {
+                throw new IllegalArgumentException("Number of stripes must be at least 1.");
+            }
+            this.stripes = stripes;
+            return this;
+        }
+
         public PersistentCache open() {
             File cacheBaseDir;
             if (baseDir != null) {
@@ -121,7 +134,24 @@ public class DefaultCacheRepository implements CacheRepository {
             } else {
                 cacheBaseDir = cacheScopeMapping.getBaseDirectory(scope, key, versionStrategy);
             }
-            return factory.open(cacheBaseDir, displayName, validator, properties, lockTarget, lockOptions, initializer, cleanup);
+            if (stripes == 1) {
+                return factory.open(cacheBaseDir, displayName, validator, properties, lockTarget, lockOptions, initializer, cleanup);
+            }
+            if (lockOptions.getMode() != FileLockManager.LockMode.None) {
+                throw new IllegalStateException(String.format("Cannot use striped locking for cache '%s' as it does not lock on demand.", cacheBaseDir));
+            }
+            PersistentCache cache = factory.open(cacheBaseDir, displayName, validator, properties, lockTarget, lockOptions, initializer, cleanup);
+            List<PersistentCache> stripeCaches = new ArrayList<PersistentCache>(stripes);
+            try {
+                for (int i = 0; i < stripes; i++) {
+                    String stripeDisplayName = (displayName != null ? displayName : cacheBaseDir.getName()) + " stripe " + i;
+                    stripeCaches.add(factory.open(new File(cacheBaseDir, StripedPersistentCache.STRIPE_DIR_PREFIX + i), stripeDisplayName, null, Collections.<String, Object>emptyMap(), LockTarget.DefaultTarget, lockOptions, null, null));
+                }
+            } catch (RuntimeException e) {
+                CompositeStoppable.stoppable(stripeCaches).add(cache).stop();
+                throw e;
+            }
+            return new StripedPersistentCache(cache, stripeCaches);
         }
     }
 }
@@ -267,6 +267,11 @@ public class DefaultFileLockManager implements FileLockManager {
                     lockedFiles.remove(target);
                 }
             });
+            stoppable.add(new Stoppable() {
+                public void stop() {
+                    fileLockContentionHandler.notifyLockReleased(lockId);
+                }
+            });
             stoppable.stop();
         }
 
@@ -337,6 +342,7 @@ public class DefaultFileLockManager implements FileLockManager {
             return backoff.retryUntil(new IOQuery<java.nio.channels.FileLock>() {
                 private long lastPingTime;
                 private int lastLockHolderPort;
+                private Long lastLockHolderLockId;
 
                 @Override
                 public java.nio.channels.FileLock run() throws IOException, InterruptedException {
@@ -352,16 +358,28 @@ public class DefaultFileLockManager implements FileLockManager {
                                 lastLockHolderPort = lockInfo.port;
                                 lastPingTime = 0;
                             }
+                            lastLockHolderLockId = lockInfo.lockId;
                             if (fileLockContentionHandler.maybePingOwner(lockInfo.port, lockInfo.lockId, displayName, backoff.timer.getElapsedMillis() - lastPingTime)) {
                                 lastPingTime = backoff.timer.getElapsedMillis();
                                 LOGGER.debug("The file lock is held by a different Gradle process (pid: {}, lockId: {}). Pinged owner at port {}", lockInfo.pid, lockInfo.lockId, lockInfo.port);
                             }
                         } else {
+                            lastLockHolderLockId = null;
                             LOGGER.debug("The file lock is held by a different Gradle process. I was unable to read on which port the owner listens for lock access requests.");
                         }
                     }
                     return null;
                 }
+
+                @Override
+                public void waitBeforeRetry(long periodMs) throws InterruptedException {
+                    if (lastLockHolderLockId != null) {
+                        // Retry as soon as the owner signals that it has released the lock
+                        fileLockContentionHandler.waitForLockRelease(lastLockHolderLockId, periodMs);
+                    } else {
+                        super.waitBeforeRetry(periodMs);
+                    }
+                }
             });
         }
 
@@ -375,8 +393,12 @@ public class DefaultFileLockManager implements FileLockManager {
         }
     }
 
-    private interface IOQuery<T> {
-        T run() throws IOException, InterruptedException;
+    private static abstract class IOQuery<T> {
+        abstract T run() throws IOException, InterruptedException;
+
+        void waitBeforeRetry(long periodMs) throws InterruptedException {
+            Thread.sleep(periodMs);
+        }
     }
 
     private static class ExponentialBackoff {
@@ -406,7 +428,7 @@ public class DefaultFileLockManager implements FileLockManager {
                 if (timer.hasExpired()) {
                     break;
                 }
-                Thread.sleep(backoffPeriodFor(++iteration));
+                query.waitBeforeRetry(backoffPeriodFor(++iteration));
             }
             return result;
         }
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+import org.gradle.api.Transformer;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A {@link PersistentCache} whose indexed caches are split into stripes by key. Each stripe is a separate cache with its own lock file, so that work on entries
+ * in different stripes can proceed concurrently, both within this process and across processes.
+ *
+ * <p>The stripe for a key is chosen from its serialized form, so every process maps a given key to the same stripe.</p>
+ */
+public class StripedPersistentCache implements PersistentCache {
+    static final String STRIPE_DIR_PREFIX = "stripe-";
+
+    private static final ThreadLocal<KeyEncoder> KEY_ENCODER = new ThreadLocal<KeyEncoder>() {
+        @Override
+        protected KeyEncoder initialValue() {
+            return new KeyEncoder();
+        }
+    };
+
+    private final PersistentCache cache;
+    private final List<PersistentCache> stripes;
+
+    public StripedPersistentCache(PersistentCache cache, List<PersistentCache> stripes) {
+        this.cache = cache;
+        this.stripes = stripes;
+    }
+
+    @Override
+    public String toString() {
+        return cache.toString();
+    }
+
+    @Override
+    public String getDisplayName() {
+        return cache.getDisplayName();
+    }
+
+    @Override
+    public File getBaseDir() {
+        return cache.getBaseDir();
+    }
+
+    @Override
+    public Collection<File> getReservedCacheFiles() {
+        List<File> files = new ArrayList<File>(cache.getReservedCacheFiles());
+        for (PersistentCache stripe : stripes) {
+            files.add(stripe.getBaseDir());
+        }
+        return files;
+    }
+
+    @Override
+    public <K, V> PersistentIndexedCache<K, V> createCache(PersistentIndexedCacheParameters<K, V> parameters) {
+        List<PersistentIndexedCache<K, V>> stripeCaches = new ArrayList<PersistentIndexedCache<K, V>>(stripes.size());
+        for (PersistentCache stripe : stripes) {
+            stripeCaches.add(stripe.createCache(parameters));
+        }
+        return new StripedPersistentIndexedCache<K, V>(parameters.getKeySerializer(), stripes, stripeCaches);
+    }
+
+    @Override
+    public <K, V> PersistentIndexedCache<K, V> createCache(String name, Class<K> keyType, Serializer<V> valueSerializer) {
+        return createCache(new PersistentIndexedCacheParameters<K, V>(name, keyType, valueSerializer));
+    }
+
+    @Override
+    public <T> T withFileLock(Factory<? extends T> action) {
+        return cache.withFileLock(action);
+    }
+
+    @Override
+    public void withFileLock(Runnable action) {
+        cache.withFileLock(action);
+    }
+
+    @Override
+    public <T> T useCache(Factory<? extends T> action) {
+        return cache.useCache(action);
+    }
+
+    @Override
+    public void useCache(Runnable action) {
+        cache.useCache(action);
+    }
+
+    @Override
+    public void close() {
+        CompositeStoppable.stoppable(stripes).add(cache).stop();
+    }
+
+    private static class StripedPersistentIndexedCache<K, V> implements PersistentIndexedCache<K, V> {
+        private final Serializer<K> keySerializer;
+        private final List<PersistentCache> stripes;
+        private final List<PersistentIndexedCache<K, V>> stripeCaches;
+
+        StripedPersistentIndexedCache(Serializer<K> keySerializer, List<PersistentCache> stripes, List<PersistentIndexedCache<K, V>> stripeCaches) {
+            this.keySerializer = keySerializer;
+            this.stripes = stripes;
+            this.stripeCaches = stripeCaches;
+        }
+
+        private int stripeFor(K key) {
+            int hash = KEY_ENCODER.get().hash(keySerializer, key);
+            return (hash & Integer.MAX_VALUE) % stripes.size();
+        }
+
+        @Nullable
+        @Override
+        public V get(final K key) {
+            final int stripe = stripeFor(key);
+            return stripes.get(stripe).useCache(new Factory<V>() {
+                @Override
+                public V create() {
+                    return stripeCaches.get(stripe).get(key);
+                }
+            });
+        }
+
+        @Override
+        public V get(final K key, final Transformer<? extends V, ? super K> producer) {
+            final int stripe = stripeFor(key);
+            return stripes.get(stripe).useCache(new Factory<V>() {
+                @Override
+                public V create() {
+                    return stripeCaches.get(stripe).get(key, producer);
+                }
+            });
+        }
+
+        @Override
+        public void put(final K key, final V value) {
+            final int stripe = stripeFor(key);
+            stripes.get(stripe).useCache(new Runnable() {
+                @Override
+                public void run() {
+                    stripeCaches.get(stripe).put(key, value);
+                }
+            });
+        }
+
+        @Override
+        public void remove(final K key) {
+            final int stripe = stripeFor(key);
+            stripes.get(stripe).useCache(new Runnable() {
+                @Override
+                public void run() {
+                    stripeCaches.get(stripe).remove(key);
+                }
+            });
+        }
+    }
+
+    /**
+     * Serializes keys into a buffer that is reused between calls on the same thread, and hashes the result in the same way as {@link java.util.Arrays#hashCode(byte[])}.
+     */
+    private static class KeyEncoder extends ByteArrayOutputStream {
+        private final KryoBackedEncoder encoder = new KryoBackedEncoder(this);
+
+        <K> int hash(Serializer<K> keySerializer, K key) {
+            reset();
+            try {
+                keySerializer.write(encoder, key);
+                encoder.flush();
+            } catch (Exception e) {
+                // The encoder may hold a partially written key, so do not reuse it
+                KEY_ENCODER.remove();
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            int hash = 1;
+            for (int i = 0; i < count; i++) {
+                hash = 31 * hash + buf[i];
+            }
+            return hash;
+        }
+    }
+}
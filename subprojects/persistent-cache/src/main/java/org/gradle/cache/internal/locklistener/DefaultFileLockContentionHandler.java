@@ -24,8 +24,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.DatagramPacket;
+import java.net.SocketAddress;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -63,15 +69,22 @@ import java.util.concurrent.locks.ReentrantLock;
  * <p>
  * As Lock Requester, the state of the request is always stored per lock (lockId) and Lock Holder (port). The Lock Holder
  * for a lock might change without acquiring the lock if several Lock Requester compete for the same lock.
+ * <p>
+ * Once the Lock Holder has released the lock, it sends the message again to each Lock Requester that asked for the lock, via
+ * {@link #notifyLockReleased(long)}. A Lock Requester waiting in {@link #waitForLockRelease(long, long)} then retries straight away,
+ * rather than at its next polling interval. Older Gradle versions treat this message as another confirmation, which they ignore.
  */
 public class DefaultFileLockContentionHandler implements FileLockContentionHandler, Stoppable {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultFileLockContentionHandler.class);
     private static final int PING_DELAY = 1000;
     private final Lock lock = new ReentrantLock();
+    private final Condition unlockSignalled = lock.newCondition();
 
     private final Map<Long, ContendedAction> contendedActions = new HashMap<Long, ContendedAction>();
     private final Map<Long, Integer> unlocksRequestedFrom = new HashMap<Long, Integer>();
     private final Map<Long, Integer> unlocksConfirmedFrom = new HashMap<Long, Integer>();
+    private final Set<Long> unlocksSignalledFor = new HashSet<Long>();
+    private final Map<Long, Set<SocketAddress>> releaseNotificationsPending = new HashMap<Long, Set<SocketAddress>>();
 
     private final ExecutorFactory executorFactory;
     private final InetAddressFactory addressFactory;
@@ -119,6 +132,7 @@ public class DefaultFileLockContentionHandler implements FileLockContentionHandl
                         if (!contendedAction.running) {
                             startLockReleaseAsLockHolder(contendedAction);
                         }
+                        contendedAction.requesters.add(packet.getSocketAddress());
                         communicator.confirmUnlockRequest(packet);
                     }
                     lock.unlock();
@@ -135,6 +149,11 @@ public class DefaultFileLockContentionHandler implements FileLockContentionHandl
     private void acceptConfirmationAsLockRequester(long lockId, int port) {
         unlocksConfirmedFrom.put(lockId, port);
         LOGGER.debug("Gradle process at port {} confirmed unlock request for lock with id {}.", port, lockId);
+        if (unlocksRequestedFrom.containsKey(lockId)) {
+            // Either the unlock is in progress or the lock has been released, so wake any thread waiting to retry
+            unlocksSignalledFor.add(lockId);
+            unlockSignalled.signalAll();
+        }
     }
 
     public void start(long lockId, Runnable whenContended) {
@@ -146,10 +165,7 @@ public class DefaultFileLockContentionHandler implements FileLockContentionHandl
             if (communicator == null) {
                 throw new IllegalStateException("Must initialize the handler by reserving the port first.");
             }
-            if (fileLockRequestListener == null) {
-                fileLockRequestListener = executorFactory.create("File lock request listener");
-                fileLockRequestListener.execute(listener());
-            }
+            startListener();
             if (unlockActionExecutor == null) {
                 unlockActionExecutor = executorFactory.create("File lock release action executor");
             }
@@ -162,6 +178,14 @@ public class DefaultFileLockContentionHandler implements FileLockContentionHandl
         }
     }
 
+    // Caller must be holding lock
+    private void startListener() {
+        if (fileLockRequestListener == null) {
+            fileLockRequestListener = executorFactory.create("File lock request listener");
+            fileLockRequestListener.execute(listener());
+        }
+    }
+
     public boolean maybePingOwner(int port, long lockId, String displayName, long timeElapsed) {
         if (Integer.valueOf(port).equals(unlocksConfirmedFrom.get(lockId))) {
             //the unlock was confirmed we are waiting
@@ -172,15 +196,39 @@ public class DefaultFileLockContentionHandler implements FileLockContentionHandl
             return false;
         }
 
-        boolean pingSentSuccessfully = getCommunicator().pingOwner(port, lockId, displayName);
-        if (pingSentSuccessfully) {
-            lock.lock();
+        FileLockCommunicator communicator = getCommunicator();
+        lock.lock();
+        try {
+            // Listen for the confirmation and release notification, which may arrive before the ping returns
+            startListener();
             unlocksRequestedFrom.put(lockId, port);
+        } finally {
+            lock.unlock();
+        }
+        boolean pingSentSuccessfully = communicator.pingOwner(port, lockId, displayName);
+        if (!pingSentSuccessfully) {
+            lock.lock();
+            unlocksRequestedFrom.remove(lockId);
             lock.unlock();
         }
         return pingSentSuccessfully;
     }
 
+    public void waitForLockRelease(long lockId, long timeoutMs) throws InterruptedException {
+        lock.lock();
+        try {
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (!unlocksSignalledFor.remove(lockId)) {
+                if (remainingNanos <= 0) {
+                    return;
+                }
+                remainingNanos = unlockSignalled.awaitNanos(remainingNanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     private void assertNotStopped() {
         if (stopped) {
             throw new IllegalStateException(
@@ -191,10 +239,29 @@ public class DefaultFileLockContentionHandler implements FileLockContentionHandl
     public void stop(long lockId) {
         lock.lock();
         try {
-            contendedActions.remove(lockId);
+            ContendedAction contendedAction = contendedActions.remove(lockId);
+            if (contendedAction != null && !contendedAction.requesters.isEmpty()) {
+                releaseNotificationsPending.put(lockId, contendedAction.requesters);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void notifyLockReleased(long lockId) {
+        Set<SocketAddress> requesters;
+        lock.lock();
+        try {
+            requesters = releaseNotificationsPending.remove(lockId);
+            if (requesters == null || stopped) {
+                return;
+            }
         } finally {
             lock.unlock();
         }
+        for (SocketAddress requester : requesters) {
+            communicator.notifyLockReleased(lockId, requester);
+        }
     }
 
     public void stop() {
@@ -235,6 +302,7 @@ public class DefaultFileLockContentionHandler implements FileLockContentionHandl
 
     private static class ContendedAction {
         private final Runnable action;
+        private final Set<SocketAddress> requesters = new LinkedHashSet<SocketAddress>();
         private boolean running;
 
         private ContendedAction(Runnable action) {
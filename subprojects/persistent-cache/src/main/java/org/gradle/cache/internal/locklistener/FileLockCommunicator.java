@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.SocketAddress;
 import java.net.SocketException;
 
 import static org.gradle.internal.UncheckedException.throwAsUncheckedException;
@@ -110,6 +111,16 @@ public class FileLockCommunicator {
         }
     }
 
+    public void notifyLockReleased(long lockId, SocketAddress requester) {
+        try {
+            byte[] bytesToSend = encode(lockId);
+            socket.send(new DatagramPacket(bytesToSend, bytesToSend.length, requester));
+        } catch (IOException e) {
+            // The requester will notice the release when it next polls the lock
+            LOGGER.debug("Failed to notify {} that lock with id {} was released.", requester, lockId, e);
+        }
+    }
+
     public void stop() {
         stopped = true;
         socket.close();
@@ -32,4 +32,14 @@ public interface FileLockContentionHandler {
      * @return true if the owner was pinged in this call
      */
     boolean maybePingOwner(int port, long lockId, String displayName, long timeElapsed);
+
+    /**
+     * Waits until the owner of the given lock has confirmed an unlock request or released the lock, or until the given time has elapsed.
+     */
+    void waitForLockRelease(long lockId, long timeoutMs) throws InterruptedException;
+
+    /**
+     * Notifies the processes that requested the given lock that it has been released. Called after {@link #stop(long)}, once the lock has been released.
+     */
+    void notifyLockReleased(long lockId);
 }
@@ -24,6 +24,9 @@ import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 import static org.gradle.cache.FileLockManager.LockMode.Exclusive
 import static org.gradle.cache.FileLockManager.LockMode.Shared
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode
@@ -220,4 +223,29 @@ class DefaultCacheFactoryTest extends Specification {
         cleanup:
         factory.close()
     }
+
+    void "can open cache in another directory while a cache is being initialized"() {
+        def initializing = new CountDownLatch(1)
+        def otherOpened = new CountDownLatch(1)
+        def openedWhileInitializing = false
+        def initializer = { cache ->
+            initializing.countDown()
+            openedWhileInitializing = otherOpened.await(10, TimeUnit.SECONDS)
+        } as Action
+
+        when:
+        def thread = Thread.start {
+            factory.open(tmpDir.file("initialized"), null, null, [prop: 'value'], CacheBuilder.LockTarget.DefaultTarget, mode(Exclusive), initializer, null)
+        }
+        initializing.await()
+        factory.open(tmpDir.file("other"), null, null, [prop: 'value'], CacheBuilder.LockTarget.DefaultTarget, mode(Exclusive), null, null)
+        otherOpened.countDown()
+        thread.join()
+
+        then:
+        openedWhileInitializing
+
+        cleanup:
+        factory.close()
+    }
 }
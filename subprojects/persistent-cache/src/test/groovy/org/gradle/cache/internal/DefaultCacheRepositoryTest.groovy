@@ -123,4 +123,38 @@ class DefaultCacheRepositoryTest extends Specification {
         1 * scopeMapping.getBaseDirectory(null, "a", VersionStrategy.CachePerVersion) >> sharedCacheDir
         1 * cacheFactory.open(sharedCacheDir, null, validator, [:], CacheBuilder.LockTarget.DefaultTarget, mode(Shared), null, null) >> cache
     }
+
+    void canSpecifyStripedLockingForDirectoryCache() {
+        PersistentCache stripe0 = Mock()
+        PersistentCache stripe1 = Mock()
+
+        when:
+        def result = repository.cache("a").withLockOptions(mode(None)).withStripedLocking(2).open()
+
+        then:
+        result instanceof StripedPersistentCache
+        1 * scopeMapping.getBaseDirectory(null, "a", VersionStrategy.CachePerVersion) >> sharedCacheDir
+        1 * cacheFactory.open(sharedCacheDir, null, null, [:], CacheBuilder.LockTarget.DefaultTarget, mode(None), null, null) >> cache
+        1 * cacheFactory.open(sharedCacheDir.file("stripe-0"), "caches stripe 0", null, [:], CacheBuilder.LockTarget.DefaultTarget, mode(None), null, null) >> stripe0
+        1 * cacheFactory.open(sharedCacheDir.file("stripe-1"), "caches stripe 1", null, [:], CacheBuilder.LockTarget.DefaultTarget, mode(None), null, null) >> stripe1
+        0 * cacheFactory._
+    }
+
+    void cannotUseStripedLockingForCacheThatDoesNotLockOnDemand() {
+        when:
+        repository.cache("a").withStripedLocking(2).open()
+
+        then:
+        1 * scopeMapping.getBaseDirectory(null, "a", VersionStrategy.CachePerVersion) >> sharedCacheDir
+        0 * cacheFactory._
+        thrown(IllegalStateException)
+    }
+
+    void cannotUseLessThanOneStripe() {
+        when:
+        repository.cache("a").withStripedLocking(0)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
 }
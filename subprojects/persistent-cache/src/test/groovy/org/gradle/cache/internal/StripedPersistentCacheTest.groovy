@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal
+
+import org.gradle.api.Transformer
+import org.gradle.cache.PersistentCache
+import org.gradle.cache.PersistentIndexedCacheParameters
+import org.gradle.cache.internal.locklistener.NoOpFileLockContentionHandler
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.serialize.BaseSerializerFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+
+import static org.gradle.cache.FileLockManager.LockMode.None
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode
+
+class StripedPersistentCacheTest extends Specification {
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final ProcessMetaDataProvider metaDataProvider = Stub() {
+        getProcessIdentifier() >> "123"
+        getProcessDisplayName() >> "process"
+    }
+    final DefaultCacheFactory factory = new DefaultCacheFactory(new DefaultFileLockManager(metaDataProvider, new NoOpFileLockContentionHandler()), Mock(ExecutorFactory))
+    final CacheScopeMapping scopeMapping = Stub() {
+        getBaseDirectory(_, _, _) >> tmpDir.file("cache")
+    }
+    final DefaultCacheRepository repository = new DefaultCacheRepository(scopeMapping, factory)
+    final def parameters = PersistentIndexedCacheParameters.of("entries", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+
+    def cleanup() {
+        factory.close()
+    }
+
+    def "stores entries in the stripe selected by their key"() {
+        def cache = openCache(4)
+        def indexedCache = cache.createCache(parameters)
+
+        when:
+        (0..<100).each { indexedCache.put("key" + it, "value" + it) }
+
+        then:
+        (0..<100).every { indexedCache.get("key" + it) == "value" + it }
+        indexedCache.get("unknown") == null
+
+        and:
+        (0..<4).every { tmpDir.file("cache/stripe-$it/entries.bin").file }
+        cache.reservedCacheFiles.containsAll((0..<4).collect { tmpDir.file("cache/stripe-$it") })
+
+        when:
+        cache.close()
+        cache = openCache(4)
+        indexedCache = cache.createCache(parameters)
+
+        then:
+        (0..<100).every { indexedCache.get("key" + it) == "value" + it }
+
+        when:
+        indexedCache.remove("key1")
+
+        then:
+        indexedCache.get("key1") == null
+        indexedCache.get("key2") == "value2"
+    }
+
+    def "entries in other stripes can be used while a value is being produced"() {
+        def cache = openCache(2)
+        def indexedCache = cache.createCache(parameters)
+        def producing = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def executor = Executors.newSingleThreadExecutor()
+        def otherThreads = Executors.newCachedThreadPool()
+
+        when:
+        def produced = executor.submit({
+            indexedCache.get("blocked", { key ->
+                producing.countDown()
+                release.await()
+                "produced"
+            } as Transformer<String, String>)
+        })
+        producing.await()
+        def puts = (0..<10).collect { i -> otherThreads.submit({ indexedCache.put("key" + i, "value") }) }
+
+        then:
+        // At least one of the keys lives in the stripe that is not busy producing
+        new PollingConditions(timeout: 10).eventually {
+            assert puts.any { it.done }
+        }
+
+        when:
+        release.countDown()
+
+        then:
+        produced.get() == "produced"
+        puts.every { it.get() == null }
+
+        cleanup:
+        release.countDown()
+        executor.shutdown()
+        otherThreads.shutdown()
+    }
+
+    private PersistentCache openCache(int stripes) {
+        repository.cache("cache").withLockOptions(mode(None)).withStripedLocking(stripes).open()
+    }
+}
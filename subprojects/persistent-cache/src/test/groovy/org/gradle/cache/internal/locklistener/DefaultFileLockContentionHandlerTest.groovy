@@ -22,6 +22,8 @@ import org.gradle.internal.concurrent.ManagedExecutor
 import org.gradle.internal.remote.internal.inet.InetAddressFactory
 import org.gradle.util.ConcurrentSpecification
 
+import java.util.concurrent.TimeUnit
+
 import static org.gradle.test.fixtures.ConcurrentTestUtil.poll
 
 class DefaultFileLockContentionHandlerTest extends ConcurrentSpecification {
@@ -52,6 +54,32 @@ class DefaultFileLockContentionHandlerTest extends ConcurrentSpecification {
         }
     }
 
+    def "notifies lock requester once the lock has been released"() {
+        int port = handler.reservePort()
+        handler.start(10, {} as Runnable)
+
+        when:
+        client.maybePingOwner(port, 10, "lock 1", 50000)
+        // Returns once the owner confirms the unlock request
+        client.waitForLockRelease(10, 20000)
+        handler.stop(10)
+        handler.notifyLockReleased(10)
+        def start = System.nanoTime()
+        client.waitForLockRelease(10, 20000)
+
+        then:
+        System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10)
+    }
+
+    def "stops waiting for lock release after the given time"() {
+        when:
+        def start = System.nanoTime()
+        client.waitForLockRelease(10, 100)
+
+        then:
+        System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100)
+    }
+
     def "there are only two executors: one lock request listener and one release lock action executor"() {
         def factory = Mock(ExecutorFactory)
         handler = new DefaultFileLockContentionHandler(factory, addressFactory)
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.remote.internal.KryoBackedMessageSerializer;
+import org.gradle.internal.remote.internal.inet.SocketConnection;
+import org.gradle.internal.serialize.Serializers;
+import org.gradle.internal.serialize.StatefulSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures sending test events between processes over a loopback socket connection, as is done between a test worker and the build.
+ *
+ * <p>{@code sendOutputEvent} measures the rate at which test output, which makes up most of the log traffic from a worker, can be sent
+ * when each event is flushed. {@code roundTrip} measures the latency of sending one or more test events, each flushed on its own, and receiving
+ * a reply.</p>
+ */
+@Fork(2)
+@Warmup(iterations = 10)
+public class TestEventTransportBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class OutputEvents {
+        private ConnectionPair connections;
+        private Thread receiver;
+        private final DefaultTestOutputEvent event = new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "A line of output from the test being executed");
+
+        @Setup(Level.Trial)
+        public void connect() throws IOException {
+            connections = new ConnectionPair();
+            receiver = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    while (connections.accepted.receive() != null) {
+                        // Discard
+                    }
+                }
+            });
+            receiver.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws InterruptedException {
+            connections.stop();
+            receiver.join();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Echo {
+        @Param({"1", "2"})
+        int messagesPerReply;
+
+        private ConnectionPair connections;
+        private Thread echo;
+        private final TestStartEvent event = new TestStartEvent(1234L, 12L);
+
+        @Setup(Level.Trial)
+        public void connect() throws IOException {
+            connections = new ConnectionPair();
+            echo = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Object message;
+                    int received = 0;
+                    while ((message = connections.accepted.receive()) != null) {
+                        if (++received % messagesPerReply == 0) {
+                            connections.accepted.dispatch(message);
+                            connections.accepted.flush();
+                        }
+                    }
+                }
+            });
+            echo.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws InterruptedException {
+            connections.stop();
+            echo.join();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void sendOutputEvent(OutputEvents state) {
+        state.connections.connected.dispatch(state.event);
+        state.connections.connected.flush();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object roundTrip(Echo state) {
+        for (int i = 0; i < state.messagesPerReply; i++) {
+            state.connections.connected.dispatch(state.event);
+            state.connections.connected.flush();
+        }
+        return state.connections.connected.receive();
+    }
+
+    private static class ConnectionPair {
+        final SocketConnection<Object> connected;
+        final SocketConnection<Object> accepted;
+
+        ConnectionPair() throws IOException {
+            ServerSocketChannel server = ServerSocketChannel.open();
+            try {
+                server.socket().bind(new InetSocketAddress(InetAddress.getByName(null), 0));
+                SocketChannel client = SocketChannel.open(server.socket().getLocalSocketAddress());
+                SocketChannel serverSide = server.accept();
+                connected = connection(client);
+                accepted = connection(serverSide);
+            } finally {
+                server.close();
+            }
+        }
+
+        private static SocketConnection<Object> connection(SocketChannel channel) {
+            StatefulSerializer<Object> serializer = Serializers.stateful(TestEventSerializer.create().build(Object.class));
+            return new SocketConnection<Object>(channel, new KryoBackedMessageSerializer(), serializer);
+        }
+
+        void stop() {
+            connected.stop();
+            accepted.stop();
+        }
+    }
+}
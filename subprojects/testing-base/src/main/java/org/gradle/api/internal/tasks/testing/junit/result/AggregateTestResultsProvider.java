@@ -25,6 +25,7 @@ import org.gradle.api.Action;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.testing.TestOutputEvent;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.hash.Hasher;
 
 import java.io.IOException;
 import java.io.Writer;
@@ -77,17 +78,17 @@ public class AggregateTestResultsProvider implements TestResultsProvider {
         }
     }
 
+    /**
+     * Merges the results of classes with the same name, without holding on to the delegate results themselves.
+     */
     private static class OverlayedIdProxyingTestClassResult extends TestClassResult {
-        private final Map<Long, TestClassResult> delegates = new LinkedHashMap<Long, TestClassResult>();
-
         public OverlayedIdProxyingTestClassResult(long id, TestClassResult delegate) {
             super(id, delegate.getClassName(), delegate.getStartTime());
             addTestClassResult(delegate);
         }
 
         void addTestClassResult(TestClassResult delegate) {
-            Preconditions.checkArgument(delegates.isEmpty() || delegates.values().iterator().next().getClassName().equals(delegate.getClassName()));
-            delegates.put(delegate.getId(), delegate);
+            Preconditions.checkArgument(getClassName().equals(delegate.getClassName()));
             for (TestMethodResult result : delegate.getResults()) {
                 add(result);
             }
@@ -115,6 +116,13 @@ public class AggregateTestResultsProvider implements TestResultsProvider {
         }
     }
 
+    @Override
+    public void hashOutput(long id, TestOutputEvent.Destination destination, Hasher hasher) {
+        for (DelegateProvider delegateProvider : classOutputProviders.get(id)) {
+            delegateProvider.provider.hashOutput(delegateProvider.id, destination, hasher);
+        }
+    }
+
     @Override
     public boolean isHasResults() {
         return any(providers, new Spec<TestResultsProvider>() {
@@ -18,23 +18,46 @@ package org.gradle.api.internal.tasks.testing.junit.result;
 
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
-import com.google.common.collect.ImmutableMap;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
-import org.gradle.internal.io.RandomAccessFileInputStream;
 import org.gradle.internal.UncheckedException;
-import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
-import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
-
-import java.io.*;
+import org.gradle.internal.hash.Hasher;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
+/**
+ * Stores the output of test execution.
+ *
+ * <p>Output events are appended to blocks of roughly {@link #BLOCK_SIZE} bytes, each of which is deflated independently into the outputs file.
+ * The index file records the offset of each block, and for each test class and each test the list of blocks that contain output for it, so that
+ * output for a single class or test can be read back without decompressing or scanning the output of unrelated tests. Readers hold at most one
+ * decompressed block in memory.</p>
+ */
 public class TestOutputStore {
 
+    static final int BLOCK_SIZE = 64 * 1024;
+
     private final File resultsDir;
     private final Charset messageStorageCharset;
+    private Index index;
 
     public TestOutputStore(File resultsDir) {
         this.resultsDir = resultsDir;
@@ -49,34 +72,116 @@ public class TestOutputStore {
         return new File(resultsDir, getOutputsFile().getName() + ".idx");
     }
 
-    private static class Region {
-        long start;
-        long stop;
+    /**
+     * An ordered list of the blocks that contain output for a given test or class, without duplicates.
+     */
+    private static class BlockList {
+        private int[] blocks;
+        private int size;
+
+        BlockList() {
+            this(4);
+        }
+
+        BlockList(int capacity) {
+            blocks = new int[capacity];
+        }
+
+        void add(int block) {
+            if (size > 0 && blocks[size - 1] == block) {
+                return;
+            }
+            if (size == blocks.length) {
+                blocks = Arrays.copyOf(blocks, size * 2);
+            }
+            blocks[size++] = block;
+        }
+
+        void write(Output output) {
+            output.writeInt(size, true);
+            int previous = 0;
+            for (int i = 0; i < size; i++) {
+                output.writeInt(blocks[i] - previous, true);
+                previous = blocks[i];
+            }
+        }
+
+        static BlockList read(Input input) {
+            int size = input.readInt(true);
+            if (size == 0) {
+                return null;
+            }
+            BlockList blockList = new BlockList(size);
+            int block = 0;
+            for (int i = 0; i < size; i++) {
+                block += input.readInt(true);
+                blockList.blocks[blockList.size++] = block;
+            }
+            return blockList;
+        }
+
+        static void write(BlockList blockList, Output output) {
+            if (blockList == null) {
+                output.writeInt(0, true);
+            } else {
+                blockList.write(output);
+            }
+        }
+    }
+
+    private static class OutputBlocks {
+        BlockList stdOut;
+        BlockList stdErr;
+
+        void add(boolean isStdout, int block) {
+            if (isStdout) {
+                if (stdOut == null) {
+                    stdOut = new BlockList();
+                }
+                stdOut.add(block);
+            } else {
+                if (stdErr == null) {
+                    stdErr = new BlockList();
+                }
+                stdErr.add(block);
+            }
+        }
+
+        BlockList get(TestOutputEvent.Destination destination) {
+            return destination == TestOutputEvent.Destination.StdOut ? stdOut : stdErr;
+        }
 
-        private Region() {
-            start = -1;
-            stop = -1;
+        void write(Output output) {
+            BlockList.write(stdOut, output);
+            BlockList.write(stdErr, output);
         }
 
-        private Region(long start, long stop) {
-            this.start = start;
-            this.stop = stop;
+        void read(Input input) {
+            stdOut = BlockList.read(input);
+            stdErr = BlockList.read(input);
         }
     }
 
-    private static class TestCaseRegion {
-        Region stdOutRegion = new Region();
-        Region stdErrRegion = new Region();
+    private static class ClassOutputBlocks extends OutputBlocks {
+        final Map<Long, OutputBlocks> tests = new LinkedHashMap<Long, OutputBlocks>();
     }
 
     public class Writer implements Closeable {
-        private final KryoBackedEncoder output;
-
-        private final Map<Long, Map<Long, TestCaseRegion>> index = new LinkedHashMap<Long, Map<Long, TestCaseRegion>>();
+        private final OutputStream output;
+        private final Output block = new Output(BLOCK_SIZE, -1);
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final byte[] compressBuffer = new byte[BLOCK_SIZE];
+        private final CRC32 checksum = new CRC32();
+        private long[] blockOffsets = new long[16];
+        private int[] blockChecksums = new int[16];
+        private int blockCount;
+        private long position;
+
+        private final Map<Long, ClassOutputBlocks> index = new LinkedHashMap<Long, ClassOutputBlocks>();
 
         public Writer() {
             try {
-                output = new KryoBackedEncoder(new FileOutputStream(getOutputsFile()));
+                output = new BufferedOutputStream(new FileOutputStream(getOutputsFile()));
             } catch (FileNotFoundException e) {
                 throw new UncheckedIOException(e);
             }
@@ -84,7 +189,16 @@ public class TestOutputStore {
 
         @Override
         public void close() {
-            output.close();
+            try {
+                try {
+                    flushBlock();
+                } finally {
+                    deflater.end();
+                    output.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
             writeIndex();
         }
 
@@ -96,9 +210,9 @@ public class TestOutputStore {
             boolean stdout = outputEvent.getDestination() == TestOutputEvent.Destination.StdOut;
             mark(classId, testId, stdout);
 
-            output.writeBoolean(stdout);
-            output.writeSmallLong(classId);
-            output.writeSmallLong(testId);
+            block.writeBoolean(stdout);
+            block.writeLong(classId, true);
+            block.writeLong(testId, true);
 
             byte[] bytes;
             try {
@@ -106,30 +220,62 @@ public class TestOutputStore {
             } catch (UnsupportedEncodingException e) {
                 throw UncheckedException.throwAsUncheckedException(e);
             }
-            output.writeSmallInt(bytes.length);
-            output.writeBytes(bytes, 0, bytes.length);
+            block.writeInt(bytes.length, true);
+            block.writeBytes(bytes, 0, bytes.length);
+
+            if (block.position() >= BLOCK_SIZE) {
+                try {
+                    flushBlock();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
         }
 
         private void mark(long classId, long testId, boolean isStdout) {
-            if (!index.containsKey(classId)) {
-                index.put(classId, new LinkedHashMap<Long, TestCaseRegion>());
+            ClassOutputBlocks classBlocks = index.get(classId);
+            if (classBlocks == null) {
+                classBlocks = new ClassOutputBlocks();
+                index.put(classId, classBlocks);
             }
-
-            Map<Long, TestCaseRegion> testCaseRegions = index.get(classId);
-            if (!testCaseRegions.containsKey(testId)) {
-                TestCaseRegion region = new TestCaseRegion();
-                testCaseRegions.put(testId, region);
+            OutputBlocks testBlocks = classBlocks.tests.get(testId);
+            if (testBlocks == null) {
+                testBlocks = new OutputBlocks();
+                classBlocks.tests.put(testId, testBlocks);
             }
+            classBlocks.add(isStdout, blockCount);
+            testBlocks.add(isStdout, blockCount);
+        }
 
-            TestCaseRegion region = testCaseRegions.get(testId);
-
-            Region streamRegion = isStdout ? region.stdOutRegion : region.stdErrRegion;
-
-            int total = output.getWritePosition();
-            if (streamRegion.start < 0) {
-                streamRegion.start = total;
+        private void flushBlock() throws IOException {
+            int length = block.position();
+            if (length == 0) {
+                return;
             }
-            streamRegion.stop = total;
+            if (blockCount == blockOffsets.length) {
+                blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+                blockChecksums = Arrays.copyOf(blockChecksums, blockCount * 2);
+            }
+            checksum.reset();
+            checksum.update(block.getBuffer(), 0, length);
+            blockChecksums[blockCount] = (int) checksum.getValue();
+            blockOffsets[blockCount++] = position;
+
+            output.write(length >>> 24);
+            output.write(length >>> 16);
+            output.write(length >>> 8);
+            output.write(length);
+            position += 4;
+
+            deflater.reset();
+            deflater.setInput(block.getBuffer(), 0, length);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int count = deflater.deflate(compressBuffer);
+                output.write(compressBuffer, 0, count);
+                position += count;
+            }
+            block.clear();
         }
 
         private void writeIndex() {
@@ -140,25 +286,27 @@ public class TestOutputStore {
                 throw new UncheckedIOException(e);
             }
 
-
             try {
-                indexOutput.writeInt(index.size(), true);
+                indexOutput.writeInt(blockCount, true);
+                long previous = 0;
+                for (int i = 0; i < blockCount; i++) {
+                    indexOutput.writeLong(blockOffsets[i] - previous, true);
+                    previous = blockOffsets[i];
+                }
+                indexOutput.writeLong(position - previous, true);
+                for (int i = 0; i < blockCount; i++) {
+                    indexOutput.writeInt(blockChecksums[i]);
+                }
 
-                for (Map.Entry<Long, Map<Long, TestCaseRegion>> classEntry : index.entrySet()) {
-                    Long classId = classEntry.getKey();
-                    Map<Long, TestCaseRegion> regions = classEntry.getValue();
-
-                    indexOutput.writeLong(classId, true);
-                    indexOutput.writeInt(regions.size(), true);
-
-                    for (Map.Entry<Long, TestCaseRegion> testCaseEntry : regions.entrySet()) {
-                        long id = testCaseEntry.getKey();
-                        TestCaseRegion region = testCaseEntry.getValue();
-                        indexOutput.writeLong(id, true);
-                        indexOutput.writeLong(region.stdOutRegion.start);
-                        indexOutput.writeLong(region.stdOutRegion.stop);
-                        indexOutput.writeLong(region.stdErrRegion.start);
-                        indexOutput.writeLong(region.stdErrRegion.stop);
+                indexOutput.writeInt(index.size(), true);
+                for (Map.Entry<Long, ClassOutputBlocks> classEntry : index.entrySet()) {
+                    ClassOutputBlocks classBlocks = classEntry.getValue();
+                    indexOutput.writeLong(classEntry.getKey(), true);
+                    classBlocks.write(indexOutput);
+                    indexOutput.writeInt(classBlocks.tests.size(), true);
+                    for (Map.Entry<Long, OutputBlocks> testEntry : classBlocks.tests.entrySet()) {
+                        indexOutput.writeLong(testEntry.getKey(), true);
+                        testEntry.getValue().write(indexOutput);
                     }
                 }
             } finally {
@@ -168,58 +316,85 @@ public class TestOutputStore {
     }
 
     public Writer writer() {
+        synchronized (this) {
+            index = null;
+        }
         return new Writer();
     }
 
     private static class Index {
-        final ImmutableMap<Long, Index> children;
-        final Region stdOut;
-        final Region stdErr;
-
-        private Index(Region stdOut, Region stdErr) {
-            this.children = ImmutableMap.of();
-            this.stdOut = stdOut;
-            this.stdErr = stdErr;
+        final long[] blockOffsets;
+        final int[] blockChecksums;
+        final Map<Long, ClassOutputBlocks> classes;
+
+        Index(long[] blockOffsets, int[] blockChecksums, Map<Long, ClassOutputBlocks> classes) {
+            this.blockOffsets = blockOffsets;
+            this.blockChecksums = blockChecksums;
+            this.classes = classes;
         }
+    }
 
-        private Index(ImmutableMap<Long, Index> children, Region stdOut, Region stdErr) {
-            this.children = children;
-            this.stdOut = stdOut;
-            this.stdErr = stdErr;
+    /**
+     * Reads the index once, so that it is shared by all readers of this store rather than held by each of them.
+     */
+    private synchronized Index getIndex() {
+        if (index == null) {
+            index = readIndex();
         }
+        return index;
     }
 
-    private static class IndexBuilder {
-        final Region stdOut = new Region();
-        final Region stdErr = new Region();
-
-        private final ImmutableMap.Builder<Long, Index> children = ImmutableMap.builder();
+    private Index readIndex() {
+        Input input;
+        try {
+            input = new Input(new FileInputStream(getIndexFile()));
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
 
-        void add(long key, Index index) {
-            if (stdOut.start < 0) {
-                stdOut.start = index.stdOut.start;
+        try {
+            int numBlocks = input.readInt(true);
+            long[] blockOffsets = new long[numBlocks + 1];
+            long offset = 0;
+            for (int i = 0; i <= numBlocks; i++) {
+                offset += input.readLong(true);
+                blockOffsets[i] = offset;
             }
-            if (stdErr.start < 0) {
-                stdErr.start = index.stdErr.start;
+            int[] blockChecksums = new int[numBlocks];
+            for (int i = 0; i < numBlocks; i++) {
+                blockChecksums[i] = input.readInt();
             }
-            if (index.stdOut.stop > stdOut.stop) {
-                stdOut.stop = index.stdOut.stop;
-            }
-            if (index.stdErr.stop > stdErr.stop) {
-                stdErr.stop = index.stdErr.stop;
-            }
-
-            children.put(key, index);
-        }
 
-        Index build() {
-            return new Index(children.build(), stdOut, stdErr);
+            int numClasses = input.readInt(true);
+            Map<Long, ClassOutputBlocks> classes = new HashMap<Long, ClassOutputBlocks>(numClasses * 2);
+            for (int classCounter = 0; classCounter < numClasses; ++classCounter) {
+                long classId = input.readLong(true);
+                ClassOutputBlocks classBlocks = new ClassOutputBlocks();
+                classBlocks.read(input);
+                int numTests = input.readInt(true);
+                for (int testCounter = 0; testCounter < numTests; ++testCounter) {
+                    long testId = input.readLong(true);
+                    OutputBlocks testBlocks = new OutputBlocks();
+                    testBlocks.read(input);
+                    classBlocks.tests.put(testId, testBlocks);
+                }
+                classes.put(classId, classBlocks);
+            }
+            return new Index(blockOffsets, blockChecksums, classes);
+        } finally {
+            input.close();
         }
     }
 
     public class Reader implements Closeable {
         private final Index index;
         private final RandomAccessFile dataFile;
+        private final long dataFileLength;
+        private Inflater inflater;
+        private byte[] compressed = new byte[0];
+        private byte[] decompressed = new byte[BLOCK_SIZE];
+        private int decompressedLength;
+        private int currentBlock = -1;
 
         public Reader() {
             File indexFile = getIndexFile();
@@ -230,43 +405,14 @@ public class TestOutputStore {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' exists but the index file '%s' does not", outputsFile, indexFile));
                 }
 
-                Input input;
-                try {
-                    input = new Input(new FileInputStream(indexFile));
-                } catch (FileNotFoundException e) {
-                    throw new UncheckedIOException(e);
-                }
-
-                IndexBuilder rootBuilder = null;
-                try {
-                    int numClasses = input.readInt(true);
-                    rootBuilder = new IndexBuilder();
-
-                    for (int classCounter = 0; classCounter < numClasses; ++classCounter) {
-                        long classId = input.readLong(true);
-                        IndexBuilder classBuilder = new IndexBuilder();
-
-                        int numEntries = input.readInt(true);
-                        for (int entryCounter = 0; entryCounter < numEntries; ++entryCounter) {
-                            long testId = input.readLong(true);
-                            Region stdOut = new Region(input.readLong(), input.readLong());
-                            Region stdErr = new Region(input.readLong(), input.readLong());
-                            classBuilder.add(testId, new Index(stdOut, stdErr));
-                        }
-
-                        rootBuilder.add(classId, classBuilder.build());
-                    }
-                } finally {
-                    input.close();
-                }
-
-                index = rootBuilder.build();
+                index = getIndex();
 
                 try {
                     dataFile = new RandomAccessFile(getOutputsFile(), "r");
                 } catch (FileNotFoundException e) {
                     throw new UncheckedIOException(e);
                 }
+                dataFileLength = outputsFile.length();
             } else { // no outputs file
                 if (indexFile.exists()) {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' does not exist but the index file '%s' does", outputsFile, indexFile));
@@ -274,11 +420,15 @@ public class TestOutputStore {
 
                 index = null;
                 dataFile = null;
+                dataFileLength = 0;
             }
         }
 
         @Override
         public void close() throws IOException {
+            if (inflater != null) {
+                inflater.end();
+            }
             if (dataFile != null) {
                 dataFile.close();
             }
@@ -289,12 +439,32 @@ public class TestOutputStore {
                 return false;
             }
 
-            Index classIndex = index.children.get(classId);
-            if (classIndex == null) {
-                return false;
-            } else {
-                Region region = destination == TestOutputEvent.Destination.StdOut ? classIndex.stdOut : classIndex.stdErr;
-                return region.start >= 0;
+            ClassOutputBlocks classBlocks = index.classes.get(classId);
+            return classBlocks != null && classBlocks.get(destination) != null;
+        }
+
+        /**
+         * Adds the length of the outputs file and the blocks holding the output of the given class, with the checksum of their content recorded in the index,
+         * to the given hasher. The output itself is not read.
+         */
+        public void hashOutput(long classId, TestOutputEvent.Destination destination, Hasher hasher) {
+            if (dataFile == null) {
+                hasher.putInt(0);
+                return;
+            }
+
+            hasher.putLong(dataFileLength);
+            ClassOutputBlocks classBlocks = index.classes.get(classId);
+            BlockList blocks = classBlocks == null ? null : classBlocks.get(destination);
+            if (blocks == null) {
+                hasher.putInt(0);
+                return;
+            }
+            hasher.putInt(blocks.size);
+            for (int i = 0; i < blocks.size; i++) {
+                int block = blocks.blocks[i];
+                hasher.putInt(block);
+                hasher.putInt(index.blockChecksums[block]);
             }
         }
 
@@ -315,72 +485,83 @@ public class TestOutputStore {
                 return;
             }
 
-            Index targetIndex = index.children.get(classId);
-            if (targetIndex != null && testId != 0) {
-                targetIndex = targetIndex.children.get(testId);
+            ClassOutputBlocks classBlocks = index.classes.get(classId);
+            if (classBlocks == null) {
+                return;
             }
-
-            if (targetIndex == null) {
+            OutputBlocks targetBlocks = allClassOutput ? classBlocks : classBlocks.tests.get(testId);
+            if (targetBlocks == null) {
                 return;
             }
-
-            boolean stdout = destination == TestOutputEvent.Destination.StdOut;
-            Region region = stdout ? targetIndex.stdOut : targetIndex.stdErr;
-
-            if (region.start < 0) {
+            BlockList blocks = targetBlocks.get(destination);
+            if (blocks == null) {
                 return;
             }
 
-            boolean ignoreClassLevel = !allClassOutput && testId != 0;
-            boolean ignoreTestLevel = !allClassOutput && testId == 0;
+            boolean stdout = destination == TestOutputEvent.Destination.StdOut;
 
             try {
-                dataFile.seek(region.start);
-                long maxPos = region.stop - region.start;
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
-                while (decoder.getReadPosition() <= maxPos) {
-                    boolean readStdout = decoder.readBoolean();
-                    long readClassId = decoder.readSmallLong();
-                    long readTestId = decoder.readSmallLong();
-                    int readLength = decoder.readSmallInt();
-
-                    boolean isClassLevel = readTestId == 0;
-
-                    if (stdout != readStdout || classId != readClassId) {
-                        decoder.skipBytes(readLength);
-                        continue;
-                    }
-
-                    if (ignoreClassLevel && isClassLevel) {
-                        decoder.skipBytes(readLength);
-                        continue;
-                    }
-
-                    if (ignoreTestLevel && !isClassLevel) {
-                        decoder.skipBytes(readLength);
-                        continue;
-                    }
-
-                    if (testId == 0 || testId == readTestId) {
-                        byte[] stringBytes = new byte[readLength];
-                        decoder.readBytes(stringBytes);
-                        String message;
-                        try {
-                            message = new String(stringBytes, messageStorageCharset.name());
-                        } catch (UnsupportedEncodingException e) {
-                            // shouldn't happen
-                            throw UncheckedException.throwAsUncheckedException(e);
+                for (int i = 0; i < blocks.size; i++) {
+                    loadBlock(blocks.blocks[i]);
+                    Input input = new Input(decompressed, 0, decompressedLength);
+                    while (input.position() < decompressedLength) {
+                        boolean readStdout = input.readBoolean();
+                        long readClassId = input.readLong(true);
+                        long readTestId = input.readLong(true);
+                        int readLength = input.readInt(true);
+
+                        if (stdout != readStdout || classId != readClassId || (!allClassOutput && testId != readTestId)) {
+                            input.skip(readLength);
+                            continue;
                         }
 
-                        writer.write(message);
-                    } else {
-                        decoder.skipBytes(readLength);
+                        writer.write(new String(decompressed, input.position(), readLength, messageStorageCharset.name()));
+                        input.skip(readLength);
                     }
                 }
             } catch (IOException e1) {
                 throw new UncheckedIOException(e1);
             }
         }
+
+        private void loadBlock(int block) throws IOException {
+            if (block == currentBlock) {
+                return;
+            }
+            currentBlock = -1;
+
+            long start = index.blockOffsets[block];
+            int compressedLength = (int) (index.blockOffsets[block + 1] - start) - 4;
+            dataFile.seek(start);
+            int length = dataFile.readInt();
+            if (compressed.length < compressedLength) {
+                compressed = new byte[compressedLength];
+            }
+            dataFile.readFully(compressed, 0, compressedLength);
+            if (decompressed.length < length) {
+                decompressed = new byte[length];
+            }
+
+            if (inflater == null) {
+                inflater = new Inflater();
+            } else {
+                inflater.reset();
+            }
+            inflater.setInput(compressed, 0, compressedLength);
+            try {
+                int count = 0;
+                while (count < length && !inflater.finished()) {
+                    count += inflater.inflate(decompressed, count, length - count);
+                }
+                if (count != length) {
+                    throw new IOException(String.format("Test outputs data file '%s' is corrupt", getOutputsFile()));
+                }
+            } catch (DataFormatException e) {
+                throw new IOException(String.format("Test outputs data file '%s' is corrupt", getOutputsFile()), e);
+            }
+            decompressedLength = length;
+            currentBlock = block;
+        }
     }
 
     // IMPORTANT: return must be closed when done with.
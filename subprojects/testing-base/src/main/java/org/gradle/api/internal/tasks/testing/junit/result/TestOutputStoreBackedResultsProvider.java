@@ -18,7 +18,9 @@ package org.gradle.api.internal.tasks.testing.junit.result;
 
 import com.google.common.collect.Maps;
 import org.gradle.api.Action;
+import org.gradle.api.tasks.testing.TestOutputEvent;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.hash.Hasher;
 
 import java.io.IOException;
 import java.util.concurrent.ConcurrentMap;
@@ -46,6 +48,16 @@ public abstract class TestOutputStoreBackedResultsProvider implements TestResult
         return reader;
     }
 
+    @Override
+    public void hashOutput(final long id, final TestOutputEvent.Destination destination, final Hasher hasher) {
+        withReader(new Action<TestOutputStore.Reader>() {
+            @Override
+            public void execute(TestOutputStore.Reader reader) {
+                reader.hashOutput(id, destination, hasher);
+            }
+        });
+    }
+
     @Override
     public void close() throws IOException {
         CompositeStoppable.stoppable(readers.values()).stop();
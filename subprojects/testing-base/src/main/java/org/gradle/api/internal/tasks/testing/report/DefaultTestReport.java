@@ -23,6 +23,7 @@ import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.BuildOperationQueue;
@@ -37,6 +38,7 @@ import org.gradle.util.GFileUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.gradle.api.tasks.testing.TestResult.ResultType.SKIPPED;
@@ -81,49 +83,122 @@ public class DefaultTestReport implements TestReporter {
         return model;
     }
 
-    private void generateFiles(AllTestResults model, final TestResultsProvider resultsProvider, final File reportDir) {
+    private void generateFiles(final AllTestResults model, final TestResultsProvider resultsProvider, final File reportDir) {
         try {
             HtmlReportRenderer htmlRenderer = new HtmlReportRenderer();
-            buildOperationExecutor.run(new RunnableBuildOperation() {
-                @Override
-                public void run(BuildOperationContext context) {
-                    // Clean-up old HTML report directories
-                    GFileUtils.deleteQuietly(new File(reportDir, "packages"));
-                    GFileUtils.deleteQuietly(new File(reportDir, "classes"));
-                }
-
-                @Override
-                public BuildOperationDescriptor.Builder description() {
-                    return BuildOperationDescriptor.displayName("Delete old HTML results");
-                }
-            });
+            final ReportPageHashes pageHashes = ReportPageHashes.load(reportDir);
 
             htmlRenderer.render(model, new ReportRenderer<AllTestResults, HtmlReportBuilder>() {
                 @Override
                 public void render(final AllTestResults model, final HtmlReportBuilder output) throws IOException {
+                    // Class pages first, as the hashes of the summary pages are derived from them
                     buildOperationExecutor.runAll(new Action<BuildOperationQueue<HtmlReportFileGenerator<? extends CompositeTestResults>>>() {
                         @Override
                         public void execute(BuildOperationQueue<HtmlReportFileGenerator<? extends CompositeTestResults>> queue) {
-                            queue.add(generator("index.html", model, new OverviewPageRenderer(), output));
                             for (PackageTestResults packageResults : model.getPackages()) {
-                                queue.add(generator(packageResults.getBaseUrl(), packageResults, new PackagePageRenderer(), output));
                                 for (ClassTestResults classResults : packageResults.getClasses()) {
-                                    queue.add(generator(classResults.getBaseUrl(), classResults, new ClassPageRenderer(resultsProvider), output));
+                                    queue.add(new ClassReportFileGenerator(classResults, resultsProvider, pageHashes, output));
+                                }
+                            }
+                        }
+                    });
+                    buildOperationExecutor.runAll(new Action<BuildOperationQueue<HtmlReportFileGenerator<? extends CompositeTestResults>>>() {
+                        @Override
+                        public void execute(BuildOperationQueue<HtmlReportFileGenerator<? extends CompositeTestResults>> queue) {
+                            List<ClassTestResults> allClasses = new ArrayList<ClassTestResults>();
+                            for (PackageTestResults packageResults : model.getPackages()) {
+                                allClasses.addAll(packageResults.getClasses());
+                                HashCode packageHash = pageHashes.hashSummary(packageResults.getBaseUrl(), packageResults.getClasses());
+                                if (!pageHashes.isUpToDate(packageResults.getBaseUrl(), packageHash)) {
+                                    queue.add(new HashedReportFileGenerator<PackageTestResults>(packageResults.getBaseUrl(), packageResults, new PackagePageRenderer(), output, pageHashes, packageHash));
                                 }
                             }
+                            HashCode overviewHash = pageHashes.hashSummary("index.html", allClasses);
+                            if (!pageHashes.isUpToDate("index.html", overviewHash)) {
+                                queue.add(new HashedReportFileGenerator<AllTestResults>("index.html", model, new OverviewPageRenderer(), output, pageHashes, overviewHash));
+                            }
                         }
                     });
                 }
             }, reportDir);
+
+            buildOperationExecutor.run(new RunnableBuildOperation() {
+                @Override
+                public void run(BuildOperationContext context) {
+                    // Clean-up pages of packages and classes that are no longer part of the report
+                    deleteStalePages(new File(reportDir, "packages"), "packages/", pageHashes);
+                    deleteStalePages(new File(reportDir, "classes"), "classes/", pageHashes);
+                }
+
+                @Override
+                public BuildOperationDescriptor.Builder description() {
+                    return BuildOperationDescriptor.displayName("Delete old HTML results");
+                }
+            });
+
+            pageHashes.store();
         } catch (Exception e) {
             throw new GradleException(String.format("Could not generate test report to '%s'.", reportDir), e);
         }
     }
 
+    private static void deleteStalePages(File dir, String urlPrefix, ReportPageHashes pageHashes) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (!pageHashes.isCurrent(urlPrefix + file.getName())) {
+                GFileUtils.deleteQuietly(file);
+            }
+        }
+    }
+
     public static <T extends CompositeTestResults> HtmlReportFileGenerator<T> generator(String fileUrl, T results, PageRenderer<T> renderer, HtmlReportBuilder output) {
         return new HtmlReportFileGenerator<T>(fileUrl, results, renderer, output);
     }
 
+    private static class ClassReportFileGenerator extends HtmlReportFileGenerator<ClassTestResults> {
+        private final ClassTestResults results;
+        private final TestResultsProvider resultsProvider;
+        private final ReportPageHashes pageHashes;
+
+        ClassReportFileGenerator(ClassTestResults results, TestResultsProvider resultsProvider, ReportPageHashes pageHashes, HtmlReportBuilder output) {
+            super(results.getBaseUrl(), results, new ClassPageRenderer(resultsProvider), output);
+            this.results = results;
+            this.resultsProvider = resultsProvider;
+            this.pageHashes = pageHashes;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            HashCode hash = ReportPageHashes.hashClass(results, resultsProvider);
+            if (!pageHashes.isUpToDate(results.getBaseUrl(), hash)) {
+                super.run(context);
+                pageHashes.rendered(results.getBaseUrl(), hash);
+            }
+        }
+    }
+
+    private static class HashedReportFileGenerator<T extends CompositeTestResults> extends HtmlReportFileGenerator<T> {
+        private final String fileUrl;
+        private final ReportPageHashes pageHashes;
+        private final HashCode hash;
+
+        HashedReportFileGenerator(String fileUrl, T results, PageRenderer<T> renderer, HtmlReportBuilder output, ReportPageHashes pageHashes, HashCode hash) {
+            super(fileUrl, results, renderer, output);
+            this.fileUrl = fileUrl;
+            this.pageHashes = pageHashes;
+            this.hash = hash;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            super.run(context);
+            pageHashes.rendered(fileUrl, hash);
+        }
+    }
+
     private static class HtmlReportFileGenerator<T extends CompositeTestResults> implements RunnableBuildOperation {
         private final String fileUrl;
         private final T results;
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.report;
+
+import org.gradle.api.internal.tasks.testing.junit.result.TestFailure;
+import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GradleVersion;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Tracks a hash of the inputs of each page of the HTML test report, so that pages whose inputs have not changed since the report was last
+ * generated do not need to be rendered again.
+ */
+class ReportPageHashes {
+    private static final Logger LOGGER = Logging.getLogger(ReportPageHashes.class);
+    private static final String FILE_NAME = ".page-hashes.bin";
+    private static final int FORMAT_VERSION = 1;
+
+    private final File reportDir;
+    private final Map<String, HashCode> previous;
+    private final ConcurrentMap<String, HashCode> current = new ConcurrentHashMap<String, HashCode>();
+
+    private ReportPageHashes(File reportDir, Map<String, HashCode> previous) {
+        this.reportDir = reportDir;
+        this.previous = previous;
+    }
+
+    static ReportPageHashes load(File reportDir) {
+        Map<String, HashCode> previous = new ConcurrentHashMap<String, HashCode>();
+        File file = new File(reportDir, FILE_NAME);
+        if (file.isFile()) {
+            try {
+                KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(file));
+                try {
+                    if (decoder.readSmallInt() == FORMAT_VERSION && decoder.readString().equals(GradleVersion.current().getVersion())) {
+                        int count = decoder.readSmallInt();
+                        for (int i = 0; i < count; i++) {
+                            previous.put(decoder.readString(), HashCode.fromBytes(decoder.readBinary()));
+                        }
+                    }
+                } finally {
+                    decoder.close();
+                }
+            } catch (Exception e) {
+                LOGGER.debug("Could not read test report page hashes from {}. Rendering all pages.", file, e);
+                previous.clear();
+            }
+        }
+        return new ReportPageHashes(reportDir, previous);
+    }
+
+    /**
+     * Returns true if the given page was rendered from inputs with the given hash, and records the hash in that case. Otherwise, the page needs to be rendered and
+     * {@link #rendered(String, HashCode)} called once it has been written.
+     */
+    boolean isUpToDate(String fileUrl, HashCode hash) {
+        if (!hash.equals(previous.get(fileUrl)) || !new File(reportDir, fileUrl).isFile()) {
+            return false;
+        }
+        current.put(fileUrl, hash);
+        return true;
+    }
+
+    /**
+     * Records the hash of a page that has been rendered.
+     */
+    void rendered(String fileUrl, HashCode hash) {
+        current.put(fileUrl, hash);
+    }
+
+    boolean isCurrent(String fileUrl) {
+        return current.containsKey(fileUrl);
+    }
+
+    void store() throws IOException {
+        KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(new File(reportDir, FILE_NAME)));
+        try {
+            encoder.writeSmallInt(FORMAT_VERSION);
+            encoder.writeString(GradleVersion.current().getVersion());
+            encoder.writeSmallInt(current.size());
+            for (Map.Entry<String, HashCode> entry : current.entrySet()) {
+                encoder.writeString(entry.getKey());
+                encoder.writeBinary(entry.getValue().toByteArray());
+            }
+        } finally {
+            encoder.close();
+        }
+    }
+
+    static HashCode hashClass(ClassTestResults classResults, TestResultsProvider resultsProvider) {
+        Hasher hasher = Hashing.md5().newHasher();
+        putString(hasher, classResults.getName());
+        putString(hasher, classResults.getDisplayName());
+        hasher.putInt(classResults.getTestResults().size());
+        for (TestResult test : classResults.getTestResults()) {
+            putString(hasher, test.getName());
+            putString(hasher, test.getDisplayName());
+            hasher.putLong(test.getDuration());
+            hasher.putBoolean(test.isIgnored());
+            hasher.putInt(test.getFailures().size());
+            for (TestFailure failure : test.getFailures()) {
+                putString(hasher, failure.getMessage());
+                putString(hasher, failure.getStackTrace());
+                putString(hasher, failure.getExceptionType());
+            }
+        }
+        for (TestOutputEvent.Destination destination : TestOutputEvent.Destination.values()) {
+            boolean hasOutput = resultsProvider.hasOutput(classResults.getId(), destination);
+            hasher.putBoolean(hasOutput);
+            if (hasOutput) {
+                resultsProvider.hashOutput(classResults.getId(), destination, hasher);
+            }
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * Hashes a page that summarizes other pages, such as a package page or the overview page, from the hashes of the summarized class pages.
+     */
+    HashCode hashSummary(String fileUrl, Iterable<ClassTestResults> classes) {
+        Hasher hasher = Hashing.md5().newHasher();
+        putString(hasher, fileUrl);
+        for (ClassTestResults classResults : classes) {
+            putString(hasher, classResults.getBaseUrl());
+            hasher.putHash(current.get(classResults.getBaseUrl()));
+        }
+        return hasher.hash();
+    }
+
+    private static void putString(Hasher hasher, @Nullable String value) {
+        if (value == null) {
+            hasher.putInt(-1);
+        } else {
+            hasher.putInt(value.length());
+            hasher.putString(value);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.Factory;
 import org.gradle.internal.remote.ObjectConnection;
 import org.gradle.internal.work.WorkerLeaseRegistry;
 import org.gradle.process.JavaForkOptions;
@@ -32,14 +33,23 @@ import org.gradle.process.internal.worker.WorkerProcess;
 import org.gradle.process.internal.worker.WorkerProcessBuilder;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 import org.gradle.util.CollectionUtils;
+import org.gradle.util.GUtil;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.TreeMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class ForkingTestClassProcessor implements TestClassProcessor {
+    /**
+     * The action run by pooled workers. It holds no state in the build process, so all workers are created from this instance.
+     */
+    private static final ReusableTestWorker REUSABLE_TEST_WORKER = new ReusableTestWorker();
+
     private final WorkerLeaseRegistry.WorkerLease currentWorkerLease;
     private final WorkerProcessFactory workerFactory;
     private final WorkerTestClassProcessorFactory processorFactory;
@@ -47,15 +57,24 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     private final Iterable<File> classPath;
     private final Action<WorkerProcessBuilder> buildConfigAction;
     private final ModuleRegistry moduleRegistry;
+    private final TestWorkerProcessPool workerProcessPool;
     private final Lock lock = new ReentrantLock();
     private RemoteTestClassProcessor remoteProcessor;
     private WorkerProcess workerProcess;
+    private TestWorkerProcessPool.PooledTestWorker pooledWorker;
     private TestResultProcessor resultProcessor;
     private WorkerLeaseRegistry.WorkerLeaseCompletion completion;
     private DocumentationRegistry documentationRegistry;
     private boolean stoppedNow;
 
     public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, DocumentationRegistry documentationRegistry) {
+        this(parentWorkerLease, workerFactory, processorFactory, options, classPath, buildConfigAction, moduleRegistry, documentationRegistry, null);
+    }
+
+    /**
+     * @param workerProcessPool when not null, the tests are run in a worker process taken from this pool, which is returned to the pool afterwards.
+     */
+    public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, DocumentationRegistry documentationRegistry, @Nullable TestWorkerProcessPool workerProcessPool) {
         this.currentWorkerLease = parentWorkerLease;
         this.workerFactory = workerFactory;
         this.processorFactory = processorFactory;
@@ -64,6 +83,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         this.buildConfigAction = buildConfigAction;
         this.moduleRegistry = moduleRegistry;
         this.documentationRegistry = documentationRegistry;
+        this.workerProcessPool = workerProcessPool;
     }
 
     @Override
@@ -82,7 +102,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
             if (remoteProcessor == null) {
                 completion = currentWorkerLease.startChild();
                 JULRedirector.checkDeprecatedProperty(options);
-                remoteProcessor = forkProcess();
+                remoteProcessor = workerProcessPool != null ? startSession() : forkProcess();
             }
 
             remoteProcessor.processTestClass(testClass);
@@ -112,6 +132,45 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         return remoteProcessor;
     }
 
+    RemoteTestClassProcessor startSession() {
+        // Only the shared packages are relevant to a session, the worker JVM itself is not configured for the test framework
+        WorkerProcessBuilder frameworkConfiguration = workerFactory.create(REUSABLE_TEST_WORKER);
+        buildConfigAction.execute(frameworkConfiguration);
+        List<String> sharedPackages = new ArrayList<String>(frameworkConfiguration.getSharedPackages());
+
+        pooledWorker = workerProcessPool.acquire(getWorkerProcessKey(), new Factory<WorkerProcessBuilder>() {
+            @Override
+            public WorkerProcessBuilder create() {
+                WorkerProcessBuilder builder = workerFactory.create(REUSABLE_TEST_WORKER);
+                builder.setBaseName("Gradle Test Executor");
+                builder.setImplementationClasspath(getTestWorkerImplementationClasspath());
+                options.copyTo(builder.getJavaCommand());
+                builder.getJavaCommand().jvmArgs("-Dorg.gradle.native=false");
+                return builder;
+            }
+        });
+
+        List<String> testClasspath = new ArrayList<String>();
+        for (File file : classPath) {
+            testClasspath.add(file.getAbsolutePath());
+        }
+        pooledWorker.startSession(new TestWorkerSessionSpec(testClasspath, sharedPackages, GUtil.serialize(processorFactory)), resultProcessor);
+        pooledWorker.startProcessing();
+        return pooledWorker;
+    }
+
+    /**
+     * Worker processes can be reused by tasks that start them the same way.
+     */
+    private String getWorkerProcessKey() {
+        StringBuilder key = new StringBuilder();
+        key.append(options.getExecutable()).append('\n');
+        key.append(options.getWorkingDir()).append('\n');
+        key.append(options.getAllJvmArgs()).append('\n');
+        key.append(new TreeMap<String, Object>(options.getEnvironment()));
+        return key.toString();
+    }
+
     List<URL> getTestWorkerImplementationClasspath() {
         return CollectionUtils.flattenCollections(URL.class,
             moduleRegistry.getModule("gradle-core-api").getImplementationClasspath().getAsURLs(),
@@ -149,7 +208,9 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
                 } finally {
                     lock.unlock();
                 }
-                workerProcess.waitForStop();
+                if (pooledWorker == null) {
+                    workerProcess.waitForStop();
+                }
             } catch (ExecException e) {
                 if (!stoppedNow) {
                     throw new ExecException(e.getMessage()
@@ -158,6 +219,9 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
                         + documentationRegistry.getDocumentationFor("java_plugin", "sec:test_execution"), e.getCause());
                 }
             } finally {
+                if (pooledWorker != null) {
+                    workerProcessPool.release(pooledWorker);
+                }
                 completion.leaseFinish();
             }
         }
@@ -168,7 +232,9 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         lock.lock();
         try {
             stoppedNow = true;
-            if (remoteProcessor != null) {
+            if (pooledWorker != null) {
+                pooledWorker.stopNow();
+            } else if (remoteProcessor != null) {
                 workerProcess.stopNow();
             }
         } finally {
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+/**
+ * The protocol of a test worker that runs the tests of several {@code Test} tasks one after the other.
+ *
+ * @see ReusableTestWorker
+ */
+public interface ReusableRemoteTestClassProcessor extends RemoteTestClassProcessor {
+    /**
+     * Prepares the worker to run the tests of a task. Must be followed by {@link #startProcessing()}. The session ends with {@link #stop()}.
+     *
+     * Does not block.
+     */
+    void startSession(TestWorkerSessionSpec spec);
+
+    /**
+     * Stops the worker process once the current session, if any, has ended.
+     *
+     * Does not block.
+     */
+    void shutdown();
+}
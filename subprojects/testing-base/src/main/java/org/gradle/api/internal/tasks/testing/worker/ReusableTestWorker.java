@@ -0,0 +1,186 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.dispatch.ContextClassLoaderProxy;
+import org.gradle.internal.id.IdGenerator;
+import org.gradle.internal.io.ClassLoaderObjectInputStream;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.service.DefaultServiceRegistry;
+import org.gradle.internal.time.Clock;
+import org.gradle.process.internal.worker.WorkerProcessContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.Serializable;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A test worker that runs the tests of several {@code Test} tasks, one session per task. The worker process is started without an application
+ * classpath. Each session loads the test runtime classpath in a fresh ClassLoader, and the test framework integration in a ClassLoader that
+ * links it against the test framework found on that classpath.
+ *
+ * @see TestWorkerProcessPool
+ */
+public class ReusableTestWorker implements Action<WorkerProcessContext>, ReusableRemoteTestClassProcessor, Serializable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReusableTestWorker.class);
+
+    /**
+     * The packages containing the test framework integration, which link against the test framework classes.
+     */
+    private static final Set<String> TEST_FRAMEWORK_PACKAGES = ImmutableSet.of(
+        "org.gradle.api.internal.tasks.testing.junit",
+        "org.gradle.api.internal.tasks.testing.testng",
+        "org.gradle.api.internal.tasks.testing.junitplatform");
+
+    private transient CountDownLatch shutdown;
+    private transient WorkerProcessContext workerProcessContext;
+    private transient DefaultServiceRegistry testServices;
+    private transient TestWorkerSessionResultProcessor resultProcessor;
+    private transient SecurityManager securityManager;
+    private transient TestClassProcessor processor;
+    private transient URLClassLoader testClassLoader;
+    private transient URLClassLoader sessionClassLoader;
+
+    @Override
+    public void execute(WorkerProcessContext workerProcessContext) {
+        LOGGER.info("{} started.", workerProcessContext.getDisplayName());
+
+        this.workerProcessContext = workerProcessContext;
+        securityManager = System.getSecurityManager();
+        shutdown = new CountDownLatch(1);
+
+        System.setProperty(TestWorker.WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
+
+        testServices = new TestWorker.TestFrameworkServiceRegistry(workerProcessContext);
+        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
+        serverConnection.useParameterSerializers(TestEventSerializer.create());
+        resultProcessor = serverConnection.addOutgoing(TestWorkerSessionResultProcessor.class);
+        serverConnection.addIncoming(ReusableRemoteTestClassProcessor.class, this);
+        serverConnection.connect();
+
+        try {
+            try {
+                shutdown.await();
+            } catch (InterruptedException e) {
+                throw new UncheckedException(e);
+            }
+        } finally {
+            LOGGER.info("{} finished.", workerProcessContext.getDisplayName());
+            testServices.close();
+        }
+    }
+
+    @Override
+    public void startSession(TestWorkerSessionSpec spec) {
+        Thread.currentThread().setName("Test worker");
+        URLClassLoader implementationClassLoader = (URLClassLoader) getClass().getClassLoader();
+        testClassLoader = new URLClassLoader(toUrls(spec.getClasspath()), ClassLoader.getSystemClassLoader());
+        sessionClassLoader = new TestWorkerSessionClassLoader(implementationClassLoader.getURLs(), implementationClassLoader, testClassLoader, spec.getSharedPackages(), TEST_FRAMEWORK_PACKAGES);
+
+        WorkerTestClassProcessorFactory factory;
+        try {
+            ClassLoaderObjectInputStream instr = new ClassLoaderObjectInputStream(new ByteArrayInputStream(spec.getSerializedProcessorFactory()), sessionClassLoader);
+            factory = (WorkerTestClassProcessorFactory) instr.readObject();
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+
+        TestClassProcessor targetProcessor = factory.create(testServices);
+        IdGenerator<?> idGenerator = testServices.get(IdGenerator.class);
+        targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(), workerProcessContext.getDisplayName(), testServices.get(Clock.class));
+        processor = new ContextClassLoaderProxy<TestClassProcessor>(TestClassProcessor.class, targetProcessor, testClassLoader).getSource();
+    }
+
+    @Override
+    public void startProcessing() {
+        Thread.currentThread().setName("Test worker");
+        processor.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        Thread.currentThread().setName("Test worker");
+        try {
+            processor.processTestClass(testClass);
+        } finally {
+            // Clean the interrupted status
+            Thread.interrupted();
+        }
+    }
+
+    @Override
+    public void stop() {
+        Thread.currentThread().setName("Test worker");
+        try {
+            processor.stop();
+        } finally {
+            endSession();
+            resultProcessor.sessionCompleted();
+            // Clean the interrupted status
+            // because some test class processors do work here, e.g. JUnitPlatform
+            Thread.interrupted();
+        }
+    }
+
+    private void endSession() {
+        processor = null;
+        if (System.getSecurityManager() != securityManager) {
+            try {
+                // Reset security manager the tests seem to have installed
+                System.setSecurityManager(securityManager);
+            } catch (SecurityException e) {
+                LOGGER.warn("Unable to reset SecurityManager. Continuing anyway...", e);
+            }
+        }
+        ClassLoaderUtils.tryClose(sessionClassLoader);
+        ClassLoaderUtils.tryClose(testClassLoader);
+        sessionClassLoader = null;
+        testClassLoader = null;
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown.countDown();
+    }
+
+    private static URL[] toUrls(List<String> classpath) {
+        URL[] urls = new URL[classpath.size()];
+        for (int i = 0; i < urls.length; i++) {
+            try {
+                urls[i] = new File(classpath.get(i)).toURI().toURL();
+            } catch (MalformedURLException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        return urls;
+    }
+}
@@ -22,6 +22,8 @@ import org.gradle.api.tasks.testing.TestResult;
 import org.gradle.internal.id.CompositeIdGenerator;
 import org.gradle.internal.serialize.*;
 
+import java.util.List;
+
 public class TestEventSerializer {
     public static SerializerRegistry create() {
         BaseSerializerFactory factory = new BaseSerializerFactory();
@@ -37,6 +39,7 @@ public class TestEventSerializer {
         registry.register(TestCompleteEvent.class, new TestCompleteEventSerializer());
         registry.register(DefaultTestOutputEvent.class, new DefaultTestOutputEventSerializer());
         registry.register(Throwable.class, factory.getSerializerFor(Throwable.class));
+        registry.register(TestWorkerSessionSpec.class, new TestWorkerSessionSpecSerializer());
         return registry;
     }
 
@@ -77,6 +80,25 @@ public class TestEventSerializer {
         }
     }
 
+    private static class TestWorkerSessionSpecSerializer implements Serializer<TestWorkerSessionSpec> {
+        private final Serializer<List<String>> stringListSerializer = new ListSerializer<String>(BaseSerializerFactory.STRING_SERIALIZER);
+
+        @Override
+        public TestWorkerSessionSpec read(Decoder decoder) throws Exception {
+            List<String> classpath = stringListSerializer.read(decoder);
+            List<String> sharedPackages = stringListSerializer.read(decoder);
+            byte[] serializedProcessorFactory = decoder.readBinary();
+            return new TestWorkerSessionSpec(classpath, sharedPackages, serializedProcessorFactory);
+        }
+
+        @Override
+        public void write(Encoder encoder, TestWorkerSessionSpec value) throws Exception {
+            stringListSerializer.write(encoder, value.getClasspath());
+            stringListSerializer.write(encoder, value.getSharedPackages());
+            encoder.writeBinary(value.getSerializedProcessorFactory());
+        }
+    }
+
     private static class DefaultTestClassRunInfoSerializer implements Serializer<DefaultTestClassRunInfo> {
         @Override
         public DefaultTestClassRunInfo read(Decoder decoder) throws Exception {
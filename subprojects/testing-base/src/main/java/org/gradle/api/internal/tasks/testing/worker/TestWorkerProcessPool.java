@@ -0,0 +1,273 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.internal.worker.WorkerProcess;
+import org.gradle.process.internal.worker.WorkerProcessBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Keeps test worker processes alive for the rest of the build once a {@code Test} task is done with them, so that later tasks whose
+ * test JVMs are configured the same way run their tests in these processes instead of forking new ones.
+ *
+ * <p>Disabled unless the {@value #REUSE_WORKERS_PROPERTY} system property is set to {@code true}. Tests run in a reused worker
+ * share the JVM's global state, such as system properties, with the tests of earlier tasks.</p>
+ */
+public class TestWorkerProcessPool implements Stoppable {
+    /**
+     * Enables the pool. A pooled worker is started without the test runtime classpath and loads it in a separate ClassLoader for each task,
+     * so the test classes are not on {@code java.class.path} and cannot be loaded through {@link ClassLoader#getSystemClassLoader()}.
+     * Tests that rely on either, or that replace the system ClassLoader with {@code java.system.class.loader}, fail in a pooled worker.
+     * The test classes are available from the thread context ClassLoader.
+     */
+    public static final String REUSE_WORKERS_PROPERTY = "org.gradle.internal.testing.reuse-workers";
+
+    private final ExecutorFactory executorFactory;
+    private final boolean enabled;
+    private final Object lock = new Object();
+    private final ListMultimap<String, PooledTestWorker> idleWorkers = ArrayListMultimap.create();
+    private final Set<PooledTestWorker> workers = new LinkedHashSet<PooledTestWorker>();
+    private ManagedExecutor watcher;
+    private boolean stopped;
+
+    public TestWorkerProcessPool(ExecutorFactory executorFactory) {
+        this(executorFactory, Boolean.getBoolean(REUSE_WORKERS_PROPERTY));
+    }
+
+    TestWorkerProcessPool(ExecutorFactory executorFactory, boolean enabled) {
+        this.executorFactory = executorFactory;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns an idle worker that was started with the given key, or starts a new one from the given builder.
+     */
+    PooledTestWorker acquire(String key, Factory<WorkerProcessBuilder> builderFactory) {
+        synchronized (lock) {
+            if (stopped) {
+                throw new IllegalStateException("Cannot acquire a test worker after the pool has been stopped.");
+            }
+            List<PooledTestWorker> candidates = idleWorkers.get(key);
+            while (!candidates.isEmpty()) {
+                PooledTestWorker worker = candidates.remove(candidates.size() - 1);
+                if (worker.isAlive()) {
+                    return worker;
+                }
+            }
+        }
+
+        WorkerProcess workerProcess = builderFactory.create().build();
+        workerProcess.start();
+        final PooledTestWorker worker = new PooledTestWorker(key, workerProcess);
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializers(TestEventSerializer.create());
+        connection.addIncoming(TestWorkerSessionResultProcessor.class, worker.resultProcessor);
+        worker.remoteProcessor = connection.addOutgoing(ReusableRemoteTestClassProcessor.class);
+        connection.connect();
+
+        synchronized (lock) {
+            workers.add(worker);
+            if (watcher == null) {
+                watcher = executorFactory.create("Test worker process watcher");
+            }
+            watcher.execute(new Runnable() {
+                @Override
+                public void run() {
+                    worker.waitForStop();
+                    synchronized (lock) {
+                        workers.remove(worker);
+                        idleWorkers.remove(worker.key, worker);
+                    }
+                }
+            });
+        }
+        return worker;
+    }
+
+    /**
+     * Makes the given worker available to later tasks, once its session has ended.
+     */
+    void release(PooledTestWorker worker) {
+        synchronized (lock) {
+            if (!stopped && worker.isAlive()) {
+                idleWorkers.put(worker.key, worker);
+                return;
+            }
+        }
+        worker.shutdown();
+    }
+
+    @Override
+    public void stop() {
+        List<PooledTestWorker> toStop;
+        ManagedExecutor watcher;
+        synchronized (lock) {
+            stopped = true;
+            toStop = new ArrayList<PooledTestWorker>(workers);
+            workers.clear();
+            idleWorkers.clear();
+            watcher = this.watcher;
+        }
+        for (PooledTestWorker worker : toStop) {
+            worker.shutdown();
+        }
+        if (watcher != null) {
+            // Wait for the worker processes to exit
+            watcher.stop();
+        }
+    }
+
+    /**
+     * A worker process in the pool. Runs the tests of one task at a time, between {@link #startSession} and {@link #stop()}.
+     */
+    static class PooledTestWorker implements RemoteTestClassProcessor {
+        private final String key;
+        private final WorkerProcess workerProcess;
+        private final SessionResultProcessor resultProcessor = new SessionResultProcessor();
+        private ReusableRemoteTestClassProcessor remoteProcessor;
+        private volatile CountDownLatch sessionCompleted;
+        private volatile boolean alive = true;
+        private volatile RuntimeException failure;
+
+        PooledTestWorker(String key, WorkerProcess workerProcess) {
+            this.key = key;
+            this.workerProcess = workerProcess;
+        }
+
+        boolean isAlive() {
+            return alive;
+        }
+
+        void startSession(TestWorkerSessionSpec spec, TestResultProcessor resultProcessor) {
+            this.resultProcessor.delegate = resultProcessor;
+            sessionCompleted = new CountDownLatch(1);
+            if (!alive) {
+                sessionCompleted.countDown();
+            }
+            remoteProcessor.startSession(spec);
+        }
+
+        @Override
+        public void startProcessing() {
+            remoteProcessor.startProcessing();
+        }
+
+        @Override
+        public void processTestClass(TestClassRunInfo testClass) {
+            remoteProcessor.processTestClass(testClass);
+        }
+
+        /**
+         * Ends the current session, and waits until all of its results have been received or the worker process has exited.
+         */
+        @Override
+        public void stop() {
+            remoteProcessor.stop();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    sessionCompleted.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            RuntimeException failure = this.failure;
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        void stopNow() {
+            workerProcess.stopNow();
+        }
+
+        void shutdown() {
+            if (alive) {
+                remoteProcessor.shutdown();
+            }
+        }
+
+        void waitForStop() {
+            try {
+                workerProcess.waitForStop();
+            } catch (RuntimeException e) {
+                failure = e;
+            } finally {
+                alive = false;
+                CountDownLatch sessionCompleted = this.sessionCompleted;
+                if (sessionCompleted != null) {
+                    sessionCompleted.countDown();
+                }
+            }
+        }
+
+        private class SessionResultProcessor implements TestWorkerSessionResultProcessor {
+            private volatile TestResultProcessor delegate;
+
+            @Override
+            public void started(TestDescriptorInternal test, TestStartEvent event) {
+                delegate.started(test, event);
+            }
+
+            @Override
+            public void completed(Object testId, TestCompleteEvent event) {
+                delegate.completed(testId, event);
+            }
+
+            @Override
+            public void output(Object testId, TestOutputEvent event) {
+                delegate.output(testId, event);
+            }
+
+            @Override
+            public void failure(Object testId, Throwable result) {
+                delegate.failure(testId, result);
+            }
+
+            @Override
+            public void sessionCompleted() {
+                PooledTestWorker.this.sessionCompleted.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Loads the test framework integration of one session of a {@link ReusableTestWorker}. Classes of the shared packages are loaded from the test
+ * runtime classpath of the session, falling back to the versions shipped with Gradle. Classes of the isolated packages, which link against the
+ * shared packages, are loaded again from the worker implementation classpath. Everything else is loaded from the worker implementation ClassLoader.
+ */
+class TestWorkerSessionClassLoader extends URLClassLoader {
+    private final ClassLoader testClassLoader;
+    private final Collection<String> sharedPackages;
+    private final Set<String> isolatedPackages;
+
+    TestWorkerSessionClassLoader(URL[] implementationClasspath, ClassLoader implementationClassLoader, ClassLoader testClassLoader, Collection<String> sharedPackages, Set<String> isolatedPackages) {
+        super(implementationClasspath, implementationClassLoader);
+        this.testClassLoader = testClassLoader;
+        this.sharedPackages = sharedPackages;
+        this.isolatedPackages = isolatedPackages;
+    }
+
+    @Override
+    protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        Class<?> result = findLoadedClass(name);
+        if (result == null) {
+            if (isShared(name)) {
+                try {
+                    result = testClassLoader.loadClass(name);
+                } catch (ClassNotFoundException e) {
+                    result = findClass(name);
+                }
+            } else if (isolatedPackages.contains(packageOf(name))) {
+                result = findClass(name);
+            } else {
+                result = getParent().loadClass(name);
+            }
+        }
+        if (resolve) {
+            resolveClass(result);
+        }
+        return result;
+    }
+
+    private boolean isShared(String className) {
+        for (String sharedPackage : sharedPackages) {
+            if (className.startsWith(sharedPackage) && className.length() > sharedPackage.length() && className.charAt(sharedPackage.length()) == '.') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String packageOf(String className) {
+        int pos = className.lastIndexOf('.');
+        return pos < 0 ? "" : className.substring(0, pos);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import java.util.List;
+
+/**
+ * Describes a {@code Test} task's use of a reusable test worker: the test runtime classpath, the packages shared with the test framework
+ * implementation, and the serialized {@link org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory}.
+ */
+public class TestWorkerSessionSpec {
+    private final List<String> classpath;
+    private final List<String> sharedPackages;
+    private final byte[] serializedProcessorFactory;
+
+    public TestWorkerSessionSpec(List<String> classpath, List<String> sharedPackages, byte[] serializedProcessorFactory) {
+        this.classpath = classpath;
+        this.sharedPackages = sharedPackages;
+        this.serializedProcessorFactory = serializedProcessorFactory;
+    }
+
+    public List<String> getClasspath() {
+        return classpath;
+    }
+
+    public List<String> getSharedPackages() {
+        return sharedPackages;
+    }
+
+    public byte[] getSerializedProcessorFactory() {
+        return serializedProcessorFactory;
+    }
+}
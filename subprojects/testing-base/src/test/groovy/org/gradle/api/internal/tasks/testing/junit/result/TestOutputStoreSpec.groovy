@@ -18,6 +18,8 @@ package org.gradle.api.internal.tasks.testing.junit.result
 import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
 import org.gradle.api.internal.tasks.testing.TestDescriptorInternal
 import org.gradle.api.tasks.testing.TestOutputEvent
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.Hashing
 import org.gradle.test.fixtures.file.WorkspaceTest
 
 import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdErr
@@ -98,6 +100,68 @@ class TestOutputStoreSpec extends WorkspaceTest {
         reader.close()
     }
 
+    def "reads output for interleaved tests spanning many blocks"() {
+        def expected = [:].withDefault { new StringBuilder() }
+
+        when:
+        def writer = output.writer()
+        1000.times { i ->
+            def testId = i % 7
+            def message = "[${testId}-${i}-" + ("x" * (i % 300)) + "]"
+            writer.onOutput(1, testId, output(StdOut, message))
+            expected[testId] << message
+        }
+        writer.close()
+        def reader = output.reader()
+
+        then:
+        output.outputsFile.length() < TestOutputStore.BLOCK_SIZE * 2
+        (1..6).every { collectOutput(reader, 1, it, StdOut) == expected[it].toString() }
+        collectOutput(reader, 1, StdOut) == expected[0].toString()
+        collectAllOutput(reader, 1, StdOut).length() == expected.values().sum { it.length() }
+
+        cleanup:
+        reader?.close()
+    }
+
+    def "can read message larger than a block"() {
+        def message = "a" * (TestOutputStore.BLOCK_SIZE * 3)
+
+        when:
+        def writer = output.writer()
+        writer.onOutput(1, 1, output(StdOut, "[before]"))
+        writer.onOutput(1, 2, output(StdOut, message))
+        writer.onOutput(1, 1, output(StdOut, "[after]"))
+        writer.close()
+        def reader = output.reader()
+
+        then:
+        collectOutput(reader, 1, 1, StdOut) == "[before][after]"
+        collectOutput(reader, 1, 2, StdOut) == message
+
+        cleanup:
+        reader?.close()
+    }
+
+    def "readers share the index and read independently"() {
+        when:
+        def writer = output.writer()
+        writer.onOutput(1, 1, output(StdOut, "[out-1]"))
+        writer.onOutput(2, 1, output(StdOut, "[out-2]"))
+        writer.close()
+        def reader1 = output.reader()
+        def reader2 = output.reader()
+
+        then:
+        collectOutput(reader1, 2, 1, StdOut) == "[out-2]"
+        collectOutput(reader2, 1, 1, StdOut) == "[out-1]"
+        collectOutput(reader1, 1, 1, StdOut) == "[out-1]"
+
+        cleanup:
+        reader1?.close()
+        reader2?.close()
+    }
+
     def DefaultTestOutputEvent output(TestOutputEvent.Destination destination, String msg) {
         new DefaultTestOutputEvent(destination, msg)
     }
@@ -145,6 +209,56 @@ class TestOutputStoreSpec extends WorkspaceTest {
         reader.close()
     }
 
+    def "output hash changes when the output is written again"() {
+        when:
+        def writer = output.writer()
+        writer.onOutput(1, 1, output(StdOut, "[out]"))
+        writer.close()
+        def reader = output.reader()
+        def hash = hashOutput(reader, 1, StdOut)
+        def otherClassHash = hashOutput(reader, 2, StdOut)
+
+        then:
+        hashOutput(reader, 1, StdOut) == hash
+        otherClassHash != hash
+
+        when:
+        reader.close()
+        writer = output.writer()
+        writer.onOutput(1, 1, output(StdOut, "[different out]"))
+        writer.close()
+        reader = output.reader()
+
+        then:
+        hashOutput(reader, 1, StdOut) != hash
+
+        cleanup:
+        reader.close()
+    }
+
+    def "output hash changes when output of the same length is written again"() {
+        when:
+        def writer = output.writer()
+        writer.onOutput(1, 1, output(StdOut, "[out 1]"))
+        writer.close()
+        def reader = output.reader()
+        def hash = hashOutput(reader, 1, StdOut)
+        reader.close()
+        def lastModified = output.outputsFile.lastModified()
+
+        writer = output.writer()
+        writer.onOutput(1, 1, output(StdOut, "[out 2]"))
+        writer.close()
+        output.outputsFile.lastModified = lastModified
+        reader = output.reader()
+
+        then:
+        hashOutput(reader, 1, StdOut) != hash
+
+        cleanup:
+        reader.close()
+    }
+
     def "can open empty reader"() {
         // neither file
         expect:
@@ -169,6 +283,12 @@ class TestOutputStoreSpec extends WorkspaceTest {
         thrown(IllegalStateException)
     }
 
+    HashCode hashOutput(TestOutputStore.Reader reader, long classId, TestOutputEvent.Destination destination) {
+        def hasher = Hashing.md5().newHasher()
+        reader.hashOutput(classId, destination, hasher)
+        return hasher.hash()
+    }
+
     String collectAllOutput(TestOutputStore.Reader reader, long classId, TestOutputEvent.Destination destination) {
         def writer = new StringWriter()
         reader.writeAllOutput(classId, destination, writer)
@@ -534,6 +534,83 @@ class DefaultTestReportTest extends Specification {
         testClassFile.assertHasStandardError('err:\u0102')
     }
 
+    def "does not render pages again when their results are unchanged"() {
+        given:
+        report = reportWithMaxThreads(4)
+        report.generateReport(passingBuildResults(), reportDir)
+        def unchangedClassFile = reportDir.file('classes/org.gradle.passing.Passed.html')
+        def unchangedPackageFile = reportDir.file('packages/org.gradle.passing.html')
+        unchangedClassFile.text = "unchanged"
+        unchangedPackageFile.text = "unchanged"
+
+        when:
+        report.generateReport(buildResults {
+            testClassResult("org.gradle.passing.Passed") {
+                testcase("passed") {
+                    duration = 1000;
+                }
+            }
+            testClassResult("org.gradle.passing.subpackage.AlsoPassed") {
+                testcase("passedToo") {
+                    duration = 3000;
+                    stdout "this is\nstandard output"
+                    stderr "this is\nstandard error"
+                }
+            }
+        }, reportDir)
+
+        then:
+        unchangedClassFile.text == "unchanged"
+        unchangedPackageFile.text == "unchanged"
+
+        def index = results(indexFile)
+        index.assertHasDuration("4.000s")
+
+        def changedClassFile = results(reportDir.file('classes/org.gradle.passing.subpackage.AlsoPassed.html'))
+        changedClassFile.testDetails('passedToo').assertDuration("3.000s")
+    }
+
+    def "renders pages again when the output of a class changes"() {
+        given:
+        report = reportWithMaxThreads(1)
+        report.generateReport(passingBuildResults(), reportDir)
+        def classFile = reportDir.file('classes/org.gradle.passing.subpackage.AlsoPassed.html')
+
+        when:
+        report.generateReport(buildResults {
+            testClassResult("org.gradle.passing.Passed") {
+                testcase("passed") {
+                    duration = 1000;
+                }
+            }
+            testClassResult("org.gradle.passing.subpackage.AlsoPassed") {
+                testcase("passedToo") {
+                    duration = 1000;
+                    stdout "this is\ndifferent output"
+                    stderr "this is\nstandard error"
+                }
+            }
+        }, reportDir)
+
+        then:
+        results(classFile).assertHasStandardOutput('this is\ndifferent output')
+    }
+
+    def "removes pages of classes and packages which are no longer part of the results"() {
+        given:
+        report = reportWithMaxThreads(1)
+        report.generateReport(failingBuildResults(), reportDir)
+
+        when:
+        report.generateReport(passingBuildResults(), reportDir)
+
+        then:
+        !reportDir.file('classes/org.gradle.failing.SomeIgnoredSomePassedSomeFailed.html').exists()
+        !reportDir.file('packages/org.gradle.failing.html').exists()
+        reportDir.file('classes/org.gradle.passing.Passed.html').exists()
+        reportDir.file('packages/org.gradle.passing.html').exists()
+    }
+
     TestResultsProvider buildResults(Closure closure) {
         ConfigureUtil.configure(closure, new BuildableTestResultsProvider())
     }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.internal.Factory
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
+import org.gradle.internal.remote.ObjectConnection
+import org.gradle.process.internal.ExecException
+import org.gradle.process.internal.worker.WorkerProcess
+import org.gradle.process.internal.worker.WorkerProcessBuilder
+import spock.lang.Specification
+
+class TestWorkerProcessPoolTest extends Specification {
+    def watcher = Mock(ManagedExecutor)
+    def executorFactory = Stub(ExecutorFactory) {
+        create(_) >> watcher
+    }
+    def pool = new TestWorkerProcessPool(executorFactory, true)
+    def builds = 0
+
+    def "reuses a released worker for the same key"() {
+        def builder = builder()
+
+        when:
+        def worker = pool.acquire("key", builder)
+        pool.release(worker)
+        def reused = pool.acquire("key", builder)
+
+        then:
+        reused.is(worker)
+        builds == 1
+    }
+
+    def "starts a new worker for a different key"() {
+        def builder = builder()
+
+        when:
+        def worker = pool.acquire("key", builder)
+        pool.release(worker)
+        def other = pool.acquire("other", builder)
+
+        then:
+        !other.is(worker)
+        builds == 2
+    }
+
+    def "does not hand out a worker that is in use"() {
+        def builder = builder()
+
+        when:
+        def worker = pool.acquire("key", builder)
+        def other = pool.acquire("key", builder)
+
+        then:
+        !other.is(worker)
+    }
+
+    def "does not reuse a worker whose process has exited"() {
+        def process = workerProcess()
+        process.waitForStop() >> { throw new ExecException("broken") }
+        def builder = builder(process)
+
+        when:
+        def worker = pool.acquire("key", builder)
+        worker.waitForStop()
+        pool.release(worker)
+        def other = pool.acquire("key", builder)
+
+        then:
+        !other.is(worker)
+    }
+
+    def "removes an idle worker from the pool when its process exits"() {
+        Runnable waitForStop = null
+        watcher.execute(_) >> { Runnable runnable -> waitForStop = runnable }
+        def worker = pool.acquire("key", builder())
+        pool.release(worker)
+
+        when:
+        waitForStop.run()
+
+        then:
+        !worker.alive
+        pool.workers.empty
+        pool.idleWorkers.empty
+    }
+
+    def "rethrows the failure of a worker process that exits during a session"() {
+        def process = workerProcess()
+        process.waitForStop() >> { throw new ExecException("broken") }
+        def worker = pool.acquire("key", builder(process))
+
+        when:
+        worker.startSession(new TestWorkerSessionSpec([], [], new byte[0]), Stub(TestResultProcessor))
+        worker.waitForStop()
+        worker.stop()
+
+        then:
+        def e = thrown(ExecException)
+        e.message == "broken"
+    }
+
+    def "shuts down all workers when stopped"() {
+        def remote1 = Mock(ReusableRemoteTestClassProcessor)
+        def remote2 = Mock(ReusableRemoteTestClassProcessor)
+        def worker1 = pool.acquire("key", builder(workerProcess(remote1)))
+        def worker2 = pool.acquire("other", builder(workerProcess(remote2)))
+        pool.release(worker1)
+
+        when:
+        pool.stop()
+
+        then:
+        1 * remote1.shutdown()
+        1 * remote2.shutdown()
+        1 * watcher.stop()
+
+        when:
+        pool.release(worker2)
+
+        then:
+        1 * remote2.shutdown()
+    }
+
+    private Factory<WorkerProcessBuilder> builder(WorkerProcess... processes) {
+        def queue = processes as List
+        return {
+            builds++
+            def process = queue.empty ? workerProcess() : queue.remove(0)
+            return Stub(WorkerProcessBuilder) {
+                build() >> process
+            }
+        } as Factory
+    }
+
+    private WorkerProcess workerProcess(ReusableRemoteTestClassProcessor remote = Stub(ReusableRemoteTestClassProcessor)) {
+        return Stub(WorkerProcess) {
+            getConnection() >> Stub(ObjectConnection) {
+                addOutgoing(ReusableRemoteTestClassProcessor) >> remote
+            }
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider
 import org.gradle.api.tasks.testing.TestOutputEvent
 import org.gradle.api.tasks.testing.TestResult
+import org.gradle.internal.hash.Hasher
 import org.gradle.util.ConfigureUtil
 
 import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdErr
@@ -75,6 +76,12 @@ class BuildableTestResultsProvider implements TestResultsProvider {
         testClasses[classId]?.outputEvents?.find { it.testOutputEvent.destination == destination }
     }
 
+    void hashOutput(long classId, TestOutputEvent.Destination destination, Hasher hasher) {
+        def writer = new StringWriter()
+        writeAllOutput(classId, destination, writer)
+        hasher.putString(writer.toString())
+    }
+
     static class BuildableOutputEvent {
         long testId
         TestOutputEvent testOutputEvent
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.testing
+
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerProcessPool
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.integtests.fixtures.DefaultTestExecutionResult
+
+class TestWorkerReuseIntegrationTest extends AbstractIntegrationSpec {
+    def setup() {
+        executer.withArgument("-D${TestWorkerProcessPool.REUSE_WORKERS_PROPERTY}=true")
+        buildFile << """
+            apply plugin: 'java'
+            ${mavenCentralRepository()}
+            dependencies { testCompile "junit:junit:4.12" }
+
+            task otherTest(type: Test) {
+                testClassesDirs = sourceSets.test.output.classesDirs
+                classpath = sourceSets.test.runtimeClasspath
+            }
+        """
+        file("src/test/java/WorkerTest.java") << """
+            import org.junit.Test;
+            import java.io.File;
+            import java.io.FileWriter;
+            import static org.junit.Assert.*;
+
+            public class WorkerTest {
+                @Test
+                public void loadsTestClassesOutsideOfTheSystemClassLoader() throws Exception {
+                    assertSame(WorkerTest.class, Thread.currentThread().getContextClassLoader().loadClass("WorkerTest"));
+                    assertFalse(System.getProperty("java.class.path").contains(new File("build/classes").getAbsolutePath()));
+                    try {
+                        ClassLoader.getSystemClassLoader().loadClass("WorkerTest");
+                        fail();
+                    } catch (ClassNotFoundException e) {
+                        // expected
+                    }
+                }
+
+                @Test
+                public void recordsWorker() throws Exception {
+                    FileWriter writer = new FileWriter(new File("build/workers.txt"), true);
+                    try {
+                        writer.write(System.getProperty("org.gradle.test.worker") + "\\n");
+                    } finally {
+                        writer.close();
+                    }
+                }
+            }
+        """
+    }
+
+    def "runs the tests of later tasks in the same worker process"() {
+        when:
+        succeeds("test", "otherTest")
+
+        then:
+        def workers = file("build/workers.txt").readLines()
+        workers.size() == 2
+        workers[0] == workers[1]
+    }
+
+    def "test classes are loaded by the thread context ClassLoader and are not visible to the system ClassLoader"() {
+        when:
+        succeeds("test")
+
+        then:
+        new DefaultTestExecutionResult(testDirectory).testClass("WorkerTest").assertTestPassed("loadsTestClassesOutsideOfTheSystemClassLoader")
+    }
+}
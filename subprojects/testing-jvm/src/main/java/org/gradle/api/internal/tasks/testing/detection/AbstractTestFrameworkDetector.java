@@ -16,20 +16,16 @@
 
 package org.gradle.api.internal.tasks.testing.detection;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
-import org.gradle.api.GradleException;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
-import org.objectweb.asm.ClassReader;
+import org.gradle.cache.internal.FileContentCache;
+import org.gradle.internal.Factory;
 import org.objectweb.asm.Type;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -44,21 +40,42 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
 
     private List<File> testClassDirectories;
     private final ClassFileExtractionManager classFileExtractionManager;
-    private final Map<File, Boolean> superClasses;
+    private final TestClassDetectionCache detectionCache;
+    private final String testFrameworkName;
+    private final Factory<T> classVisitorFactory;
+    private FileContentCache<TestClassDetails> classDetailsCache;
+    private final Map<String, Boolean> superClasses;
     private TestClassProcessor testClassProcessor;
 
     private Set<File> testClassesDirectories;
     private Set<File> testClasspath;
 
-    protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
+    /**
+     * @param testFrameworkName Identifies the persistent cache of class details for this test framework.
+     * @param classVisitorFactory Creates the class visitors for this test framework. Must not hold any state, as it is shared by all builds.
+     */
+    protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager, TestClassDetectionCache detectionCache, String testFrameworkName, Factory<T> classVisitorFactory) {
         assert classFileExtractionManager != null;
         this.classFileExtractionManager = classFileExtractionManager;
-        this.superClasses = new HashMap<File, Boolean>();
+        this.detectionCache = detectionCache;
+        this.testFrameworkName = testFrameworkName;
+        this.classVisitorFactory = classVisitorFactory;
+        this.superClasses = new HashMap<String, Boolean>();
     }
 
-    protected abstract T createClassVisitor();
+    private TestClassDetails getClassDetails(File classFile) {
+        if (classDetailsCache == null) {
+            classDetailsCache = detectionCache.getClassDetailsCache(testFrameworkName, classVisitorFactory);
+        }
+        return classDetailsCache.get(classFile);
+    }
 
-    private File getSuperTestClassFile(String superClassName) {
+    /**
+     * Reads the given super class, either from the test class directories or from the library jars.
+     *
+     * @return The details of the class or null when the class cannot be found.
+     */
+    private TestClassDetails getSuperClassDetails(String superClassName) {
         prepareClasspath();
         if (StringUtils.isEmpty(superClassName)) {
             throw new IllegalArgumentException("superClassName is empty!");
@@ -73,13 +90,14 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         }
 
         if (superTestClassFile != null) {
-            return superTestClassFile;
+            return getClassDetails(superTestClassFile);
         } else if (JAVA_LANG_OBJECT.equals(superClassName)) {
             // java.lang.Object found, which is not a test class
             return null;
         } else {
             // super test class file not in test class directories
-            return classFileExtractionManager.getLibraryClassFile(superClassName);
+            byte[] classBytes = classFileExtractionManager.getLibraryClassBytes(superClassName);
+            return classBytes == null ? null : TestClassDetectionCache.readClass(classBytes, classVisitorFactory);
         }
     }
 
@@ -114,85 +132,61 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         this.testClasspath = testClasspath;
     }
 
-    protected TestClassVisitor classVisitor(final File testClassFile) {
-        final TestClassVisitor classVisitor = createClassVisitor();
-
-        InputStream classStream = null;
-        try {
-            classStream = new BufferedInputStream(new FileInputStream(testClassFile));
-            final ClassReader classReader = new ClassReader(IOUtils.toByteArray(classStream));
-            classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
-        } catch (Throwable e) {
-            throw new GradleException("failed to read class file " + testClassFile.getAbsolutePath(), e);
-        } finally {
-            IOUtils.closeQuietly(classStream);
-        }
-
-        return classVisitor;
-    }
-
     @Override
     public boolean processTestClass(File testClassFile) {
-        return processTestClass(testClassFile, false);
+        return processTestClass(getClassDetails(testClassFile), false);
     }
 
     /**
-     * Uses a TestClassVisitor to detect whether the class in the testClassFile is a test class. <p/> If the class is not a test, this function will go up the inheritance tree to check if a parent
+     * Uses the details read by a TestClassVisitor to detect whether the class is a test class. <p/> If the class is not a test, this function will go up the inheritance tree to check if a parent
      * class is a test class. First the package of the parent class is checked, if it is a java.lang or groovy.lang the class can't be a test class, otherwise the parent class is scanned. <p/> When a
      * parent class is a test class all the extending classes are marked as test classes.
      */
-    private boolean processTestClass(final File testClassFile, boolean superClass) {
-        final TestClassVisitor classVisitor = classVisitor(testClassFile);
-
-        boolean isTest = classVisitor.isTest();
+    private boolean processTestClass(final TestClassDetails classDetails, boolean superClass) {
+        boolean isTest = classDetails.isTest();
 
         if (!isTest) { // scan parent class
-            final String superClassName = classVisitor.getSuperClassName();
+            final String superClassName = classDetails.getSuperClassName();
 
             if (isKnownTestCaseClassName(superClassName)) {
                 isTest = true;
             } else {
-                final File superClassFile = getSuperTestClassFile(superClassName);
-
-                if (superClassFile != null) {
-                    isTest = processSuperClass(superClassFile);
-                } else {
-                    LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
-                        superClassName);
-                }
+                isTest = processSuperClass(superClassName);
             }
         }
 
-        publishTestClass(isTest, classVisitor, superClass);
+        publishTestClass(isTest, classDetails, superClass);
 
         return isTest;
     }
 
     protected abstract boolean isKnownTestCaseClassName(String testCaseClassName);
 
-    private boolean processSuperClass(File testClassFile) {
-        boolean isTest;
-
-        Boolean isSuperTest = superClasses.get(testClassFile);
+    private boolean processSuperClass(String superClassName) {
+        Boolean isSuperTest = superClasses.get(superClassName);
 
         if (isSuperTest == null) {
-            isTest = processTestClass(testClassFile, true);
-
-            superClasses.put(testClassFile, isTest);
-        } else {
-            isTest = isSuperTest;
+            final TestClassDetails superClassDetails = getSuperClassDetails(superClassName);
+            if (superClassDetails != null) {
+                isSuperTest = processTestClass(superClassDetails, true);
+            } else {
+                LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
+                    superClassName);
+                isSuperTest = false;
+            }
+            superClasses.put(superClassName, isSuperTest);
         }
 
-        return isTest;
+        return isSuperTest;
     }
 
     /**
      * In none super class mode a test class is published when the class is a test and it is not abstract. In super class mode it must not publish the class otherwise it will get published multiple
      * times (for each extending class).
      */
-    private void publishTestClass(boolean isTest, TestClassVisitor classVisitor, boolean superClass) {
-        if (isTest && !classVisitor.isAbstract() && !superClass) {
-            String className = Type.getObjectType(classVisitor.getClassName()).getClassName();
+    private void publishTestClass(boolean isTest, TestClassDetails classDetails, boolean superClass) {
+        if (isTest && !classDetails.isAbstract() && !superClass) {
+            String className = Type.getObjectType(classDetails.getClassName()).getClassName();
             testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
         }
     }
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.apache.commons.io.IOUtils;
+import org.gradle.api.GradleException;
+import org.gradle.cache.internal.FileContentCache;
+import org.gradle.cache.internal.FileContentCacheFactory;
+import org.gradle.internal.Factory;
+import org.gradle.internal.file.FileType;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.SetSerializer;
+import org.objectweb.asm.ClassReader;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the information that test detection reads from test class files and from the jars on the test runtime classpath, keyed by the content hash of each file.
+ * This means that only the class files and jars that have changed since a previous build need to be read again.
+ *
+ * <p>The cache is created per build so that it uses the build's file content caches: results for files of the build are kept with the build and results
+ * for files from the Gradle user home, such as dependency jars, are shared between builds.</p>
+ */
+public class TestClassDetectionCache {
+    private final FileContentCacheFactory cacheFactory;
+    private final FileContentCache<Set<String>> jarPackages;
+    private final ConcurrentMap<String, FileContentCache<TestClassDetails>> classDetails = new ConcurrentHashMap<String, FileContentCache<TestClassDetails>>();
+
+    public TestClassDetectionCache(FileContentCacheFactory cacheFactory) {
+        this.cacheFactory = cacheFactory;
+        this.jarPackages = cacheFactory.newCache("testClasspathJarPackages", 20000, new JarPackagesCalculator(), new SetSerializer<String>(BaseSerializerFactory.STRING_SERIALIZER));
+    }
+
+    /**
+     * Returns the packages contained in the given jar, in the format used by {@link JarFilePackageLister}.
+     */
+    public Set<String> getJarPackages(File jarFile) {
+        return jarPackages.get(jarFile);
+    }
+
+    /**
+     * Returns the cache of class details for the given test framework. The class visitor factory must not hold any state, as the cache outlives the tasks that use it.
+     */
+    public FileContentCache<TestClassDetails> getClassDetailsCache(String testFrameworkName, Factory<? extends TestClassVisitor> classVisitorFactory) {
+        FileContentCache<TestClassDetails> cache = classDetails.get(testFrameworkName);
+        if (cache == null) {
+            cache = cacheFactory.newCache("testClassDetection-" + testFrameworkName, 200000, new ClassDetailsCalculator(classVisitorFactory), TestClassDetailsSerializer.INSTANCE);
+            FileContentCache<TestClassDetails> existing = classDetails.putIfAbsent(testFrameworkName, cache);
+            if (existing != null) {
+                cache = existing;
+            }
+        }
+        return cache;
+    }
+
+    static TestClassDetails readClass(byte[] classBytes, Factory<? extends TestClassVisitor> classVisitorFactory) {
+        TestClassVisitor classVisitor = classVisitorFactory.create();
+        ClassReader classReader = new ClassReader(classBytes);
+        classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        return TestClassDetails.of(classVisitor);
+    }
+
+    private static class ClassDetailsCalculator implements FileContentCacheFactory.Calculator<TestClassDetails> {
+        private final Factory<? extends TestClassVisitor> classVisitorFactory;
+
+        ClassDetailsCalculator(Factory<? extends TestClassVisitor> classVisitorFactory) {
+            this.classVisitorFactory = classVisitorFactory;
+        }
+
+        @Override
+        public TestClassDetails calculate(File file, FileType fileType) {
+            InputStream classStream = null;
+            try {
+                classStream = new BufferedInputStream(new FileInputStream(file));
+                return readClass(IOUtils.toByteArray(classStream), classVisitorFactory);
+            } catch (Throwable e) {
+                throw new GradleException("failed to read class file " + file.getAbsolutePath(), e);
+            } finally {
+                IOUtils.closeQuietly(classStream);
+            }
+        }
+    }
+
+    private static class JarPackagesCalculator implements FileContentCacheFactory.Calculator<Set<String>> {
+        @Override
+        public Set<String> calculate(File file, FileType fileType) {
+            final Set<String> packages = new LinkedHashSet<String>();
+            new JarFilePackageLister().listJarPackages(file, new JarFilePackageListener() {
+                @Override
+                public void receivePackage(String packageName) {
+                    packages.add(packageName);
+                }
+            });
+            return packages;
+        }
+    }
+}
@@ -18,19 +18,22 @@ package org.gradle.api.internal.tasks.testing.junit;
 import com.google.common.collect.ImmutableSet;
 import org.gradle.api.internal.tasks.testing.detection.AbstractTestFrameworkDetector;
 import org.gradle.api.internal.tasks.testing.detection.ClassFileExtractionManager;
+import org.gradle.api.internal.tasks.testing.detection.TestClassDetectionCache;
+import org.gradle.internal.Factory;
 
 public class JUnitDetector extends AbstractTestFrameworkDetector<JUnitTestClassDetector> {
     private static final String TEST_CASE = "junit/framework/TestCase";
     private static final String GROOVY_TEST_CASE = "groovy/util/GroovyTestCase";
     private static final ImmutableSet<String> KNOWN_TEST_CASE_CLASS_NAMES = ImmutableSet.of(TEST_CASE, GROOVY_TEST_CASE);
+    private static final Factory<JUnitTestClassDetector> CLASS_VISITOR_FACTORY = new Factory<JUnitTestClassDetector>() {
+        @Override
+        public JUnitTestClassDetector create() {
+            return new JUnitTestClassDetector();
+        }
+    };
 
-    public JUnitDetector(ClassFileExtractionManager classFileExtractionManager) {
-        super(classFileExtractionManager);
-    }
-
-    @Override
-    protected JUnitTestClassDetector createClassVisitor() {
-        return new JUnitTestClassDetector(this);
+    public JUnitDetector(ClassFileExtractionManager classFileExtractionManager, TestClassDetectionCache detectionCache) {
+        super(classFileExtractionManager, detectionCache, "junit", CLASS_VISITOR_FACTORY);
     }
 
     @Override
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.jar.JarOutputStream
+import java.util.zip.ZipEntry
+
+class ClassFileExtractionManagerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    def detectionCache = Mock(TestClassDetectionCache)
+    def manager = new ClassFileExtractionManager(detectionCache)
+
+    def "reads class file directly from library jar"() {
+        def jar = jar("lib.jar", "org/gradle/SomeClass.class": [1, 2, 3] as byte[])
+
+        when:
+        manager.addLibraryJar(jar)
+
+        then:
+        1 * detectionCache.getJarPackages(jar) >> (["org/", "org/gradle/"] as Set)
+
+        and:
+        manager.getLibraryClassBytes("org/gradle/SomeClass") == [1, 2, 3] as byte[]
+    }
+
+    def "returns null for class that is not in any library jar"() {
+        def jar = jar("lib.jar", "org/gradle/SomeClass.class": [1, 2, 3] as byte[])
+
+        when:
+        manager.addLibraryJar(jar)
+
+        then:
+        1 * detectionCache.getJarPackages(jar) >> (["org/", "org/gradle/"] as Set)
+
+        and:
+        manager.getLibraryClassBytes("org/gradle/OtherClass") == null
+        manager.getLibraryClassBytes("com/example/SomeClass") == null
+    }
+
+    def "looks for class in all jars that contain its package"() {
+        def jar1 = jar("lib1.jar", "org/gradle/SomeClass.class": [1] as byte[])
+        def jar2 = jar("lib2.jar", "org/gradle/OtherClass.class": [2] as byte[])
+
+        when:
+        manager.addLibraryJar(jar1)
+        manager.addLibraryJar(jar2)
+
+        then:
+        1 * detectionCache.getJarPackages(jar1) >> (["org/gradle/"] as Set)
+        1 * detectionCache.getJarPackages(jar2) >> (["org/gradle/"] as Set)
+
+        and:
+        manager.getLibraryClassBytes("org/gradle/SomeClass") == [1] as byte[]
+        manager.getLibraryClassBytes("org/gradle/OtherClass") == [2] as byte[]
+    }
+
+    private File jar(Map<String, byte[]> entries, String name) {
+        def file = tmp.file(name)
+        def outputStream = new JarOutputStream(new FileOutputStream(file))
+        try {
+            entries.each { path, content ->
+                outputStream.putNextEntry(new ZipEntry(path))
+                outputStream.write(content)
+                outputStream.closeEntry()
+            }
+        } finally {
+            outputStream.close()
+        }
+        return file
+    }
+}
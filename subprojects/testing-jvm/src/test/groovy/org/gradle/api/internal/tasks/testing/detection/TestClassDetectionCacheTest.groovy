@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.junit.JUnitDetector
+import org.gradle.cache.internal.FileContentCache
+import org.gradle.cache.internal.FileContentCacheFactory
+import org.gradle.cache.internal.TestFileContentCacheFactory
+import org.gradle.internal.Factory
+import org.gradle.internal.file.FileType
+import org.gradle.internal.serialize.Serializer
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicInteger
+
+class TestClassDetectionCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    def cacheFactory = new CountingFileContentCacheFactory()
+    def detectionCache = new TestClassDetectionCache(cacheFactory)
+
+    def "creates the class details cache of a test framework once"() {
+        def classVisitorFactory = Stub(Factory)
+
+        when:
+        def junit = detectionCache.getClassDetailsCache("junit", classVisitorFactory)
+        def testng = detectionCache.getClassDetailsCache("testng", classVisitorFactory)
+
+        then:
+        detectionCache.getClassDetailsCache("junit", classVisitorFactory).is(junit)
+        detectionCache.getClassDetailsCache("testng", classVisitorFactory).is(testng)
+        !junit.is(testng)
+    }
+
+    def "threads that request the class details cache concurrently receive the same cache"() {
+        def classVisitorFactory = Stub(Factory)
+        def start = new CountDownLatch(1)
+        def caches = Collections.newSetFromMap(new ConcurrentHashMap<FileContentCache, Boolean>())
+
+        when:
+        def threads = (1..10).collect {
+            Thread.start {
+                start.await()
+                caches.add(detectionCache.getClassDetailsCache("junit", classVisitorFactory))
+            }
+        }
+        start.countDown()
+        threads*.join()
+
+        then:
+        caches.size() == 1
+    }
+
+    def "does not read unchanged class file again in later builds"() {
+        def classesDir = tmp.createDir("classes")
+        def classFile = classesDir.file("SomeClass.class")
+        classFile.bytes = getClass().getResourceAsStream("TestClassDetectionCacheTest.class").bytes
+
+        when:
+        detect(classesDir, classFile)
+        detect(classesDir, classFile)
+
+        then:
+        cacheFactory.calculations.get() == 1
+    }
+
+    private void detect(File classesDir, File classFile) {
+        def detector = new JUnitDetector(new ClassFileExtractionManager(detectionCache), detectionCache)
+        detector.testClasses = [classesDir] as Set
+        detector.startDetection(Stub(TestClassProcessor))
+        detector.processTestClass(classFile)
+    }
+
+    private static class CountingFileContentCacheFactory implements FileContentCacheFactory {
+        final FileContentCacheFactory delegate = new TestFileContentCacheFactory()
+        final AtomicInteger calculations = new AtomicInteger()
+
+        @Override
+        def <V> FileContentCache<V> newCache(String name, int normalizedCacheSize, FileContentCacheFactory.Calculator<? extends V> calculator, Serializer<V> serializer) {
+            return delegate.newCache(name, normalizedCacheSize, new FileContentCacheFactory.Calculator<V>() {
+                @Override
+                V calculate(File file, FileType fileType) {
+                    calculations.incrementAndGet()
+                    return calculator.calculate(file, fileType)
+                }
+            }, serializer)
+        }
+    }
+}
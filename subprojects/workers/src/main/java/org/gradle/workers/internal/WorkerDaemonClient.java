@@ -22,14 +22,20 @@ import org.gradle.internal.operations.BuildOperationRef;
 import org.gradle.process.internal.health.memory.JvmMemoryStatus;
 import org.gradle.process.internal.worker.WorkerProcess;
 
+import java.util.HashSet;
+import java.util.Set;
+
 class WorkerDaemonClient implements Worker, Stoppable {
+    private final Class<? extends WorkerProtocol<ActionExecutionSpec>> workerProtocolImplementationClass;
     private final DaemonForkOptions forkOptions;
     private final WorkerDaemonProcess<ActionExecutionSpec> workerDaemonProcess;
     private final WorkerProcess workerProcess;
-    private final LogLevel logLevel;
+    private final Set<String> executedImplementationClasses = new HashSet<String>();
+    private LogLevel logLevel;
     private int uses;
 
-    public WorkerDaemonClient(DaemonForkOptions forkOptions, WorkerDaemonProcess<ActionExecutionSpec> workerDaemonProcess, WorkerProcess workerProcess, LogLevel logLevel) {
+    public WorkerDaemonClient(Class<? extends WorkerProtocol<ActionExecutionSpec>> workerProtocolImplementationClass, DaemonForkOptions forkOptions, WorkerDaemonProcess<ActionExecutionSpec> workerDaemonProcess, WorkerProcess workerProcess, LogLevel logLevel) {
+        this.workerProtocolImplementationClass = workerProtocolImplementationClass;
         this.forkOptions = forkOptions;
         this.workerDaemonProcess = workerDaemonProcess;
         this.workerProcess = workerProcess;
@@ -44,6 +50,7 @@ class WorkerDaemonClient implements Worker, Stoppable {
     @Override
     public DefaultWorkResult execute(ActionExecutionSpec spec) {
         uses++;
+        executedImplementationClasses.add(spec.getImplementationClass().getName());
         return workerDaemonProcess.execute(spec);
     }
 
@@ -51,6 +58,13 @@ class WorkerDaemonClient implements Worker, Stoppable {
         return forkOptions.isCompatibleWith(required);
     }
 
+    /**
+     * Returns true when this daemon has already loaded and executed the given action implementation, so is likely to run it faster than a daemon that has not.
+     */
+    public boolean hasExecuted(Class<?> implementationClass) {
+        return executedImplementationClasses.contains(implementationClass.getName());
+    }
+
     JvmMemoryStatus getJvmMemoryStatus() {
         return workerProcess.getJvmMemoryStatus();
     }
@@ -60,6 +74,10 @@ class WorkerDaemonClient implements Worker, Stoppable {
         workerDaemonProcess.stop();
     }
 
+    Class<? extends WorkerProtocol<ActionExecutionSpec>> getWorkerProtocolImplementationClass() {
+        return workerProtocolImplementationClass;
+    }
+
     DaemonForkOptions getForkOptions() {
         return forkOptions;
     }
@@ -75,4 +93,9 @@ class WorkerDaemonClient implements Worker, Stoppable {
     public LogLevel getLogLevel() {
         return logLevel;
     }
+
+    public void setLogLevel(LogLevel logLevel) {
+        workerDaemonProcess.setLogLevel(logLevel);
+        this.logLevel = logLevel;
+    }
 }
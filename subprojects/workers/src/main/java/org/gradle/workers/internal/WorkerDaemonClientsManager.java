@@ -22,7 +22,10 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.specs.Spec;
 import org.gradle.initialization.SessionLifecycleListener;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.logging.LoggingManagerInternal;
@@ -35,28 +38,34 @@ import org.gradle.util.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
 
 public class WorkerDaemonClientsManager implements Stoppable {
+    public static final String PRESTART_PROPERTY = "org.gradle.internal.workers.prestart";
 
     private static final Logger LOGGER = Logging.getLogger(WorkerDaemonClientsManager.class);
 
     private final Object lock = new Object();
     private final List<WorkerDaemonClient> allClients = new ArrayList<WorkerDaemonClient>();
     private final List<WorkerDaemonClient> idleClients = new ArrayList<WorkerDaemonClient>();
+    private final List<DaemonRequest> requestsForPreviousSession = new ArrayList<DaemonRequest>();
+    private final List<DaemonForkOptions> startingClients = new ArrayList<DaemonForkOptions>();
 
     private final WorkerDaemonStarter workerDaemonStarter;
+    private final ExecutorFactory executorFactory;
     private final ListenerManager listenerManager;
     private final LoggingManagerInternal loggingManager;
     private final SessionLifecycleListener stopSessionScopeWorkers;
     private final OutputEventListener logLevelChangeEventListener;
     private final WorkerDaemonExpiration workerDaemonExpiration;
     private final MemoryManager memoryManager;
+    private ManagedExecutor prestartExecutor;
     private LogLevel currentLogLevel;
+    private boolean stopped;
 
-    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, MemoryManager memoryManager) {
+    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, MemoryManager memoryManager, ExecutorFactory executorFactory) {
         this.workerDaemonStarter = workerDaemonStarter;
+        this.executorFactory = executorFactory;
         this.listenerManager = listenerManager;
         this.loggingManager = loggingManager;
         this.stopSessionScopeWorkers = new StopSessionScopedWorkers();
@@ -69,31 +78,85 @@ public class WorkerDaemonClientsManager implements Stoppable {
         memoryManager.addMemoryHolder(workerDaemonExpiration);
     }
 
-    // TODO - should supply and check for the same parameters as passed to reserveNewClient()
-    public WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
-        return reserveIdleClient(forkOptions, idleClients);
+    /**
+     * Reserves an idle client that is compatible with the given fork options, preferring a client that has already executed the given action implementation.
+     * Waits for a client that is being started in the background, if one is compatible.
+     */
+    public WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, Class<?> actionImplementationClass) {
+        while (true) {
+            WorkerDaemonClient client = reserveIdleClient(forkOptions, actionImplementationClass, idleClients);
+            if (client != null) {
+                return client;
+            }
+            synchronized (lock) {
+                if (selectIdleClient(forkOptions, actionImplementationClass, idleClients) != null) {
+                    continue;
+                }
+                if (!isStarting(forkOptions)) {
+                    return null;
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        }
     }
 
-    WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
-        synchronized (lock) {
-            Iterator<WorkerDaemonClient> it = clients.iterator();
-            while (it.hasNext()) {
-                WorkerDaemonClient candidate = it.next();
-                if (candidate.isCompatibleWith(forkOptions)) {
-                    it.remove();
-                    if (candidate.getLogLevel() != currentLogLevel) {
-                        // TODO: Send a message to workers to change their log level rather than stopping
-                        LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
-                        candidate.stop();
-                    } else {
-                        return candidate;
-                    }
+    WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, Class<?> actionImplementationClass, List<WorkerDaemonClient> clients) {
+        while (true) {
+            WorkerDaemonClient candidate;
+            LogLevel logLevel;
+            synchronized (lock) {
+                candidate = selectIdleClient(forkOptions, actionImplementationClass, clients);
+                if (candidate == null) {
+                    return null;
+                }
+                clients.remove(candidate);
+                logLevel = currentLogLevel;
+            }
+            // Changing the log level is a call to the worker daemon, so do not hold the lock while doing it
+            if (candidate.getLogLevel() == logLevel) {
+                return candidate;
+            }
+            try {
+                candidate.setLogLevel(logLevel);
+                return candidate;
+            } catch (RuntimeException e) {
+                LOGGER.info("Could not change the log level of idle worker daemon, stopping it.", e);
+                synchronized (lock) {
+                    allClients.remove(candidate);
                 }
+                candidate.stop();
             }
-            return null;
         }
     }
 
+    private WorkerDaemonClient selectIdleClient(DaemonForkOptions forkOptions, Class<?> actionImplementationClass, List<WorkerDaemonClient> clients) {
+        WorkerDaemonClient firstCompatible = null;
+        for (WorkerDaemonClient candidate : clients) {
+            if (candidate.isCompatibleWith(forkOptions)) {
+                if (actionImplementationClass == null || candidate.hasExecuted(actionImplementationClass)) {
+                    return candidate;
+                }
+                if (firstCompatible == null) {
+                    firstCompatible = candidate;
+                }
+            }
+        }
+        return firstCompatible;
+    }
+
+    private boolean isStarting(DaemonForkOptions forkOptions) {
+        for (DaemonForkOptions startingForkOptions : startingClients) {
+            if (startingForkOptions.isCompatibleWith(forkOptions)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public WorkerDaemonClient reserveNewClient(Class<? extends WorkerProtocol<ActionExecutionSpec>> workerProtocolImplementationClass, DaemonForkOptions forkOptions) {
         //allow the daemon to be started concurrently
         WorkerDaemonClient client = workerDaemonStarter.startDaemon(workerProtocolImplementationClass, forkOptions);
@@ -103,6 +166,69 @@ public class WorkerDaemonClientsManager implements Stoppable {
         return client;
     }
 
+    /**
+     * Starts daemons in the background for the session scoped daemons that were used in the previous build session, unless a compatible daemon is still running.
+     * This takes worker JVM startup off the critical path of the tasks that use these daemons.
+     *
+     * <p>Daemons are only prestarted when the {@value #PRESTART_PROPERTY} system property is set to {@code true}, as a build that does not use them would
+     * otherwise pay for starting them.</p>
+     */
+    void prestartClients() {
+        synchronized (lock) {
+            for (final DaemonRequest request : requestsForPreviousSession) {
+                if (hasCompatibleClient(request.forkOptions)) {
+                    continue;
+                }
+                if (prestartExecutor == null) {
+                    prestartExecutor = executorFactory.create("Worker daemon prestart");
+                }
+                startingClients.add(request.forkOptions);
+                prestartExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        prestartClient(request);
+                    }
+                });
+            }
+            requestsForPreviousSession.clear();
+        }
+    }
+
+    private boolean hasCompatibleClient(DaemonForkOptions forkOptions) {
+        if (isStarting(forkOptions)) {
+            return true;
+        }
+        for (WorkerDaemonClient client : allClients) {
+            if (client.isCompatibleWith(forkOptions)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void prestartClient(DaemonRequest request) {
+        WorkerDaemonClient client = null;
+        try {
+            client = workerDaemonStarter.startDaemon(request.workerProtocolImplementationClass, request.forkOptions);
+        } catch (RuntimeException e) {
+            LOGGER.info("Could not prestart worker daemon with fork options {}.", request.forkOptions, e);
+        } finally {
+            boolean discard;
+            synchronized (lock) {
+                startingClients.remove(request.forkOptions);
+                discard = stopped;
+                if (client != null && !stopped) {
+                    allClients.add(client);
+                    idleClients.add(client);
+                }
+                lock.notifyAll();
+            }
+            if (client != null && discard) {
+                client.stop();
+            }
+        }
+    }
+
     public void release(WorkerDaemonClient client) {
         synchronized (lock) {
             idleClients.add(client);
@@ -111,7 +237,10 @@ public class WorkerDaemonClientsManager implements Stoppable {
 
     @Override
     public void stop() {
+        ManagedExecutor executor;
         synchronized (lock) {
+            stopped = true;
+            executor = prestartExecutor;
             stopWorkers(allClients);
             allClients.clear();
             idleClients.clear();
@@ -120,6 +249,10 @@ public class WorkerDaemonClientsManager implements Stoppable {
         }
         // Do not hold lock while removing listener, as the listener may still be receiving events on another thread and will need to acquire the lock to handle these events
         loggingManager.removeOutputEventListener(logLevelChangeEventListener);
+        // Do not hold lock while waiting for the executor, as clients being started will need to acquire the lock when they complete
+        if (executor != null) {
+            executor.stop();
+        }
     }
 
     private static long getTotalPhysicalMemory() {
@@ -162,7 +295,11 @@ public class WorkerDaemonClientsManager implements Stoppable {
 
     private class StopSessionScopedWorkers implements SessionLifecycleListener {
         @Override
-        public void afterStart() { }
+        public void afterStart() {
+            if (Boolean.getBoolean(PRESTART_PROPERTY)) {
+                prestartClients();
+            }
+        }
 
         @Override
         public void beforeComplete() {
@@ -173,6 +310,12 @@ public class WorkerDaemonClientsManager implements Stoppable {
                         return client.getKeepAliveMode() == KeepAliveMode.SESSION;
                     }
                 });
+                requestsForPreviousSession.clear();
+                for (WorkerDaemonClient client : sessionScopedClients) {
+                    if (client.getUses() > 0) {
+                        requestsForPreviousSession.add(new DaemonRequest(client.getWorkerProtocolImplementationClass(), client.getForkOptions()));
+                    }
+                }
                 stopWorkers(sessionScopedClients);
             }
         }
@@ -189,4 +332,14 @@ public class WorkerDaemonClientsManager implements Stoppable {
             }
         }
     }
+
+    private static class DaemonRequest {
+        private final Class<? extends WorkerProtocol<ActionExecutionSpec>> workerProtocolImplementationClass;
+        private final DaemonForkOptions forkOptions;
+
+        DaemonRequest(Class<? extends WorkerProtocol<ActionExecutionSpec>> workerProtocolImplementationClass, DaemonForkOptions forkOptions) {
+            this.workerProtocolImplementationClass = workerProtocolImplementationClass;
+            this.forkOptions = forkOptions;
+        }
+    }
 }
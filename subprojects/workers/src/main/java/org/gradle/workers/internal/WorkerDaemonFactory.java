@@ -41,7 +41,7 @@ public class WorkerDaemonFactory implements WorkerFactory {
     public Worker getWorker(final DaemonForkOptions forkOptions) {
         return new Worker() {
             public DefaultWorkResult execute(final ActionExecutionSpec spec, final BuildOperationRef parentBuildOperation) {
-                WorkerDaemonClient client = clientsManager.reserveIdleClient(forkOptions);
+                WorkerDaemonClient client = clientsManager.reserveIdleClient(forkOptions, spec.getImplementationClass());
                 if (client == null) {
                     client = clientsManager.reserveNewClient(WorkerDaemonServer.class, forkOptions);
                 }
@@ -16,7 +16,12 @@
 
 package org.gradle.workers.internal;
 
+import org.gradle.api.logging.LogLevel;
 import org.gradle.process.internal.worker.WorkerControl;
 
 public interface WorkerDaemonProcess<T extends WorkSpec> extends WorkerProtocol<T>, WorkerControl {
+    /**
+     * Changes the log level of the worker daemon, so that an idle daemon can be reused after the log level of the build has changed.
+     */
+    void setLogLevel(LogLevel logLevel);
 }
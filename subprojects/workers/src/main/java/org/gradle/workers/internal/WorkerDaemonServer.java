@@ -19,8 +19,10 @@ package org.gradle.workers.internal;
 import org.gradle.api.internal.AsmBackedClassGenerator;
 import org.gradle.api.internal.DefaultInstantiatorFactory;
 import org.gradle.api.internal.InstantiatorFactory;
+import org.gradle.api.logging.LogLevel;
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
 import org.gradle.internal.event.DefaultListenerManager;
+import org.gradle.internal.logging.LoggingManagerInternal;
 import org.gradle.internal.nativeintegration.ProcessEnvironment;
 import org.gradle.internal.nativeintegration.services.NativeServices;
 import org.gradle.process.internal.worker.child.WorkerDirectoryProvider;
@@ -32,11 +34,13 @@ public class WorkerDaemonServer extends DefaultWorkerServer {
     private static final ProcessEnvironment PROCESS_ENVIRONMENT = NativeServices.getInstance().get(ProcessEnvironment.class);
     private static final InstantiatorFactory INSTANTIATOR_FACTORY = new DefaultInstantiatorFactory(new AsmBackedClassGenerator(), new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()));
     private final WorkerDirectoryProvider workerDirectoryProvider;
+    private final LoggingManagerInternal loggingManager;
 
     @Inject
-    WorkerDaemonServer(WorkerDirectoryProvider workerDirectoryProvider) {
+    WorkerDaemonServer(WorkerDirectoryProvider workerDirectoryProvider, LoggingManagerInternal loggingManager) {
         super(INSTANTIATOR_FACTORY.inject());
         this.workerDirectoryProvider = workerDirectoryProvider;
+        this.loggingManager = loggingManager;
     }
 
     @Override
@@ -51,6 +55,10 @@ public class WorkerDaemonServer extends DefaultWorkerServer {
         }
     }
 
+    public void setLogLevel(LogLevel logLevel) {
+        loggingManager.setLevelInternal(logLevel);
+    }
+
     @Override
     public String toString() {
         return "WorkerDaemonServer{}";
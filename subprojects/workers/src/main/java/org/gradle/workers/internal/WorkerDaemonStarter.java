@@ -49,7 +49,7 @@ public class WorkerDaemonStarter {
         WorkerDaemonProcess workerDaemonProcess = builder.build();
         WorkerProcess workerProcess = workerDaemonProcess.start();
 
-        WorkerDaemonClient client = new WorkerDaemonClient(forkOptions, workerDaemonProcess, workerProcess, loggingManager.getLevel());
+        WorkerDaemonClient client = new WorkerDaemonClient(workerProtocolImplementationClass, forkOptions, workerDaemonProcess, workerProcess, loggingManager.getLevel());
 
         LOG.info("Started Gradle worker daemon ({}) with fork options {}.", clock.getElapsed(), forkOptions);
 
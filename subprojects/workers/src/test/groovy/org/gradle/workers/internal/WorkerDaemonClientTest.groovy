@@ -21,6 +21,8 @@ import org.gradle.internal.operations.BuildOperationExecutor
 import org.gradle.internal.operations.BuildOperationRef
 import spock.lang.Specification
 
+import java.util.concurrent.Callable
+
 class WorkerDaemonClientTest extends Specification {
     BuildOperationExecutor buildOperationExecutor = Mock(BuildOperationExecutor)
     BuildOperationRef buildOperation = Mock(BuildOperationRef)
@@ -34,7 +36,7 @@ class WorkerDaemonClientTest extends Specification {
         client = client(workerDaemonProcess)
 
         when:
-        client.execute(Stub(ActionExecutionSpec), buildOperation)
+        client.execute(spec(), buildOperation)
 
         then:
         1 * workerDaemonProcess.execute(_)
@@ -46,12 +48,47 @@ class WorkerDaemonClientTest extends Specification {
         assert client.uses == 0
 
         when:
-        5.times { client.execute(Stub(ActionExecutionSpec), buildOperation) }
+        5.times { client.execute(spec(), buildOperation) }
 
         then:
         client.uses == 5
     }
 
+    def "records the action implementations that have been executed"() {
+        given:
+        client = client()
+
+        expect:
+        !client.hasExecuted(Runnable)
+
+        when:
+        client.execute(spec(), buildOperation)
+
+        then:
+        client.hasExecuted(Runnable)
+        !client.hasExecuted(Callable)
+    }
+
+    def "changes the log level of the underlying worker"() {
+        def workerDaemonProcess = Mock(WorkerDaemonProcess)
+
+        given:
+        client = client(workerDaemonProcess)
+
+        when:
+        client.setLogLevel(LogLevel.DEBUG)
+
+        then:
+        1 * workerDaemonProcess.setLogLevel(LogLevel.DEBUG)
+        client.logLevel == LogLevel.DEBUG
+    }
+
+    ActionExecutionSpec spec() {
+        return Stub(ActionExecutionSpec) {
+            getImplementationClass() >> Runnable
+        }
+    }
+
     WorkerDaemonClient client() {
         return client(Mock(WorkerDaemonProcess))
     }
@@ -59,6 +96,6 @@ class WorkerDaemonClientTest extends Specification {
     WorkerDaemonClient client(WorkerDaemonProcess workerDaemonProcess) {
         def daemonForkOptions = Mock(DaemonForkOptions)
         def workerProcess = workerDaemonProcess.start()
-        return new WorkerDaemonClient(daemonForkOptions, workerDaemonProcess, workerProcess, LogLevel.INFO)
+        return new WorkerDaemonClient(WorkerDaemonServer, daemonForkOptions, workerDaemonProcess, workerProcess, LogLevel.INFO)
     }
 }
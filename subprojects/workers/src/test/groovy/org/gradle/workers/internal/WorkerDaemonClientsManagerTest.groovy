@@ -19,6 +19,8 @@ package org.gradle.workers.internal
 import org.gradle.api.Transformer
 import org.gradle.api.logging.LogLevel
 import org.gradle.initialization.SessionLifecycleListener
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
 import org.gradle.internal.event.DefaultListenerManager
 import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.logging.LoggingManagerInternal
@@ -26,9 +28,12 @@ import org.gradle.internal.logging.events.LogLevelChangeEvent
 import org.gradle.internal.logging.events.OutputEventListener
 import org.gradle.process.internal.health.memory.MemoryManager
 import org.gradle.util.ConcurrentSpecification
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
 import spock.lang.Subject
 
 class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
+    @Rule SetSystemProperties systemProperties
 
     def workingDir = new File("some-dir")
 
@@ -38,12 +43,17 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
     def listenerManager = Stub(ListenerManager)
     def loggingManager = Stub(LoggingManagerInternal)
     def memoryManager = Mock(MemoryManager)
+    def executorFactory = Stub(ExecutorFactory) {
+        create(_) >> Stub(ManagedExecutor) {
+            execute(_) >> { Runnable runnable -> runnable.run() }
+        }
+    }
 
-    @Subject manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager)
+    @Subject manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, executorFactory)
 
     def "does not reserve idle client when no clients"() {
         expect:
-        manager.reserveIdleClient(options) == null
+        manager.reserveIdleClient(options, Runnable) == null
     }
 
     def "does not reserve idle client when no matching client found"() {
@@ -52,7 +62,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         }
 
         expect:
-        manager.reserveIdleClient(options, [noMatch]) == null
+        manager.reserveIdleClient(options, Runnable, [noMatch]) == null
     }
 
     def "reserves idle client when match found"() {
@@ -61,10 +71,23 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         def input = [noMatch, match]
 
         expect:
-        manager.reserveIdleClient(options, input) == match
+        manager.reserveIdleClient(options, Runnable, input) == match
         input == [noMatch] //match removed from input
     }
 
+    def "prefers idle client that has already executed the action implementation"() {
+        def compatible = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        def executedBefore = Stub(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            hasExecuted(Runnable) >> true
+        }
+        def input = [compatible, executedBefore]
+
+        expect:
+        manager.reserveIdleClient(options, Runnable, input) == executedBefore
+        input == [compatible]
+    }
+
     def "reserves new client"() {
         def newClient = Stub(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options) >> newClient
@@ -93,7 +116,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def "can stop session-scoped clients"() {
         listenerManager = new DefaultListenerManager()
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, executorFactory)
         def client1 = Mock(WorkerDaemonClient)
         def client2 = Mock(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options) >>> [client1, client2]
@@ -112,7 +135,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def "Stopping session-scoped clients does not stop other clients"() {
         listenerManager = new DefaultListenerManager()
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, executorFactory)
         def client1 = Mock(WorkerDaemonClient)
         def client2 = Mock(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options) >>> [client1, client2]
@@ -140,16 +163,16 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         manager.reserveNewClient(serverImpl.class, options)
 
         then:
-        manager.reserveIdleClient(options) == null
+        manager.reserveIdleClient(options, Runnable) == null
 
         when:
         manager.release(client)
 
         then:
-        manager.reserveIdleClient(options) == client
+        manager.reserveIdleClient(options, Runnable) == client
     }
 
-    def "clients are discarded when log level changes"() {
+    def "changes log level of idle clients when log level changes"() {
         OutputEventListener listener
         def client = Mock(WorkerDaemonClient) {
             isCompatibleWith(_) >> true
@@ -160,7 +183,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         loggingManager.getLevel() >> LogLevel.INFO
 
         when:
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, executorFactory)
 
         then:
         listener != null
@@ -173,13 +196,124 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
         when:
         listener.onOutput(Stub(LogLevelChangeEvent) { getNewLogLevel() >> LogLevel.QUIET })
-        def shouldBeNull = manager.reserveIdleClient(options)
+        def reserved = manager.reserveIdleClient(options, Runnable)
 
         then:
+        1 * client.setLogLevel(LogLevel.QUIET)
+        0 * client.stop()
+        reserved == client
+    }
+
+    def "clients are discarded when log level cannot be changed"() {
+        OutputEventListener listener
+        def client = Mock(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getLogLevel() >> LogLevel.INFO
+        }
+        starter.startDaemon(serverImpl.class, options) >> client
+        loggingManager.addOutputEventListener(_) >> { args  -> listener = args[0] }
+        loggingManager.getLevel() >> LogLevel.INFO
+
+        when:
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, executorFactory)
+        manager.reserveNewClient(serverImpl.class, options)
+        manager.release(client)
+        listener.onOutput(Stub(LogLevelChangeEvent) { getNewLogLevel() >> LogLevel.QUIET })
+        def shouldBeNull = manager.reserveIdleClient(options, Runnable)
+
+        then:
+        1 * client.setLogLevel(LogLevel.QUIET) >> { throw new RuntimeException("broken") }
         1 * client.stop()
         shouldBeNull == null
     }
 
+    def "does not hold the lock while changing the log level of a client"() {
+        OutputEventListener listener
+        def client = Mock(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getLogLevel() >> LogLevel.INFO
+        }
+        def other = Stub(WorkerDaemonClient)
+        starter.startDaemon(serverImpl.class, options) >> client
+        loggingManager.addOutputEventListener(_) >> { args  -> listener = args[0] }
+        loggingManager.getLevel() >> LogLevel.INFO
+
+        when:
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, executorFactory)
+        manager.reserveNewClient(serverImpl.class, options)
+        manager.release(client)
+        listener.onOutput(Stub(LogLevelChangeEvent) { getNewLogLevel() >> LogLevel.QUIET })
+        def reserved = manager.reserveIdleClient(options, Runnable)
+
+        then:
+        1 * client.setLogLevel(LogLevel.QUIET) >> {
+            def release = new Thread({ manager.release(other) })
+            release.start()
+            release.join(10000)
+            assert !release.alive
+        }
+        reserved == client
+    }
+
+    def "prestarts session-scoped clients used in the previous session"() {
+        System.setProperty(WorkerDaemonClientsManager.PRESTART_PROPERTY, "true")
+        listenerManager = new DefaultListenerManager()
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, executorFactory)
+        def client1 = Mock(WorkerDaemonClient)
+        def client2 = Mock(WorkerDaemonClient)
+        def prestarted = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        starter.startDaemon(serverImpl.class, options) >>> [client1, client2, prestarted]
+        def sessionLifecycleListener = listenerManager.getBroadcaster(SessionLifecycleListener)
+
+        when:
+        manager.reserveNewClient(serverImpl.class, options)
+        manager.reserveNewClient(serverImpl.class, options)
+        sessionLifecycleListener.beforeComplete()
+
+        then:
+        _ * client1.getKeepAliveMode() >> KeepAliveMode.SESSION
+        _ * client1.getUses() >> 1
+        _ * client1.getWorkerProtocolImplementationClass() >> serverImpl.class
+        _ * client1.getForkOptions() >> options
+        _ * client2.getKeepAliveMode() >> KeepAliveMode.SESSION
+        _ * client2.getUses() >> 0
+        1 * client1.stop()
+        1 * client2.stop()
+
+        when:
+        sessionLifecycleListener.afterStart()
+
+        then:
+        manager.reserveIdleClient(options, Runnable) == prestarted
+        manager.reserveIdleClient(options, Runnable) == null
+    }
+
+    def "does not prestart clients unless enabled"() {
+        def starter = Mock(WorkerDaemonStarter)
+        listenerManager = new DefaultListenerManager()
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, executorFactory)
+        def client = Stub(WorkerDaemonClient) {
+            getKeepAliveMode() >> KeepAliveMode.SESSION
+            getUses() >> 1
+            getWorkerProtocolImplementationClass() >> serverImpl.class
+            getForkOptions() >> options
+        }
+        def sessionLifecycleListener = listenerManager.getBroadcaster(SessionLifecycleListener)
+
+        when:
+        manager.reserveNewClient(serverImpl.class, options)
+        sessionLifecycleListener.beforeComplete()
+
+        then:
+        1 * starter.startDaemon(serverImpl.class, options) >> client
+
+        when:
+        sessionLifecycleListener.afterStart()
+
+        then:
+        0 * starter._
+    }
+
     def "prefers to stop less frequently used idle clients when releasing memory"() {
         def client1 = Mock(WorkerDaemonClient) { _ * getUses() >> 5 }
         def client2 = Mock(WorkerDaemonClient) { _ * getUses() >> 1 }
@@ -237,7 +371,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         WorkerDaemonExpiration workerDaemonExpiration
 
         when:
-        def manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager)
+        def manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, executorFactory)
 
         then:
         1 * memoryManager.addMemoryHolder(_) >> { args -> workerDaemonExpiration = args[0] }
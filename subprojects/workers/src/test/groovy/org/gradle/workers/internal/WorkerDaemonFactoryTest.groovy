@@ -32,7 +32,9 @@ class WorkerDaemonFactoryTest extends Specification {
 
     def workingDir = new File("some-dir")
     def options = Stub(DaemonForkOptions)
-    def spec = Stub(ActionExecutionSpec)
+    def spec = Stub(ActionExecutionSpec) {
+        getImplementationClass() >> Runnable
+    }
 
     def setup() {
         _ * buildOperationExecutor.getCurrentOperation() >> buildOperation
@@ -51,7 +53,7 @@ class WorkerDaemonFactoryTest extends Specification {
         factory.getWorker(options).execute(spec)
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> null
+        1 * clientsManager.reserveIdleClient(options, Runnable) >> null
 
         then:
         1 * clientsManager.reserveNewClient(WorkerDaemonServer.class, options) >> client
@@ -69,7 +71,7 @@ class WorkerDaemonFactoryTest extends Specification {
         factory.getWorker(options).execute(spec)
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveIdleClient(options, Runnable) >> client
 
         then:
         1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
@@ -84,7 +86,7 @@ class WorkerDaemonFactoryTest extends Specification {
         factory.getWorker(options).execute(spec)
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveIdleClient(options, Runnable) >> client
 
         then:
         1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
@@ -100,7 +102,7 @@ class WorkerDaemonFactoryTest extends Specification {
         factory.getWorker(options).execute(spec)
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveIdleClient(options, Runnable) >> client
         1 * buildOperationExecutor.call(_)
     }
 
@@ -109,7 +111,7 @@ class WorkerDaemonFactoryTest extends Specification {
         factory.getWorker(options).execute(spec)
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveIdleClient(options, Runnable) >> client
         1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
         1 * client.execute(spec) >> { throw new RuntimeException("Boo!") }
 